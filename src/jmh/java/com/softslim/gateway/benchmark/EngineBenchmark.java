@@ -0,0 +1,118 @@
+package com.softslim.gateway.benchmark;
+
+import com.softslim.gateway.SoapGatewayApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// mismo servicio atendido por el motor Camel y por el motor directo contra un backend local que responde al instante;
+// la diferencia medida es el coste propio del gateway: ./gradlew jmh
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(16)
+public class EngineBenchmark {
+    private static final byte[] BACKEND_BODY = "{\"id\":\"7\",\"nombre\":\"Ana\"}".getBytes(StandardCharsets.UTF_8);
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.benchService.";
+
+    @Param({"camel", "direct", "async"})
+    public String engine;
+
+    private HttpServer backend;
+    private ConfigurableApplicationContext gateway;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        backend = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        backend.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BACKEND_BODY.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(BACKEND_BODY);
+            }
+        });
+        backend.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        backend.start();
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("logging.level.com.softslim.gateway", "WARN");
+        properties.put("bridge-protocols.access-log.enabled", false);
+        properties.put("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", false);
+        properties.put("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", false);
+        properties.put(SERVICE + "soap-path", "/soap/benchService");
+        properties.put(SERVICE + "engine", engine);
+        properties.put(SERVICE + "rest.domain-path", "http://localhost:" + backend.getAddress().getPort() + "/api");
+        properties.put(SERVICE + "rest.http.version", "HTTP_1_1");
+        properties.put(SERVICE + "rest.paths[0].id", "getRecurso");
+        properties.put(SERVICE + "rest.paths[0].operation", "getRecurso");
+        properties.put(SERVICE + "rest.paths[0].path", "/recursos/${header.recursoId}");
+        gateway = new SpringApplicationBuilder(SoapGatewayApplication.class)
+            .profiles("dev")
+            .properties(properties)
+            .run();
+
+        int port = Integer.parseInt(gateway.getEnvironment().getProperty("local.server.port"));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/soap/benchService"))
+            .header("Content-Type", "text/xml")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/benchService\">" +
+                "<soapenv:Header/>" +
+                "<soapenv:Body><rec:getRecurso><recursoId>7</recursoId></rec:getRecurso></soapenv:Body>" +
+                "</soapenv:Envelope>"))
+            .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (gateway != null) {
+            gateway.close();
+        }
+        if (backend != null) {
+            backend.stop(0);
+        }
+    }
+
+    @Benchmark
+    public int getRecurso() throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Respuesta inesperada del gateway: " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,51 @@
+package com.softslim.gateway.actuator;
+
+import com.softslim.gateway.observability.FlightRecordingService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+    private static final int DEFAULT_DURATION_SECONDS = 60;
+
+    private final FlightRecordingService flightRecordingService;
+
+    public FlightRecorderEndpoint(FlightRecordingService flightRecordingService) {
+        this.flightRecordingService = flightRecordingService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return flightRecordingService.describe();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> start(@Nullable Integer durationSeconds) {
+        try {
+            return new WebEndpointResponse<>(
+                flightRecordingService.start(durationSeconds == null ? DEFAULT_DURATION_SECONDS : durationSeconds));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(Map.of("error", e.getMessage()), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Selector long id) {
+        Path file = flightRecordingService.dump(id);
+        if (file == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+    }
+}
@@ -0,0 +1,36 @@
+package com.softslim.gateway.actuator;
+
+import com.softslim.gateway.observability.RequestInspector;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "inflight")
+public class InflightEndpoint {
+    private final RequestInspector requestInspector;
+
+    public InflightEndpoint(RequestInspector requestInspector) {
+        this.requestInspector = requestInspector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> inflight() {
+        List<Map<String, Object>> inflight = requestInspector.inflight();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("count", inflight.size());
+        response.put("inflight", inflight);
+        response.put("routes", requestInspector.routes());
+        return response;
+    }
+
+    @ReadOperation
+    public Map<String, Object> route(@Selector String routeId) {
+        return requestInspector.route(routeId);
+    }
+}
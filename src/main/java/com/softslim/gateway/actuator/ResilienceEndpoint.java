@@ -0,0 +1,130 @@
+package com.softslim.gateway.actuator;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.service.BulkheadRegistry;
+import com.softslim.gateway.service.LoadSheddingService;
+import com.softslim.gateway.service.ResilienceRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "resilience")
+public class ResilienceEndpoint {
+    private final ResilienceRegistry resilienceRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final LoadSheddingService loadSheddingService;
+    private final boolean writeEnabled;
+
+    public ResilienceEndpoint(ResilienceRegistry resilienceRegistry, BulkheadRegistry bulkheadRegistry,
+                              LoadSheddingService loadSheddingService, BridgeConfiguration bridgeConfig) {
+        this.resilienceRegistry = resilienceRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.loadSheddingService = loadSheddingService;
+        this.writeEnabled = bridgeConfig.getResilienceAdmin().isWriteEnabled();
+    }
+
+    @ReadOperation
+    public Map<String, Object> routes(@Nullable Long since) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("routes", resilienceRegistry.describeRoutes());
+        response.put("bulkheads", bulkheadRegistry.describe());
+        response.put("loadShedding", loadSheddingService.describe());
+        response.put("events", resilienceRegistry.eventsSince(since == null ? 0L : since));
+        response.put("lastEventSequence", resilienceRegistry.lastEventSequence());
+        return response;
+    }
+
+    @ReadOperation
+    public Map<String, Object> route(@Selector String routeKey) {
+        return resilienceRegistry.describeRoute(routeKey);
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> update(
+        @Selector String routeKey,
+        @Nullable Integer failureRateThreshold,
+        @Nullable Long waitDurationInOpenState,
+        @Nullable Integer slidingWindowSize,
+        @Nullable Integer slowCallRateThreshold,
+        @Nullable Long slowCallDurationThreshold,
+        @Nullable Integer maxAttempts,
+        @Nullable Long backoff
+    ) {
+        if (!writeEnabled) {
+            return readOnly();
+        }
+        if (!resilienceRegistry.isKnownRoute(routeKey)) {
+            return error("Ruta sin resiliencia registrada: " + routeKey, 404);
+        }
+
+        boolean circuitBreakerChange = failureRateThreshold != null || waitDurationInOpenState != null
+            || slidingWindowSize != null || slowCallRateThreshold != null || slowCallDurationThreshold != null;
+        boolean retryChange = maxAttempts != null || backoff != null;
+        // sólo se ajusta lo que la ruta ya tiene activo; habilitarlo es un cambio de configuración
+        if (circuitBreakerChange && !resilienceRegistry.hasCircuitBreaker(routeKey)) {
+            return error("La ruta " + routeKey + " no tiene circuit breaker habilitado", 400);
+        }
+        if (retryChange && !resilienceRegistry.hasRetry(routeKey)) {
+            return error("La ruta " + routeKey + " no tiene retry habilitado", 400);
+        }
+
+        if (circuitBreakerChange) {
+            BridgeConfiguration.CircuitBreakerConfig settings = resilienceRegistry.currentCircuitBreakerSettings(routeKey);
+            if (failureRateThreshold != null) {
+                settings.setFailureRateThreshold(failureRateThreshold);
+            }
+            if (waitDurationInOpenState != null) {
+                settings.setWaitDurationInOpenState(waitDurationInOpenState);
+            }
+            if (slidingWindowSize != null) {
+                settings.setSlidingWindowSize(slidingWindowSize);
+            }
+            if (slowCallRateThreshold != null) {
+                settings.setSlowCallRateThreshold(slowCallRateThreshold);
+            }
+            if (slowCallDurationThreshold != null) {
+                settings.setSlowCallDurationThreshold(slowCallDurationThreshold);
+            }
+            resilienceRegistry.overrideCircuitBreaker(routeKey, settings);
+        }
+
+        if (retryChange) {
+            BridgeConfiguration.RetryConfig settings = resilienceRegistry.currentRetrySettings(routeKey);
+            if (maxAttempts != null) {
+                settings.setMaxAttempts(maxAttempts);
+            }
+            if (backoff != null) {
+                settings.setBackoff(backoff);
+            }
+            resilienceRegistry.overrideRetry(routeKey, settings);
+        }
+
+        return new WebEndpointResponse<>(resilienceRegistry.describeRoute(routeKey));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Map<String, Object>> reset(@Selector String routeKey) {
+        if (!writeEnabled) {
+            return readOnly();
+        }
+        resilienceRegistry.clearOverrides(routeKey);
+        return new WebEndpointResponse<>(resilienceRegistry.describeRoute(routeKey));
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> readOnly() {
+        return error("Endpoint de resiliencia en sólo lectura: habilitar bridge-protocols.resilience-admin.write-enabled", 403);
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> error(String message, int status) {
+        return new WebEndpointResponse<>(Map.of("error", message), status);
+    }
+}
@@ -0,0 +1,31 @@
+package com.softslim.gateway.config;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.service.CorrelationIdGenerator;
+import com.softslim.gateway.service.UlidGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+import java.util.UUID;
+
+@Slf4j
+@Configuration
+public class CorrelationConfig {
+
+    // "uuid" conserva el formato anterior (UUID v4 con SecureRandom)
+    @Bean
+    @ConditionalOnMissingBean(CorrelationIdGenerator.class)
+    public CorrelationIdGenerator correlationIdGenerator(BridgeConfiguration bridgeConfig) {
+        String generator = bridgeConfig.getCorrelation().getGenerator();
+        String normalized = generator == null ? "ulid" : generator.trim().toLowerCase(Locale.ROOT);
+        log.info("Generador de CorrelationId: {}", normalized);
+        return switch (normalized) {
+            case "ulid" -> new UlidGenerator();
+            case "uuid" -> () -> UUID.randomUUID().toString();
+            default -> throw new IllegalArgumentException("Generador de CorrelationId no soportado: " + generator + " (ulid, uuid)");
+        };
+    }
+}
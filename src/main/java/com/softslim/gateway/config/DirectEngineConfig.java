@@ -0,0 +1,52 @@
+package com.softslim.gateway.config;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.processor.SoapFaultProcessor;
+import com.softslim.gateway.routes.DirectSoapServlet;
+import com.softslim.gateway.routes.GatewaySteps;
+import com.softslim.gateway.service.AsyncRestInvocationService;
+import com.softslim.gateway.service.IdempotencyService;
+import com.softslim.gateway.service.RateLimitService;
+import com.softslim.gateway.service.ResponseCacheService;
+import com.softslim.gateway.service.RestInvocationService;
+import com.softslim.gateway.service.UpstreamBalancer;
+import org.apache.camel.CamelContext;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DirectEngineConfig {
+
+    // bean propio para que el warm-up recorra también los servicios de los motores directo y async
+    @Bean
+    public DirectSoapServlet directSoapEngine(
+        BridgeConfiguration bridgeConfig,
+        GatewaySteps steps,
+        SoapFaultProcessor soapFaultProcessor,
+        RestInvocationService restInvocationService,
+        AsyncRestInvocationService asyncRestInvocationService,
+        ResponseCacheService responseCacheService,
+        IdempotencyService idempotencyService,
+        RateLimitService rateLimitService,
+        UpstreamBalancer upstreamBalancer,
+        CamelContext camelContext
+    ) {
+        return new DirectSoapServlet(bridgeConfig, steps, soapFaultProcessor, restInvocationService,
+            asyncRestInvocationService, responseCacheService, idempotencyService, rateLimitService, upstreamBalancer, camelContext);
+    }
+
+    // mapeos exactos por soap-path: el contenedor los prefiere al /* del servlet de Camel
+    @Bean
+    public ServletRegistrationBean<DirectSoapServlet> directSoapServlet(DirectSoapServlet servlet) {
+        ServletRegistrationBean<DirectSoapServlet> registration =
+            new ServletRegistrationBean<>(servlet, servlet.soapPaths().toArray(String[]::new));
+        registration.setName("DirectSoapServlet");
+        registration.setLoadOnStartup(1);
+        // necesario para los servicios con engine async; los direct no lo usan
+        registration.setAsyncSupported(true);
+        // sin servicios en modo directo no se registra: un mapeo vacío tomaría "/"
+        registration.setEnabled(!servlet.soapPaths().isEmpty());
+        return registration;
+    }
+}
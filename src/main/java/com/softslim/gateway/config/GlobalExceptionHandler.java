@@ -4,6 +4,7 @@ import com.softslim.gateway.service.GlobalExceptionHandlerService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -17,6 +18,10 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleException(Exception exception, HttpServletRequest request) {
+        // errores de Spring MVC con status propio, como el 404 de un endpoint del actuator no expuesto
+        if (exception instanceof ErrorResponse errorResponse) {
+            return ResponseEntity.status(errorResponse.getStatusCode()).build();
+        }
         String correlationId = request.getHeader("CorrelationId");
         String resolved = globalExceptionHandlerService.handle(exception, correlationId);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
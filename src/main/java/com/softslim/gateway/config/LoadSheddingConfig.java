@@ -0,0 +1,50 @@
+package com.softslim.gateway.config;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.service.LoadSheddingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "bridge-protocols.load-shedding", name = "enabled", havingValue = "true")
+public class LoadSheddingConfig {
+    private final List<QueueDelayExecutor> executors = new CopyOnWriteArrayList<>();
+
+    // mismos hilos y prefijo del conector que el executor que crearía Tomcat; la cola máxima es propia del gateway
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> queueDelayProtocolCustomizer(
+        ServerProperties serverProperties,
+        BridgeConfiguration bridgeConfig,
+        LoadSheddingService loadSheddingService
+    ) {
+        ServerProperties.Tomcat.Threads threads = serverProperties.getTomcat().getThreads();
+        int maxQueueCapacity = bridgeConfig.getLoadShedding().getMaxQueueCapacity();
+        return protocol -> {
+            String name = protocol instanceof AbstractProtocol<?> abstractProtocol
+                ? abstractProtocol.getName().replace("\"", "")
+                : "http";
+            QueueDelayExecutor executor = QueueDelayExecutor.create(name + "-exec-", threads.getMinSpare(), threads.getMax(),
+                maxQueueCapacity, loadSheddingService::recordQueueDelay);
+            executors.add(executor);
+            protocol.setExecutor(executor);
+            log.info("Descarte por prioridad activo en {}: {} hilos de Tomcat con medición de espera en cola", name, threads.getMax());
+        };
+    }
+
+    // Tomcat no cierra un executor externo: se cierra al destruir el contexto, con el servidor ya parado
+    @PreDestroy
+    public void shutdown() {
+        executors.forEach(QueueDelayExecutor::shutdownNow);
+    }
+}
@@ -0,0 +1,41 @@
+package com.softslim.gateway.config;
+
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+// mismo pool que crea Tomcat por defecto, pero anota cuánto espera cada petición en cola hasta tener hilo
+public class QueueDelayExecutor extends ThreadPoolExecutor {
+    private final LongConsumer queueDelay;
+
+    private QueueDelayExecutor(String namePrefix, int minSpareThreads, int maxThreads, TaskQueue queue, LongConsumer queueDelay) {
+        super(minSpareThreads, maxThreads, 60, TimeUnit.SECONDS, queue, new TaskThreadFactory(namePrefix, true, Thread.NORM_PRIORITY));
+        this.queueDelay = queueDelay;
+    }
+
+    public static QueueDelayExecutor create(
+        String namePrefix,
+        int minSpareThreads,
+        int maxThreads,
+        int maxQueueCapacity,
+        LongConsumer queueDelay
+    ) {
+        // con la cola llena Tomcat rechaza la conexión, igual que sin el executor propio
+        TaskQueue queue = new TaskQueue(maxQueueCapacity);
+        QueueDelayExecutor executor = new QueueDelayExecutor(namePrefix, minSpareThreads, maxThreads, queue, queueDelay);
+        queue.setParent(executor);
+        return executor;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long enqueued = System.nanoTime();
+        super.execute(() -> {
+            queueDelay.accept(System.nanoTime() - enqueued);
+            command.run();
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.softslim.gateway.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class TracingConfig {
+
+    // exportador a archivo/log en formato OTLP JSON para entornos sin colector
+    @Bean
+    @ConditionalOnProperty(prefix = "bridge-protocols.tracing", name = "log-exporter", havingValue = "true")
+    public SpanExporter otlpJsonLoggingSpanExporter() {
+        log.info("Exportando trazas como OTLP JSON en el logger {}", OtlpJsonLoggingSpanExporter.class.getName());
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,7 @@
+package com.softslim.gateway.exception;
+
+public class DeadlineExceededException extends ApiInvocationException {
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(504, message, "text/plain", cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.softslim.gateway.exception;
+
+public class StreamLimitExceededException extends ApiInvocationException {
+    public StreamLimitExceededException(String routeKey) {
+        super(503, "Límite de streams concurrentes alcanzado para " + routeKey, "text/plain", null);
+    }
+}
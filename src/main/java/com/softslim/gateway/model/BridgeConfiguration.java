@@ -5,6 +5,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -19,15 +21,45 @@ public class BridgeConfiguration {
     private Map<String, EndpointClient> endpointsClients;
 
     private Resilience globalResilience;
+
+    private Warmup warmup = new Warmup();
+
+    private Batch batch = new Batch();
+
+    private AccessLog accessLog = new AccessLog();
+
+    private Inspector inspector = new Inspector();
+
+    private FlightRecorder flightRecorder = new FlightRecorder();
+
+    private ResilienceAdmin resilienceAdmin = new ResilienceAdmin();
+
+    private TrafficCapture trafficCapture = new TrafficCapture();
+
+    private ResponseCache responseCache = new ResponseCache();
+
+    private IdempotencyStore idempotency = new IdempotencyStore();
+
+    private LoadShedding loadShedding = new LoadShedding();
+
+    private String deadlineHeader = "X-Request-Timeout";
+
+    private Correlation correlation = new Correlation();
     
     @Data
     public static class EndpointClient {
         private String version;
         private String soapPath;
+        private String engine = "camel";
+        // sólo engine async: tiempo máximo de la petición en el contexto asíncrono del contenedor (ms)
+        private long asyncTimeout = 60000;
+        private String priority;
         private Routing routing;
         private RestConfiguration rest;
         private Security security;
         private Resilience resilience;
+        private RateLimit rateLimit;
+        private BulkheadConfig bulkhead;
     }
     
     @Data
@@ -38,7 +70,44 @@ public class BridgeConfiguration {
     @Data
     public static class RestConfiguration {
         private String domainPath;
-        private java.util.List<RestPath> paths;
+        private List<Upstream> upstreams;
+        private LoadBalancing loadBalancing = new LoadBalancing();
+        private HttpClientSettings http = new HttpClientSettings();
+        private List<RestPath> paths;
+    }
+
+    @Data
+    public static class HttpClientSettings {
+        private String version = "HTTP_2";
+        private int connectTimeout = 5000;
+        // sin valor: 100 por ruta, 1000 con engine async
+        private Integer maxStreams;
+    }
+
+    @Data
+    public static class Upstream {
+        private String name;
+        private String url;
+        private int weight = 1;
+    }
+
+    @Data
+    public static class LoadBalancing {
+        private String strategy = "least-outstanding";
+        private int consecutiveErrors = 5;
+        private double latencyOutlierFactor = 3.0;
+        private long minOutlierLatency = 200;
+        private long ejectionDuration = 30000;
+        private int maxEjectionPercent = 50;
+        private HealthCheck healthCheck;
+    }
+
+    @Data
+    public static class HealthCheck {
+        private boolean enabled = false;
+        private String path = "/health";
+        private long interval = 10000;
+        private int timeout = 2000;
     }
     
     @Data
@@ -50,6 +119,48 @@ public class BridgeConfiguration {
         private Integer timeout = 5000;
         private Map<String, String> headers;
         private Resilience resilience;
+        private List<CompositeLeg> composite;
+        private Integer maxStreams;
+        private RateLimit rateLimit;
+        private Long cacheTtl;
+        private boolean persistentCache = false;
+        private Long deadline;
+        private String dataMode = "converted";
+        private Idempotency idempotency;
+        private String priority;
+    }
+
+    @Data
+    public static class Idempotency {
+        private boolean enabled = true;
+        private String key;
+        private long ttl = 86400;
+        // sin key explícita dos escrituras legítimas iguales comparten digest: sólo se cubren reintentos cercanos
+        private long digestTtl = 60;
+        private long waitTimeout = 30000;
+    }
+
+    @Data
+    public static class RateLimit {
+        private boolean enabled = true;
+        private double permitsPerSecond = 0;
+        private Integer burst;
+        private double consumerPermitsPerSecond = 0;
+        private Integer consumerBurst;
+        private String consumerSource = "header";
+        private String consumerHeader = "X-Consumer-Id";
+        private int maxConsumers = 10000;
+    }
+
+    @Data
+    public static class CompositeLeg {
+        private String name;
+        private String path;
+        private String method;
+        private Integer timeout = 5000;
+        private Map<String, String> headers;
+        private List<String> dependsOn;
+        private boolean optional = false;
     }
     
     @Data
@@ -73,6 +184,11 @@ public class BridgeConfiguration {
         private boolean enabled = false;
         private String username;
         private String password;
+        private String passwordType = "any";
+        private long maxClockSkew = 300000;
+        private int nonceCacheCapacity = 65536;
+        // si se indica, la capacidad se dimensiona como TPS × 2 × maxClockSkew
+        private int expectedTps = 0;
     }
     
     @Data
@@ -97,11 +213,104 @@ public class BridgeConfiguration {
         private long backoff = 2000;
     }
     
+    @Data
+    public static class BulkheadConfig {
+        private boolean enabled = false;
+        private int maxConcurrentCalls = 50;
+        private long maxWait = 0;
+    }
+
     @Data
     public static class CircuitBreakerConfig {
         private boolean enabled = false;
         private int failureRateThreshold = 50;
         private long waitDurationInOpenState = 10000;
         private int slidingWindowSize = 10;
+        private int slowCallRateThreshold = 100;
+        private long slowCallDurationThreshold = 60000;
+    }
+
+    @Data
+    public static class Warmup {
+        private boolean enabled = false;
+        private int connectionsPerUpstream = 4;
+        private String connectionPath = "";
+        private int connectTimeout = 3000;
+        private int iterations = 200;
+    }
+
+    @Data
+    public static class Batch {
+        private boolean enabled = true;
+        private int maxItems = 50;
+        private int maxParallelism = 8;
+        private long itemTimeout = 10000;
+    }
+
+    @Data
+    public static class AccessLog {
+        private boolean enabled = true;
+        private int capacity = 8192;
+        private double successSampleRate = 1.0;
+    }
+
+    @Data
+    public static class Inspector {
+        private boolean enabled = true;
+        private int windowSeconds = 60;
+        private int intervalSeconds = 10;
+        private int slowRequests = 20;
+        private long slowThreshold = 500;
+    }
+
+    @Data
+    public static class FlightRecorder {
+        private boolean enabled = true;
+        private String settings = "profile";
+        private int maxDurationSeconds = 300;
+        private String directory;
+    }
+
+    @Data
+    public static class ResilienceAdmin {
+        // POST/DELETE de /actuator/resilience cambian la resiliencia en caliente: sólo con puerto de gestión interno
+        private boolean writeEnabled = false;
+    }
+
+    @Data
+    public static class TrafficCapture {
+        private boolean enabled = false;
+        private String file = "traffic-capture.bin";
+        private double sampleRate = 0.01;
+        private long maxBytes = 268435456L;
+        private int queueCapacity = 1024;
+        private List<String> redactFields = new ArrayList<>();
+    }
+
+    @Data
+    public static class Correlation {
+        private String generator = "ulid";
+    }
+
+    @Data
+    public static class ResponseCache {
+        private int memoryMaxEntries = 1000;
+        private String directory;
+        private long maxDiskBytes = 1073741824L;
+        private int segmentBytes = 67108864;
+    }
+
+    @Data
+    public static class IdempotencyStore {
+        private int maxEntries = 10000;
+    }
+
+    @Data
+    public static class LoadShedding {
+        private boolean enabled = false;
+        private long target = 5;
+        private long interval = 100;
+        // cola de conexiones aceptadas a la espera de hilo; por defecto ilimitada como en Tomcat
+        private int maxQueueCapacity = Integer.MAX_VALUE;
     }
 }
@@ -0,0 +1,53 @@
+package com.softslim.gateway.observability;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public final class AccessLogRingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public AccessLogRingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    // varios productores: reservan posición con CAS sobre tail y publican con lazySet
+    public boolean offer(T element) {
+        while (true) {
+            long currentTail = tail.get();
+            if (currentTail - head >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(currentTail, currentTail + 1)) {
+                slots.lazySet((int) (currentTail & mask), element);
+                return true;
+            }
+        }
+    }
+
+    // un único consumidor
+    public T poll() {
+        long currentHead = head;
+        int index = (int) (currentHead & mask);
+        T element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head = currentHead + 1;
+        return element;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
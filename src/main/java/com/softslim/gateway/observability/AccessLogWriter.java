@@ -0,0 +1,212 @@
+package com.softslim.gateway.observability;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.StreamCache;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Component
+public class AccessLogWriter {
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("gateway.access");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final BridgeConfiguration.AccessLog settings;
+    private final GatewayTracing gatewayTracing;
+    private final AccessLogRingBuffer<AccessLogRecord> buffer;
+    private final Counter dropped;
+    private final Counter sampledOut;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public AccessLogWriter(BridgeConfiguration bridgeConfig, MeterRegistry meterRegistry, GatewayTracing gatewayTracing) {
+        this.settings = bridgeConfig.getAccessLog();
+        this.gatewayTracing = gatewayTracing;
+        this.buffer = new AccessLogRingBuffer<>(settings.getCapacity());
+        this.dropped = Counter.builder("gateway.access.log.dropped").register(meterRegistry);
+        this.sampledOut = Counter.builder("gateway.access.log.sampled.out").register(meterRegistry);
+        Gauge.builder("gateway.access.log.pending", buffer, AccessLogRingBuffer::size).register(meterRegistry);
+        this.writerThread = new Thread(this::drainLoop, "access-log-writer");
+        this.writerThread.setDaemon(true);
+        if (settings.isEnabled()) {
+            this.writerThread.start();
+        }
+    }
+
+    public void begin(Exchange exchange, String serviceName) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        RequestTimeline timeline = RequestTimeline.begin(exchange, serviceName);
+        exchange.getExchangeExtension().addOnCompletion(new SynchronizationAdapter() {
+            @Override
+            public void onDone(Exchange completed) {
+                if (timeline.ownedBy(completed)) {
+                    publish(completed, timeline);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(Exchange exchange, RequestTimeline timeline) {
+        int status = exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class);
+        boolean successful = status < 400 && exchange.getException() == null;
+        if (successful && settings.getSuccessSampleRate() < 1.0
+            && ThreadLocalRandom.current().nextDouble() >= settings.getSuccessSampleRate()) {
+            sampledOut.increment();
+            return;
+        }
+
+        // sólo se capturan referencias; el formateo y el cálculo de tamaños ocurren en el hilo escritor
+        AccessLogRecord record = new AccessLogRecord(
+            timeline,
+            timeline.elapsedNanos(),
+            exchange.getProperty("CorrelationId", String.class),
+            gatewayTracing.traceId(exchange),
+            exchange.getMessage().getHeader("SoapOperation", String.class),
+            status,
+            exchange.getMessage().getBody()
+        );
+        if (!buffer.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(512);
+        while (running || buffer.size() > 0) {
+            AccessLogRecord record = buffer.poll();
+            if (record == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                line.setLength(0);
+                format(record, line);
+                ACCESS_LOG.info(line.toString());
+            } catch (Exception e) {
+                log.debug("No fue posible escribir registro de acceso", e);
+            }
+        }
+    }
+
+    private void format(AccessLogRecord record, StringBuilder line) {
+        RequestTimeline timeline = record.timeline();
+        line.append("{\"timestamp\":\"").append(Instant.ofEpochMilli(timeline.startedAtMillis())).append('"');
+        appendString(line, "correlationId", record.correlationId());
+        appendString(line, "traceId", record.traceId());
+        appendString(line, "service", timeline.serviceName());
+        appendString(line, "operation", record.operation());
+        line.append(",\"status\":").append(record.status());
+        if (timeline.backendStatus() > 0) {
+            line.append(",\"backendStatus\":").append(timeline.backendStatus());
+        }
+        line.append(",\"durationMs\":").append(millis(record.elapsedNanos()));
+        line.append(",\"stagesMs\":{");
+        GatewayStage[] stages = GatewayStage.values();
+        for (int i = 0; i < stages.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append('"').append(stages[i].key()).append("\":").append(millis(timeline.stageNanos(stages[i])));
+        }
+        line.append('}');
+        if (timeline.requestBytes() >= 0) {
+            line.append(",\"requestBytes\":").append(timeline.requestBytes());
+        }
+        line.append(",\"responseBytes\":").append(sizeOf(record.responseBody()));
+        line.append('}');
+    }
+
+    private void appendString(StringBuilder line, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    private String millis(long nanos) {
+        return String.valueOf(Math.round(nanos / 10_000.0) / 100.0);
+    }
+
+    static long sizeOf(Object body) {
+        if (body == null) {
+            return 0;
+        }
+        if (body instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (body instanceof String text) {
+            return utf8Length(text);
+        }
+        if (body instanceof StreamCache cache) {
+            return cache.length();
+        }
+        return -1;
+    }
+
+    private static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private record AccessLogRecord(
+        RequestTimeline timeline,
+        long elapsedNanos,
+        String correlationId,
+        String traceId,
+        String operation,
+        int status,
+        Object responseBody
+    ) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.softslim.gateway.observability;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// una única grabación JFR acotada en el tiempo; la siguiente descarta la anterior y su fichero
+@Slf4j
+@Component
+public class FlightRecordingService {
+    // variables de entorno, propiedades de sistema y argumentos de JVM o de procesos pueden llevar secretos OAuth2
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+        "jdk.InitialEnvironmentVariable",
+        "jdk.InitialSystemProperty",
+        "jdk.JVMInformation",
+        "jdk.SystemProcess"
+    );
+
+    private final BridgeConfiguration.FlightRecorder settings;
+    private Recording recording;
+    private Path destination;
+
+    public FlightRecordingService(BridgeConfiguration bridgeConfig) {
+        this.settings = bridgeConfig.getFlightRecorder();
+    }
+
+    public synchronized Map<String, Object> start(int durationSeconds) {
+        if (!settings.isEnabled()) {
+            throw new IllegalArgumentException("Grabaciones JFR deshabilitadas");
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalArgumentException("Ya hay una grabación JFR en curso: " + recording.getId());
+        }
+        if (durationSeconds <= 0 || durationSeconds > settings.getMaxDurationSeconds()) {
+            throw new IllegalArgumentException("Duración de grabación fuera de rango (1-" + settings.getMaxDurationSeconds() + " s)");
+        }
+        discard();
+
+        try {
+            // "profile" incluye muestreo de asignaciones y contención de monitores
+            Recording started = new Recording(Configuration.getConfiguration(settings.getSettings()));
+            started.enable(GatewayStageEvent.class);
+            SENSITIVE_EVENTS.forEach(started::disable);
+            started.setName("gateway-" + Instant.now().toEpochMilli());
+            started.setToDisk(true);
+            started.setDuration(Duration.ofSeconds(durationSeconds));
+            Path file = Files.createTempFile(directory(), started.getName() + "-", ".jfr");
+            started.setDestination(file);
+            started.start();
+            recording = started;
+            destination = file;
+            log.info("Grabación JFR {} iniciada durante {} s en {}", started.getId(), durationSeconds, file);
+            return describe();
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("No fue posible iniciar la grabación JFR: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("enabled", settings.isEnabled());
+        description.put("maxDurationSeconds", settings.getMaxDurationSeconds());
+        if (recording != null) {
+            description.put("id", recording.getId());
+            description.put("name", recording.getName());
+            description.put("state", recording.getState().name());
+            description.put("startedAt", recording.getStartTime() == null ? null : recording.getStartTime().toString());
+            description.put("durationSeconds", recording.getDuration() == null ? null : recording.getDuration().toSeconds());
+        }
+        return description;
+    }
+
+    // con la grabación en curso se vuelca lo capturado hasta ahora sin detenerla
+    public synchronized Path dump(long id) {
+        if (recording == null || recording.getId() != id) {
+            return null;
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                Path snapshot = snapshotPath();
+                recording.dump(snapshot);
+                return snapshot;
+            }
+            return Files.exists(destination) ? destination : null;
+        } catch (IOException e) {
+            throw new IllegalStateException("No fue posible volcar la grabación JFR " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        discard();
+    }
+
+    private void discard() {
+        if (recording == null) {
+            return;
+        }
+        recording.close();
+        try {
+            Files.deleteIfExists(destination);
+            Files.deleteIfExists(snapshotPath());
+        } catch (IOException e) {
+            log.warn("No fue posible borrar la grabación JFR {}: {}", destination, e.getMessage());
+        }
+        recording = null;
+        destination = null;
+    }
+
+    private Path snapshotPath() {
+        return destination.resolveSibling(recording.getName() + "-snapshot.jfr");
+    }
+
+    private Path directory() throws IOException {
+        Path directory = Path.of(settings.getDirectory() == null || settings.getDirectory().isBlank()
+            ? System.getProperty("java.io.tmpdir")
+            : settings.getDirectory());
+        return Files.createDirectories(directory);
+    }
+}
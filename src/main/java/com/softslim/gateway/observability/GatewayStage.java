@@ -0,0 +1,18 @@
+package com.softslim.gateway.observability;
+
+public enum GatewayStage {
+    PARSE("parse"),
+    PREPARE("prepare"),
+    BACKEND("backend"),
+    RENDER("render");
+
+    private final String key;
+
+    GatewayStage(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+}
@@ -0,0 +1,60 @@
+package com.softslim.gateway.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.apache.camel.Exchange;
+
+// sin grabación activa begin/end/shouldCommit son comprobaciones de un flag; los campos sólo se rellenan al confirmar
+@Name(GatewayStageEvent.NAME)
+@Label("Gateway Stage")
+@Category({"SoftSlim", "Gateway"})
+@Description("Duración de una etapa del gateway SOAP-REST")
+@StackTrace(false)
+public class GatewayStageEvent extends Event {
+    public static final String NAME = "com.softslim.gateway.Stage";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Service")
+    String service;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Correlation Id")
+    String correlationId;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Status")
+    int status;
+
+    public static GatewayStageEvent start() {
+        GatewayStageEvent event = new GatewayStageEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(Exchange exchange, String stageKey) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        RequestTimeline timeline = RequestTimeline.current(exchange);
+        stage = stageKey;
+        service = timeline != null ? timeline.serviceName() : null;
+        operation = exchange.getIn().getHeader("SoapOperation", String.class);
+        correlationId = exchange.getProperty("CorrelationId", String.class);
+        bytes = AccessLogWriter.sizeOf(exchange.getIn().getBody());
+        status = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, 0, Integer.class);
+        commit();
+    }
+}
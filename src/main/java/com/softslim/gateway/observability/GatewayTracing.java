@@ -0,0 +1,108 @@
+package com.softslim.gateway.observability;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+@Component
+public class GatewayTracing {
+    public static final String SPAN_PROPERTY = "GatewaySpan";
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public GatewayTracing(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator) {
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+    }
+
+    public void startRequest(Exchange exchange, String serviceName) {
+        // continúa la traza del cliente SOAP si envía traceparent; el muestreo se decide aquí (head sampling)
+        Span span = propagator.extract(exchange.getIn(), (message, key) -> message.getHeader(key, String.class))
+            .name("soap " + serviceName)
+            .kind(Span.Kind.SERVER)
+            .start();
+        span.tag("gateway.service", serviceName);
+        exchange.setProperty(SPAN_PROPERTY, span);
+        String exchangeId = exchange.getExchangeId();
+        exchange.getExchangeExtension().addOnCompletion(new SynchronizationAdapter() {
+            @Override
+            public void onDone(Exchange completed) {
+                if (exchangeId.equals(completed.getExchangeId())) {
+                    endRequest(completed, span);
+                }
+            }
+        });
+    }
+
+    private void endRequest(Exchange exchange, Span span) {
+        String operation = exchange.getMessage().getHeader("SoapOperation", String.class);
+        if (operation != null) {
+            span.tag("gateway.operation", operation);
+        }
+        String correlationId = exchange.getProperty("CorrelationId", String.class);
+        if (correlationId != null) {
+            span.tag("gateway.correlation_id", correlationId);
+        }
+        int status = exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class);
+        span.tag("http.status_code", String.valueOf(status));
+        if (exchange.getException() != null) {
+            span.error(exchange.getException());
+        }
+        span.end();
+    }
+
+    public Span startChild(Exchange exchange, String name) {
+        Span parent = exchange.getProperty(SPAN_PROPERTY, Span.class);
+        if (parent == null) {
+            return Span.NOOP;
+        }
+        return tracer.nextSpan(parent).name(name).start();
+    }
+
+    public void trace(Exchange exchange, String name, Processor processor) throws Exception {
+        trace(exchange, name, () -> {
+            processor.process(exchange);
+            return null;
+        });
+    }
+
+    public <T> T trace(Exchange exchange, String name, Callable<T> work) throws Exception {
+        Span span = startChild(exchange, name);
+        Object previous = exchange.getProperty(SPAN_PROPERTY);
+        if (span != Span.NOOP) {
+            exchange.setProperty(SPAN_PROPERTY, span);
+        }
+        try {
+            return work.call();
+        } catch (Exception e) {
+            span.error(e);
+            throw e;
+        } finally {
+            if (span != Span.NOOP) {
+                exchange.setProperty(SPAN_PROPERTY, previous);
+            }
+            span.end();
+        }
+    }
+
+    public void inject(Span span, BiConsumer<String, String> headers) {
+        if (span == Span.NOOP) {
+            return;
+        }
+        propagator.inject(span.context(), headers, (carrier, key, value) -> carrier.accept(key, value));
+    }
+
+    public String traceId(Exchange exchange) {
+        Span span = exchange.getProperty(SPAN_PROPERTY, Span.class);
+        return span == null || span == Span.NOOP ? null : span.context().traceId();
+    }
+}
@@ -0,0 +1,135 @@
+package com.softslim.gateway.observability;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class RequestInspector {
+    private final BridgeConfiguration.Inspector settings;
+    private final Map<String, RequestTimeline> inflight = new ConcurrentHashMap<>();
+    private final Map<String, RouteLatencyStats> routes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService rotationScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "request-inspector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RequestInspector(BridgeConfiguration bridgeConfig) {
+        this.settings = bridgeConfig.getInspector();
+        if (settings.isEnabled()) {
+            long interval = Math.max(1, settings.getIntervalSeconds());
+            rotationScheduler.scheduleAtFixedRate(this::rotate, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    public void begin(Exchange exchange, String serviceName) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        RequestTimeline timeline = RequestTimeline.begin(exchange, serviceName);
+        inflight.put(timeline.exchangeId(), timeline);
+        exchange.getExchangeExtension().addOnCompletion(new SynchronizationAdapter() {
+            @Override
+            public void onDone(Exchange completed) {
+                if (timeline.ownedBy(completed)) {
+                    complete(completed, timeline);
+                }
+            }
+        });
+    }
+
+    public List<Map<String, Object>> inflight() {
+        return inflight.values().stream()
+            .sorted(Comparator.comparingLong(RequestTimeline::elapsedNanos).reversed())
+            .map(this::describe)
+            .toList();
+    }
+
+    public Map<String, Object> routes() {
+        Map<String, Object> description = new TreeMap<>();
+        routes.forEach((routeId, stats) -> description.put(routeId, stats.describe()));
+        return description;
+    }
+
+    public Map<String, Object> route(String routeId) {
+        RouteLatencyStats stats = routes.get(routeId);
+        if (stats == null) {
+            return null;
+        }
+        Map<String, Object> description = new LinkedHashMap<>(stats.describe());
+        description.put("slowest", stats.slowest());
+        return description;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rotationScheduler.shutdownNow();
+    }
+
+    private void complete(Exchange exchange, RequestTimeline timeline) {
+        inflight.remove(timeline.exchangeId());
+        long elapsedNanos = timeline.elapsedNanos();
+        int status = exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class);
+        String routeId = routeId(timeline);
+        RouteLatencyStats stats = routes.computeIfAbsent(routeId, key -> new RouteLatencyStats(
+            settings.getWindowSeconds(), settings.getIntervalSeconds(), settings.getSlowRequests(), settings.getSlowThreshold()));
+        stats.record(elapsedNanos, status >= 400 || exchange.getException() != null);
+        if (stats.isSlow(elapsedNanos)) {
+            Map<String, Object> detail = describe(timeline);
+            detail.put("status", status);
+            stats.offerSlow(elapsedNanos, detail);
+        }
+    }
+
+    private void rotate() {
+        try {
+            routes.values().forEach(RouteLatencyStats::rotate);
+        } catch (RuntimeException e) {
+            log.warn("No fue posible rotar las estadísticas por ruta: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Object> describe(RequestTimeline timeline) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("exchangeId", timeline.exchangeId());
+        description.put("service", timeline.serviceName());
+        description.put("routeId", routeId(timeline));
+        description.put("operation", timeline.operation());
+        description.put("correlationId", timeline.correlationId());
+        description.put("stage", timeline.currentStage() == null ? null : timeline.currentStage().key());
+        description.put("startedAt", Instant.ofEpochMilli(timeline.startedAtMillis()).toString());
+        description.put("elapsedMillis", millis(timeline.elapsedNanos()));
+        description.put("backendUrl", timeline.backendUrl());
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (GatewayStage stage : GatewayStage.values()) {
+            stages.put(stage.key(), millis(timeline.stageNanos(stage)));
+        }
+        description.put("stagesMillis", stages);
+        return description;
+    }
+
+    private String routeId(RequestTimeline timeline) {
+        return timeline.routeId() != null ? timeline.routeId() : "soap-in-" + timeline.serviceName();
+    }
+
+    private double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
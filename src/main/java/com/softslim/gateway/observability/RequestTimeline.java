@@ -0,0 +1,143 @@
+package com.softslim.gateway.observability;
+
+import org.apache.camel.Exchange;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class RequestTimeline {
+    public static final String PROPERTY = "GatewayRequestTimeline";
+
+    private final String exchangeId;
+    private final String serviceName;
+    private final long requestBytes;
+    private final long startedAtMillis;
+    private final long startedAtNanos;
+    // las copias de exchange (lotes, operaciones compuestas) comparten el timeline y acumulan por etapa
+    private final AtomicLongArray stageNanos = new AtomicLongArray(GatewayStage.values().length);
+    private volatile int backendStatus;
+    // estado en vivo para el inspector de peticiones en curso
+    private volatile GatewayStage currentStage;
+    private volatile String routeId;
+    private volatile String operation;
+    private volatile String correlationId;
+    private volatile String backendUrl;
+
+    private RequestTimeline(String exchangeId, String serviceName, long requestBytes) {
+        this.exchangeId = exchangeId;
+        this.serviceName = serviceName;
+        this.requestBytes = requestBytes;
+        this.startedAtMillis = System.currentTimeMillis();
+        this.startedAtNanos = System.nanoTime();
+    }
+
+    // el access log y el inspector comparten el mismo timeline por petición
+    public static RequestTimeline begin(Exchange exchange, String serviceName) {
+        RequestTimeline timeline = current(exchange);
+        if (timeline == null) {
+            timeline = new RequestTimeline(
+                exchange.getExchangeId(), serviceName, exchange.getIn().getHeader(Exchange.CONTENT_LENGTH, -1L, Long.class));
+            exchange.setProperty(PROPERTY, timeline);
+        }
+        return timeline;
+    }
+
+    public static RequestTimeline current(Exchange exchange) {
+        return exchange.getProperty(PROPERTY, RequestTimeline.class);
+    }
+
+    public static void enter(Exchange exchange, GatewayStage stage) {
+        RequestTimeline timeline = current(exchange);
+        if (timeline != null) {
+            timeline.currentStage = stage;
+        }
+    }
+
+    // la primera ruta de operación gana: los ítems de un lote se contabilizan en la ruta batch
+    public static void route(Exchange exchange, String routeId) {
+        RequestTimeline timeline = current(exchange);
+        if (timeline != null && timeline.routeId == null) {
+            timeline.operation = exchange.getIn().getHeader("SoapOperation", String.class);
+            timeline.correlationId = exchange.getProperty("CorrelationId", String.class);
+            timeline.routeId = routeId;
+        }
+    }
+
+    public static void backendUrl(Exchange exchange, String url) {
+        RequestTimeline timeline = current(exchange);
+        if (timeline != null) {
+            timeline.backendUrl = withoutQuery(url);
+        }
+    }
+
+    // la query se rellena con parámetros del sobre SOAP y puede llevar datos personales: no sale en timeline ni spans
+    public static String withoutQuery(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    public static void record(Exchange exchange, GatewayStage stage, long nanos) {
+        RequestTimeline timeline = exchange.getProperty(PROPERTY, RequestTimeline.class);
+        if (timeline != null) {
+            timeline.stageNanos.addAndGet(stage.ordinal(), nanos);
+        }
+    }
+
+    public static void backendStatus(Exchange exchange, int status) {
+        RequestTimeline timeline = exchange.getProperty(PROPERTY, RequestTimeline.class);
+        if (timeline != null) {
+            timeline.backendStatus = status;
+        }
+    }
+
+    public boolean ownedBy(Exchange exchange) {
+        return exchangeId.equals(exchange.getExchangeId());
+    }
+
+    public String serviceName() {
+        return serviceName;
+    }
+
+    public long requestBytes() {
+        return requestBytes;
+    }
+
+    public long startedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startedAtNanos;
+    }
+
+    public long stageNanos(GatewayStage stage) {
+        return stageNanos.get(stage.ordinal());
+    }
+
+    public int backendStatus() {
+        return backendStatus;
+    }
+
+    public String exchangeId() {
+        return exchangeId;
+    }
+
+    public GatewayStage currentStage() {
+        return currentStage;
+    }
+
+    public String routeId() {
+        return routeId;
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    public String correlationId() {
+        return correlationId;
+    }
+
+    public String backendUrl() {
+        return backendUrl;
+    }
+}
@@ -0,0 +1,134 @@
+package com.softslim.gateway.observability;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// los hilos de petición sólo registran (Recorder es wait-free); un único hilo rota la ventana y publica el snapshot
+final class RouteLatencyStats {
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+    private final Histogram[] intervals;
+    private final long[] intervalErrors;
+    private final int intervalSeconds;
+    private final long slowThresholdMicros;
+    private final long windowNanos;
+    private final int slowRequests;
+    // montículo de mínimos acotado: la cabeza es la menos lenta de las retenidas y es la que sale al llegar otra peor
+    private final PriorityQueue<SlowRequest> slowest = new PriorityQueue<>(Comparator.comparingLong(SlowRequest::elapsedNanos));
+    private int cursor;
+    private Histogram recycled;
+    private volatile Snapshot snapshot = new Snapshot(0, 0, 0, 0, 0, 0);
+
+    RouteLatencyStats(int windowSeconds, int intervalSeconds, int slowRequests, long slowThresholdMillis) {
+        this.intervalSeconds = Math.max(1, intervalSeconds);
+        int slots = Math.max(1, windowSeconds / this.intervalSeconds);
+        this.intervals = new Histogram[slots];
+        this.intervalErrors = new long[slots];
+        this.slowThresholdMicros = TimeUnit.MILLISECONDS.toMicros(slowThresholdMillis);
+        this.windowNanos = TimeUnit.SECONDS.toNanos((long) slots * this.intervalSeconds);
+        this.slowRequests = Math.max(1, slowRequests);
+    }
+
+    void record(long nanos, boolean error) {
+        recorder.recordValue(Math.min(HIGHEST_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos))));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    // lenta = por encima del umbral configurado y del p99 de la ventana anterior
+    boolean isSlow(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        return micros >= slowThresholdMicros && micros >= snapshot.p99Micros();
+    }
+
+    // sólo llegan aquí las peticiones lentas, así que el lock no está en el camino habitual
+    void offerSlow(long nanos, Map<String, Object> detail) {
+        synchronized (slowest) {
+            if (slowest.size() < slowRequests) {
+                slowest.add(new SlowRequest(nanos, System.nanoTime(), detail));
+            } else if (nanos > slowest.peek().elapsedNanos()) {
+                slowest.poll();
+                slowest.add(new SlowRequest(nanos, System.nanoTime(), detail));
+            }
+        }
+    }
+
+    void rotate() {
+        Histogram interval = recorder.getIntervalHistogram(recycled);
+        int slot = cursor;
+        cursor = (cursor + 1) % intervals.length;
+        recycled = intervals[slot];
+        intervals[slot] = interval;
+        intervalErrors[slot] = errors.sumThenReset();
+        // las lentas que salen de la ventana dejan sitio a las nuevas
+        long expiredBefore = System.nanoTime() - windowNanos;
+        synchronized (slowest) {
+            slowest.removeIf(request -> request.recordedAtNanos() - expiredBefore < 0);
+        }
+
+        Histogram window = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+        long windowErrors = 0;
+        int filled = 0;
+        for (int i = 0; i < intervals.length; i++) {
+            if (intervals[i] != null) {
+                window.add(intervals[i]);
+                windowErrors += intervalErrors[i];
+                filled++;
+            }
+        }
+        snapshot = new Snapshot(
+            window.getTotalCount(),
+            windowErrors,
+            filled * intervalSeconds,
+            window.getValueAtPercentile(50),
+            window.getValueAtPercentile(99),
+            window.getMaxValue()
+        );
+    }
+
+    Map<String, Object> describe() {
+        Snapshot current = snapshot;
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("windowSeconds", current.windowSeconds());
+        description.put("requests", current.requests());
+        description.put("rps", current.windowSeconds() == 0 ? 0.0 : round((double) current.requests() / current.windowSeconds()));
+        description.put("errorRate", current.requests() == 0 ? 0.0 : round((double) current.errors() / current.requests()));
+        description.put("p50Millis", round(current.p50Micros() / 1000.0));
+        description.put("p99Millis", round(current.p99Micros() / 1000.0));
+        description.put("maxMillis", round(current.maxMicros() / 1000.0));
+        return description;
+    }
+
+    List<Map<String, Object>> slowest() {
+        List<SlowRequest> captured;
+        synchronized (slowest) {
+            captured = List.copyOf(slowest);
+        }
+        return captured.stream()
+            .sorted(Comparator.comparingLong(SlowRequest::elapsedNanos).reversed())
+            .map(SlowRequest::detail)
+            .toList();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private record Snapshot(long requests, long errors, int windowSeconds, long p50Micros, long p99Micros, long maxMicros) {
+    }
+
+    private record SlowRequest(long elapsedNanos, long recordedAtNanos, Map<String, Object> detail) {
+    }
+}
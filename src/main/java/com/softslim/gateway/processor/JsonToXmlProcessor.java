@@ -2,6 +2,7 @@ package com.softslim.gateway.processor;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softslim.gateway.xml.XmlEscaper;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
@@ -57,19 +58,10 @@ public class JsonToXmlProcessor implements Processor {
                 xml.append("</item>");
             });
         } else {
-            xml.append(escapeXml(node.asText()));
+            XmlEscaper.escape(node.asText(), xml);
         }
     }
 
-    private String escapeXml(String value) {
-        return value
-            .replace("&", "&amp;")
-            .replace("<", "&lt;")
-            .replace(">", "&gt;")
-            .replace("\"", "&quot;")
-            .replace("'", "&apos;");
-    }
-
     private String sanitizeXmlElementName(String rawName) {
         if (rawName == null || rawName.isBlank()) {
             return "field";
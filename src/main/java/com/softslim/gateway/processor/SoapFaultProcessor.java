@@ -2,7 +2,10 @@ package com.softslim.gateway.processor;
 
 import com.softslim.gateway.exception.ApiInvocationException;
 import com.softslim.gateway.service.ApiDataFormatter;
+import com.softslim.gateway.service.DataMode;
 import com.softslim.gateway.service.GlobalExceptionHandlerService;
+import com.softslim.gateway.xml.SoapVersion;
+import com.softslim.gateway.xml.XmlEscaper;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
@@ -11,6 +14,9 @@ import org.springframework.stereotype.Component;
 @Slf4j
 @Component
 public class SoapFaultProcessor implements Processor {
+    public static final String RESPONSE_ELEMENT_PROPERTY = "SoapResponseElement";
+    public static final String RESPONSE_SUCCESS_PROPERTY = "SoapResponseSuccess";
+
     private final GlobalExceptionHandlerService globalExceptionHandlerService;
     private final ApiDataFormatter apiDataFormatter;
 
@@ -25,7 +31,7 @@ public class SoapFaultProcessor implements Processor {
     @Override
     public void process(Exchange exchange) throws Exception {
         Exception cause = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
-        globalExceptionHandlerService.handle(cause != null ? cause : new RuntimeException("Error desconocido"), exchange);
+        String correlationId = globalExceptionHandlerService.handle(cause != null ? cause : new RuntimeException("Error desconocido"), exchange);
 
         int statusCode = 0;
         String data = cause != null ? cause.getMessage() : "Error desconocido";
@@ -45,8 +51,8 @@ public class SoapFaultProcessor implements Processor {
             namespace = "http://softslim.com/gateway";
         }
 
-        ApiDataFormatter.FormattedData formattedData = apiDataFormatter.format(data, apiContentType);
-        String soapResponse = buildSoapGatewayResponse(
+        ApiDataFormatter.FormattedData formattedData = apiDataFormatter.format(data, apiContentType, DataMode.of(exchange));
+        String responseElement = buildSoapGatewayResponse(
             operationName,
             namespace,
             false,
@@ -56,11 +62,18 @@ public class SoapFaultProcessor implements Processor {
             formattedData.xmlPayload()
         );
 
-        exchange.getIn().setBody(soapResponse);
-        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, "text/xml");
+        SoapVersion version = SoapVersion.of(exchange);
+        exchange.setProperty(RESPONSE_ELEMENT_PROPERTY, responseElement);
+        exchange.setProperty(RESPONSE_SUCCESS_PROPERTY, false);
+        exchange.getIn().setBody(wrapInEnvelope(responseElement, version, correlationId));
+        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, version.contentType());
         exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, statusCode > 0 ? statusCode : 500);
     }
 
+    public static String wrapInEnvelope(String responseElement, SoapVersion version, String correlationId) {
+        return version.envelopeStart(correlationId) + responseElement + version.envelopeEnd();
+    }
+
     private String buildSoapGatewayResponse(
         String operationName,
         String namespace,
@@ -70,30 +83,13 @@ public class SoapFaultProcessor implements Processor {
         boolean dataRedeable,
         boolean xmlPayload
     ) {
-        String dataNode = xmlPayload ? data : escapeXml(data);
+        String dataNode = xmlPayload ? data : XmlEscaper.escape(data);
         return
-            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
-            "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">" +
-            "  <soap:Body>" +
-            "    <ns:" + escapeXml(operationName) + "Response xmlns:ns=\"" + escapeXml(namespace) + "\">" +
+            "<ns:" + XmlEscaper.escape(operationName) + "Response xmlns:ns=\"" + XmlEscaper.escape(namespace) + "\">" +
             "      <success>" + flag + "</success>" +
             "      <statusCode>" + statusCode + "</statusCode>" +
             "      <dataRedeable>" + dataRedeable + "</dataRedeable>" +
             "      <data>" + dataNode + "</data>" +
-            "    </ns:" + escapeXml(operationName) + "Response>" +
-            "  </soap:Body>" +
-            "</soap:Envelope>";
-    }
-
-    private String escapeXml(String value) {
-        if (value == null) {
-            return "";
-        }
-        return value
-            .replace("&", "&amp;")
-            .replace("<", "&lt;")
-            .replace(">", "&gt;")
-            .replace("\"", "&quot;")
-            .replace("'", "&apos;");
+            "    </ns:" + XmlEscaper.escape(operationName) + "Response>";
     }
 }
@@ -0,0 +1,18 @@
+package com.softslim.gateway.replay;
+
+import java.util.List;
+
+public record CapturedExchange(
+    long timestampMillis,
+    String service,
+    String soapPath,
+    String contentType,
+    String soapAction,
+    String envelope,
+    int status,
+    long latencyMicros,
+    List<BackendCall> backendCalls
+) {
+    public record BackendCall(String method, String path, int status, String contentType, String body) {
+    }
+}
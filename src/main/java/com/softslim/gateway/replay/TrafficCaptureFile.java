@@ -0,0 +1,125 @@
+package com.softslim.gateway.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// formato: cabecera "SGTC" + versión, y después tramas [int longitud][JSON comprimido con deflate]
+public final class TrafficCaptureFile implements Closeable {
+    private static final int MAGIC = 0x53475443;
+    private static final int FORMAT_VERSION = 1;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final FileChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private TrafficCaptureFile(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static TrafficCaptureFile append(Path path) throws IOException {
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+        return new TrafficCaptureFile(channel);
+    }
+
+    public synchronized long append(CapturedExchange exchange) throws IOException {
+        byte[] compressed = compress(OBJECT_MAPPER.writeValueAsBytes(exchange));
+        ByteBuffer frame = ByteBuffer.allocate(4 + compressed.length).putInt(compressed.length).put(compressed).flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+        return channel.size();
+    }
+
+    public synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        deflater.end();
+        channel.close();
+    }
+
+    // una trama final incompleta (proceso detenido a mitad de escritura) se ignora
+    public static List<CapturedExchange> read(Path path) throws IOException {
+        List<CapturedExchange> exchanges = new ArrayList<>();
+        try (InputStream file = Files.newInputStream(path); DataInputStream input = new DataInputStream(file)) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("El fichero no es una captura de tráfico del gateway: " + path);
+            }
+            int version = input.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Versión de captura no soportada: " + version);
+            }
+            while (true) {
+                byte[] compressed;
+                try {
+                    compressed = new byte[input.readInt()];
+                    input.readFully(compressed);
+                } catch (EOFException e) {
+                    break;
+                }
+                exchanges.add(OBJECT_MAPPER.readValue(decompress(compressed), CapturedExchange.class));
+            }
+        }
+        return exchanges;
+    }
+
+    private byte[] compress(byte[] data) {
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            output.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IOException("Trama de captura truncada");
+                }
+                output.write(buffer, 0, inflated);
+            }
+            return output.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Trama de captura corrupta", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.softslim.gateway.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// sustituye el valor de los campos configurados, por nombre local, tanto en XML como en JSON
+public final class TrafficRedactor {
+    public static final String MASK = "***";
+
+    private final Set<String> fields;
+    private final Pattern xmlPattern;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public TrafficRedactor(List<String> fields) {
+        this.fields = fields == null ? Set.of() : fields.stream()
+            .filter(field -> field != null && !field.isBlank())
+            .collect(Collectors.toUnmodifiableSet());
+        if (this.fields.isEmpty()) {
+            this.xmlPattern = null;
+            return;
+        }
+        String names = this.fields.stream().map(Pattern::quote).collect(Collectors.joining("|"));
+        this.xmlPattern = Pattern.compile(
+            "(<(?:[\\w.-]+:)?(?:" + names + ")(?:\\s[^>]*)?>)[^<]*(</(?:[\\w.-]+:)?(?:" + names + ")>)");
+    }
+
+    public String redact(String body, String contentType) {
+        if (body == null || fields.isEmpty()) {
+            return body;
+        }
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")) {
+            try {
+                JsonNode tree = objectMapper.readTree(body);
+                redactJson(tree);
+                return objectMapper.writeValueAsString(tree);
+            } catch (Exception ignored) {
+                // no es JSON válido: se trata como texto/XML
+            }
+        }
+        return xmlPattern.matcher(body).replaceAll("$1" + MASK + "$2");
+    }
+
+    // variables de plantilla (soap.cliente.documento) por su último segmento, igual que los elementos XML
+    public boolean redacts(String name) {
+        if (name == null || fields.isEmpty()) {
+            return false;
+        }
+        int dot = name.lastIndexOf('.');
+        return fields.contains(dot < 0 ? name : name.substring(dot + 1));
+    }
+
+    // path con query o SOAPAction: se enmascara el valor de los parámetros de query con nombre configurado
+    public String redactUri(String uri) {
+        if (uri == null || fields.isEmpty()) {
+            return uri;
+        }
+        int query = uri.indexOf('?');
+        if (query < 0) {
+            return uri;
+        }
+        StringBuilder redacted = new StringBuilder(uri.length()).append(uri, 0, query + 1);
+        String[] parameters = uri.substring(query + 1).split("&", -1);
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                redacted.append('&');
+            }
+            String parameter = parameters[i];
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && fields.contains(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8))) {
+                redacted.append(parameter, 0, separator + 1).append(MASK);
+            } else {
+                redacted.append(parameter);
+            }
+        }
+        return redacted.toString();
+    }
+
+    private void redactJson(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            Iterator<Map.Entry<String, JsonNode>> entries = object.fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                if (fields.contains(entry.getKey())) {
+                    entry.setValue(TextNode.valueOf(MASK));
+                } else {
+                    redactJson(entry.getValue());
+                }
+            }
+        } else if (node instanceof ArrayNode array) {
+            array.forEach(this::redactJson);
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package com.softslim.gateway.routes;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.observability.GatewayStage;
+import com.softslim.gateway.observability.RequestTimeline;
+import com.softslim.gateway.processor.SoapFaultProcessor;
+import com.softslim.gateway.service.AsyncRestInvocationService;
+import com.softslim.gateway.service.DataMode;
+import com.softslim.gateway.service.Deadline;
+import com.softslim.gateway.service.IdempotencyService;
+import com.softslim.gateway.service.OperationPlan;
+import com.softslim.gateway.service.RateLimitService;
+import com.softslim.gateway.service.ResponseCacheService;
+import com.softslim.gateway.service.RestInvocationService;
+import com.softslim.gateway.service.UpstreamBalancer;
+import com.softslim.gateway.service.UpstreamPool;
+import com.softslim.gateway.service.WarmupScope;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.Message;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.StreamCache;
+import org.apache.camel.spi.UnitOfWork;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.support.PluginHelper;
+import org.apache.camel.support.UnitOfWorkHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// motor directo: atiende el POST SOAP en el hilo del servlet con los mismos pasos que las rutas Camel, sin pasar por
+// consumer, pipeline ni endpoints direct; lotes, operaciones compuestas y desconocidas se delegan en la ruta dispatch.
+// con engine async la petición se lee y responde en modo asíncrono y ningún hilo espera al backend ni al token OAuth2
+@Slf4j
+public class DirectSoapServlet extends HttpServlet {
+    private static final List<String> RESPONSE_HEADERS = List.of("CorrelationId", "Retry-After");
+
+    private final transient GatewaySteps steps;
+    private final transient SoapFaultProcessor soapFaultProcessor;
+    private final transient RestInvocationService restInvocationService;
+    private final transient AsyncRestInvocationService asyncRestInvocationService;
+    private final transient ResponseCacheService responseCacheService;
+    private final transient IdempotencyService idempotencyService;
+    private final transient RateLimitService rateLimitService;
+    private final transient CamelContext camelContext;
+    private final transient Map<String, DirectService> services;
+    private transient ProducerTemplate producerTemplate;
+    // en modo async, lo que sólo existe en versión bloqueante (lotes, compuestas, caché, idempotencia) corre en hilos virtuales
+    private transient ExecutorService blockingExecutor;
+
+    public DirectSoapServlet(BridgeConfiguration bridgeConfig,
+                             GatewaySteps steps,
+                             SoapFaultProcessor soapFaultProcessor,
+                             RestInvocationService restInvocationService,
+                             AsyncRestInvocationService asyncRestInvocationService,
+                             ResponseCacheService responseCacheService,
+                             IdempotencyService idempotencyService,
+                             RateLimitService rateLimitService,
+                             UpstreamBalancer upstreamBalancer,
+                             CamelContext camelContext) {
+        this.steps = steps;
+        this.soapFaultProcessor = soapFaultProcessor;
+        this.restInvocationService = restInvocationService;
+        this.asyncRestInvocationService = asyncRestInvocationService;
+        this.responseCacheService = responseCacheService;
+        this.idempotencyService = idempotencyService;
+        this.rateLimitService = rateLimitService;
+        this.camelContext = camelContext;
+
+        Map<String, DirectService> byPath = new LinkedHashMap<>();
+        if (bridgeConfig.getEndpointsClients() != null) {
+            bridgeConfig.getEndpointsClients().forEach((serviceName, endpointClient) -> {
+                EngineType engine = EngineType.fromConfig(endpointClient.getEngine());
+                if (engine == EngineType.CAMEL) {
+                    return;
+                }
+                String soapPath = GatewaySteps.normalizeSoapPath(endpointClient.getSoapPath(), serviceName);
+                UpstreamPool upstreamPool = upstreamBalancer.register(serviceName, endpointClient);
+                byPath.put(soapPath, new DirectService(serviceName, endpointClient, soapPath, engine,
+                    operations(serviceName, endpointClient, upstreamPool)));
+                log.info("Servicio {} atendido por el motor {} en {}", serviceName, engine.key(), soapPath);
+            });
+        }
+        this.services = Collections.unmodifiableMap(byPath);
+    }
+
+    public Set<String> soapPaths() {
+        return services.keySet();
+    }
+
+    @Override
+    public void init() {
+        producerTemplate = camelContext.createProducerTemplate();
+        blockingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Override
+    public void destroy() {
+        if (blockingExecutor != null) {
+            blockingExecutor.shutdownNow();
+        }
+        if (producerTemplate != null) {
+            try {
+                producerTemplate.stop();
+            } catch (Exception e) {
+                log.debug("No fue posible detener ProducerTemplate del motor directo", e);
+            }
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DirectService service = services.get(request.getServletPath());
+        if (service == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Exchange exchange = createExchange(request, null);
+        steps.ensureCorrelationId(exchange);
+        steps.buildWsdlResponse(exchange, service.name(), service.endpointClient(), service.soapPath());
+        writeResponse(exchange, response);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DirectService service = services.get(request.getServletPath());
+        if (service == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (service.engine() == EngineType.ASYNC) {
+            readAsync(request, response, service);
+            return;
+        }
+
+        Exchange exchange = createExchange(request, new String(request.getInputStream().readAllBytes(), charset(request)));
+        UnitOfWork unitOfWork = openUnitOfWork(exchange);
+        try {
+            try {
+                process(exchange, service);
+            } catch (Exception e) {
+                renderFault(exchange, e);
+            }
+            writeResponse(exchange, response);
+        } finally {
+            UnitOfWorkHelper.doneUow(unitOfWork, exchange);
+        }
+    }
+
+    // warm-up de los servicios del motor: mismo punto de entrada que direct:soap-internal-* (desde el parseo) y el
+    // mismo camino bloqueante o asíncrono que doPost, con la etapa de backend sustituida por WarmupScope
+    public Exchange warmup(String serviceName, String envelope) {
+        DirectService service = services.values().stream()
+            .filter(candidate -> candidate.name().equals(serviceName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Servicio no atendido por el motor directo: " + serviceName));
+        Exchange exchange = new DefaultExchange(camelContext, ExchangePattern.InOut);
+        WarmupScope.enter(exchange);
+        exchange.getIn().setHeader("CorrelationId", "warmup");
+        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, "text/xml");
+        exchange.getIn().setBody(envelope);
+        UnitOfWork unitOfWork = openUnitOfWork(exchange);
+        try {
+            steps.parse(exchange, service.name(), service.endpointClient());
+            if (service.engine() == EngineType.ASYNC) {
+                operationAsync(exchange, service).join();
+            } else {
+                operation(exchange, service);
+            }
+        } catch (Exception e) {
+            renderFault(exchange, AsyncRestInvocationService.unwrap(e));
+        } finally {
+            UnitOfWorkHelper.doneUow(unitOfWork, exchange);
+        }
+        return exchange;
+    }
+
+    private void process(Exchange exchange, DirectService service) throws Exception {
+        steps.open(exchange, service.name(), service.endpointClient());
+        steps.identify(exchange, service.name(), service.soapPath());
+        steps.parse(exchange, service.name(), service.endpointClient());
+        operation(exchange, service);
+    }
+
+    private void operation(Exchange exchange, DirectService service) throws Exception {
+        DirectOperation operation = service.operations().get(exchange.getIn().getHeader("SoapOperation", String.class));
+        if (operation == null) {
+            dispatch(exchange, service);
+            return;
+        }
+        invoke(exchange, operation);
+    }
+
+    // la ruta dispatch gestiona sus propios errores con el mismo fault
+    private void dispatch(Exchange exchange, DirectService service) {
+        producerTemplate.send("direct:dispatch-" + service.name(), exchange);
+    }
+
+    // mismo orden que la ruta operation-* del motor Camel
+    private void invoke(Exchange exchange, DirectOperation operation) throws Exception {
+        admitOperation(exchange, operation);
+        OperationPlan plan = operation.plan();
+        steps.timed(GatewayStage.PREPARE, prepared -> steps.prepareRestInvocation(prepared, plan, plan.timeout())).process(exchange);
+        BridgeConfiguration.RestPath restPath = operation.restPath();
+        steps.timed(GatewayStage.BACKEND, WarmupScope.backend(called -> idempotencyService.invoke(called, restPath,
+            deduplicated -> responseCacheService.invoke(deduplicated, restPath, restInvocationService::invoke)))).process(exchange);
+        steps.timed(GatewayStage.RENDER, steps::buildSoapSuccessResponse).process(exchange);
+    }
+
+    private void admitOperation(Exchange exchange, DirectOperation operation) {
+        RequestTimeline.route(exchange, operation.routeId());
+        exchange.setProperty(DataMode.PROPERTY, operation.dataMode());
+        if (!WarmupScope.isActive(exchange)) {
+            rateLimitService.admitOperation(exchange, operation.scope(), operation.restPath().getRateLimit());
+        }
+        Deadline.forOperation(exchange, operation.restPath().getDeadline());
+    }
+
+    // el cuerpo se acumula con ReadListener: ningún hilo queda bloqueado esperando a un cliente lento
+    private void readAsync(HttpServletRequest request, HttpServletResponse response, DirectService service) throws IOException {
+        AsyncContext asyncContext = request.startAsync();
+        // tope del contenedor por si el cliente no termina de enviar o la operación no acota su propia espera
+        asyncContext.setTimeout(service.endpointClient().getAsyncTimeout());
+        AtomicBoolean finished = new AtomicBoolean();
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (finished.compareAndSet(false, true)) {
+                    log.warn("Petición SOAP asíncrona a {} sin respuesta tras {} ms", service.name(), asyncContext.getTimeout());
+                    response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                    response.setContentType("text/plain");
+                    response.getWriter().write("Tiempo de espera agotado para servicio " + service.name());
+                    asyncContext.complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        ServletInputStream input = request.getInputStream();
+        ByteArrayOutputStream received = new ByteArrayOutputStream(Math.max(request.getContentLength(), 1024));
+        input.setReadListener(new ReadListener() {
+            private final byte[] buffer = new byte[8192];
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                int read;
+                while (input.isReady() && (read = input.read(buffer)) != -1) {
+                    received.write(buffer, 0, read);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                processAsync(asyncContext, finished, request, response, service, new String(received.toByteArray(), charset(request)));
+            }
+
+            @Override
+            public void onError(Throwable failure) {
+                log.debug("Error leyendo petición SOAP asíncrona: {}", failure.getMessage());
+                if (finished.compareAndSet(false, true)) {
+                    response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                    asyncContext.complete();
+                }
+            }
+        });
+    }
+
+    private void processAsync(
+        AsyncContext asyncContext,
+        AtomicBoolean finished,
+        HttpServletRequest request,
+        HttpServletResponse response,
+        DirectService service,
+        String body
+    ) {
+        Exchange exchange = createExchange(request, body);
+        UnitOfWork unitOfWork = openUnitOfWork(exchange);
+        CompletableFuture<Void> processed;
+        try {
+            processed = stagesAsync(exchange, service);
+        } catch (Exception e) {
+            processed = CompletableFuture.failedFuture(e);
+        }
+        processed.whenComplete((ignored, failure) -> {
+            if (!finished.compareAndSet(false, true)) {
+                // el contenedor ya respondió por timeout
+                UnitOfWorkHelper.doneUow(unitOfWork, exchange);
+                return;
+            }
+            if (failure != null) {
+                renderFault(exchange, AsyncRestInvocationService.unwrap(failure));
+            }
+            try {
+                writeResponse(exchange, response);
+            } catch (IOException e) {
+                log.debug("No fue posible escribir respuesta SOAP asíncrona: {}", e.getMessage());
+            } finally {
+                asyncContext.complete();
+                UnitOfWorkHelper.doneUow(unitOfWork, exchange);
+            }
+        });
+    }
+
+    private CompletableFuture<Void> stagesAsync(Exchange exchange, DirectService service) throws Exception {
+        steps.open(exchange, service.name(), service.endpointClient());
+        steps.identify(exchange, service.name(), service.soapPath());
+        steps.parse(exchange, service.name(), service.endpointClient());
+        return operationAsync(exchange, service);
+    }
+
+    private CompletableFuture<Void> operationAsync(Exchange exchange, DirectService service) {
+        DirectOperation operation = service.operations().get(exchange.getIn().getHeader("SoapOperation", String.class));
+        if (operation == null || operation.blocking()) {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    if (operation == null) {
+                        dispatch(exchange, service);
+                    } else {
+                        invoke(exchange, operation);
+                    }
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, blockingExecutor);
+        }
+
+        admitOperation(exchange, operation);
+        OperationPlan plan = operation.plan();
+        return steps.timedAsync(GatewayStage.PREPARE, exchange, () -> steps.prepareRestInvocationAsync(exchange, plan, plan.timeout()))
+            .thenCompose(prepared -> steps.timedAsync(GatewayStage.BACKEND, exchange,
+                () -> WarmupScope.backendAsync(exchange, () -> asyncRestInvocationService.invoke(exchange))))
+            .thenRun(() -> {
+                try {
+                    steps.timed(GatewayStage.RENDER, steps::buildSoapSuccessResponse).process(exchange);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+    }
+
+    // equivalente a onException(...).handled(true) de las rutas
+    private void renderFault(Exchange exchange, Exception cause) {
+        exchange.setProperty(Exchange.EXCEPTION_CAUGHT, cause);
+        try {
+            steps.timed(GatewayStage.RENDER, soapFaultProcessor).process(exchange);
+        } catch (Exception e) {
+            log.error("No fue posible generar SOAP Fault en el motor directo", e);
+            exchange.getIn().setBody("Internal error");
+            exchange.getIn().setHeader(Exchange.CONTENT_TYPE, "text/plain");
+            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 500);
+        }
+    }
+
+    // la unidad de trabajo se cierra tras escribir la respuesta, igual que en el consumer servlet de Camel
+    private UnitOfWork openUnitOfWork(Exchange exchange) {
+        UnitOfWork unitOfWork = PluginHelper.getUnitOfWorkFactory(camelContext).createUnitOfWork(exchange);
+        exchange.getExchangeExtension().setUnitOfWork(unitOfWork);
+        return unitOfWork;
+    }
+
+    private static Charset charset(HttpServletRequest request) {
+        return request.getCharacterEncoding() != null ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+    }
+
+    private Exchange createExchange(HttpServletRequest request, String body) {
+        Exchange exchange = new DefaultExchange(camelContext, ExchangePattern.InOut);
+        Message message = exchange.getIn();
+        Collections.list(request.getHeaderNames()).forEach(name -> message.setHeader(name, request.getHeader(name)));
+        message.setHeader(Exchange.HTTP_METHOD, request.getMethod());
+        message.setHeader(Exchange.HTTP_URI, request.getRequestURI());
+        message.setHeader(Exchange.HTTP_PATH, "");
+        message.setHeader(Exchange.HTTP_URL, request.getRequestURL().toString());
+        if (request.getQueryString() != null) {
+            message.setHeader(Exchange.HTTP_QUERY, request.getQueryString());
+        }
+        if (request.getContentType() != null) {
+            message.setHeader(Exchange.CONTENT_TYPE, request.getContentType());
+        }
+        message.setBody(body);
+        return exchange;
+    }
+
+    private void writeResponse(Exchange exchange, HttpServletResponse response) throws IOException {
+        Message message = exchange.getMessage();
+        response.setStatus(message.getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class));
+        String contentType = message.getHeader(Exchange.CONTENT_TYPE, String.class);
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        for (String header : RESPONSE_HEADERS) {
+            String value = message.getHeader(header, String.class);
+            if (value != null) {
+                response.setHeader(header, value);
+            }
+        }
+
+        Object body = message.getBody();
+        if (body == null) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        if (body instanceof StreamCache cache) {
+            cache.writeTo(out);
+        } else if (body instanceof InputStream stream) {
+            try (stream) {
+                stream.transferTo(out);
+            }
+        } else if (body instanceof byte[] bytes) {
+            out.write(bytes);
+        } else {
+            if (contentType != null && !contentType.contains("charset")) {
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            }
+            out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        out.flush();
+    }
+
+    // las operaciones compuestas quedan fuera: su orquestación vive en la ruta operation-* compartida
+    private Map<String, DirectOperation> operations(
+        String serviceName,
+        BridgeConfiguration.EndpointClient endpointClient,
+        UpstreamPool upstreamPool
+    ) {
+        Map<String, DirectOperation> operations = new HashMap<>();
+        if (endpointClient.getRest() == null || endpointClient.getRest().getPaths() == null) {
+            return operations;
+        }
+        for (BridgeConfiguration.RestPath restPath : endpointClient.getRest().getPaths()) {
+            if (restPath.getComposite() != null && !restPath.getComposite().isEmpty()) {
+                continue;
+            }
+            String routeId = "operation-" + serviceName + "-" + restPath.getOperation();
+            try {
+                operations.put(restPath.getOperation(), new DirectOperation(
+                    routeId,
+                    serviceName + "." + restPath.getOperation(),
+                    restPath,
+                    DataMode.fromConfig(restPath.getDataMode()),
+                    (restPath.getCacheTtl() != null && restPath.getCacheTtl() > 0)
+                        || (restPath.getIdempotency() != null && restPath.getIdempotency().isEnabled()),
+                    steps.compilePlan(routeId, endpointClient, restPath, upstreamPool)
+                ));
+            } catch (IllegalArgumentException e) {
+                // igual que al crear la ruta operation-* en Camel: una operación mal configurada impide arrancar
+                throw new IllegalStateException("Configuración inválida de la operación " + restPath.getOperation()
+                    + " para el motor directo de " + serviceName + ": " + e.getMessage(), e);
+            }
+        }
+        return operations;
+    }
+
+    private record DirectService(
+        String name,
+        BridgeConfiguration.EndpointClient endpointClient,
+        String soapPath,
+        EngineType engine,
+        Map<String, DirectOperation> operations
+    ) {
+    }
+
+    private record DirectOperation(
+        String routeId,
+        String scope,
+        BridgeConfiguration.RestPath restPath,
+        DataMode dataMode,
+        boolean blocking,
+        OperationPlan plan
+    ) {
+    }
+}
@@ -1,56 +1,64 @@
 package com.softslim.gateway.routes;
 
 import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.observability.GatewayStage;
+import com.softslim.gateway.observability.RequestTimeline;
 import com.softslim.gateway.processor.SoapFaultProcessor;
-import com.softslim.gateway.service.ApiDataFormatter;
-import com.softslim.gateway.service.OAuth2TokenService;
+import com.softslim.gateway.service.BatchExecutionService;
+import com.softslim.gateway.service.CompositeInvocationService;
+import com.softslim.gateway.service.DataMode;
+import com.softslim.gateway.service.Deadline;
+import com.softslim.gateway.service.IdempotencyService;
+import com.softslim.gateway.service.OperationPlan;
+import com.softslim.gateway.service.RateLimitService;
+import com.softslim.gateway.service.ResponseCacheService;
 import com.softslim.gateway.service.RestInvocationService;
-import com.softslim.gateway.service.WsdlContractService;
+import com.softslim.gateway.service.UpstreamBalancer;
+import com.softslim.gateway.service.UpstreamPool;
+import com.softslim.gateway.service.WarmupScope;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.Exchange;
+import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.StringReader;
-import java.util.LinkedHashMap;
-import java.util.Locale;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Slf4j
 @Component
 public class DynamicBridgeRouteBuilder extends RouteBuilder {
-    private static final Pattern HEADER_PLACEHOLDER = Pattern.compile("\\$\\{header\\.([^}]+)}");
-    private static final Pattern SOAP_PLACEHOLDER = Pattern.compile("\\$\\{soap\\.([^}]+)}");
-
     private final BridgeConfiguration bridgeConfig;
     private final SoapFaultProcessor soapFaultProcessor;
-    private final OAuth2TokenService oAuth2TokenService;
-    private final WsdlContractService wsdlContractService;
     private final RestInvocationService restInvocationService;
-    private final ApiDataFormatter apiDataFormatter;
+    private final UpstreamBalancer upstreamBalancer;
+    private final BatchExecutionService batchExecutionService;
+    private final CompositeInvocationService compositeInvocationService;
+    private final RateLimitService rateLimitService;
+    private final ResponseCacheService responseCacheService;
+    private final IdempotencyService idempotencyService;
+    private final GatewaySteps steps;
 
     public DynamicBridgeRouteBuilder(BridgeConfiguration bridgeConfig,
                                       SoapFaultProcessor soapFaultProcessor,
-                                      OAuth2TokenService oAuth2TokenService,
-                                      WsdlContractService wsdlContractService,
                                       RestInvocationService restInvocationService,
-                                      ApiDataFormatter apiDataFormatter) {
+                                      UpstreamBalancer upstreamBalancer,
+                                      BatchExecutionService batchExecutionService,
+                                      CompositeInvocationService compositeInvocationService,
+                                      RateLimitService rateLimitService,
+                                      ResponseCacheService responseCacheService,
+                                      IdempotencyService idempotencyService,
+                                      GatewaySteps steps) {
         this.bridgeConfig = bridgeConfig;
         this.soapFaultProcessor = soapFaultProcessor;
-        this.oAuth2TokenService = oAuth2TokenService;
-        this.wsdlContractService = wsdlContractService;
         this.restInvocationService = restInvocationService;
-        this.apiDataFormatter = apiDataFormatter;
+        this.upstreamBalancer = upstreamBalancer;
+        this.batchExecutionService = batchExecutionService;
+        this.compositeInvocationService = compositeInvocationService;
+        this.rateLimitService = rateLimitService;
+        this.responseCacheService = responseCacheService;
+        this.idempotencyService = idempotencyService;
+        this.steps = steps;
     }
 
     @Override
@@ -60,7 +68,7 @@ public class DynamicBridgeRouteBuilder extends RouteBuilder {
         
         onException(Exception.class)
             .handled(true)
-            .process(soapFaultProcessor)
+            .process(steps.timed(GatewayStage.RENDER, soapFaultProcessor))
             .log("Error procesado");
 
         if (bridgeConfig.getEndpointsClients() != null && !bridgeConfig.getEndpointsClients().isEmpty()) {
@@ -78,30 +86,42 @@ public class DynamicBridgeRouteBuilder extends RouteBuilder {
 
     private void createServiceRoutes(String serviceName, BridgeConfiguration.EndpointClient endpointClient) throws Exception {
         log.info("Creando rutas para servicio: {}", serviceName);
-        String soapPath = normalizeSoapPath(endpointClient.getSoapPath(), serviceName);
+        String soapPath = GatewaySteps.normalizeSoapPath(endpointClient.getSoapPath(), serviceName);
         String dispatchRouteId = "dispatch-" + serviceName;
         String internalSoapEntryRouteId = "soap-internal-" + serviceName;
         String wsdlRouteId = "wsdl-" + serviceName;
+        UpstreamPool upstreamPool = upstreamBalancer.register(serviceName, endpointClient);
 
-        from("servlet:" + soapPath + "?httpMethodRestrict=GET")
-            .routeId(wsdlRouteId)
-            .process(this::ensureCorrelationId)
-            .process(exchange -> buildWsdlResponse(exchange, serviceName, endpointClient, soapPath));
+        // con el motor directo el servlet propio atiende el path; las rutas internas siguen disponibles para lotes y compuestas
+        if (EngineType.fromConfig(endpointClient.getEngine()) == EngineType.CAMEL) {
+            from("servlet:" + soapPath + "?httpMethodRestrict=GET")
+                .routeId(wsdlRouteId)
+                .process(steps::ensureCorrelationId)
+                .process(exchange -> steps.buildWsdlResponse(exchange, serviceName, endpointClient, soapPath));
 
-        from("servlet:" + soapPath + "?httpMethodRestrict=POST")
-            .routeId("soap-in-" + serviceName)
-            .convertBodyTo(String.class)
-            .process(this::ensureCorrelationId)
-            .to("direct:" + internalSoapEntryRouteId);
+            from("servlet:" + soapPath + "?httpMethodRestrict=POST")
+                .routeId("soap-in-" + serviceName)
+                .process(exchange -> steps.open(exchange, serviceName, endpointClient))
+                .convertBodyTo(String.class)
+                .process(exchange -> steps.identify(exchange, serviceName, soapPath))
+                .to("direct:" + internalSoapEntryRouteId);
+        }
 
         from("direct:" + internalSoapEntryRouteId)
             .routeId(internalSoapEntryRouteId)
-            .process(exchange -> extractSoapContext(exchange, endpointClient))
+            .process(exchange -> steps.parse(exchange, serviceName, endpointClient))
             .to("direct:" + dispatchRouteId);
 
         var dispatchChoice = from("direct:" + dispatchRouteId)
             .routeId(dispatchRouteId)
-            .choice();
+            .choice()
+            .when(header("SoapOperation").isEqualTo(BatchExecutionService.BATCH_OPERATION))
+            .to("direct:batch-" + serviceName);
+
+        from("direct:batch-" + serviceName)
+            .routeId("batch-" + serviceName)
+            .process(exchange -> RequestTimeline.route(exchange, "batch-" + serviceName))
+            .process(exchange -> batchExecutionService.execute(exchange, serviceName, endpointClient));
 
         if (endpointClient.getRest() != null && endpointClient.getRest().getPaths() != null) {
             endpointClient.getRest().getPaths().forEach(restPath -> {
@@ -109,7 +129,7 @@ public class DynamicBridgeRouteBuilder extends RouteBuilder {
                     dispatchChoice
                         .when(header("SoapOperation").isEqualTo(restPath.getOperation()))
                         .to("direct:operation-" + serviceName + "-" + restPath.getOperation());
-                    createOperationRoute(serviceName, endpointClient, restPath);
+                    createOperationRoute(serviceName, endpointClient, restPath, upstreamPool);
                 } catch (Exception e) {
                     log.error("Error creando ruta para operación: {}", restPath.getOperation(), e);
                 }
@@ -118,397 +138,61 @@ public class DynamicBridgeRouteBuilder extends RouteBuilder {
 
         dispatchChoice
             .otherwise()
-            .throwException(new IllegalArgumentException(
-                "Operación SOAP no soportada para servicio " + serviceName + ": ${header.SoapOperation}"))
+            // el mensaje se evalúa con simple para incluir la operación recibida
+            .throwException(IllegalArgumentException.class,
+                "Operación SOAP no soportada para servicio " + serviceName + ": ${header.SoapOperation}")
             .end();
     }
 
     private void createOperationRoute(String serviceName, 
                                        BridgeConfiguration.EndpointClient endpointClient,
-                                       BridgeConfiguration.RestPath restPath) throws Exception {
+                                       BridgeConfiguration.RestPath restPath,
+                                       UpstreamPool upstreamPool) throws Exception {
         
         String routeId = "operation-" + serviceName + "-" + restPath.getOperation();
+        String operationScope = serviceName + "." + restPath.getOperation();
+        DataMode dataMode = DataMode.fromConfig(restPath.getDataMode());
         
         log.info("Creando ruta: {}", routeId);
 
-        from("direct:" + routeId)
-            .routeId(routeId)
-            .log("Ejecutando operación: " + restPath.getOperation())
-            .process(exchange -> prepareRestInvocation(exchange, endpointClient, restPath))
-            .process(restInvocationService::invoke)
-            .convertBodyTo(String.class)
-            .process(this::buildSoapSuccessResponse)
-            .log("Respuesta SOAP generada para operación: " + restPath.getOperation());
-    }
-
-    private void prepareRestInvocation(
-        Exchange exchange,
-        BridgeConfiguration.EndpointClient endpointClient,
-        BridgeConfiguration.RestPath restPath
-    ) throws Exception {
-        String domainPath = endpointClient.getRest() != null ? endpointClient.getRest().getDomainPath() : null;
-        if (domainPath == null || domainPath.isBlank()) {
-            throw new IllegalArgumentException("domain-path no configurado para la operación " + restPath.getOperation());
-        }
-
-        String resolvedPath = resolvePathVariables(restPath.getPath(), exchange);
-        String targetUrl = buildTargetUrl(domainPath, resolvedPath);
-        exchange.setProperty("restTargetUrl", targetUrl);
-        exchange.setProperty("restRouteKey", endpointClient.getSoapPath() + "#" + restPath.getOperation());
-
-        String method = restPath.getMethod() == null ? "GET" : restPath.getMethod().toUpperCase(Locale.ROOT);
-        exchange.setProperty("restMethod", method);
-        exchange.setProperty("restTimeout", restPath.getTimeout() == null ? 5000 : restPath.getTimeout());
-
-        Map<String, String> outboundHeaders = new LinkedHashMap<>();
-
-        if (restPath.getHeaders() != null) {
-            restPath.getHeaders().forEach((key, value) -> {
-                String resolved = resolveTemplate(value, exchange, false);
-                if (resolved != null) {
-                    outboundHeaders.put(key, resolved);
-                }
-            });
-        }
-
-        applySecurity(exchange, endpointClient, outboundHeaders);
-        exchange.setProperty("restOutboundHeaders", outboundHeaders);
-        exchange.setProperty("restResilience", resolveResilience(endpointClient, restPath));
-        exchange.setProperty("restMutualTls", endpointClient.getSecurity() != null ? endpointClient.getSecurity().getMutualTls() : null);
-
-        if (isBodyMethod(method)) {
-            Object paramsObject = exchange.getProperty("SoapParameters");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> params = paramsObject instanceof Map ? (Map<String, Object>) paramsObject : Map.of();
-            String requestBody = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(params);
-            exchange.getIn().setBody(requestBody);
-            exchange.getIn().setHeader(Exchange.CONTENT_TYPE, "application/json");
-        } else {
-            exchange.getIn().setBody(null);
-        }
-    }
-
-    private void applySecurity(
-        Exchange exchange,
-        BridgeConfiguration.EndpointClient endpointClient,
-        Map<String, String> outboundHeaders
-    ) {
-        if (endpointClient.getSecurity() == null || endpointClient.getSecurity().getOauth2() == null) {
-            return;
-        }
-
-        BridgeConfiguration.OAuth2Config oauth2 = endpointClient.getSecurity().getOauth2();
-        if (!oauth2.isEnabled()) {
-            return;
-        }
-
-        if (oauth2.getTokenUri() == null || oauth2.getClientId() == null || oauth2.getClientSecret() == null) {
-            throw new IllegalArgumentException("Configuración OAuth2 incompleta para servicio SOAP");
-        }
-
-        String token = oAuth2TokenService.getAccessToken(
-            oauth2.getTokenUri(),
-            oauth2.getClientId(),
-            oauth2.getClientSecret(),
-            oauth2.getScope()
-        );
-        outboundHeaders.put("Authorization", "Bearer " + token);
-    }
-
-    private BridgeConfiguration.Resilience resolveResilience(
-        BridgeConfiguration.EndpointClient endpointClient,
-        BridgeConfiguration.RestPath restPath
-    ) {
-        if (restPath.getResilience() != null) {
-            return restPath.getResilience();
-        }
-        if (endpointClient.getResilience() != null) {
-            return endpointClient.getResilience();
-        }
-        return bridgeConfig.getGlobalResilience();
-    }
-
-    private void extractSoapContext(Exchange exchange, BridgeConfiguration.EndpointClient endpointClient) throws Exception {
-        String soapRequest = exchange.getIn().getBody(String.class);
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-        factory.setXIncludeAware(false);
-        factory.setExpandEntityReferences(false);
-        Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(soapRequest)));
-        validateWsSecurity(document, endpointClient);
-
-        Element body = findElementByLocalName(document.getDocumentElement(), "Body");
-        if (body == null) {
-            throw new IllegalArgumentException("SOAP Body no encontrado");
-        }
-
-        Element operationElement = firstChildElement(body);
-        if (operationElement == null) {
-            throw new IllegalArgumentException("No se encontró operación dentro del SOAP Body");
-        }
-
-        String operationName = operationElement.getLocalName() != null
-            ? operationElement.getLocalName()
-            : operationElement.getNodeName();
-
-        exchange.getIn().setHeader("SoapOperation", operationName);
-        exchange.getIn().setHeader("SoapNamespace", operationElement.getNamespaceURI());
-
-        Map<String, Object> parameters = new LinkedHashMap<>();
-        extractNestedParameters(operationElement, "", exchange, parameters);
-        exchange.setProperty("SoapParameters", parameters);
-    }
-
-    private void validateWsSecurity(Document document, BridgeConfiguration.EndpointClient endpointClient) {
-        if (endpointClient.getSecurity() == null || endpointClient.getSecurity().getWsSecurity() == null) {
-            return;
-        }
-
-        BridgeConfiguration.WsSecurityConfig wsSecurity = endpointClient.getSecurity().getWsSecurity();
-        if (!wsSecurity.isEnabled()) {
-            return;
-        }
-
-        if (wsSecurity.getUsername() == null || wsSecurity.getPassword() == null) {
-            throw new IllegalArgumentException("Configuración WS-Security incompleta");
-        }
-
-        Element header = findElementByLocalName(document.getDocumentElement(), "Header");
-        if (header == null) {
-            throw new IllegalArgumentException("SOAP Header requerido para WS-Security");
-        }
-
-        Element usernameToken = findElementByLocalName(header, "UsernameToken");
-        if (usernameToken == null) {
-            throw new IllegalArgumentException("WS-Security UsernameToken requerido");
-        }
-
-        Element username = findElementByLocalName(usernameToken, "Username");
-        Element password = findElementByLocalName(usernameToken, "Password");
-        if (username == null || password == null) {
-            throw new IllegalArgumentException("WS-Security Username/Password requeridos");
-        }
-
-        String providedUsername = username.getTextContent();
-        String providedPassword = password.getTextContent();
-        if (!wsSecurity.getUsername().equals(providedUsername) || !wsSecurity.getPassword().equals(providedPassword)) {
-            throw new IllegalArgumentException("Credenciales WS-Security inválidas");
-        }
-    }
-
-    private void buildSoapSuccessResponse(Exchange exchange) {
-        String rawData = exchange.getIn().getBody(String.class);
-        String apiContentType = exchange.getProperty("apiResponseContentType", String.class);
-        ApiDataFormatter.FormattedData formattedData = apiDataFormatter.format(rawData, apiContentType);
-        int statusCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class);
-        boolean success = statusCode >= 200 && statusCode <= 299;
-        String operationName = exchange.getIn().getHeader("SoapOperation", String.class);
-        String namespace = exchange.getIn().getHeader("SoapNamespace", String.class);
-        if (namespace == null || namespace.isBlank()) {
-            namespace = "http://softslim.com/gateway";
-        }
-
-        String dataNode = formattedData.xmlPayload()
-            ? formattedData.payload()
-            : apiDataFormatter.escapeXml(formattedData.payload());
-
-        String soapResponse =
-            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
-            "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">" +
-            "  <soap:Body>" +
-            "    <ns:" + operationName + "Response xmlns:ns=\"" + escapeXml(namespace) + "\">" +
-            "      <success>" + success + "</success>" +
-            "      <statusCode>" + statusCode + "</statusCode>" +
-            "      <dataRedeable>" + formattedData.dataRedeable() + "</dataRedeable>" +
-            "      <data>" + dataNode + "</data>" +
-            "    </ns:" + operationName + "Response>" +
-            "  </soap:Body>" +
-            "</soap:Envelope>";
-
-        exchange.getIn().setBody(soapResponse);
-        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, "text/xml");
-    }
-
-    private void ensureCorrelationId(Exchange exchange) {
-        String correlationId = exchange.getIn().getHeader("CorrelationId", String.class);
-        if (correlationId == null || correlationId.isBlank()) {
-            correlationId = UUID.randomUUID().toString();
-            exchange.getIn().setHeader("CorrelationId", correlationId);
-        }
-        exchange.setProperty("CorrelationId", correlationId);
-    }
-
-    private void buildWsdlResponse(
-        Exchange exchange,
-        String serviceName,
-        BridgeConfiguration.EndpointClient endpointClient,
-        String soapPath
-    ) {
-        String query = exchange.getIn().getHeader(Exchange.HTTP_QUERY, String.class);
-        if (query == null || !query.toLowerCase(Locale.ROOT).contains("wsdl")) {
-            exchange.getIn().setBody("WSDL request expected");
-            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
-            return;
-        }
-
-        String endpointUrl = exchange.getIn().getHeader(Exchange.HTTP_URI, String.class);
-        if (endpointUrl == null || endpointUrl.isBlank()) {
-            endpointUrl = soapPath;
-        }
-
-        String wsdl = wsdlContractService.buildWsdl(serviceName, endpointClient, endpointUrl);
-        exchange.getIn().setBody(wsdl);
-        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, "text/xml");
-    }
-
-    private String normalizeSoapPath(String soapPath, String serviceName) {
-        if (soapPath == null || soapPath.isBlank()) {
-            return "/soap/" + serviceName;
-        }
-
-        return soapPath.startsWith("/") ? soapPath : "/" + soapPath;
-    }
-
-    private String resolvePathVariables(String path, Exchange exchange) {
-        if (path == null || path.isBlank()) {
-            return "";
-        }
-
-        return resolveTemplate(path, exchange, true);
-    }
-
-    private String resolveTemplate(String template, Exchange exchange, boolean required) {
-        if (template == null) {
-            return "";
-        }
-
-        String withSoap = replacePlaceholders(template, SOAP_PLACEHOLDER, exchange, required);
-        if (withSoap == null) {
-            return null;
-        }
-        String withHeader = replacePlaceholders(withSoap, HEADER_PLACEHOLDER, exchange, required);
-        return withHeader;
-    }
-
-    private String replacePlaceholders(
-        String template,
-        Pattern pattern,
-        Exchange exchange,
-        boolean required
-    ) {
-        Matcher matcher = pattern.matcher(template);
-        StringBuilder resolved = new StringBuilder();
-        while (matcher.find()) {
-            String headerName = matcher.group(1);
-            Object value = exchange.getIn().getHeader(headerName);
-            if (value == null) {
-                if (required) {
-                    throw new IllegalArgumentException("Header requerido no encontrado para path REST: " + headerName);
-                }
-                return null;
-            }
-            matcher.appendReplacement(resolved, Matcher.quoteReplacement(value.toString()));
-        }
-        matcher.appendTail(resolved);
-        return resolved.toString();
-    }
-
-    private void extractNestedParameters(
-        Element parent,
-        String prefix,
-        Exchange exchange,
-        Map<String, Object> target
-    ) {
-        NodeList children = parent.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-
-            Element element = (Element) child;
-            String key = element.getLocalName() != null ? element.getLocalName() : element.getNodeName();
-            String fullKey = prefix.isBlank() ? key : prefix + "." + key;
-
-            if (hasElementChildren(element)) {
-                Map<String, Object> nested = new LinkedHashMap<>();
-                extractNestedParameters(element, fullKey, exchange, nested);
-                target.put(key, nested);
-                continue;
-            }
-
-            String value = element.getTextContent();
-            target.put(key, value);
-            exchange.getIn().setHeader(key, value);
-            exchange.getIn().setHeader(fullKey, value);
-        }
-    }
-
-    private boolean hasElementChildren(Element element) {
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            if (childNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private String buildTargetUrl(String domainPath, String path) {
-        String base = domainPath.endsWith("/") ? domainPath.substring(0, domainPath.length() - 1) : domainPath;
-        String suffix = path.startsWith("/") ? path : "/" + path;
-        return base + suffix;
-    }
-
-    private boolean isBodyMethod(String method) {
-        return "POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method);
-    }
-
-    private Element findElementByLocalName(Element start, String localName) {
-        if (start == null) {
-            return null;
-        }
-
-        if (localName.equals(start.getLocalName()) || localName.equals(start.getNodeName())) {
-            return start;
-        }
-
-        NodeList children = start.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-            Element found = findElementByLocalName((Element) child, localName);
-            if (found != null) {
-                return found;
-            }
-        }
-
-        return null;
-    }
-
-    private Element firstChildElement(Element parent) {
-        NodeList children = parent.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child.getNodeType() == Node.ELEMENT_NODE) {
-                return (Element) child;
+        if (restPath.getComposite() != null && !restPath.getComposite().isEmpty()) {
+            CompositeInvocationService.Plan plan = compositeInvocationService.plan(restPath);
+            Map<String, OperationPlan> legPlans = new HashMap<>();
+            for (BridgeConfiguration.CompositeLeg leg : restPath.getComposite()) {
+                legPlans.put(leg.getName(), steps.compilePlan(routeId + "." + leg.getName(), endpointClient,
+                    compositeInvocationService.legPath(restPath, leg), upstreamPool));
             }
+            from("direct:" + routeId)
+                .routeId(routeId)
+                .log(LoggingLevel.DEBUG, "Ejecutando operación compuesta: " + restPath.getOperation())
+                .process(exchange -> RequestTimeline.route(exchange, routeId))
+                .setProperty(DataMode.PROPERTY, constant(dataMode))
+                .process(exchange -> WarmupScope.admit(exchange, admitted -> rateLimitService.admitOperation(admitted, operationScope, restPath.getRateLimit())))
+                .process(exchange -> Deadline.forOperation(exchange, restPath.getDeadline()))
+                .process(WarmupScope.backend(exchange -> compositeInvocationService.invoke(exchange, plan, (legExchange, leg, timeout) -> {
+                    OperationPlan legPlan = legPlans.get(leg.getName());
+                    steps.timed(GatewayStage.PREPARE, legCall -> steps.prepareRestInvocation(legCall, legPlan, timeout)).process(legExchange);
+                    steps.timed(GatewayStage.BACKEND, restInvocationService::invoke).process(legExchange);
+                })))
+                .process(steps.timed(GatewayStage.RENDER, steps::buildSoapSuccessResponse))
+                // el 206 de un resultado parcial va en <statusCode>; la respuesta SOAP es un 200
+                .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(200))
+                .log(LoggingLevel.DEBUG, "Respuesta SOAP generada para operación: " + restPath.getOperation());
+            return;
         }
-        return null;
-    }
 
-    private String escapeXml(String value) {
-        return value
-            .replace("&", "&amp;")
-            .replace("<", "&lt;")
-            .replace(">", "&gt;")
-            .replace("\"", "&quot;")
-            .replace("'", "&apos;");
+        OperationPlan operationPlan = steps.compilePlan(routeId, endpointClient, restPath, upstreamPool);
+        from("direct:" + routeId)
+            .routeId(routeId)
+            .log(LoggingLevel.DEBUG, "Ejecutando operación: " + restPath.getOperation())
+            .process(exchange -> RequestTimeline.route(exchange, routeId))
+            .setProperty(DataMode.PROPERTY, constant(dataMode))
+            .process(exchange -> WarmupScope.admit(exchange, admitted -> rateLimitService.admitOperation(admitted, operationScope, restPath.getRateLimit())))
+            .process(exchange -> Deadline.forOperation(exchange, restPath.getDeadline()))
+            .process(steps.timed(GatewayStage.PREPARE, exchange -> steps.prepareRestInvocation(exchange, operationPlan, operationPlan.timeout())))
+            .process(steps.timed(GatewayStage.BACKEND, WarmupScope.backend(exchange -> idempotencyService.invoke(exchange, restPath,
+                deduplicated -> responseCacheService.invoke(deduplicated, restPath, restInvocationService::invoke)))))
+            .process(steps.timed(GatewayStage.RENDER, steps::buildSoapSuccessResponse))
+            .log(LoggingLevel.DEBUG, "Respuesta SOAP generada para operación: " + restPath.getOperation());
     }
 }
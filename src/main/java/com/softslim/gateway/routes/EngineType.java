@@ -0,0 +1,33 @@
+package com.softslim.gateway.routes;
+
+import java.util.Locale;
+
+// motor que atiende el path SOAP de un servicio
+public enum EngineType {
+    CAMEL("camel"),
+    DIRECT("direct"),
+    ASYNC("async");
+
+    private final String key;
+
+    EngineType(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static EngineType fromConfig(String value) {
+        if (value == null || value.isBlank()) {
+            return CAMEL;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (EngineType engine : values()) {
+            if (engine.key.equals(normalized)) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("Motor de ejecución no soportado: " + value + " (camel, direct, async)");
+    }
+}
@@ -0,0 +1,531 @@
+package com.softslim.gateway.routes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.observability.AccessLogWriter;
+import com.softslim.gateway.observability.GatewayStage;
+import com.softslim.gateway.observability.GatewayStageEvent;
+import com.softslim.gateway.observability.GatewayTracing;
+import com.softslim.gateway.observability.RequestInspector;
+import com.softslim.gateway.observability.RequestTimeline;
+import com.softslim.gateway.processor.SoapFaultProcessor;
+import com.softslim.gateway.service.ApiDataFormatter;
+import com.softslim.gateway.service.BackendHttpClients;
+import com.softslim.gateway.service.BatchExecutionService;
+import com.softslim.gateway.service.BinaryPayload;
+import com.softslim.gateway.service.BulkheadRegistry;
+import com.softslim.gateway.service.CorrelationIdGenerator;
+import com.softslim.gateway.service.DataMode;
+import com.softslim.gateway.service.Deadline;
+import com.softslim.gateway.service.LoadSheddingService;
+import com.softslim.gateway.service.OAuth2TokenService;
+import com.softslim.gateway.service.OperationPlan;
+import com.softslim.gateway.service.RateLimitService;
+import com.softslim.gateway.service.TrafficCaptureService;
+import com.softslim.gateway.service.UpstreamPool;
+import com.softslim.gateway.service.WarmupScope;
+import com.softslim.gateway.service.WsSecurityValidator;
+import com.softslim.gateway.service.WsdlContractService;
+import com.softslim.gateway.xml.SoapVersion;
+import com.softslim.gateway.xml.StreamingSoapResponse;
+import com.softslim.gateway.xml.XmlEscaper;
+import io.micrometer.tracing.Span;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// pasos de una petición SOAP compartidos por el motor Camel y el motor directo, para que ambos se comporten igual
+@Slf4j
+@Component
+public class GatewaySteps {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BridgeConfiguration bridgeConfig;
+    private final OAuth2TokenService oAuth2TokenService;
+    private final WsdlContractService wsdlContractService;
+    private final ApiDataFormatter apiDataFormatter;
+    private final WsSecurityValidator wsSecurityValidator;
+    private final AccessLogWriter accessLogWriter;
+    private final GatewayTracing gatewayTracing;
+    private final RateLimitService rateLimitService;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final LoadSheddingService loadSheddingService;
+    private final RequestInspector requestInspector;
+    private final TrafficCaptureService trafficCaptureService;
+    private final CorrelationIdGenerator correlationIdGenerator;
+    private final BackendHttpClients backendHttpClients;
+    // un único plan por operación aunque la usen los dos motores
+    private final Map<String, OperationPlan> plans = new ConcurrentHashMap<>();
+
+    public GatewaySteps(BridgeConfiguration bridgeConfig,
+                        OAuth2TokenService oAuth2TokenService,
+                        WsdlContractService wsdlContractService,
+                        ApiDataFormatter apiDataFormatter,
+                        WsSecurityValidator wsSecurityValidator,
+                        AccessLogWriter accessLogWriter,
+                        GatewayTracing gatewayTracing,
+                        RateLimitService rateLimitService,
+                        BulkheadRegistry bulkheadRegistry,
+                        LoadSheddingService loadSheddingService,
+                        RequestInspector requestInspector,
+                        TrafficCaptureService trafficCaptureService,
+                        CorrelationIdGenerator correlationIdGenerator,
+                        BackendHttpClients backendHttpClients) {
+        this.bridgeConfig = bridgeConfig;
+        this.oAuth2TokenService = oAuth2TokenService;
+        this.wsdlContractService = wsdlContractService;
+        this.apiDataFormatter = apiDataFormatter;
+        this.wsSecurityValidator = wsSecurityValidator;
+        this.accessLogWriter = accessLogWriter;
+        this.gatewayTracing = gatewayTracing;
+        this.rateLimitService = rateLimitService;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.loadSheddingService = loadSheddingService;
+        this.requestInspector = requestInspector;
+        this.trafficCaptureService = trafficCaptureService;
+        this.correlationIdGenerator = correlationIdGenerator;
+        this.backendHttpClients = backendHttpClients;
+    }
+
+    // entrada de la petición: inspección, access log, traza, bulkhead, deadline y versión SOAP según Content-Type
+    public void open(Exchange exchange, String serviceName, BridgeConfiguration.EndpointClient endpointClient) {
+        requestInspector.begin(exchange, serviceName);
+        accessLogWriter.begin(exchange, serviceName);
+        gatewayTracing.startRequest(exchange, serviceName);
+        bulkheadRegistry.enter(exchange, serviceName, endpointClient.getBulkhead());
+        Deadline.start(exchange, bridgeConfig.getDeadlineHeader());
+        exchange.setProperty(SoapVersion.PROPERTY,
+            SoapVersion.fromContentType(exchange.getIn().getHeader(Exchange.CONTENT_TYPE, String.class)));
+    }
+
+    // con el cuerpo ya como String: correlation id y muestreo de captura
+    public void identify(Exchange exchange, String serviceName, String soapPath) {
+        ensureCorrelationId(exchange);
+        trafficCaptureService.begin(exchange, serviceName, soapPath);
+    }
+
+    public void parse(Exchange exchange, String serviceName, BridgeConfiguration.EndpointClient endpointClient) throws Exception {
+        timed(GatewayStage.PARSE, parsed -> extractSoapContext(parsed, serviceName, endpointClient)).process(exchange);
+        WarmupScope.admit(exchange, admitted -> rateLimitService.admitService(admitted, serviceName, endpointClient.getRateLimit()));
+    }
+
+    public Processor timed(GatewayStage stage, Processor processor) {
+        return exchange -> {
+            RequestTimeline.enter(exchange, stage);
+            GatewayStageEvent event = GatewayStageEvent.start();
+            long start = System.nanoTime();
+            try {
+                gatewayTracing.trace(exchange, "gateway." + stage.key(), processor);
+            } finally {
+                RequestTimeline.record(exchange, stage, System.nanoTime() - start);
+                event.finish(exchange, stage.key());
+            }
+        };
+    }
+
+    // versión de timed para etapas asíncronas: la etapa se cierra cuando termina el futuro, no al devolverlo
+    public <T> CompletableFuture<T> timedAsync(GatewayStage stage, Exchange exchange, Supplier<CompletableFuture<T>> work) {
+        RequestTimeline.enter(exchange, stage);
+        GatewayStageEvent event = GatewayStageEvent.start();
+        long start = System.nanoTime();
+        Span span = gatewayTracing.startChild(exchange, "gateway." + stage.key());
+        Object previous = exchange.getProperty(GatewayTracing.SPAN_PROPERTY);
+        if (span != Span.NOOP) {
+            exchange.setProperty(GatewayTracing.SPAN_PROPERTY, span);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = work.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, failure) -> {
+            if (span != Span.NOOP) {
+                exchange.setProperty(GatewayTracing.SPAN_PROPERTY, previous);
+            }
+            if (failure != null) {
+                span.error(failure);
+            }
+            span.end();
+            RequestTimeline.record(exchange, stage, System.nanoTime() - start);
+            event.finish(exchange, stage.key());
+        });
+    }
+
+    public OperationPlan compilePlan(
+        String routeKey,
+        BridgeConfiguration.EndpointClient endpointClient,
+        BridgeConfiguration.RestPath restPath,
+        UpstreamPool upstreamPool
+    ) {
+        return plans.computeIfAbsent(routeKey, key -> {
+            OperationPlan plan = OperationPlan.compile(key, endpointClient, restPath, upstreamPool,
+                bridgeConfig.getGlobalResilience(), backendHttpClients);
+            if (plan.configurationError() != null) {
+                log.warn("Configuración inválida para la operación {}: {}", key, plan.configurationError());
+            }
+            return plan;
+        });
+    }
+
+    public void prepareRestInvocation(Exchange exchange, OperationPlan plan, int timeout) throws Exception {
+        OperationPlan.Invocation invocation = plan.prepare(exchange, timeout);
+        applySecurity(exchange, plan.oauth2(), invocation.headers());
+        bindInvocation(exchange, plan, invocation);
+    }
+
+    // igual que prepareRestInvocation pero el token OAuth2 se obtiene sin bloquear el hilo
+    public CompletableFuture<Void> prepareRestInvocationAsync(Exchange exchange, OperationPlan plan, int timeout) {
+        OperationPlan.Invocation invocation;
+        try {
+            invocation = plan.prepare(exchange, timeout);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        BridgeConfiguration.OAuth2Config oauth2 = plan.oauth2();
+        if (oauth2 == null) {
+            return CompletableFuture.runAsync(() -> bindInvocation(exchange, plan, invocation), Runnable::run);
+        }
+
+        GatewayStageEvent tokenEvent = GatewayStageEvent.start();
+        Span span = gatewayTracing.startChild(exchange, "oauth2.token");
+        return oAuth2TokenService.getAccessTokenAsync(
+                oauth2.getTokenUri(),
+                oauth2.getClientId(),
+                oauth2.getClientSecret(),
+                oauth2.getScope(),
+                Deadline.of(exchange))
+            .whenComplete((token, failure) -> {
+                if (failure != null) {
+                    span.error(failure);
+                }
+                span.end();
+                tokenEvent.finish(exchange, "oauth2.token");
+            })
+            .thenAccept(token -> {
+                invocation.headers().set("Authorization", "Bearer " + token);
+                bindInvocation(exchange, plan, invocation);
+            });
+    }
+
+    private void bindInvocation(Exchange exchange, OperationPlan plan, OperationPlan.Invocation invocation) {
+        String correlationId = exchange.getProperty("CorrelationId", String.class);
+        if (correlationId != null && !invocation.headers().containsKey("CorrelationId")) {
+            invocation.headers().set("CorrelationId", correlationId);
+        }
+        exchange.setProperty(OperationPlan.INVOCATION_PROPERTY, invocation);
+
+        if (plan.bodyMethod()) {
+            Object paramsObject = exchange.getProperty("SoapParameters");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> params = paramsObject instanceof Map ? (Map<String, Object>) paramsObject : Map.of();
+            try {
+                exchange.getIn().setBody(OBJECT_MAPPER.writeValueAsString(params));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("No fue posible serializar parámetros SOAP: " + e.getOriginalMessage(), e);
+            }
+            exchange.getIn().setHeader(Exchange.CONTENT_TYPE, "application/json");
+        } else {
+            exchange.getIn().setBody(null);
+        }
+    }
+
+    private void applySecurity(
+        Exchange exchange,
+        BridgeConfiguration.OAuth2Config oauth2,
+        HttpHeaders outboundHeaders
+    ) throws Exception {
+        if (oauth2 == null) {
+            return;
+        }
+
+        GatewayStageEvent tokenEvent = GatewayStageEvent.start();
+        String token;
+        try {
+            token = gatewayTracing.trace(exchange, "oauth2.token", () -> oAuth2TokenService.getAccessToken(
+                oauth2.getTokenUri(),
+                oauth2.getClientId(),
+                oauth2.getClientSecret(),
+                oauth2.getScope(),
+                Deadline.of(exchange)
+            ));
+        } finally {
+            tokenEvent.finish(exchange, "oauth2.token");
+        }
+        outboundHeaders.set("Authorization", "Bearer " + token);
+    }
+
+    private void extractSoapContext(Exchange exchange, String serviceName, BridgeConfiguration.EndpointClient endpointClient) throws Exception {
+        String soapRequest = exchange.getIn().getBody(String.class);
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(soapRequest)));
+        // el namespace del Envelope manda sobre el Content-Type para decidir la versión de la respuesta
+        exchange.setProperty(SoapVersion.PROPERTY, SoapVersion.fromNamespace(document.getDocumentElement().getNamespaceURI()));
+
+        Element body = findElementByLocalName(document.getDocumentElement(), "Body");
+        if (body == null) {
+            throw new IllegalArgumentException("SOAP Body no encontrado");
+        }
+
+        List<Element> operationElements = childElements(body);
+        if (operationElements.isEmpty()) {
+            throw new IllegalArgumentException("No se encontró operación dentro del SOAP Body");
+        }
+
+        Element operationElement = operationElements.get(0);
+        boolean batchWrapper = BatchExecutionService.BATCH_OPERATION.equals(localName(operationElement));
+        boolean batch = bridgeConfig.getBatch().isEnabled() && (batchWrapper || operationElements.size() > 1);
+        // con la operación ya conocida se descarta antes de validar WS-Security, que es la parte cara bajo carga
+        WarmupScope.admit(exchange, admitted -> loadSheddingService.admit(admitted, serviceName, batch ? null : localName(operationElement)));
+        String wsSecurityUsername = wsSecurityValidator.validate(document, endpointClient);
+        if (wsSecurityUsername != null) {
+            exchange.setProperty(RateLimitService.WS_SECURITY_USERNAME_PROPERTY, wsSecurityUsername);
+        }
+
+        if (batch) {
+            List<Element> itemElements = batchWrapper ? childElements(operationElement) : operationElements;
+            exchange.getIn().setHeader("SoapOperation", BatchExecutionService.BATCH_OPERATION);
+            exchange.getIn().setHeader("SoapNamespace", operationElement.getNamespaceURI());
+            exchange.setProperty(BatchExecutionService.BATCH_ITEMS_PROPERTY, itemElements.stream()
+                .map(this::toBatchItem)
+                .toList());
+            return;
+        }
+
+        exchange.getIn().setHeader("SoapOperation", localName(operationElement));
+        exchange.getIn().setHeader("SoapNamespace", operationElement.getNamespaceURI());
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        Map<String, Object> parameterHeaders = new LinkedHashMap<>();
+        extractNestedParameters(operationElement, "", parameterHeaders, parameters);
+        exchange.getIn().getHeaders().putAll(parameterHeaders);
+        exchange.setProperty("SoapParameters", parameters);
+    }
+
+    private BatchExecutionService.BatchItem toBatchItem(Element operationElement) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        Map<String, Object> parameterHeaders = new LinkedHashMap<>();
+        extractNestedParameters(operationElement, "", parameterHeaders, parameters);
+        return new BatchExecutionService.BatchItem(
+            localName(operationElement),
+            operationElement.getNamespaceURI(),
+            parameters,
+            parameterHeaders
+        );
+    }
+
+    public void buildSoapSuccessResponse(Exchange exchange) {
+        SoapVersion version = SoapVersion.of(exchange);
+        int statusCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class);
+        boolean success = statusCode >= 200 && statusCode <= 299;
+        String operationName = exchange.getIn().getHeader("SoapOperation", String.class);
+        String namespace = exchange.getIn().getHeader("SoapNamespace", String.class);
+        if (namespace == null || namespace.isBlank()) {
+            namespace = "http://softslim.com/gateway";
+        }
+
+        if (exchange.getIn().getBody() instanceof BinaryPayload binary) {
+            if (!exchange.getProperty(BatchExecutionService.BATCH_ITEM_PROPERTY, false, Boolean.class)) {
+                buildBinarySoapResponse(exchange, binary, version, operationName, namespace, success, statusCode);
+                return;
+            }
+            // dentro de un lote el ítem termina incrustado en la respuesta agregada
+            exchange.getIn().setBody(binary.toBase64());
+        }
+
+        String rawData = exchange.getIn().getBody(String.class);
+        String apiContentType = exchange.getProperty("apiResponseContentType", String.class);
+        ApiDataFormatter.FormattedData formattedData = apiDataFormatter.format(rawData, apiContentType, DataMode.of(exchange));
+
+        String dataNode = formattedData.xmlPayload()
+            ? formattedData.payload()
+            : XmlEscaper.escape(formattedData.payload());
+
+        String responseElement =
+            "<ns:" + operationName + "Response xmlns:ns=\"" + XmlEscaper.escape(namespace) + "\">" +
+            "      <success>" + success + "</success>" +
+            "      <statusCode>" + statusCode + "</statusCode>" +
+            "      <dataRedeable>" + formattedData.dataRedeable() + "</dataRedeable>" +
+            "      <data>" + dataNode + "</data>" +
+            "    </ns:" + operationName + "Response>";
+
+        exchange.setProperty(SoapFaultProcessor.RESPONSE_ELEMENT_PROPERTY, responseElement);
+        exchange.setProperty(SoapFaultProcessor.RESPONSE_SUCCESS_PROPERTY, success);
+        exchange.getIn().setBody(SoapFaultProcessor.wrapInEnvelope(responseElement, version, exchange.getProperty("CorrelationId", String.class)));
+        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, version.contentType());
+    }
+
+    // el binario nunca pasa por String: se emite como adjunto MTOM o como base64 por bloques mientras se escribe
+    private void buildBinarySoapResponse(
+        Exchange exchange,
+        BinaryPayload binary,
+        SoapVersion version,
+        String operationName,
+        String namespace,
+        boolean success,
+        int statusCode
+    ) {
+        String elementStart =
+            "<ns:" + operationName + "Response xmlns:ns=\"" + XmlEscaper.escape(namespace) + "\">" +
+            "      <success>" + success + "</success>" +
+            "      <statusCode>" + statusCode + "</statusCode>" +
+            "      <dataRedeable>false</dataRedeable>" +
+            "      <data>";
+        String elementEnd = "</data>    </ns:" + operationName + "Response>";
+        String correlationId = exchange.getProperty("CorrelationId", String.class);
+
+        StreamingSoapResponse.Rendered rendered = StreamingSoapResponse.acceptsMtom(exchange.getIn().getHeader("Accept", String.class))
+            ? StreamingSoapResponse.mtom(version, correlationId, elementStart, elementEnd, binary.contentType(), binary::openStream)
+            : StreamingSoapResponse.base64(version, correlationId, elementStart, elementEnd, binary::openStream);
+        exchange.getIn().setBody(rendered.body());
+        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, rendered.contentType());
+    }
+
+    public void ensureCorrelationId(Exchange exchange) {
+        String correlationId = exchange.getIn().getHeader("CorrelationId", String.class);
+        if (correlationId == null || correlationId.isBlank()) {
+            correlationId = correlationIdGenerator.next();
+            exchange.getIn().setHeader("CorrelationId", correlationId);
+        }
+        exchange.setProperty("CorrelationId", correlationId);
+    }
+
+    public void buildWsdlResponse(
+        Exchange exchange,
+        String serviceName,
+        BridgeConfiguration.EndpointClient endpointClient,
+        String soapPath
+    ) {
+        String query = exchange.getIn().getHeader(Exchange.HTTP_QUERY, String.class);
+        if (query == null || !query.toLowerCase(Locale.ROOT).contains("wsdl")) {
+            exchange.getIn().setBody("WSDL request expected");
+            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
+            return;
+        }
+
+        String endpointUrl = exchange.getIn().getHeader(Exchange.HTTP_URI, String.class);
+        if (endpointUrl == null || endpointUrl.isBlank()) {
+            endpointUrl = soapPath;
+        }
+
+        String wsdl = wsdlContractService.buildWsdl(serviceName, endpointClient, endpointUrl);
+        exchange.getIn().setBody(wsdl);
+        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, "text/xml");
+    }
+
+    public static String normalizeSoapPath(String soapPath, String serviceName) {
+        if (soapPath == null || soapPath.isBlank()) {
+            return "/soap/" + serviceName;
+        }
+
+        return soapPath.startsWith("/") ? soapPath : "/" + soapPath;
+    }
+
+    private void extractNestedParameters(
+        Element parent,
+        String prefix,
+        Map<String, Object> headers,
+        Map<String, Object> target
+    ) {
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+
+            Element element = (Element) child;
+            String key = element.getLocalName() != null ? element.getLocalName() : element.getNodeName();
+            String fullKey = prefix.isBlank() ? key : prefix + "." + key;
+
+            if (hasElementChildren(element)) {
+                Map<String, Object> nested = new LinkedHashMap<>();
+                extractNestedParameters(element, fullKey, headers, nested);
+                target.put(key, nested);
+                continue;
+            }
+
+            String value = element.getTextContent();
+            target.put(key, value);
+            headers.put(key, value);
+            headers.put(fullKey, value);
+        }
+    }
+
+    private boolean hasElementChildren(Element element) {
+        NodeList childNodes = element.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            if (childNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Element findElementByLocalName(Element start, String localName) {
+        if (start == null) {
+            return null;
+        }
+
+        if (localName.equals(start.getLocalName()) || localName.equals(start.getNodeName())) {
+            return start;
+        }
+
+        NodeList children = start.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            Element found = findElementByLocalName((Element) child, localName);
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return null;
+    }
+
+    private List<Element> childElements(Element parent) {
+        List<Element> elements = new ArrayList<>();
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                elements.add((Element) child);
+            }
+        }
+        return elements;
+    }
+
+    private String localName(Element element) {
+        return element.getLocalName() != null ? element.getLocalName() : element.getNodeName();
+    }
+}
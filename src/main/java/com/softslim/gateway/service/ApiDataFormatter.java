@@ -2,12 +2,47 @@ package com.softslim.gateway.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softslim.gateway.xml.XmlEscaper;
+import com.softslim.gateway.xml.XmlPassthrough;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
 @Service
 public class ApiDataFormatter {
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    public FormattedData format(String rawData, String contentType, DataMode mode) {
+        if (rawData == null) {
+            return new FormattedData("", false, false);
+        }
+
+        switch (mode == null ? DataMode.CONVERTED : mode) {
+            case XML_PASSTHROUGH -> {
+                if (looksLikeXml(rawData, contentType)) {
+                    String embedded = XmlPassthrough.embeddable(rawData);
+                    if (embedded != null) {
+                        return new FormattedData(embedded, true, true);
+                    }
+                }
+                // JSON, texto o XML mal formado siguen el camino convertido
+                return format(rawData, contentType);
+            }
+            case CDATA -> {
+                return new FormattedData(XmlEscaper.cdata(rawData), false, true);
+            }
+            case RAW_BASE64 -> {
+                return new FormattedData(Base64.getEncoder().encodeToString(rawData.getBytes(StandardCharsets.UTF_8)), false, true);
+            }
+            default -> {
+                return format(rawData, contentType);
+            }
+        }
+    }
+
+    // el payload de texto se devuelve sin escapar: quien lo incrusta lo escapa una única vez
     public FormattedData format(String rawData, String contentType) {
         if (rawData == null) {
             return new FormattedData("", false, false);
@@ -22,23 +57,19 @@ public class ApiDataFormatter {
                 xml.append("</json>");
                 return new FormattedData(xml.toString(), true, true);
             } catch (Exception ignored) {
-                return new FormattedData(escapeXml(rawData), false, false);
+                return new FormattedData(rawData, false, false);
             }
         }
 
-        return new FormattedData(escapeXml(rawData), false, false);
+        return new FormattedData(rawData, false, false);
     }
 
-    public String escapeXml(String value) {
-        if (value == null) {
-            return "";
+    private boolean looksLikeXml(String rawData, String contentType) {
+        if (contentType != null && !contentType.isBlank()) {
+            return contentType.toLowerCase(Locale.ROOT).contains("xml");
         }
-        return value
-            .replace("&", "&amp;")
-            .replace("<", "&lt;")
-            .replace(">", "&gt;")
-            .replace("\"", "&quot;")
-            .replace("'", "&apos;");
+        String trimmed = rawData.stripLeading();
+        return trimmed.startsWith("<") || trimmed.startsWith("\uFEFF<");
     }
 
     private void buildXmlFromJson(JsonNode node, StringBuilder xml) {
@@ -61,7 +92,7 @@ public class ApiDataFormatter {
             return;
         }
 
-        xml.append(escapeXml(node.asText("")));
+        XmlEscaper.escape(node.asText(""), xml);
     }
 
     private String sanitizeXmlElementName(String rawName) {
@@ -0,0 +1,349 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.exception.StreamLimitExceededException;
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.observability.GatewayTracing;
+import com.softslim.gateway.observability.RequestTimeline;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.tracing.Span;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// contraparte no bloqueante de RestInvocationService: sendAsync sobre el mismo cliente del plan, la espera al backend
+// no ocupa hilos y la respuesta se procesa en el executor del cliente (hilos virtuales)
+@Slf4j
+@Service
+public class AsyncRestInvocationService {
+    private final ResilienceRegistry resilienceRegistry;
+    private final GatewayTracing gatewayTracing;
+    // sólo programa las esperas entre reintentos
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "async-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AsyncRestInvocationService(ResilienceRegistry resilienceRegistry, GatewayTracing gatewayTracing) {
+        this.resilienceRegistry = resilienceRegistry;
+        this.gatewayTracing = gatewayTracing;
+    }
+
+    public CompletableFuture<Void> invoke(Exchange exchange) {
+        OperationPlan.Invocation invocation = exchange.getProperty(OperationPlan.INVOCATION_PROPERTY, OperationPlan.Invocation.class);
+        if (invocation == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Configuración REST incompleta para invocación"));
+        }
+        OperationPlan plan = invocation.plan();
+        String routeKey = plan.routeKey();
+        AttemptContext context = new AttemptContext(exchange, plan, invocation.timeout(), Deadline.of(exchange),
+            exchange.getIn().getBody(String.class), exchange.getIn().getHeader(Exchange.CONTENT_TYPE, String.class),
+            invocation.headers(), new AtomicInteger());
+
+        CompletionStage<BackendResponse> call;
+        try {
+            call = plan.upstreamPool() != null
+                ? withFailover(plan.upstreamPool(), invocation.targetPath(), routeKey, plan.resilience(),
+                    url -> attempt(context, url))
+                : decorate(routeKey, plan.resilience(), () -> attempt(context, invocation.targetUrl())).get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        return call.toCompletableFuture().handle((response, failure) -> {
+            if (failure != null) {
+                throw RestInvocationService.translate(exchange, routeKey, unwrap(failure));
+            }
+            RestInvocationService.applyResponse(exchange, response.statusCode(), response.contentType(), response.body());
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+    }
+
+    public static RuntimeException unwrap(Throwable failure) {
+        Throwable cause = cause(failure);
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause.getMessage(), cause);
+    }
+
+    private static Throwable cause(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    // cada intento (reintentos y failover incluidos) es un span propio con su traceparent
+    private CompletionStage<BackendResponse> attempt(AttemptContext context, String url) {
+        Exchange exchange = context.exchange();
+        OperationPlan plan = context.plan();
+        int timeout = context.timeout();
+        HttpRequest.Builder builder;
+        try {
+            if (context.deadline() != null) {
+                context.deadline().check(plan.routeKey());
+                timeout = context.deadline().clamp(timeout);
+            }
+            builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeout))
+                .method(plan.method().name(), plan.bodyMethod() && context.body() != null
+                    ? HttpRequest.BodyPublishers.ofString(context.body(), StandardCharsets.UTF_8)
+                    : HttpRequest.BodyPublishers.noBody());
+            if (plan.bodyMethod() && context.contentType() != null && !context.headers().containsKey(HttpHeaders.CONTENT_TYPE)) {
+                builder.header(HttpHeaders.CONTENT_TYPE, context.contentType());
+            }
+            HttpRequest.Builder target = builder;
+            context.headers().forEach((name, values) -> values.forEach(value -> target.header(name, value)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // sin espera: con el límite de streams alcanzado el intento se rechaza al momento y la presión llega al
+        // cliente; el stream se libera al terminar el intento, no durante el backoff entre reintentos
+        Semaphore streams = plan.streams();
+        if (!streams.tryAcquire()) {
+            return CompletableFuture.failedFuture(new StreamLimitExceededException(plan.routeKey()));
+        }
+
+        RequestTimeline.backendUrl(exchange, url);
+        Span span = gatewayTracing.startChild(exchange, "backend.attempt");
+        span.tag("http.method", plan.method().name());
+        span.tag("http.url", RequestTimeline.withoutQuery(url));
+        span.tag("gateway.attempt", String.valueOf(context.attempts().incrementAndGet()));
+        gatewayTracing.inject(span, builder::setHeader);
+
+        CompletableFuture<HttpResponse<InputStream>> sent;
+        try {
+            sent = plan.httpClient().sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent
+            .handle((response, failure) -> {
+                try {
+                    if (failure != null) {
+                        throw transportError(cause(failure), plan, url);
+                    }
+                    BackendResponse result = read(exchange, response, plan, url);
+                    span.tag("http.status_code", String.valueOf(result.statusCode()));
+                    return result;
+                } catch (HttpStatusCodeException e) {
+                    span.tag("http.status_code", String.valueOf(e.getStatusCode().value()));
+                    span.error(e);
+                    throw RestInvocationService.skipRetryWithoutBudget(context.deadline(), plan, e);
+                } catch (RuntimeException e) {
+                    span.error(e);
+                    throw RestInvocationService.skipRetryWithoutBudget(context.deadline(), plan, e);
+                } finally {
+                    streams.release();
+                    span.end();
+                }
+            });
+    }
+
+    // mismos criterios que el extractor bloqueante: binarios al stream cache, texto como String, 4xx/5xx como excepción
+    private BackendResponse read(Exchange exchange, HttpResponse<InputStream> response, OperationPlan plan, String url) {
+        String contentType = response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse(null);
+        MediaType mediaType = mediaType(contentType);
+        try (InputStream body = response.body()) {
+            int status = response.statusCode();
+            if (status >= 400) {
+                throw statusError(status, response.headers().map(), body.readAllBytes(), charset(mediaType));
+            }
+            if (BinaryPayload.isBinary(mediaType)) {
+                return new BackendResponse(status, contentType, BinaryPayload.spool(exchange, body, mediaType.toString()));
+            }
+            return new BackendResponse(status, contentType, new String(body.readAllBytes(), charset(mediaType)));
+        } catch (IOException e) {
+            throw transportError(e, plan, url);
+        }
+    }
+
+    private HttpStatusCodeException statusError(int status, Map<String, List<String>> rawHeaders, byte[] body, Charset charset) {
+        HttpHeaders headers = new HttpHeaders();
+        rawHeaders.forEach(headers::addAll);
+        HttpStatusCode statusCode = HttpStatusCode.valueOf(status);
+        return statusCode.is5xxServerError()
+            ? HttpServerErrorException.create(statusCode, "", headers, body, charset)
+            : HttpClientErrorException.create(statusCode, "", headers, body, charset);
+    }
+
+    // los fallos de transporte se convierten en ResourceAccessException, como hace RestTemplate
+    private RuntimeException transportError(Throwable failure, OperationPlan plan, String url) {
+        if (failure instanceof IOException io) {
+            return new ResourceAccessException("I/O error on " + plan.method().name() + " request for \"" + url + "\": "
+                + io.getMessage(), io);
+        }
+        return unwrap(failure);
+    }
+
+    // mismo esquema que el motor bloqueante: un único Retry y cada intento a un upstream distinto
+    private CompletionStage<BackendResponse> withFailover(
+        UpstreamPool upstreamPool,
+        String targetPath,
+        String routeKey,
+        BridgeConfiguration.Resilience resilience,
+        Function<String, CompletionStage<BackendResponse>> call
+    ) {
+        Set<UpstreamPool.Upstream> tried = new HashSet<>();
+        Supplier<CompletionStage<BackendResponse>> attempt = () -> {
+            if (tried.size() >= upstreamPool.size()) {
+                tried.clear();
+            }
+            return attemptUpstream(upstreamPool, targetPath, routeKey, resilience, call, tried, null);
+        };
+        Retry retry = retry(routeKey, resilience);
+        if (retry != null) {
+            return Retry.decorateCompletionStage(retry, retryScheduler, attempt).get();
+        }
+        return failoverWithoutRetry(attempt, upstreamPool.size());
+    }
+
+    // sin retry configurado el failover se mantiene: como mucho un intento por upstream
+    private CompletionStage<BackendResponse> failoverWithoutRetry(Supplier<CompletionStage<BackendResponse>> attempt, int remaining) {
+        return attempt.get().exceptionallyCompose(failure -> {
+            RuntimeException cause = unwrap(failure);
+            return remaining > 1 && UpstreamPool.triggersFailover(cause)
+                ? failoverWithoutRetry(attempt, remaining - 1)
+                : CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    // los upstreams con el circuito abierto se saltan sin gastar el intento
+    private CompletionStage<BackendResponse> attemptUpstream(
+        UpstreamPool upstreamPool,
+        String targetPath,
+        String routeKey,
+        BridgeConfiguration.Resilience resilience,
+        Function<String, CompletionStage<BackendResponse>> call,
+        Set<UpstreamPool.Upstream> tried,
+        RuntimeException refused
+    ) {
+        UpstreamPool.Upstream upstream = upstreamPool.choose(tried);
+        if (upstream == null) {
+            return CompletableFuture.failedFuture(refused != null
+                ? refused
+                : new ResourceAccessException("Sin upstreams disponibles para " + routeKey));
+        }
+        tried.add(upstream);
+
+        String url = upstreamPool.urlFor(upstream, targetPath);
+        Supplier<CompletionStage<BackendResponse>> supplier = () -> upstreamPool.trackAsync(upstream, () -> call.apply(url));
+        CircuitBreaker circuitBreaker = circuitBreaker(routeKey + "@" + upstream.name(), resilience);
+        CompletionStage<BackendResponse> stage = circuitBreaker != null
+            ? CircuitBreaker.decorateCompletionStage(circuitBreaker, supplier).get()
+            : supplier.get();
+        return stage.exceptionallyCompose(failure -> {
+            RuntimeException cause = unwrap(failure);
+            if (cause instanceof CallNotPermittedException) {
+                log.warn("Upstream {} con circuito abierto para {}, intentando siguiente", upstream.name(), routeKey);
+                return attemptUpstream(upstreamPool, targetPath, routeKey, resilience, call, tried, cause);
+            }
+            if (UpstreamPool.triggersFailover(cause)) {
+                log.warn("Upstream {} falló para {}, el siguiente intento irá a otro: {}", upstream.name(), routeKey, cause.getMessage());
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    private Supplier<CompletionStage<BackendResponse>> decorate(
+        String routeKey,
+        BridgeConfiguration.Resilience resilience,
+        Supplier<CompletionStage<BackendResponse>> supplier
+    ) {
+        Supplier<CompletionStage<BackendResponse>> decorated = supplier;
+        CircuitBreaker circuitBreaker = circuitBreaker(routeKey, resilience);
+        if (circuitBreaker != null) {
+            decorated = CircuitBreaker.decorateCompletionStage(circuitBreaker, decorated);
+        }
+
+        Retry retry = retry(routeKey, resilience);
+        if (retry != null) {
+            decorated = Retry.decorateCompletionStage(retry, retryScheduler, decorated);
+        }
+
+        return decorated;
+    }
+
+    private CircuitBreaker circuitBreaker(String routeKey, BridgeConfiguration.Resilience resilience) {
+        if (resilience == null || resilience.getCircuitBreaker() == null || !resilience.getCircuitBreaker().isEnabled()) {
+            return null;
+        }
+        return resilienceRegistry.circuitBreaker(routeKey, resilience.getCircuitBreaker());
+    }
+
+    private Retry retry(String routeKey, BridgeConfiguration.Resilience resilience) {
+        if (resilience == null || resilience.getRetry() == null || !resilience.getRetry().isEnabled()) {
+            return null;
+        }
+        return resilienceRegistry.retry(routeKey, resilience.getRetry());
+    }
+
+    private static MediaType mediaType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return null;
+        }
+        try {
+            return MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    private static Charset charset(MediaType mediaType) {
+        return mediaType != null && mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+    }
+
+    private record AttemptContext(
+        Exchange exchange,
+        OperationPlan plan,
+        int timeout,
+        Deadline deadline,
+        String body,
+        String contentType,
+        HttpHeaders headers,
+        AtomicInteger attempts
+    ) {
+    }
+
+    private record BackendResponse(int statusCode, String contentType, Object body) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.softslim.gateway.service;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// una sola RestTemplate por operación: el timeout de cada intento viaja en el hilo que lo ejecuta
+final class AttemptTimeoutRequestFactory implements ClientHttpRequestFactory {
+    private static final ThreadLocal<Integer> ATTEMPT_TIMEOUT = new ThreadLocal<>();
+
+    private final HttpClient httpClient;
+    private final int defaultTimeout;
+    private final JdkClientHttpRequestFactory defaultFactory;
+
+    AttemptTimeoutRequestFactory(HttpClient httpClient, int defaultTimeout) {
+        this.httpClient = httpClient;
+        this.defaultTimeout = defaultTimeout;
+        this.defaultFactory = factory(httpClient, defaultTimeout);
+    }
+
+    static <T> T withTimeout(int timeoutMillis, Supplier<T> call) {
+        ATTEMPT_TIMEOUT.set(timeoutMillis);
+        try {
+            return call.get();
+        } finally {
+            ATTEMPT_TIMEOUT.remove();
+        }
+    }
+
+    // el timeout de la petición del HttpClient JDK corre desde antes de abrir la conexión: también acota el connect
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        Integer timeout = ATTEMPT_TIMEOUT.get();
+        if (timeout == null || timeout == defaultTimeout) {
+            return defaultFactory.createRequest(uri, httpMethod);
+        }
+        return factory(httpClient, timeout).createRequest(uri, httpMethod);
+    }
+
+    private static JdkClientHttpRequestFactory factory(HttpClient httpClient, int timeoutMillis) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMillis));
+        return requestFactory;
+    }
+}
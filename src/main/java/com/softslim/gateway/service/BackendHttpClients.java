@@ -0,0 +1,124 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+@Slf4j
+@Service
+public class BackendHttpClients {
+    private final Map<ClientKey, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> streamLimits = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public HttpClient client(BridgeConfiguration.HttpClientSettings http, BridgeConfiguration.MutualTlsConfig mutualTls) {
+        BridgeConfiguration.HttpClientSettings settings = http != null ? http : new BridgeConfiguration.HttpClientSettings();
+        BridgeConfiguration.MutualTlsConfig tls = mutualTls != null && mutualTls.isEnabled() ? mutualTls : null;
+        if (tls != null) {
+            validateMutualTls(tls);
+        }
+
+        // un cliente por configuración: las conexiones (y sus streams HTTP/2) se comparten entre rutas equivalentes
+        return clients.computeIfAbsent(new ClientKey(settings.getVersion(), settings.getConnectTimeout(), tls), key -> {
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(resolveVersion(key.version()))
+                .connectTimeout(Duration.ofMillis(key.connectTimeout()))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor);
+            if (key.mutualTls() != null) {
+                builder.sslContext(sslContext(key.mutualTls()));
+            }
+            log.info("Cliente HTTP backend creado ({}, mTLS={})", key.version(), key.mutualTls() != null);
+            return builder.build();
+        });
+    }
+
+    public Semaphore streamLimit(String routeKey, int maxStreams) {
+        return streamLimits.computeIfAbsent(routeKey, key -> new Semaphore(Math.max(1, maxStreams)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private HttpClient.Version resolveVersion(String version) {
+        if (version == null) {
+            return HttpClient.Version.HTTP_2;
+        }
+        return switch (version.toUpperCase(Locale.ROOT).replace('.', '_').replace('/', '_')) {
+            case "HTTP_1_1" -> HttpClient.Version.HTTP_1_1;
+            case "HTTP_2" -> HttpClient.Version.HTTP_2;
+            default -> throw new IllegalArgumentException("Versión HTTP no soportada: " + version);
+        };
+    }
+
+    private void validateMutualTls(BridgeConfiguration.MutualTlsConfig mutualTls) {
+        requireValue(mutualTls.getKeystorePath(), "mutualTls.keystorePath");
+        requireValue(mutualTls.getKeystorePassword(), "mutualTls.keystorePassword");
+        ensureFileReadable(mutualTls.getKeystorePath(), "mutualTls.keystorePath");
+        if (mutualTls.getTruststorePath() != null && !mutualTls.getTruststorePath().isBlank()) {
+            ensureFileReadable(mutualTls.getTruststorePath(), "mutualTls.truststorePath");
+        }
+    }
+
+    private SSLContext sslContext(BridgeConfiguration.MutualTlsConfig mutualTls) {
+        try {
+            char[] keyStorePassword = mutualTls.getKeystorePassword().toCharArray();
+            KeyStore keyStore = KeyStore.getInstance(new File(mutualTls.getKeystorePath()), keyStorePassword);
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keyStore, keyStorePassword);
+
+            TrustManagerFactory trustManagers = null;
+            if (mutualTls.getTruststorePath() != null && !mutualTls.getTruststorePath().isBlank()) {
+                char[] trustStorePassword = mutualTls.getTruststorePassword() != null
+                    ? mutualTls.getTruststorePassword().toCharArray()
+                    : null;
+                KeyStore trustStore = KeyStore.getInstance(new File(mutualTls.getTruststorePath()), trustStorePassword);
+                trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                trustManagers.init(trustStore);
+            }
+
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagers.getKeyManagers(), trustManagers != null ? trustManagers.getTrustManagers() : null, null);
+            return sslContext;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("No fue posible inicializar mTLS: " + e.getMessage(), e);
+        }
+    }
+
+    private String requireValue(String value, String key) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Configuración faltante: " + key);
+        }
+        return value;
+    }
+
+    private void ensureFileReadable(String filePath, String key) {
+        try (InputStream ignored = new FileInputStream(filePath)) {
+            // validates file exists and is readable
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Archivo no accesible para " + key + ": " + filePath, e);
+        }
+    }
+
+    private record ClientKey(String version, int connectTimeout, BridgeConfiguration.MutualTlsConfig mutualTls) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.processor.SoapFaultProcessor;
+import com.softslim.gateway.xml.SoapVersion;
+import com.softslim.gateway.xml.XmlEscaper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class BatchExecutionService {
+    public static final String BATCH_OPERATION = "gatewayBatch";
+    public static final String BATCH_ITEMS_PROPERTY = "SoapBatchItems";
+    public static final String BATCH_ITEM_PROPERTY = "SoapBatchItem";
+
+    private final BridgeConfiguration bridgeConfig;
+    private final CamelContext camelContext;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile ProducerTemplate producerTemplate;
+
+    public BatchExecutionService(BridgeConfiguration bridgeConfig, CamelContext camelContext) {
+        this.bridgeConfig = bridgeConfig;
+        this.camelContext = camelContext;
+    }
+
+    public void execute(Exchange exchange, String serviceName, BridgeConfiguration.EndpointClient endpointClient) {
+        @SuppressWarnings("unchecked")
+        List<BatchItem> items = exchange.getProperty(BATCH_ITEMS_PROPERTY, List.class);
+        BridgeConfiguration.Batch batch = bridgeConfig.getBatch();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Lote SOAP vacío");
+        }
+        if (items.size() > batch.getMaxItems()) {
+            throw new IllegalArgumentException("Lote SOAP excede el máximo de " + batch.getMaxItems() + " operaciones");
+        }
+
+        Set<String> operations = endpointClient.getRest() == null || endpointClient.getRest().getPaths() == null
+            ? Set.of()
+            : endpointClient.getRest().getPaths().stream().map(BridgeConfiguration.RestPath::getOperation).collect(Collectors.toSet());
+        Semaphore permits = new Semaphore(Math.max(1, batch.getMaxParallelism()));
+        String correlationId = exchange.getProperty("CorrelationId", String.class);
+
+        List<ItemCall> calls = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            if (!operations.contains(item.operation())) {
+                calls.add(null);
+                continue;
+            }
+            Exchange itemExchange = prepareItemExchange(exchange, item, correlationId, i);
+            String endpoint = "direct:operation-" + serviceName + "-" + item.operation();
+            CompletableFuture<Long> started = new CompletableFuture<>();
+            Future<Exchange> future = executor.submit(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        // el timeout del ítem corre desde que obtiene turno, no desde el inicio del lote
+                        started.complete(System.nanoTime());
+                        Deadline.startingNow(itemExchange, batch.getItemTimeout());
+                        return producer().send(endpoint, itemExchange);
+                    } finally {
+                        permits.release();
+                    }
+                } finally {
+                    started.complete(System.nanoTime());
+                }
+            });
+            calls.add(new ItemCall(future, started));
+        }
+
+        long itemTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(batch.getItemTimeout());
+        StringBuilder results = new StringBuilder();
+        boolean allSucceeded = true;
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            ItemResult result = collectItem(calls.get(i), item, itemTimeoutNanos);
+            allSucceeded &= result.success();
+            results.append("<item index=\"").append(i).append("\" operation=\"")
+                .append(XmlEscaper.escape(item.operation())).append("\">")
+                .append(result.element())
+                .append("</item>");
+        }
+
+        String namespace = exchange.getIn().getHeader("SoapNamespace", String.class);
+        if (namespace == null || namespace.isBlank()) {
+            namespace = "http://softslim.com/gateway";
+        }
+        String responseElement =
+            "<ns:" + BATCH_OPERATION + "Response xmlns:ns=\"" + XmlEscaper.escape(namespace) + "\">" +
+            "<success>" + allSucceeded + "</success>" +
+            "<statusCode>200</statusCode>" +
+            "<items>" + results + "</items>" +
+            "</ns:" + BATCH_OPERATION + "Response>";
+
+        exchange.setProperty(SoapFaultProcessor.RESPONSE_ELEMENT_PROPERTY, responseElement);
+        SoapVersion version = SoapVersion.of(exchange);
+        exchange.getIn().setBody(SoapFaultProcessor.wrapInEnvelope(responseElement, version, correlationId));
+        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, version.contentType());
+        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 200);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Exchange prepareItemExchange(Exchange exchange, BatchItem item, String correlationId, int index) {
+        Exchange itemExchange = exchange.copy();
+        itemExchange.removeProperty(BATCH_ITEMS_PROPERTY);
+        itemExchange.setProperty(BATCH_ITEM_PROPERTY, true);
+        itemExchange.getIn().setBody(null);
+        itemExchange.getIn().getHeaders().putAll(item.headers());
+        itemExchange.getIn().setHeader("SoapOperation", item.operation());
+        itemExchange.getIn().setHeader("SoapNamespace", item.namespace());
+        itemExchange.setProperty("SoapParameters", item.parameters());
+        if (correlationId != null) {
+            itemExchange.setProperty("CorrelationId", correlationId + "-" + index);
+            itemExchange.getIn().setHeader("CorrelationId", correlationId + "-" + index);
+        }
+        return itemExchange;
+    }
+
+    // la espera del turno está acotada: cada ítem en curso lleva su propio Deadline de item-timeout
+    private ItemResult collectItem(ItemCall call, BatchItem item, long itemTimeoutNanos) {
+        if (call == null) {
+            return failed(item, 0, "Operación SOAP no soportada: " + item.operation());
+        }
+
+        Future<Exchange> future = call.future();
+        try {
+            long started = call.started().get();
+            Exchange result = future.get(Math.max(0, started + itemTimeoutNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            String element = result.getProperty(SoapFaultProcessor.RESPONSE_ELEMENT_PROPERTY, String.class);
+            if (element != null) {
+                return new ItemResult(element, result.getException() == null
+                    && result.getProperty(SoapFaultProcessor.RESPONSE_SUCCESS_PROPERTY, false, Boolean.class));
+            }
+            Exception exception = result.getException();
+            return failed(item, 0, exception != null ? exception.getMessage() : "Respuesta vacía");
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Operación {} del lote excedió el timeout por ítem", item.operation());
+            return failed(item, 504, "Timeout de operación en lote");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return failed(item, 0, "Lote interrumpido");
+        } catch (ExecutionException e) {
+            return failed(item, 0, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+    }
+
+    private ItemResult failed(BatchItem item, int statusCode, String message) {
+        String namespace = item.namespace() == null || item.namespace().isBlank() ? "http://softslim.com/gateway" : item.namespace();
+        String operation = XmlEscaper.escape(item.operation());
+        return new ItemResult(
+            "<ns:" + operation + "Response xmlns:ns=\"" + XmlEscaper.escape(namespace) + "\">" +
+            "<success>false</success>" +
+            "<statusCode>" + statusCode + "</statusCode>" +
+            "<dataRedeable>false</dataRedeable>" +
+            "<data>" + XmlEscaper.escape(message) + "</data>" +
+            "</ns:" + operation + "Response>",
+            false);
+    }
+
+    private ProducerTemplate producer() {
+        ProducerTemplate template = producerTemplate;
+        if (template == null) {
+            synchronized (this) {
+                template = producerTemplate;
+                if (template == null) {
+                    template = camelContext.createProducerTemplate();
+                    producerTemplate = template;
+                }
+            }
+        }
+        return template;
+    }
+
+    private record ItemCall(Future<Exchange> future, CompletableFuture<Long> started) {
+    }
+
+    private record ItemResult(String element, boolean success) {
+    }
+
+    public record BatchItem(String operation, String namespace, Map<String, Object> parameters, Map<String, Object> headers) {
+    }
+}
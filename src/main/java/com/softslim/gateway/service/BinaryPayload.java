@@ -0,0 +1,69 @@
+package com.softslim.gateway.service;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.StreamCache;
+import org.apache.camel.converter.stream.CachedOutputStream;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.Locale;
+
+// cuerpo binario del backend volcado al stream cache de Camel (en disco sobre el umbral de spool)
+public final class BinaryPayload {
+    private final StreamCache cache;
+    private final String contentType;
+
+    private BinaryPayload(StreamCache cache, String contentType) {
+        this.cache = cache;
+        this.contentType = contentType;
+    }
+
+    public static boolean isBinary(MediaType mediaType) {
+        if (mediaType == null) {
+            return false;
+        }
+        String type = mediaType.getType().toLowerCase(Locale.ROOT);
+        String subtype = mediaType.getSubtype().toLowerCase(Locale.ROOT);
+        if (type.equals("image") || type.equals("audio") || type.equals("video")) {
+            return true;
+        }
+        return type.equals("application")
+            && !subtype.contains("json")
+            && !subtype.contains("xml")
+            && !subtype.contains("javascript")
+            && !subtype.equals("x-www-form-urlencoded");
+    }
+
+    public static BinaryPayload spool(Exchange exchange, InputStream source, String contentType) throws IOException {
+        // CachedOutputStream se elimina al completar el exchange, después de escribir la respuesta
+        CachedOutputStream output = new CachedOutputStream(exchange);
+        source.transferTo(output);
+        StreamCache cache = output.newStreamCache();
+        output.close();
+        return new BinaryPayload(cache, contentType);
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public long length() {
+        return cache.length();
+    }
+
+    public InputStream openStream() {
+        cache.reset();
+        return (InputStream) cache;
+    }
+
+    public String toBase64() {
+        try {
+            return Base64.getEncoder().encodeToString(openStream().readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.exception.ApiInvocationException;
+import com.softslim.gateway.model.BridgeConfiguration;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class BulkheadRegistry {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ManagedBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // aislamiento por semáforo: un servicio con backend colgado retiene como máximo maxConcurrentCalls hilos
+    public void enter(Exchange exchange, String serviceName, BridgeConfiguration.BulkheadConfig settings) {
+        if (settings == null || !settings.isEnabled()) {
+            return;
+        }
+
+        ManagedBulkhead managed = bulkheads.computeIfAbsent(serviceName, key -> create(key, settings));
+        if (!managed.bulkhead().tryAcquirePermission()) {
+            managed.rejected().increment();
+            throw new ApiInvocationException(503, "Bulkhead saturado para servicio " + serviceName, "text/plain", null);
+        }
+
+        String exchangeId = exchange.getExchangeId();
+        AtomicBoolean released = new AtomicBoolean();
+        exchange.getExchangeExtension().addOnCompletion(new SynchronizationAdapter() {
+            @Override
+            public void onDone(Exchange completed) {
+                if (exchangeId.equals(completed.getExchangeId()) && released.compareAndSet(false, true)) {
+                    managed.bulkhead().onComplete();
+                }
+            }
+        });
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new TreeMap<>();
+        bulkheads.forEach((serviceName, managed) -> {
+            Bulkhead.Metrics metrics = managed.bulkhead().getMetrics();
+            description.put(serviceName, Map.of(
+                "maxConcurrentCalls", metrics.getMaxAllowedConcurrentCalls(),
+                "availableConcurrentCalls", metrics.getAvailableConcurrentCalls(),
+                "rejected", (long) managed.rejected().count()
+            ));
+        });
+        return description;
+    }
+
+    private ManagedBulkhead create(String serviceName, BridgeConfiguration.BulkheadConfig settings) {
+        Bulkhead bulkhead = Bulkhead.of(serviceName, BulkheadConfig.custom()
+            .maxConcurrentCalls(Math.max(1, settings.getMaxConcurrentCalls()))
+            .maxWaitDuration(Duration.ofMillis(Math.max(0, settings.getMaxWait())))
+            .build());
+
+        Gauge.builder("gateway.bulkhead.available", bulkhead, b -> b.getMetrics().getAvailableConcurrentCalls())
+            .tag("service", serviceName)
+            .register(meterRegistry);
+        Gauge.builder("gateway.bulkhead.saturation", bulkhead, b -> {
+                Bulkhead.Metrics metrics = b.getMetrics();
+                return 1.0 - (double) metrics.getAvailableConcurrentCalls() / metrics.getMaxAllowedConcurrentCalls();
+            })
+            .tag("service", serviceName)
+            .register(meterRegistry);
+        Counter rejected = Counter.builder("gateway.bulkhead.rejected")
+            .tag("service", serviceName)
+            .register(meterRegistry);
+
+        log.info("Bulkhead para servicio {}: {} llamadas concurrentes", serviceName, settings.getMaxConcurrentCalls());
+        return new ManagedBulkhead(bulkhead, rejected);
+    }
+
+    private record ManagedBulkhead(Bulkhead bulkhead, Counter rejected) {
+    }
+}
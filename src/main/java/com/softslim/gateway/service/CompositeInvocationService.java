@@ -0,0 +1,281 @@
+package com.softslim.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.softslim.gateway.exception.ApiInvocationException;
+import com.softslim.gateway.model.BridgeConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePropertyKey;
+import org.apache.camel.spi.Synchronization;
+import org.apache.camel.support.UnitOfWorkHelper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+public class CompositeInvocationService {
+    public static final String RESULTS_PROPERTY = "CompositeResults";
+
+    private static final Pattern RESULT_PLACEHOLDER = Pattern.compile("\\$\\{result\\.([^.}]+)[^}]*}");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public void invoke(Exchange exchange, Plan plan, LegInvoker legInvoker) {
+        BridgeConfiguration.RestPath restPath = plan.restPath();
+        List<List<BridgeConfiguration.CompositeLeg>> waves = plan.waves();
+        int timeout = restPath.getTimeout() == null ? 5000 : restPath.getTimeout();
+        Deadline requestDeadline = Deadline.of(exchange);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestDeadline != null ? requestDeadline.clamp(timeout) : timeout);
+        Map<String, JsonNode> results = new ConcurrentHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+
+        // cada ola se ejecuta en su propio scope: ninguna pata sobrevive a la operación que la lanzó
+        for (List<BridgeConfiguration.CompositeLeg> wave : waves) {
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            try {
+                Map<BridgeConfiguration.CompositeLeg, Future<JsonNode>> running = new LinkedHashMap<>();
+                for (BridgeConfiguration.CompositeLeg leg : wave) {
+                    if (!missing.isEmpty() && plan.dependencies().get(leg.getName()).stream().anyMatch(missing::contains)) {
+                        skipLeg(leg, missing, "dependencia opcional sin resultado");
+                        continue;
+                    }
+                    running.put(leg, executor.submit(() -> invokeLeg(exchange, leg, results, deadline, legInvoker)));
+                }
+                for (Map.Entry<BridgeConfiguration.CompositeLeg, Future<JsonNode>> entry : running.entrySet()) {
+                    BridgeConfiguration.CompositeLeg leg = entry.getKey();
+                    JsonNode result = awaitLeg(leg, entry.getValue(), deadline, missing);
+                    if (result != null) {
+                        results.put(leg.getName(), result);
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        ObjectNode merged = JsonNodeFactory.instance.objectNode();
+        for (List<BridgeConfiguration.CompositeLeg> wave : waves) {
+            for (BridgeConfiguration.CompositeLeg leg : wave) {
+                merged.set(leg.getName(), results.getOrDefault(leg.getName(), JsonNodeFactory.instance.nullNode()));
+            }
+        }
+
+        exchange.getIn().setBody(merged.toString());
+        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, missing.isEmpty() ? 200 : 206);
+        exchange.setProperty("apiResponseContentType", "application/json");
+    }
+
+    public static String resultValue(Exchange exchange, String expression) {
+        @SuppressWarnings("unchecked")
+        Map<String, JsonNode> results = exchange.getProperty(RESULTS_PROPERTY, Map.class);
+        if (results == null) {
+            return null;
+        }
+
+        String[] segments = expression.split("\\.");
+        JsonNode node = results.get(segments[0]);
+        for (int i = 1; i < segments.length && node != null; i++) {
+            node = segments[i].chars().allMatch(Character::isDigit) && node.isArray()
+                ? node.get(Integer.parseInt(segments[i]))
+                : node.get(segments[i]);
+        }
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        return node.isValueNode() ? node.asText() : node.toString();
+    }
+
+    private JsonNode invokeLeg(
+        Exchange exchange,
+        BridgeConfiguration.CompositeLeg leg,
+        Map<String, JsonNode> results,
+        long deadline,
+        LegInvoker legInvoker
+    ) throws Exception {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+            throw new TimeoutException("Plazo agotado antes de invocar " + leg.getName());
+        }
+
+        // la copia no comparte la unidad de trabajo de la petición: las patas paralelas registrarían su limpieza a la vez
+        Exchange legExchange = exchange.copy();
+        legExchange.getExchangeExtension().setUnitOfWork(null);
+        legExchange.removeProperty(ExchangePropertyKey.STREAM_CACHE_UNIT_OF_WORK);
+        legExchange.setProperty(RESULTS_PROPERTY, Map.copyOf(results));
+        try {
+            legInvoker.invoke(legExchange, leg, (int) Math.min(remainingMillis, leg.getTimeout() == null ? 5000 : leg.getTimeout()));
+            if (legExchange.getException() != null) {
+                throw legExchange.getException();
+            }
+            if (legExchange.getIn().getBody() instanceof BinaryPayload binary) {
+                return JsonNodeFactory.instance.textNode(binary.toBase64());
+            }
+            return toJson(legExchange.getIn().getBody(String.class), legExchange.getProperty("apiResponseContentType", String.class));
+        } finally {
+            // el resultado ya está copiado: los ficheros de spool de la pata se liberan aquí
+            List<Synchronization> completions = legExchange.getExchangeExtension().handoverCompletions();
+            if (completions != null) {
+                UnitOfWorkHelper.doneSynchronizations(legExchange, completions);
+            }
+        }
+    }
+
+    private JsonNode awaitLeg(
+        BridgeConfiguration.CompositeLeg leg,
+        Future<JsonNode> future,
+        long deadline,
+        Set<String> missing
+    ) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            if (!leg.isOptional()) {
+                throw new ApiInvocationException(504, "Plazo agotado en la llamada compuesta " + leg.getName(), "text/plain", e);
+            }
+            skipLeg(leg, missing, "plazo agotado");
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw ApiInvocationException.internal("Operación compuesta interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (!leg.isOptional()) {
+                if (cause instanceof TimeoutException) {
+                    throw new ApiInvocationException(504, cause.getMessage(), "text/plain", cause);
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw ApiInvocationException.internal("Error en la llamada compuesta " + leg.getName() + ": " + cause.getMessage(), cause);
+            }
+            skipLeg(leg, missing, cause.getMessage());
+            return null;
+        }
+    }
+
+    private void skipLeg(BridgeConfiguration.CompositeLeg leg, Set<String> missing, String reason) {
+        if (!leg.isOptional()) {
+            throw new IllegalArgumentException("La llamada compuesta " + leg.getName() + " depende de una llamada opcional sin resultado");
+        }
+        log.warn("Llamada compuesta opcional {} omitida: {}", leg.getName(), reason);
+        missing.add(leg.getName());
+    }
+
+    // cada pata se compila a su propio OperationPlan al crear la ruta
+    public BridgeConfiguration.RestPath legPath(BridgeConfiguration.RestPath restPath, BridgeConfiguration.CompositeLeg leg) {
+        BridgeConfiguration.RestPath legPath = new BridgeConfiguration.RestPath();
+        legPath.setId(leg.getName());
+        legPath.setOperation(restPath.getOperation());
+        legPath.setPath(leg.getPath());
+        legPath.setMethod(leg.getMethod());
+        legPath.setTimeout(leg.getTimeout() == null ? 5000 : leg.getTimeout());
+        legPath.setHeaders(leg.getHeaders());
+        legPath.setResilience(restPath.getResilience());
+        legPath.setMaxStreams(restPath.getMaxStreams());
+        return legPath;
+    }
+
+    private JsonNode toJson(String body, String contentType) {
+        if (body == null) {
+            return JsonNodeFactory.instance.nullNode();
+        }
+        if (contentType != null && contentType.toLowerCase().contains("json")) {
+            try {
+                return objectMapper.readTree(body);
+            } catch (Exception ignored) {
+                // se conserva como texto
+            }
+        }
+        return JsonNodeFactory.instance.textNode(body);
+    }
+
+    public Plan plan(BridgeConfiguration.RestPath restPath) {
+        Map<String, BridgeConfiguration.CompositeLeg> pending = new LinkedHashMap<>();
+        for (BridgeConfiguration.CompositeLeg leg : restPath.getComposite()) {
+            if (leg.getName() == null || leg.getName().isBlank() || pending.put(leg.getName(), leg) != null) {
+                throw new IllegalArgumentException("Nombre de llamada compuesta inválido o duplicado en " + restPath.getOperation());
+            }
+        }
+        Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+        for (BridgeConfiguration.CompositeLeg leg : pending.values()) {
+            dependencies.put(leg.getName(), dependencies(leg));
+            for (String dependency : dependencies.get(leg.getName())) {
+                if (!pending.containsKey(dependency)) {
+                    throw new IllegalArgumentException("La llamada compuesta " + leg.getName() + " depende de una llamada inexistente: " + dependency);
+                }
+            }
+        }
+
+        List<List<BridgeConfiguration.CompositeLeg>> waves = new ArrayList<>();
+        Set<String> resolved = new LinkedHashSet<>();
+        while (!pending.isEmpty()) {
+            List<BridgeConfiguration.CompositeLeg> wave = pending.values().stream()
+                .filter(leg -> resolved.containsAll(dependencies.get(leg.getName())))
+                .toList();
+            if (wave.isEmpty()) {
+                throw new IllegalArgumentException("Dependencia circular entre llamadas compuestas de " + restPath.getOperation());
+            }
+            wave.forEach(leg -> {
+                pending.remove(leg.getName());
+                resolved.add(leg.getName());
+            });
+            waves.add(wave);
+        }
+        log.info("Operación compuesta {}: {} llamadas en {} olas", restPath.getOperation(), resolved.size(), waves.size());
+        return new Plan(restPath, waves, dependencies);
+    }
+
+    private Set<String> dependencies(BridgeConfiguration.CompositeLeg leg) {
+        Set<String> dependencies = new LinkedHashSet<>();
+        if (leg.getDependsOn() != null) {
+            dependencies.addAll(leg.getDependsOn());
+        }
+        collectResultReferences(leg.getPath(), dependencies);
+        if (leg.getHeaders() != null) {
+            leg.getHeaders().values().forEach(value -> collectResultReferences(value, dependencies));
+        }
+        return dependencies;
+    }
+
+    private void collectResultReferences(String template, Set<String> dependencies) {
+        if (template == null) {
+            return;
+        }
+        Matcher matcher = RESULT_PLACEHOLDER.matcher(template);
+        while (matcher.find()) {
+            dependencies.add(matcher.group(1));
+        }
+    }
+
+    public record Plan(
+        BridgeConfiguration.RestPath restPath,
+        List<List<BridgeConfiguration.CompositeLeg>> waves,
+        Map<String, Set<String>> dependencies
+    ) {
+    }
+
+    @FunctionalInterface
+    public interface LegInvoker {
+        void invoke(Exchange legExchange, BridgeConfiguration.CompositeLeg leg, int timeout) throws Exception;
+    }
+}
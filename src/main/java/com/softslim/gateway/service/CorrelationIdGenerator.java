@@ -0,0 +1,7 @@
+package com.softslim.gateway.service;
+
+// se puede sustituir declarando otro bean de este tipo
+@FunctionalInterface
+public interface CorrelationIdGenerator {
+    String next();
+}
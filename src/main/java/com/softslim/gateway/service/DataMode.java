@@ -0,0 +1,44 @@
+package com.softslim.gateway.service;
+
+import org.apache.camel.Exchange;
+
+import java.util.Locale;
+
+// cómo se incrusta la respuesta del backend dentro de <data>
+public enum DataMode {
+    CONVERTED("converted"),
+    XML_PASSTHROUGH("xml-passthrough"),
+    CDATA("cdata"),
+    RAW_BASE64("raw-base64");
+
+    public static final String PROPERTY = "GatewayDataMode";
+
+    private final String key;
+
+    DataMode(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static DataMode fromConfig(String value) {
+        if (value == null || value.isBlank()) {
+            return CONVERTED;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (DataMode mode : values()) {
+            if (mode.key.equals(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Modo de datos no soportado: " + value
+            + " (converted, xml-passthrough, cdata, raw-base64)");
+    }
+
+    public static DataMode of(Exchange exchange) {
+        DataMode mode = exchange.getProperty(PROPERTY, DataMode.class);
+        return mode != null ? mode : CONVERTED;
+    }
+}
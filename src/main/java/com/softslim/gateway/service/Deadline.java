@@ -0,0 +1,81 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.exception.ApiInvocationException;
+import com.softslim.gateway.exception.DeadlineExceededException;
+import org.apache.camel.Exchange;
+
+import java.util.concurrent.TimeUnit;
+
+// presupuesto total de la petición; las copias de lote y compuestas lo comparten por propiedad
+public final class Deadline {
+    public static final String PROPERTY = "GatewayDeadline";
+    public static final String START_PROPERTY = "GatewayRequestStartNanos";
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static void start(Exchange exchange, String clientHeader) {
+        long now = System.nanoTime();
+        exchange.setProperty(START_PROPERTY, now);
+        String clientBudget = clientHeader == null ? null : exchange.getIn().getHeader(clientHeader, String.class);
+        if (clientBudget == null || clientBudget.isBlank()) {
+            return;
+        }
+        try {
+            long millis = Long.parseLong(clientBudget.trim());
+            if (millis > 0) {
+                exchange.setProperty(PROPERTY, new Deadline(now + TimeUnit.MILLISECONDS.toNanos(millis)));
+            }
+        } catch (NumberFormatException e) {
+            // error del cliente, no del gateway
+            throw new ApiInvocationException(400, "Cabecera " + clientHeader + " inválida: " + clientBudget, "text/plain", null);
+        }
+    }
+
+    // el presupuesto de la operación se cuenta desde la llegada de la petición y nunca amplía el del cliente
+    public static Deadline forOperation(Exchange exchange, Long operationBudgetMillis) {
+        Deadline current = of(exchange);
+        if (operationBudgetMillis == null || operationBudgetMillis <= 0) {
+            return current;
+        }
+        long start = exchange.getProperty(START_PROPERTY, System.nanoTime(), Long.class);
+        Deadline operation = new Deadline(start + TimeUnit.MILLISECONDS.toNanos(operationBudgetMillis));
+        Deadline effective = current == null || operation.expiresAtNanos - current.expiresAtNanos < 0 ? operation : current;
+        exchange.setProperty(PROPERTY, effective);
+        return effective;
+    }
+
+    // presupuesto que empieza ahora (un ítem de lote al obtener turno); tampoco amplía el vigente
+    public static Deadline startingNow(Exchange exchange, long budgetMillis) {
+        Deadline current = of(exchange);
+        Deadline budget = new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        Deadline effective = current == null || budget.expiresAtNanos - current.expiresAtNanos < 0 ? budget : current;
+        exchange.setProperty(PROPERTY, effective);
+        return effective;
+    }
+
+    public static Deadline of(Exchange exchange) {
+        return exchange.getProperty(PROPERTY, Deadline.class);
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    public int clamp(int timeoutMillis) {
+        return (int) Math.max(1, Math.min(timeoutMillis, remainingMillis()));
+    }
+
+    public void check(String target) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Presupuesto de tiempo agotado para " + target, null);
+        }
+    }
+}
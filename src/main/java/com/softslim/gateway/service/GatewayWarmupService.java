@@ -0,0 +1,317 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.routes.DirectSoapServlet;
+import com.softslim.gateway.routes.EngineType;
+import com.softslim.gateway.xml.XmlEscaper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+public class GatewayWarmupService implements ApplicationRunner {
+    private static final String WSSE_NAMESPACE = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd";
+    private static final String WSU_NAMESPACE = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-utility-1.0.xsd";
+    private static final String WSSE_TOKEN_PROFILE = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-username-token-profile-1.0";
+    private static final String WSSE_SOAP_MESSAGE_SECURITY = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-soap-message-security-1.0";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Pattern TEMPLATE_PLACEHOLDER = Pattern.compile("\\$\\{(?:header|soap)\\.([^}]+)}");
+
+    private final BridgeConfiguration bridgeConfig;
+    private final OAuth2TokenService oAuth2TokenService;
+    private final BackendHttpClients backendHttpClients;
+    private final CamelContext camelContext;
+    private final DirectSoapServlet directSoapEngine;
+
+    public GatewayWarmupService(
+        BridgeConfiguration bridgeConfig,
+        OAuth2TokenService oAuth2TokenService,
+        BackendHttpClients backendHttpClients,
+        CamelContext camelContext,
+        DirectSoapServlet directSoapEngine
+    ) {
+        this.bridgeConfig = bridgeConfig;
+        this.oAuth2TokenService = oAuth2TokenService;
+        this.backendHttpClients = backendHttpClients;
+        this.camelContext = camelContext;
+        this.directSoapEngine = directSoapEngine;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        BridgeConfiguration.Warmup warmup = bridgeConfig.getWarmup();
+        if (warmup == null || !warmup.isEnabled() || bridgeConfig.getEndpointsClients() == null) {
+            return;
+        }
+
+        // los ApplicationRunner se ejecutan antes de publicar ReadinessState.ACCEPTING_TRAFFIC
+        long start = System.currentTimeMillis();
+        log.info("Iniciando warm-up del gateway");
+        bridgeConfig.getEndpointsClients().forEach((serviceName, endpointClient) -> {
+            openConnections(serviceName, endpointClient, warmup);
+            fetchTokens(serviceName, endpointClient);
+        });
+        bridgeConfig.getEndpointsClients().forEach((serviceName, endpointClient) ->
+            exerciseRoutes(serviceName, endpointClient, warmup));
+        log.info("Warm-up completado en {} ms", System.currentTimeMillis() - start);
+    }
+
+    private void openConnections(
+        String serviceName,
+        BridgeConfiguration.EndpointClient endpointClient,
+        BridgeConfiguration.Warmup warmup
+    ) {
+        Set<String> baseUrls = baseUrls(endpointClient.getRest());
+        if (baseUrls.isEmpty() || warmup.getConnectionsPerUpstream() <= 0) {
+            return;
+        }
+
+        // el mismo cliente que usan los planes del servicio: las conexiones abiertas aquí son las que se reutilizan
+        HttpClient httpClient;
+        try {
+            httpClient = backendHttpClients.client(endpointClient.getRest().getHttp(),
+                endpointClient.getSecurity() != null ? endpointClient.getSecurity().getMutualTls() : null);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("Warm-up {}: cliente HTTP no disponible: {}", serviceName, e.getMessage());
+            return;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Void>> connections = new ArrayList<>();
+            for (String baseUrl : baseUrls) {
+                String url = baseUrl + warmup.getConnectionPath();
+                for (int i = 0; i < warmup.getConnectionsPerUpstream(); i++) {
+                    connections.add(CompletableFuture.runAsync(() -> openConnection(httpClient, url, warmup.getConnectTimeout()), executor));
+                }
+            }
+            CompletableFuture.allOf(connections.toArray(CompletableFuture[]::new)).join();
+        }
+        log.info("Warm-up {}: {} conexiones abiertas por upstream", serviceName, warmup.getConnectionsPerUpstream());
+    }
+
+    private void openConnection(HttpClient httpClient, String url, int timeoutMillis) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+            // con el cuerpo descartado la conexión queda en el pool del cliente (o negociada en h2)
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Warm-up: no fue posible abrir conexión a {}: {}", url, e.getMessage());
+        }
+    }
+
+    private void fetchTokens(String serviceName, BridgeConfiguration.EndpointClient endpointClient) {
+        if (endpointClient.getSecurity() == null || endpointClient.getSecurity().getOauth2() == null) {
+            return;
+        }
+        BridgeConfiguration.OAuth2Config oauth2 = endpointClient.getSecurity().getOauth2();
+        if (!oauth2.isEnabled()) {
+            return;
+        }
+
+        try {
+            oAuth2TokenService.getAccessToken(oauth2.getTokenUri(), oauth2.getClientId(), oauth2.getClientSecret(), oauth2.getScope());
+            log.info("Warm-up {}: token OAuth2 precargado", serviceName);
+        } catch (Exception e) {
+            log.warn("Warm-up {}: no fue posible obtener token OAuth2: {}", serviceName, e.getMessage());
+        }
+    }
+
+    private void exerciseRoutes(
+        String serviceName,
+        BridgeConfiguration.EndpointClient endpointClient,
+        BridgeConfiguration.Warmup warmup
+    ) {
+        if (endpointClient.getRest() == null || endpointClient.getRest().getPaths() == null || warmup.getIterations() <= 0) {
+            return;
+        }
+
+        // cada servicio se calienta por el motor que lo atiende: las rutas Camel no comparten código con los otros dos
+        boolean camelEngine = EngineType.fromConfig(endpointClient.getEngine()) == EngineType.CAMEL;
+        ProducerTemplate producerTemplate = camelContext.createProducerTemplate();
+        try {
+            for (BridgeConfiguration.RestPath restPath : endpointClient.getRest().getPaths()) {
+                for (int i = 0; i < warmup.getIterations(); i++) {
+                    // un sobre por iteración: con PasswordDigest cada envío necesita su propio Nonce
+                    String envelope = syntheticEnvelope(serviceName, endpointClient, restPath);
+                    Exchange result = camelEngine
+                        ? producerTemplate.send("direct:soap-internal-" + serviceName, exchange -> {
+                            WarmupScope.enter(exchange);
+                            exchange.getIn().setHeader("CorrelationId", "warmup");
+                            exchange.getIn().setBody(envelope);
+                        })
+                        : directSoapEngine.warmup(serviceName, envelope);
+                    int statusCode = result.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class);
+                    if (result.getException() != null || statusCode >= 400) {
+                        log.warn("Warm-up {}#{} falló con status {}: {}", serviceName, restPath.getOperation(), statusCode,
+                            result.getException() != null ? result.getException().getMessage() : result.getMessage().getBody(String.class));
+                        break;
+                    }
+                }
+            }
+            log.info("Warm-up {}: {} iteraciones por operación (motor {})", serviceName, warmup.getIterations(),
+                EngineType.fromConfig(endpointClient.getEngine()).key());
+        } finally {
+            try {
+                producerTemplate.stop();
+            } catch (Exception e) {
+                log.debug("No fue posible detener ProducerTemplate de warm-up", e);
+            }
+        }
+    }
+
+    private String syntheticEnvelope(
+        String serviceName,
+        BridgeConfiguration.EndpointClient endpointClient,
+        BridgeConfiguration.RestPath restPath
+    ) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        collectPlaceholders(restPath.getPath(), parameters);
+        if (restPath.getHeaders() != null) {
+            restPath.getHeaders().values().forEach(value -> collectPlaceholders(value, parameters));
+        }
+        if (restPath.getComposite() != null) {
+            restPath.getComposite().forEach(leg -> {
+                collectPlaceholders(leg.getPath(), parameters);
+                if (leg.getHeaders() != null) {
+                    leg.getHeaders().values().forEach(value -> collectPlaceholders(value, parameters));
+                }
+            });
+        }
+
+        StringBuilder envelope = new StringBuilder();
+        envelope.append("<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" ")
+            .append("xmlns:ns=\"http://softslim.com/gateway/").append(serviceName).append("\">");
+        envelope.append("<soapenv:Header>");
+        appendUsernameToken(envelope, endpointClient);
+        envelope.append("</soapenv:Header>");
+        envelope.append("<soapenv:Body><ns:").append(restPath.getOperation()).append(">");
+        appendParameters(envelope, parameters);
+        envelope.append("</ns:").append(restPath.getOperation()).append("></soapenv:Body>");
+        envelope.append("</soapenv:Envelope>");
+        return envelope.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collectPlaceholders(String template, Map<String, Object> parameters) {
+        if (template == null) {
+            return;
+        }
+        Matcher matcher = TEMPLATE_PLACEHOLDER.matcher(template);
+        while (matcher.find()) {
+            String[] segments = matcher.group(1).split("\\.");
+            Map<String, Object> level = parameters;
+            for (int i = 0; i < segments.length - 1; i++) {
+                Object nested = level.computeIfAbsent(segments[i], key -> new LinkedHashMap<String, Object>());
+                if (!(nested instanceof Map)) {
+                    nested = new LinkedHashMap<String, Object>();
+                    level.put(segments[i], nested);
+                }
+                level = (Map<String, Object>) nested;
+            }
+            level.putIfAbsent(segments[segments.length - 1], "1");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void appendParameters(StringBuilder envelope, Map<String, Object> parameters) {
+        parameters.forEach((name, value) -> {
+            envelope.append("<").append(name).append(">");
+            if (value instanceof Map) {
+                appendParameters(envelope, (Map<String, Object>) value);
+            } else {
+                envelope.append(value);
+            }
+            envelope.append("</").append(name).append(">");
+        });
+    }
+
+    private void appendUsernameToken(StringBuilder envelope, BridgeConfiguration.EndpointClient endpointClient) {
+        if (endpointClient.getSecurity() == null || endpointClient.getSecurity().getWsSecurity() == null) {
+            return;
+        }
+        BridgeConfiguration.WsSecurityConfig wsSecurity = endpointClient.getSecurity().getWsSecurity();
+        if (!wsSecurity.isEnabled() || wsSecurity.getUsername() == null || wsSecurity.getPassword() == null) {
+            return;
+        }
+        envelope.append("<wsse:Security xmlns:wsse=\"").append(WSSE_NAMESPACE).append("\" xmlns:wsu=\"").append(WSU_NAMESPACE).append("\">")
+            .append("<wsse:UsernameToken>")
+            .append("<wsse:Username>").append(XmlEscaper.escape(wsSecurity.getUsername())).append("</wsse:Username>");
+        // el validador rechaza PasswordText si el servicio exige digest: el token sigue el tipo configurado
+        if ("digest".equalsIgnoreCase(wsSecurity.getPasswordType())) {
+            byte[] nonce = new byte[16];
+            RANDOM.nextBytes(nonce);
+            String created = Instant.now().toString();
+            envelope.append("<wsse:Password Type=\"").append(WSSE_TOKEN_PROFILE).append("#PasswordDigest\">")
+                .append(passwordDigest(nonce, created, wsSecurity.getPassword())).append("</wsse:Password>")
+                .append("<wsse:Nonce EncodingType=\"").append(WSSE_SOAP_MESSAGE_SECURITY).append("#Base64Binary\">")
+                .append(Base64.getEncoder().encodeToString(nonce)).append("</wsse:Nonce>")
+                .append("<wsu:Created>").append(created).append("</wsu:Created>");
+        } else {
+            envelope.append("<wsse:Password Type=\"").append(WSSE_TOKEN_PROFILE).append("#PasswordText\">")
+                .append(XmlEscaper.escape(wsSecurity.getPassword())).append("</wsse:Password>");
+        }
+        envelope.append("</wsse:UsernameToken>")
+            .append("</wsse:Security>");
+    }
+
+    private static String passwordDigest(byte[] nonce, String created, String password) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            sha1.update(nonce);
+            sha1.update(created.getBytes(StandardCharsets.UTF_8));
+            sha1.update(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(sha1.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 no disponible", e);
+        }
+    }
+
+    private Set<String> baseUrls(BridgeConfiguration.RestConfiguration rest) {
+        Set<String> urls = new LinkedHashSet<>();
+        if (rest == null) {
+            return urls;
+        }
+        if (rest.getUpstreams() != null && !rest.getUpstreams().isEmpty()) {
+            rest.getUpstreams().stream()
+                .map(BridgeConfiguration.Upstream::getUrl)
+                .filter(url -> url != null && !url.isBlank())
+                .forEach(urls::add);
+        } else if (rest.getDomainPath() != null && !rest.getDomainPath().isBlank()) {
+            urls.add(rest.getDomainPath());
+        }
+        return urls;
+    }
+}
@@ -5,12 +5,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
 @Service
 public class GlobalExceptionHandlerService {
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandlerService.class);
 
+    private final CorrelationIdGenerator correlationIdGenerator;
+
+    public GlobalExceptionHandlerService(CorrelationIdGenerator correlationIdGenerator) {
+        this.correlationIdGenerator = correlationIdGenerator;
+    }
+
     public String handle(Exception exception, Exchange exchange) {
         String correlationId = resolveCorrelationId(exchange);
         log.error("Error procesado por manejador global. correlationId={}", correlationId, exception);
@@ -18,19 +22,20 @@ public class GlobalExceptionHandlerService {
     }
 
     public String handle(Exception exception, String correlationId) {
-        String resolved = correlationId == null || correlationId.isBlank() ? UUID.randomUUID().toString() : correlationId;
+        String resolved = correlationId == null || correlationId.isBlank() ? correlationIdGenerator.next() : correlationId;
         log.error("Error procesado por manejador global. correlationId={}", resolved, exception);
         return resolved;
     }
 
     private String resolveCorrelationId(Exchange exchange) {
         if (exchange == null) {
-            return UUID.randomUUID().toString();
+            return correlationIdGenerator.next();
         }
         String correlationId = exchange.getIn().getHeader("CorrelationId", String.class);
         if (correlationId == null || correlationId.isBlank()) {
-            correlationId = UUID.randomUUID().toString();
+            correlationId = correlationIdGenerator.next();
             exchange.getIn().setHeader("CorrelationId", correlationId);
+            exchange.setProperty("CorrelationId", correlationId);
         }
         return correlationId;
     }
@@ -0,0 +1,218 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.exception.ApiInvocationException;
+import com.softslim.gateway.model.BridgeConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// deduplica escrituras reintentadas por el cliente SOAP: la primera respuesta se guarda y los duplicados la reciben
+@Slf4j
+@Service
+public class IdempotencyService {
+    public static final String REPLAY_PROPERTY = "IdempotentReplay";
+
+    private final Map<String, ResponseCacheService.CachedResponse> completed;
+    private final Map<String, CompletableFuture<ResponseCacheService.CachedResponse>> inflight = new ConcurrentHashMap<>();
+    private final Map<String, OperationPlan.Template> keyTemplates = new ConcurrentHashMap<>();
+    private final Counter storedReplays;
+    private final Counter joinedReplays;
+    private final Counter executions;
+
+    public IdempotencyService(BridgeConfiguration bridgeConfig, MeterRegistry meterRegistry) {
+        int maxEntries = Math.max(1, bridgeConfig.getIdempotency().getMaxEntries());
+        // en orden de inserción: la entrada más antigua sale al superar el límite o al haber caducado
+        this.completed = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResponseCacheService.CachedResponse> eldest) {
+                return size() > maxEntries || eldest.getValue().expiresAtMillis() <= System.currentTimeMillis();
+            }
+        };
+        this.storedReplays = Counter.builder("gateway.idempotency.replays").tag("source", "stored").register(meterRegistry);
+        this.joinedReplays = Counter.builder("gateway.idempotency.replays").tag("source", "joined").register(meterRegistry);
+        this.executions = Counter.builder("gateway.idempotency.executions").register(meterRegistry);
+    }
+
+    public void invoke(Exchange exchange, BridgeConfiguration.RestPath restPath, Processor backend) throws Exception {
+        String key = idempotencyKey(exchange, restPath);
+        if (key == null) {
+            backend.process(exchange);
+            return;
+        }
+
+        BridgeConfiguration.Idempotency settings = restPath.getIdempotency();
+        while (true) {
+            ResponseCacheService.CachedResponse response = lookup(key);
+            if (response != null) {
+                storedReplays.increment();
+                replay(exchange, response, "stored");
+                return;
+            }
+
+            CompletableFuture<ResponseCacheService.CachedResponse> execution = new CompletableFuture<>();
+            CompletableFuture<ResponseCacheService.CachedResponse> original = inflight.putIfAbsent(key, execution);
+            if (original == null) {
+                // la ejecución anterior pudo terminar entre la consulta y el registro
+                response = lookup(key);
+                if (response != null) {
+                    inflight.remove(key, execution);
+                    execution.complete(response);
+                    storedReplays.increment();
+                    replay(exchange, response, "stored");
+                    return;
+                }
+                execute(exchange, key, settings, backend, execution);
+                return;
+            }
+
+            response = await(exchange, original, settings);
+            if (response != null) {
+                joinedReplays.increment();
+                replay(exchange, response, "joined");
+                return;
+            }
+            // la original falló sin dejar respuesta: el duplicado pasa a ejecutarla
+            log.debug("Ejecución idempotente fallida para {}, se reintenta con el duplicado", key);
+        }
+    }
+
+    private void execute(
+        Exchange exchange,
+        String key,
+        BridgeConfiguration.Idempotency settings,
+        Processor backend,
+        CompletableFuture<ResponseCacheService.CachedResponse> execution
+    ) throws Exception {
+        ResponseCacheService.CachedResponse response = null;
+        try {
+            executions.increment();
+            backend.process(exchange);
+            response = capture(exchange, settings);
+            if (response != null) {
+                synchronized (completed) {
+                    completed.put(key, response);
+                }
+            }
+        } finally {
+            // primero se guarda y después se libera la clave, así ningún duplicado vuelve a ejecutar
+            inflight.remove(key, execution);
+            execution.complete(response);
+        }
+    }
+
+    private ResponseCacheService.CachedResponse await(
+        Exchange exchange,
+        CompletableFuture<ResponseCacheService.CachedResponse> original,
+        BridgeConfiguration.Idempotency settings
+    ) {
+        Deadline deadline = Deadline.of(exchange);
+        long waitMillis = deadline != null ? Math.min(settings.getWaitTimeout(), deadline.remainingMillis()) : settings.getWaitTimeout();
+        String routeKey = exchange.getProperty(OperationPlan.INVOCATION_PROPERTY, OperationPlan.Invocation.class).plan().routeKey();
+        try {
+            return original.get(Math.max(1, waitMillis), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (deadline != null) {
+                deadline.check(routeKey);
+            }
+            throw new ApiInvocationException(409, "Operación idempotente aún en curso para " + routeKey, "text/plain", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ApiInvocationException.internal("Espera interrumpida por la operación idempotente " + routeKey, e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    // sólo se guardan respuestas correctas de texto; los errores liberan la clave para que el cliente pueda reintentar
+    private ResponseCacheService.CachedResponse capture(Exchange exchange, BridgeConfiguration.Idempotency settings) {
+        int statusCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class);
+        Object body = exchange.getIn().getBody();
+        if (statusCode < 200 || statusCode > 299 || (body != null && !(body instanceof String))) {
+            return null;
+        }
+        boolean digest = settings.getKey() == null || settings.getKey().isBlank();
+        return new ResponseCacheService.CachedResponse(
+            statusCode,
+            exchange.getProperty("apiResponseContentType", String.class),
+            body == null ? null : ((String) body).getBytes(StandardCharsets.UTF_8),
+            System.currentTimeMillis() + (digest ? settings.getDigestTtl() : settings.getTtl()) * 1000L
+        );
+    }
+
+    private ResponseCacheService.CachedResponse lookup(String key) {
+        synchronized (completed) {
+            ResponseCacheService.CachedResponse response = completed.get(key);
+            if (response != null && response.expiresAtMillis() <= System.currentTimeMillis()) {
+                completed.remove(key);
+                return null;
+            }
+            return response;
+        }
+    }
+
+    private static void replay(Exchange exchange, ResponseCacheService.CachedResponse response, String source) {
+        exchange.getIn().setBody(response.body() == null ? null : new String(response.body(), StandardCharsets.UTF_8));
+        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, response.statusCode());
+        exchange.setProperty("apiResponseContentType", response.contentType());
+        exchange.setProperty(REPLAY_PROPERTY, source);
+    }
+
+    private String idempotencyKey(Exchange exchange, BridgeConfiguration.RestPath restPath) {
+        BridgeConfiguration.Idempotency settings = restPath.getIdempotency();
+        OperationPlan.Invocation invocation = exchange.getProperty(OperationPlan.INVOCATION_PROPERTY, OperationPlan.Invocation.class);
+        if (settings == null || !settings.isEnabled() || invocation == null || !invocation.plan().bodyMethod()) {
+            return null;
+        }
+
+        String routeKey = invocation.plan().routeKey();
+        // la clave es del llamante: dos consumidores con el mismo número de solicitud no comparten respuesta
+        String scope = routeKey + "@" + caller(exchange);
+        if (settings.getKey() == null || settings.getKey().isBlank()) {
+            return scope + " " + digest(invocation.target(), exchange.getIn().getBody(String.class));
+        }
+        String value = keyTemplates.computeIfAbsent(routeKey, ignored -> OperationPlan.Template.compile(settings.getKey()))
+            .resolve(exchange, false);
+        // si la petición no trae la clave configurada no se deduplica
+        return value == null || value.isBlank() ? null : scope + " " + value;
+    }
+
+    // identidad resuelta por el límite de tasa y, si no la hay, el usuario WS-Security autenticado
+    private static String caller(Exchange exchange) {
+        String consumer = exchange.getProperty(RateLimitService.CONSUMER_PROPERTY, String.class);
+        if (consumer != null && !RateLimitService.ANONYMOUS.equals(consumer)) {
+            return consumer;
+        }
+        String username = exchange.getProperty(RateLimitService.WS_SECURITY_USERNAME_PROPERTY, String.class);
+        return username != null ? username : RateLimitService.ANONYMOUS;
+    }
+
+    // el cuerpo REST ya generado no incluye nonce ni timestamp de WS-Security, así que un reintento produce el mismo
+    private static String digest(String target, String body) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(target.getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) '\n');
+            if (body != null) {
+                sha256.update(body.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
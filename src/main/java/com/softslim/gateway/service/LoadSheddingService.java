@@ -0,0 +1,124 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.exception.ApiInvocationException;
+import com.softslim.gateway.model.BridgeConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// control tipo CoDel sobre la espera de las peticiones por un hilo de Tomcat: si durante un intervalo completo
+// ni la petición que menos esperó baja del objetivo hay cola permanente y se rechaza una clase de prioridad más
+@Slf4j
+@Service
+public class LoadSheddingService {
+    private static final int MAX_LEVEL = PriorityClass.values().length - 1;
+
+    private final boolean enabled;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final Map<String, PriorityClass> servicePriorities = new HashMap<>();
+    private final Map<String, PriorityClass> operationPriorities = new HashMap<>();
+    private final Map<PriorityClass, Counter> shed = new EnumMap<>(PriorityClass.class);
+    private final AtomicLong intervalStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong intervalMinimum = new AtomicLong(Long.MAX_VALUE);
+    // número de clases rechazadas empezando por la menos prioritaria; critical nunca se rechaza
+    private volatile int level;
+    private volatile long lastMinimum;
+
+    public LoadSheddingService(BridgeConfiguration bridgeConfig, MeterRegistry meterRegistry) {
+        BridgeConfiguration.LoadShedding settings = bridgeConfig.getLoadShedding();
+        this.enabled = settings.isEnabled();
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.getTarget()));
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.getInterval()));
+        if (bridgeConfig.getEndpointsClients() != null) {
+            bridgeConfig.getEndpointsClients().forEach((serviceName, endpointClient) -> {
+                servicePriorities.put(serviceName, PriorityClass.fromConfig(endpointClient.getPriority()));
+                if (endpointClient.getRest() != null && endpointClient.getRest().getPaths() != null) {
+                    endpointClient.getRest().getPaths().stream()
+                        .filter(restPath -> restPath.getPriority() != null && !restPath.getPriority().isBlank())
+                        .forEach(restPath -> operationPriorities.put(serviceName + "." + restPath.getOperation(),
+                            PriorityClass.fromConfig(restPath.getPriority())));
+                }
+            });
+        }
+
+        for (PriorityClass priority : PriorityClass.values()) {
+            shed.put(priority, Counter.builder("gateway.load.shed").tag("priority", priority.key()).register(meterRegistry));
+        }
+        Gauge.builder("gateway.load.shedding.level", this, service -> service.level).register(meterRegistry);
+        Gauge.builder("gateway.load.queue.delay", this, service -> service.lastMinimum / 1_000_000.0)
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // lo llama el executor de Tomcat al entregar cada petición a un hilo
+    public void recordQueueDelay(long delayNanos) {
+        intervalMinimum.accumulateAndGet(delayNanos, Math::min);
+        long now = System.nanoTime();
+        long start = intervalStart.get();
+        if (now - start < intervalNanos || !intervalStart.compareAndSet(start, now)) {
+            return;
+        }
+
+        long minimum = intervalMinimum.getAndSet(Long.MAX_VALUE);
+        lastMinimum = minimum == Long.MAX_VALUE ? 0 : minimum;
+        int previous = level;
+        int next = minimum != Long.MAX_VALUE && minimum > targetNanos
+            ? Math.min(previous + 1, MAX_LEVEL)
+            : Math.max(previous - 1, 0);
+        if (next != previous) {
+            level = next;
+            log.info("Nivel de descarte {} -> {} (espera mínima por hilo {} ms)", previous, next,
+                TimeUnit.NANOSECONDS.toMillis(lastMinimum));
+        }
+    }
+
+    // tras el parseo y antes de WS-Security, con la operación ya conocida; los lotes usan la prioridad del servicio
+    public void admit(Exchange exchange, String serviceName, String operation) {
+        int current = level;
+        if (!enabled || current == 0) {
+            return;
+        }
+        PriorityClass priority = priorityOf(serviceName, operation);
+        if (priority.ordinal() < PriorityClass.values().length - current) {
+            return;
+        }
+        shed.get(priority).increment();
+        exchange.getIn().setHeader("Retry-After", Math.max(1, TimeUnit.NANOSECONDS.toSeconds(intervalNanos * current)));
+        throw new ApiInvocationException(503, "Gateway sobrecargado: rechazada petición de prioridad "
+            + priority.key() + " para servicio " + serviceName, "text/plain", null);
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("enabled", enabled);
+        description.put("level", level);
+        description.put("queueDelayMillis", TimeUnit.NANOSECONDS.toMillis(lastMinimum));
+        Map<String, Long> rejected = new LinkedHashMap<>();
+        shed.forEach((priority, counter) -> rejected.put(priority.key(), (long) counter.count()));
+        description.put("shed", rejected);
+        return description;
+    }
+
+    private PriorityClass priorityOf(String serviceName, String operation) {
+        PriorityClass priority = operation != null ? operationPriorities.get(serviceName + "." + operation) : null;
+        if (priority != null) {
+            return priority;
+        }
+        return servicePriorities.getOrDefault(serviceName, PriorityClass.DEFAULT);
+    }
+}
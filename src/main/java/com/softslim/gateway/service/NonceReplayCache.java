@@ -0,0 +1,172 @@
+package com.softslim.gateway.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ranuras por Created: cada nonce se recuerda mientras su Created siga dentro de la ventana (±window).
+// si una franja se llena se descarta su nonce más antiguo en lugar de rechazar la petición
+public class NonceReplayCache {
+    private static final int SLICES = 16;
+    private static final int STRIPES = 64;
+    private static final long EMPTY = 0L;
+
+    private final long sliceMillis;
+    private final int stripeCapacity;
+    private final int stripeMaxEntries;
+    private final Stripe[][] slices;
+    private final LongAdder evictions = new LongAdder();
+
+    // capacity: nonces a retener en toda la ventana, idealmente TPS esperadas × 2 × window
+    public NonceReplayCache(long windowMillis, int capacity) {
+        // Created se acepta en [now - window, now + window]: las ranuras vivas nunca llegan a dar la vuelta al anillo
+        this.sliceMillis = Math.max(1000L, (2 * windowMillis + SLICES - 3) / (SLICES - 2));
+        int perStripe = Math.max(16, capacity / ((SLICES - 2) * STRIPES));
+        this.stripeMaxEntries = perStripe;
+        this.stripeCapacity = Integer.highestOneBit(perStripe * 2 - 1) << 1;
+        this.slices = new Stripe[SLICES][STRIPES];
+        for (int slice = 0; slice < SLICES; slice++) {
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                slices[slice][stripe] = new Stripe(stripeCapacity, stripeMaxEntries);
+            }
+        }
+    }
+
+    public Result register(byte[] nonce, long createdMillis) {
+        long hash = hash(nonce);
+        long epoch = Math.floorDiv(createdMillis, sliceMillis);
+        Stripe stripe = slices[(int) Math.floorMod(epoch, SLICES)][(int) (hash & (STRIPES - 1))];
+
+        stripe.lock.lock();
+        try {
+            if (stripe.epoch != epoch) {
+                if (epoch < stripe.epoch) {
+                    return Result.EXPIRED;
+                }
+                stripe.reset(epoch);
+            }
+            Result result = stripe.insert(hash);
+            if (result == Result.EVICTED) {
+                evictions.increment();
+            }
+            return result;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long capacity() {
+        return (long) (SLICES - 2) * STRIPES * stripeMaxEntries;
+    }
+
+    public long memoryFootprintBytes() {
+        return (long) SLICES * STRIPES * (stripeCapacity + stripeMaxEntries) * Long.BYTES;
+    }
+
+    private static long hash(byte[] nonce) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : nonce) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == EMPTY ? 1L : h;
+    }
+
+    public enum Result {
+        ACCEPTED,
+        // aceptado descartando el nonce más antiguo de su franja
+        EVICTED,
+        REPLAY,
+        EXPIRED
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] table;
+        // orden de inserción circular, para saber qué nonce descartar al llenarse
+        private final long[] order;
+        private final int mask;
+        private long epoch = Long.MIN_VALUE;
+        private int size;
+        private int oldest;
+
+        private Stripe(int capacity, int maxEntries) {
+            this.table = new long[capacity];
+            this.order = new long[maxEntries];
+            this.mask = capacity - 1;
+        }
+
+        private void reset(long newEpoch) {
+            if (size > 0) {
+                Arrays.fill(table, EMPTY);
+            }
+            size = 0;
+            oldest = 0;
+            epoch = newEpoch;
+        }
+
+        private Result insert(long hash) {
+            int index = slot(hash);
+            while (table[index] != EMPTY) {
+                if (table[index] == hash) {
+                    return Result.REPLAY;
+                }
+                index = (index + 1) & mask;
+            }
+
+            Result result = Result.ACCEPTED;
+            if (size == order.length) {
+                remove(order[oldest]);
+                oldest = (oldest + 1) % order.length;
+                size--;
+                result = Result.EVICTED;
+                // el borrado pudo desplazar entradas: se vuelve a buscar hueco
+                index = slot(hash);
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+            }
+            table[index] = hash;
+            order[(oldest + size) % order.length] = hash;
+            size++;
+            return result;
+        }
+
+        // borrado con desplazamiento hacia atrás para no romper las secuencias de sondeo lineal
+        private void remove(long hash) {
+            int index = slot(hash);
+            while (table[index] != hash) {
+                index = (index + 1) & mask;
+            }
+            int next = index;
+            while (true) {
+                next = (next + 1) & mask;
+                if (table[next] == EMPTY) {
+                    break;
+                }
+                int home = slot(table[next]);
+                boolean movable = index <= next
+                    ? home <= index || home > next
+                    : home <= index && home > next;
+                if (movable) {
+                    table[index] = table[next];
+                    index = next;
+                }
+            }
+            table[index] = EMPTY;
+        }
+
+        private int slot(long hash) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
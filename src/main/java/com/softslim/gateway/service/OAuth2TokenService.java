@@ -1,35 +1,61 @@
 package com.softslim.gateway.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.softslim.gateway.exception.DeadlineExceededException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
 public class OAuth2TokenService {
     private static final long EXPIRY_SAFETY_WINDOW_SECONDS = 30;
+    // la petición de token compartida no hereda el deadline de quien la lanzó; cada espera aplica el suyo
+    private static final Duration SHARED_TOKEN_TIMEOUT = Duration.ofSeconds(30);
 
-    private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final Map<String, CachedToken> tokenCache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> pendingTokens = new ConcurrentHashMap<>();
+    // un único cliente para las peticiones bloqueantes y asíncronas; el timeout se fija en cada petición
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
 
     public OAuth2TokenService() {
         log.info("OAuth2TokenService inicializado");
     }
 
     public String getAccessToken(String tokenUri, String clientId, String clientSecret, String scope) {
+        return getAccessToken(tokenUri, clientId, clientSecret, scope, null);
+    }
+
+    public String getAccessToken(String tokenUri, String clientId, String clientSecret, String scope, Deadline deadline) {
         String cacheKey = buildCacheKey(tokenUri, clientId, scope);
         CachedToken cachedToken = tokenCache.get(cacheKey);
 
@@ -38,23 +64,132 @@ public class OAuth2TokenService {
         }
 
         log.debug("Solicitando token OAuth2 para clientId={}", clientId);
-        String token = requestClientCredentialsToken(tokenUri, clientId, clientSecret, scope);
-        return token;
+        if (deadline != null) {
+            deadline.check("token OAuth2 de " + clientId);
+        }
+        try {
+            return requestClientCredentialsToken(tokenUri, clientId, clientSecret, scope, deadline);
+        } catch (ResourceAccessException e) {
+            if (deadline != null && deadline.isExpired()) {
+                throw new DeadlineExceededException("Presupuesto de tiempo agotado obteniendo token OAuth2", e);
+            }
+            throw e;
+        }
+    }
+
+    // con presupuesto, la petición de token no puede exceder el tiempo restante de la petición SOAP
+    private String requestClientCredentialsToken(String tokenUri, String clientId, String clientSecret, String scope, Deadline deadline) {
+        Duration timeout = deadline == null
+            ? SHARED_TOKEN_TIMEOUT
+            : Duration.ofMillis(deadline.clamp((int) SHARED_TOKEN_TIMEOUT.toMillis()));
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(tokenRequest(tokenUri, clientId, clientSecret, scope, timeout), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new ResourceAccessException("Error obteniendo token OAuth2: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Petición de token OAuth2 interrumpida", e);
+        }
+        if (response.statusCode() < 200 || response.statusCode() > 299) {
+            throw rejected(response);
+        }
+        return cacheToken(buildCacheKey(tokenUri, clientId, scope), response.body());
+    }
+
+    // contraparte no bloqueante: una sola petición de token en curso por clave, las demás comparten su resultado
+    public CompletableFuture<String> getAccessTokenAsync(String tokenUri, String clientId, String clientSecret, String scope, Deadline deadline) {
+        String cacheKey = buildCacheKey(tokenUri, clientId, scope);
+        CachedToken cachedToken = tokenCache.get(cacheKey);
+        if (cachedToken != null && cachedToken.expiresAt().isAfter(Instant.now())) {
+            return CompletableFuture.completedFuture(cachedToken.token());
+        }
+
+        try {
+            if (deadline != null) {
+                deadline.check("token OAuth2 de " + clientId);
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> pending = pendingTokens.putIfAbsent(cacheKey, created);
+        if (pending != null) {
+            return awaitWithin(pending, deadline);
+        }
+
+        log.debug("Solicitando token OAuth2 asíncrono para clientId={}", clientId);
+        CompletableFuture<String> request;
+        try {
+            request = httpClient.sendAsync(tokenRequest(tokenUri, clientId, clientSecret, scope, SHARED_TOKEN_TIMEOUT),
+                    HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() < 200 || response.statusCode() > 299) {
+                        throw rejected(response);
+                    }
+                    return cacheToken(cacheKey, response.body());
+                });
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        request.whenComplete((token, failure) -> {
+            pendingTokens.remove(cacheKey, created);
+            if (failure == null) {
+                created.complete(token);
+                return;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (cause instanceof IOException io) {
+                cause = new ResourceAccessException("Error obteniendo token OAuth2: " + io.getMessage(), io);
+            }
+            created.completeExceptionally(cause);
+        });
+        return awaitWithin(created, deadline);
+    }
+
+    // copia por llamante: su deadline acota sólo su espera y no cancela la petición compartida
+    private static CompletableFuture<String> awaitWithin(CompletableFuture<String> shared, Deadline deadline) {
+        if (deadline == null) {
+            return shared.copy();
+        }
+        return shared.copy()
+            .orTimeout(Math.max(1, deadline.remainingMillis()), TimeUnit.MILLISECONDS)
+            .exceptionallyCompose(failure -> {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                return CompletableFuture.failedFuture(cause instanceof TimeoutException
+                    ? new DeadlineExceededException("Presupuesto de tiempo agotado obteniendo token OAuth2", cause)
+                    : cause);
+            });
     }
 
-    private String requestClientCredentialsToken(String tokenUri, String clientId, String clientSecret, String scope) {
+    // mismas excepciones que lanzaba la RestTemplate: el mapeo de errores sigue viendo el status y el cuerpo del IdP
+    private static HttpStatusCodeException rejected(HttpResponse<String> response) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        response.headers().map().forEach(headers::addAll);
+        byte[] body = response.body() == null ? new byte[0] : response.body().getBytes(StandardCharsets.UTF_8);
+        HttpStatusCode statusCode = HttpStatusCode.valueOf(response.statusCode());
+        String message = "Token OAuth2 rechazado con status " + response.statusCode();
+        return statusCode.is5xxServerError()
+            ? HttpServerErrorException.create(message, statusCode, "", headers, body, StandardCharsets.UTF_8)
+            : HttpClientErrorException.create(message, statusCode, "", headers, body, StandardCharsets.UTF_8);
+    }
 
-        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
-        form.add("grant_type", "client_credentials");
-        form.add("client_id", clientId);
-        form.add("client_secret", clientSecret);
+    private HttpRequest tokenRequest(String tokenUri, String clientId, String clientSecret, String scope, Duration timeout) {
+        StringBuilder form = new StringBuilder("grant_type=client_credentials")
+            .append("&client_id=").append(URLEncoder.encode(clientId, StandardCharsets.UTF_8))
+            .append("&client_secret=").append(URLEncoder.encode(clientSecret, StandardCharsets.UTF_8));
         if (scope != null && !scope.isBlank()) {
-            form.add("scope", scope);
+            form.append("&scope=").append(URLEncoder.encode(scope, StandardCharsets.UTF_8));
         }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(tokenUri))
+            .header("Content-Type", MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+            .timeout(timeout)
+            .POST(HttpRequest.BodyPublishers.ofString(form.toString(), StandardCharsets.UTF_8));
+        return builder.build();
+    }
 
-        String response = restTemplate.postForObject(tokenUri, new HttpEntity<>(form, headers), String.class);
+    private String cacheToken(String cacheKey, String response) {
         if (response == null || response.isBlank()) {
             throw new IllegalStateException("Respuesta vacía de token OAuth2");
         }
@@ -70,7 +205,7 @@ public class OAuth2TokenService {
             long safeTtl = Math.max(1L, expiresIn - EXPIRY_SAFETY_WINDOW_SECONDS);
             Instant expiresAt = Instant.now().plusSeconds(safeTtl);
 
-            tokenCache.put(buildCacheKey(tokenUri, clientId, scope), new CachedToken(accessToken, expiresAt));
+            tokenCache.put(cacheKey, new CachedToken(accessToken, expiresAt));
             return accessToken;
         } catch (Exception e) {
             throw new IllegalStateException("No fue posible parsear respuesta OAuth2", e);
@@ -0,0 +1,260 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.replay.TrafficRedactor;
+import org.apache.camel.Exchange;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// todo lo que no depende de la petición se resuelve una vez al crear la ruta; por petición sólo se rellenan variables
+public record OperationPlan(
+    String routeKey,
+    String operation,
+    HttpMethod method,
+    boolean bodyMethod,
+    String baseUrl,
+    UpstreamPool upstreamPool,
+    Template path,
+    Map<String, Template> headers,
+    int timeout,
+    BridgeConfiguration.Resilience resilience,
+    long retryBackoff,
+    BridgeConfiguration.OAuth2Config oauth2,
+    HttpClient httpClient,
+    RestTemplate restTemplate,
+    Semaphore streams,
+    String configurationError
+) {
+    public static final String INVOCATION_PROPERTY = "GatewayBackendInvocation";
+
+    private static final int DEFAULT_TIMEOUT = 5000;
+    private static final int DEFAULT_MAX_STREAMS = 100;
+    // el motor async no ocupa hilos por llamada en vuelo: su límite por defecto es mayor
+    private static final int DEFAULT_ASYNC_MAX_STREAMS = 1000;
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{(soap|header|result)\\.([^}]+)}");
+    // los conversores se crean una vez y se comparten entre todos los RestTemplate
+    private static final List<HttpMessageConverter<?>> MESSAGE_CONVERTERS = List.copyOf(new RestTemplate().getMessageConverters());
+
+    // una configuración inválida no impide arrancar: cada petición a la operación recibe el error como fault
+    public static OperationPlan compile(
+        String routeKey,
+        BridgeConfiguration.EndpointClient endpointClient,
+        BridgeConfiguration.RestPath restPath,
+        UpstreamPool upstreamPool,
+        BridgeConfiguration.Resilience globalResilience,
+        BackendHttpClients backendHttpClients
+    ) {
+        HttpMethod method = HttpMethod.valueOf(restPath.getMethod() == null ? "GET" : restPath.getMethod().toUpperCase(Locale.ROOT));
+        Map<String, Template> headers = new LinkedHashMap<>();
+        if (restPath.getHeaders() != null) {
+            restPath.getHeaders().forEach((name, value) -> headers.put(name, Template.compile(value)));
+        }
+        int timeout = restPath.getTimeout() == null ? DEFAULT_TIMEOUT : restPath.getTimeout();
+        BridgeConfiguration.Resilience resilience = restPath.getResilience() != null
+            ? restPath.getResilience()
+            : endpointClient.getResilience() != null ? endpointClient.getResilience() : globalResilience;
+        long retryBackoff = resilience != null && resilience.getRetry() != null && resilience.getRetry().isEnabled()
+            ? resilience.getRetry().getBackoff()
+            : 0;
+
+        BridgeConfiguration.RestConfiguration rest = endpointClient.getRest();
+        BridgeConfiguration.HttpClientSettings httpSettings = rest != null ? rest.getHttp() : null;
+        int maxStreams = restPath.getMaxStreams() != null
+            ? restPath.getMaxStreams()
+            : httpSettings != null && httpSettings.getMaxStreams() != null
+                ? httpSettings.getMaxStreams()
+                : "async".equalsIgnoreCase(String.valueOf(endpointClient.getEngine()).trim()) ? DEFAULT_ASYNC_MAX_STREAMS : DEFAULT_MAX_STREAMS;
+
+        String baseUrl = null;
+        BridgeConfiguration.OAuth2Config oauth2 = null;
+        HttpClient httpClient = null;
+        String configurationError = null;
+        try {
+            String domainPath = rest != null ? rest.getDomainPath() : null;
+            if (upstreamPool == null && (domainPath == null || domainPath.isBlank())) {
+                throw new IllegalArgumentException("domain-path no configurado para la operación " + restPath.getOperation());
+            }
+            if (upstreamPool == null) {
+                baseUrl = domainPath.endsWith("/") ? domainPath.substring(0, domainPath.length() - 1) : domainPath;
+            }
+            oauth2 = resolveOAuth2(endpointClient.getSecurity());
+            httpClient = backendHttpClients.client(httpSettings,
+                endpointClient.getSecurity() != null ? endpointClient.getSecurity().getMutualTls() : null);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            configurationError = e.getMessage();
+        }
+
+        return new OperationPlan(
+            routeKey,
+            restPath.getOperation(),
+            method,
+            method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH,
+            baseUrl,
+            upstreamPool,
+            Template.compile(restPath.getPath()),
+            Collections.unmodifiableMap(headers),
+            timeout,
+            resilience,
+            retryBackoff,
+            oauth2,
+            httpClient,
+            httpClient != null ? newRestTemplate(httpClient, timeout) : null,
+            backendHttpClients.streamLimit(routeKey, maxStreams),
+            configurationError
+        );
+    }
+
+    public void checkConfiguration() {
+        if (configurationError != null) {
+            throw new IllegalArgumentException(configurationError);
+        }
+    }
+
+    public Invocation prepare(Exchange exchange, int timeoutMillis) {
+        checkConfiguration();
+        String target = target(path.resolve(exchange, true));
+
+        HttpHeaders outboundHeaders = new HttpHeaders();
+        headers.forEach((name, template) -> {
+            String resolved = template.resolve(exchange, false);
+            if (resolved != null) {
+                outboundHeaders.set(name, resolved);
+            }
+        });
+        return new Invocation(this, target, outboundHeaders, timeoutMillis);
+    }
+
+    // destino para la captura de tráfico: las variables que cumplan masked no se leen y salen como máscara
+    public String maskedTarget(Exchange exchange, Predicate<String> masked) {
+        String resolvedPath = path.resolve(exchange, false, masked);
+        // sin las variables (exchange ya modificado) se enmascaran todas antes que registrar un valor real
+        return target(resolvedPath != null ? resolvedPath : path.resolve(exchange, false, name -> true));
+    }
+
+    private String target(String resolvedPath) {
+        if (upstreamPool != null) {
+            return resolvedPath;
+        }
+        return resolvedPath.startsWith("/") ? baseUrl + resolvedPath : baseUrl + "/" + resolvedPath;
+    }
+
+    private static BridgeConfiguration.OAuth2Config resolveOAuth2(BridgeConfiguration.Security security) {
+        if (security == null || security.getOauth2() == null || !security.getOauth2().isEnabled()) {
+            return null;
+        }
+        BridgeConfiguration.OAuth2Config oauth2 = security.getOauth2();
+        if (oauth2.getTokenUri() == null || oauth2.getClientId() == null || oauth2.getClientSecret() == null) {
+            throw new IllegalArgumentException("Configuración OAuth2 incompleta para servicio SOAP");
+        }
+        return oauth2;
+    }
+
+    // un plazo más corto que el del plan (deadline, pata compuesta) se aplica por intento sin crear otra plantilla
+    private static RestTemplate newRestTemplate(HttpClient httpClient, int timeoutMillis) {
+        RestTemplate template = new RestTemplate(MESSAGE_CONVERTERS);
+        template.setRequestFactory(new AttemptTimeoutRequestFactory(httpClient, timeoutMillis));
+        return template;
+    }
+
+    // datos de una petición concreta: destino (URL o path relativo al pool), headers ya resueltos y timeout
+    public record Invocation(OperationPlan plan, String target, HttpHeaders headers, int timeout) {
+
+        public String targetUrl() {
+            return plan.upstreamPool() == null ? target : null;
+        }
+
+        public String targetPath() {
+            return plan.upstreamPool() != null ? target : null;
+        }
+    }
+
+    // plantilla troceada en literales y variables ${soap.x}, ${header.x} y ${result.x} al compilar el plan
+    public static final class Template {
+        private static final Template EMPTY = new Template(new String[] {""}, new boolean[] {false}, 0);
+
+        private final String[] parts;
+        private final boolean[] result;
+        private final int literalLength;
+
+        private Template(String[] parts, boolean[] result, int literalLength) {
+            this.parts = parts;
+            this.result = result;
+            this.literalLength = literalLength;
+        }
+
+        static Template compile(String template) {
+            if (template == null || template.isEmpty()) {
+                return EMPTY;
+            }
+            // las posiciones pares son literales y las impares nombres de variable
+            List<String> parts = new ArrayList<>();
+            List<Boolean> result = new ArrayList<>();
+            Matcher matcher = PLACEHOLDER.matcher(template);
+            int literalLength = 0;
+            int last = 0;
+            while (matcher.find()) {
+                parts.add(template.substring(last, matcher.start()));
+                result.add(false);
+                literalLength += matcher.start() - last;
+                parts.add(matcher.group(2));
+                result.add("result".equals(matcher.group(1)));
+                last = matcher.end();
+            }
+            parts.add(template.substring(last));
+            result.add(false);
+            literalLength += template.length() - last;
+
+            boolean[] resultFlags = new boolean[result.size()];
+            for (int i = 0; i < resultFlags.length; i++) {
+                resultFlags[i] = result.get(i);
+            }
+            return new Template(parts.toArray(String[]::new), resultFlags, literalLength);
+        }
+
+        String resolve(Exchange exchange, boolean required) {
+            return resolve(exchange, required, name -> false);
+        }
+
+        String resolve(Exchange exchange, boolean required, Predicate<String> masked) {
+            if (parts.length == 1) {
+                return parts[0];
+            }
+            StringBuilder resolved = new StringBuilder(literalLength + 16 * (parts.length / 2));
+            for (int i = 0; i < parts.length; i++) {
+                if (i % 2 == 0) {
+                    resolved.append(parts[i]);
+                    continue;
+                }
+                if (masked.test(parts[i])) {
+                    resolved.append(TrafficRedactor.MASK);
+                    continue;
+                }
+                Object value = result[i]
+                    ? CompositeInvocationService.resultValue(exchange, parts[i])
+                    : exchange.getIn().getHeader(parts[i]);
+                if (value == null) {
+                    if (required) {
+                        throw new IllegalArgumentException("Header requerido no encontrado para path REST: " + parts[i]);
+                    }
+                    return null;
+                }
+                resolved.append(value);
+            }
+            return resolved.toString();
+        }
+    }
+}
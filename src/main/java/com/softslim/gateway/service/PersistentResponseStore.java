@@ -0,0 +1,543 @@
+package com.softslim.gateway.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// segmentos append-only mapeados en memoria + índice en heap con orden LRU;
+// el índice se persiste al cerrar para arrancar sin recorrer los segmentos.
+// la compactación corre en un hilo propio y mueve un registro por vez, sin retener el lock durante la copia
+@Slf4j
+public final class PersistentResponseStore {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final String INDEX_FILE = "index.dat";
+    private static final int INDEX_MAGIC = 0x47574958;
+    // longitud del payload + CRC32 del payload
+    private static final int RECORD_HEADER = 8;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Slot> index = new LinkedHashMap<>(1024, 0.75f, true);
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "response-cache-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private Segment active;
+    private long liveBytes;
+    private boolean closed;
+
+    public PersistentResponseStore(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        if (segmentBytes <= RECORD_HEADER || maxBytes < 2L * segmentBytes) {
+            throw new IllegalArgumentException("max-disk-bytes debe ser al menos el doble de segment-bytes");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    public ResponseCacheService.CachedResponse get(String key) {
+        Slot slot;
+        Location location;
+        Segment segment;
+        lock.lock();
+        try {
+            slot = index.get(key);
+            if (slot == null) {
+                return null;
+            }
+            location = slot.location;
+            if (location.expiresAtMillis() <= System.currentTimeMillis()) {
+                remove(key, slot);
+                return null;
+            }
+            segment = segments.get(location.segmentId());
+        } finally {
+            lock.unlock();
+        }
+
+        // la lectura va fuera del lock; si la compactación mueve el registro, el segmento antiguo sigue mapeado
+        StoredRecord record = segment == null ? null : segment.read(location.offset());
+        if (record == null || !record.key().equals(key)) {
+            log.warn("Entrada corrupta en caché persistente para {}, se descarta", key);
+            lock.lock();
+            try {
+                if (!slot.removed && slot.location == location) {
+                    remove(key, slot);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return null;
+        }
+        return record.response();
+    }
+
+    public void put(String key, ResponseCacheService.CachedResponse response) {
+        byte[] payload = encode(key, response);
+        if (RECORD_HEADER + payload.length > segmentBytes) {
+            log.debug("Respuesta de {} bytes excede el segmento, no se persiste", payload.length);
+            return;
+        }
+
+        boolean compact;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            Slot previous = index.get(key);
+            if (previous != null) {
+                remove(key, previous);
+            }
+            index.put(key, new Slot(append(payload, response.expiresAtMillis())));
+            evict();
+            compact = needsCompaction();
+        } catch (IOException e) {
+            log.warn("No fue posible escribir en caché persistente: {}", e.getMessage());
+            return;
+        } finally {
+            lock.unlock();
+        }
+        if (compact && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(this::compactInBackground);
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(10, TimeUnit.SECONDS)) {
+                compactor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            closed = true;
+            writeIndex();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+            index.clear();
+        } catch (IOException e) {
+            log.warn("No fue posible guardar el índice de caché persistente: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Location append(byte[] payload, long expiresAtMillis) throws IOException {
+        int recordLength = RECORD_HEADER + payload.length;
+        if (active == null || segmentBytes - active.writePosition < recordLength) {
+            active = openSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int offset = active.writePosition;
+        ByteBuffer buffer = active.buffer.duplicate();
+        buffer.position(offset);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        active.writePosition = offset + recordLength;
+        active.liveEntries++;
+        liveBytes += recordLength;
+        return new Location(active.id, offset, recordLength, expiresAtMillis);
+    }
+
+    // LRU por entrada: se descartan las menos usadas hasta dejar un segmento libre de margen
+    private void evict() {
+        long budget = maxBytes - segmentBytes;
+        Iterator<Slot> iterator = index.values().iterator();
+        while (liveBytes > budget && iterator.hasNext()) {
+            Slot slot = iterator.next();
+            iterator.remove();
+            slot.removed = true;
+            release(slot.location);
+        }
+    }
+
+    // los huecos de entradas reemplazadas o descartadas se recuperan compactando el segmento más antiguo
+    private boolean needsCompaction() {
+        return (long) segments.size() * segmentBytes > maxBytes && segments.size() > 1;
+    }
+
+    private void compactInBackground() {
+        try {
+            while (compactOldest()) {
+                // un segmento por vuelta mientras se siga por encima del presupuesto
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("No fue posible compactar la caché persistente: {}", e.getMessage());
+        } finally {
+            compactionScheduled.set(false);
+        }
+        lock.lock();
+        try {
+            if (closed || !needsCompaction() || !compactionScheduled.compareAndSet(false, true)) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        compactor.execute(this::compactInBackground);
+    }
+
+    private boolean compactOldest() throws IOException {
+        Segment oldest;
+        List<Map.Entry<String, Slot>> survivors = new ArrayList<>();
+        lock.lock();
+        try {
+            if (closed || !needsCompaction()) {
+                return false;
+            }
+            oldest = segments.firstEntry().getValue();
+            for (Map.Entry<String, Slot> entry : index.entrySet()) {
+                if (entry.getValue().location.segmentId() == oldest.id) {
+                    survivors.add(entry);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // el lock se toma por registro: las consultas se intercalan con la copia del segmento
+        for (Map.Entry<String, Slot> entry : survivors) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                move(entry.getKey(), entry.getValue(), oldest);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        lock.lock();
+        try {
+            if (segments.get(oldest.id) == oldest) {
+                deleteSegment(oldest);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // se sustituye la Location del slot sin tocar el índice, así no cambia el orden LRU
+    private void move(String key, Slot slot, Segment oldest) throws IOException {
+        Location location = slot.location;
+        if (slot.removed || location.segmentId() != oldest.id) {
+            return;
+        }
+        StoredRecord record = oldest.read(location.offset());
+        if (record == null || location.expiresAtMillis() <= System.currentTimeMillis()) {
+            remove(key, slot);
+            return;
+        }
+        Location moved = append(encode(record.key(), record.response()), location.expiresAtMillis());
+        slot.location = moved;
+        release(location);
+    }
+
+    private void remove(String key, Slot slot) {
+        index.remove(key);
+        slot.removed = true;
+        release(slot.location);
+    }
+
+    private void release(Location location) {
+        liveBytes -= location.length();
+        Segment segment = segments.get(location.segmentId());
+        if (segment != null && --segment.liveEntries == 0 && segment != active) {
+            deleteSegment(segment);
+        }
+    }
+
+    private void deleteSegment(Segment segment) {
+        segments.remove(segment.id);
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("No fue posible eliminar segmento {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    private void load() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(id, mapSegment(id, file));
+                }
+            }
+        }
+
+        Map<Integer, Integer> indexedPositions = readIndex();
+        // sólo se recorre lo escrito después del último índice; sin índice válido se recorren los segmentos completos
+        for (Segment segment : segments.values()) {
+            scan(segment, indexedPositions.getOrDefault(segment.id, 0));
+        }
+
+        liveBytes = 0;
+        segments.values().forEach(segment -> segment.liveEntries = 0);
+        Iterator<Slot> iterator = index.values().iterator();
+        long now = System.currentTimeMillis();
+        while (iterator.hasNext()) {
+            Location location = iterator.next().location;
+            Segment segment = segments.get(location.segmentId());
+            if (segment == null || location.expiresAtMillis() <= now) {
+                iterator.remove();
+                continue;
+            }
+            segment.liveEntries++;
+            liveBytes += location.length();
+        }
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment.liveEntries == 0) {
+                deleteSegment(segment);
+            }
+        }
+        active = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        evict();
+        // al arrancar aún no hay tráfico: se compacta en el propio hilo
+        while (compactOldest()) {
+            // un segmento por vuelta
+        }
+
+        // un índice en disco sólo es válido hasta la siguiente escritura; se reescribe al cerrar
+        Files.deleteIfExists(directory.resolve(INDEX_FILE));
+        log.info("Caché persistente cargada desde {}: {} entradas en {} segmentos", directory, index.size(), segments.size());
+    }
+
+    private void scan(Segment segment, int from) {
+        int position = from;
+        while (position + RECORD_HEADER <= segmentBytes) {
+            StoredRecord record = segment.read(position);
+            if (record == null) {
+                break;
+            }
+            int length = RECORD_HEADER + segment.buffer.getInt(position);
+            index.remove(record.key());
+            index.put(record.key(), new Slot(new Location(segment.id, position, length, record.response().expiresAtMillis())));
+            position += length;
+        }
+        segment.writePosition = Math.max(segment.writePosition, position);
+    }
+
+    private Map<Integer, Integer> readIndex() {
+        Path file = directory.resolve(INDEX_FILE);
+        Map<Integer, Integer> positions = new HashMap<>();
+        if (!Files.exists(file)) {
+            return positions;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - Long.BYTES);
+            if (buffer.getInt() != INDEX_MAGIC || buffer.getLong(bytes.length - Long.BYTES) != crc.getValue()) {
+                log.warn("Índice de caché persistente inválido, se reconstruye desde los segmentos");
+                return positions;
+            }
+            int segmentCount = buffer.getInt();
+            for (int i = 0; i < segmentCount; i++) {
+                positions.put(buffer.getInt(), buffer.getInt());
+            }
+            int entryCount = buffer.getInt();
+            for (int i = 0; i < entryCount; i++) {
+                byte[] key = new byte[buffer.getInt()];
+                buffer.get(key);
+                index.put(new String(key, StandardCharsets.UTF_8),
+                    new Slot(new Location(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getLong())));
+            }
+            for (Map.Entry<Integer, Integer> position : positions.entrySet()) {
+                Segment segment = segments.get(position.getKey());
+                if (segment != null) {
+                    segment.writePosition = position.getValue();
+                }
+            }
+            return positions;
+        } catch (IOException | RuntimeException e) {
+            log.warn("No fue posible leer el índice de caché persistente: {}", e.getMessage());
+            index.clear();
+            positions.clear();
+            return positions;
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        int size = Integer.BYTES * 3 + segments.size() * Integer.BYTES * 2 + Long.BYTES;
+        List<byte[]> keys = new ArrayList<>(index.size());
+        for (String key : index.keySet()) {
+            byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+            keys.add(encoded);
+            size += Integer.BYTES * 4 + Long.BYTES + encoded.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(INDEX_MAGIC).putInt(segments.size());
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            buffer.putInt(segment.id).putInt(segment.writePosition);
+        }
+        buffer.putInt(index.size());
+        Iterator<byte[]> keyIterator = keys.iterator();
+        for (Slot slot : index.values()) {
+            byte[] key = keyIterator.next();
+            Location location = slot.location;
+            buffer.putInt(key.length).put(key)
+                .putInt(location.segmentId()).putInt(location.offset()).putInt(location.length()).putLong(location.expiresAtMillis());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+
+        Path temporary = directory.resolve(INDEX_FILE + ".tmp");
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        Segment segment = mapSegment(id, directory.resolve(SEGMENT_PREFIX + String.format("%08d", id) + SEGMENT_SUFFIX));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Segment mapSegment(int id, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        return new Segment(id, path, channel, buffer);
+    }
+
+    private static byte[] encode(String key, ResponseCacheService.CachedResponse response) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] contentType = response.contentType() == null ? new byte[0] : response.contentType().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES * 4 + keyBytes.length + contentType.length + response.body().length);
+        buffer.putLong(response.expiresAtMillis())
+            .putInt(response.statusCode())
+            .putInt(keyBytes.length).put(keyBytes)
+            .putInt(contentType.length).put(contentType)
+            .putInt(response.body().length).put(response.body());
+        return buffer.array();
+    }
+
+    private record Location(int segmentId, int offset, int length, long expiresAtMillis) {
+    }
+
+    // la entrada del índice no cambia al compactar; sólo se sustituye su Location, que es inmutable
+    private static final class Slot {
+        private volatile Location location;
+        private boolean removed;
+
+        private Slot(Location location) {
+            this.location = location;
+        }
+    }
+
+    private record StoredRecord(String key, ResponseCacheService.CachedResponse response) {
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int liveEntries;
+
+        private Segment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        // null si el registro está vacío, truncado o no coincide con su checksum
+        private StoredRecord read(int offset) {
+            try {
+                ByteBuffer view = buffer.duplicate();
+                int length = view.getInt(offset);
+                if (length <= 0 || offset + RECORD_HEADER + length > view.capacity()) {
+                    return null;
+                }
+                int expectedCrc = view.getInt(offset + Integer.BYTES);
+                ByteBuffer payload = view.slice(offset + RECORD_HEADER, length);
+                CRC32 crc = new CRC32();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != expectedCrc) {
+                    return null;
+                }
+
+                long expiresAtMillis = payload.getLong();
+                int statusCode = payload.getInt();
+                byte[] key = new byte[payload.getInt()];
+                payload.get(key);
+                byte[] contentType = new byte[payload.getInt()];
+                payload.get(contentType);
+                byte[] body = new byte[payload.getInt()];
+                payload.get(body);
+                return new StoredRecord(
+                    new String(key, StandardCharsets.UTF_8),
+                    new ResponseCacheService.CachedResponse(
+                        statusCode,
+                        contentType.length == 0 ? null : new String(contentType, StandardCharsets.UTF_8),
+                        body,
+                        expiresAtMillis));
+            } catch (IndexOutOfBoundsException | BufferUnderflowException | NegativeArraySizeException e) {
+                return null;
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Error cerrando segmento {}", path, e);
+            }
+        }
+    }
+}
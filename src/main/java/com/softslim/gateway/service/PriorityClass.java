@@ -0,0 +1,35 @@
+package com.softslim.gateway.service;
+
+import java.util.Locale;
+
+// de mayor a menor prioridad: en sobrecarga se rechazan primero las últimas
+public enum PriorityClass {
+    CRITICAL("critical"),
+    HIGH("high"),
+    DEFAULT("default"),
+    SHEDDABLE("sheddable");
+
+    private final String key;
+
+    PriorityClass(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static PriorityClass fromConfig(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (PriorityClass priority : values()) {
+            if (priority.key.equals(normalized)) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("Clase de prioridad no soportada: " + value
+            + " (critical, high, default, sheddable)");
+    }
+}
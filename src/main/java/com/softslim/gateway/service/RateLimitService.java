@@ -0,0 +1,166 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.exception.ApiInvocationException;
+import com.softslim.gateway.model.BridgeConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.http.common.HttpMessage;
+import org.springframework.stereotype.Service;
+
+import java.security.cert.X509Certificate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class RateLimitService {
+    public static final String CONSUMER_PROPERTY = "GatewayConsumerId";
+    public static final String WS_SECURITY_USERNAME_PROPERTY = "WsSecurityUsername";
+    public static final String ANONYMOUS = "anonymous";
+    private static final String OVERFLOW = "~overflow";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> scopeBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, TokenBucket>> consumerBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final AtomicBoolean evictionScheduled = new AtomicBoolean();
+    private final ExecutorService evictor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RateLimitService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void admitService(Exchange exchange, String serviceName, BridgeConfiguration.RateLimit rateLimit) {
+        if (rateLimit == null || !rateLimit.isEnabled()) {
+            return;
+        }
+        // la identidad se resuelve una vez; las copias de lote y compuestas la heredan por propiedad
+        exchange.setProperty(CONSUMER_PROPERTY, resolveConsumer(exchange, rateLimit));
+        admit(exchange, serviceName, rateLimit);
+    }
+
+    public void admitOperation(Exchange exchange, String scope, BridgeConfiguration.RateLimit rateLimit) {
+        if (rateLimit == null || !rateLimit.isEnabled()) {
+            return;
+        }
+        if (exchange.getProperty(CONSUMER_PROPERTY) == null) {
+            exchange.setProperty(CONSUMER_PROPERTY, resolveConsumer(exchange, rateLimit));
+        }
+        admit(exchange, scope, rateLimit);
+    }
+
+    // una petición rechazada no consume permisos: si el bucket del consumidor la rechaza se devuelve el agregado
+    private void admit(Exchange exchange, String scope, BridgeConfiguration.RateLimit rateLimit) {
+        TokenBucket aggregate = null;
+        if (rateLimit.getPermitsPerSecond() > 0) {
+            aggregate = scopeBuckets.computeIfAbsent(scope,
+                key -> new TokenBucket(rateLimit.getPermitsPerSecond(), burstOf(rateLimit.getBurst(), rateLimit.getPermitsPerSecond())));
+            reject(exchange, scope, null, aggregate.tryAcquire());
+        }
+
+        if (rateLimit.getConsumerPermitsPerSecond() > 0) {
+            String consumer = exchange.getProperty(CONSUMER_PROPERTY, ANONYMOUS, String.class);
+            long waitNanos = consumerBucket(scope, consumer, rateLimit).tryAcquire();
+            if (waitNanos > 0 && aggregate != null) {
+                aggregate.release();
+            }
+            reject(exchange, scope, consumer, waitNanos);
+        }
+    }
+
+    private TokenBucket consumerBucket(String scope, String consumer, BridgeConfiguration.RateLimit rateLimit) {
+        Map<String, TokenBucket> buckets = consumerBuckets.computeIfAbsent(scope, key -> new ConcurrentHashMap<>());
+        TokenBucket bucket = buckets.get(consumer);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (buckets.size() >= rateLimit.getMaxConsumers()) {
+            // el barrido de buckets inactivos es O(consumidores): se hace fuera del hilo de la petición
+            scheduleEviction();
+            log.debug("Límite de consumidores rastreados alcanzado para {}, usando bucket compartido", scope);
+            consumer = OVERFLOW;
+        }
+        return buckets.computeIfAbsent(consumer, key -> new TokenBucket(
+            rateLimit.getConsumerPermitsPerSecond(),
+            burstOf(rateLimit.getConsumerBurst(), rateLimit.getConsumerPermitsPerSecond())));
+    }
+
+    private void scheduleEviction() {
+        if (evictionScheduled.compareAndSet(false, true)) {
+            evictor.execute(this::evictIdleConsumers);
+        }
+    }
+
+    // un bucket lleno equivale a uno recién creado: su consumidor puede olvidarse sin cambiar el resultado
+    private void evictIdleConsumers() {
+        try {
+            long now = System.nanoTime();
+            int evicted = 0;
+            for (Map<String, TokenBucket> buckets : consumerBuckets.values()) {
+                int before = buckets.size();
+                buckets.entrySet().removeIf(entry -> !OVERFLOW.equals(entry.getKey()) && entry.getValue().isFull(now));
+                evicted += before - buckets.size();
+            }
+            log.debug("Barrido de límites por consumidor: {} buckets inactivos descartados", evicted);
+        } finally {
+            evictionScheduled.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    private void reject(Exchange exchange, String scope, String consumer, long waitNanos) {
+        if (waitNanos == 0) {
+            return;
+        }
+        rejections.computeIfAbsent(scope, key -> Counter.builder("gateway.rate.limit.rejected")
+            .tag("scope", key)
+            .register(meterRegistry)).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        exchange.getIn().setHeader("Retry-After", retryAfterSeconds);
+        String target = consumer == null ? scope : scope + " (consumidor " + consumer + ")";
+        throw new ApiInvocationException(429, "Límite de peticiones excedido para " + target, "text/plain", null);
+    }
+
+    private String resolveConsumer(Exchange exchange, BridgeConfiguration.RateLimit rateLimit) {
+        String source = rateLimit.getConsumerSource() == null ? "header" : rateLimit.getConsumerSource().toLowerCase(Locale.ROOT);
+        String consumer = switch (source) {
+            case "ws-security" -> exchange.getProperty(WS_SECURITY_USERNAME_PROPERTY, String.class);
+            case "client-cert" -> clientCertificateSubject(exchange);
+            case "header" -> exchange.getIn().getHeader(rateLimit.getConsumerHeader(), String.class);
+            default -> throw new IllegalArgumentException("Origen de consumidor no soportado: " + rateLimit.getConsumerSource());
+        };
+        return consumer == null || consumer.isBlank() ? ANONYMOUS : consumer;
+    }
+
+    private String clientCertificateSubject(Exchange exchange) {
+        if (!(exchange.getIn() instanceof HttpMessage httpMessage) || httpMessage.getRequest() == null) {
+            return null;
+        }
+        Object certificates = httpMessage.getRequest().getAttribute("jakarta.servlet.request.X509Certificate");
+        if (certificates instanceof X509Certificate[] chain && chain.length > 0) {
+            return chain[0].getSubjectX500Principal().getName();
+        }
+        return null;
+    }
+
+    private int burstOf(Integer burst, double permitsPerSecond) {
+        return burst != null ? burst : (int) Math.max(1, Math.ceil(permitsPerSecond));
+    }
+}
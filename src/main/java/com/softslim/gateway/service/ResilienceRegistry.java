@@ -0,0 +1,274 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.exception.DeadlineExceededException;
+import com.softslim.gateway.exception.StreamLimitExceededException;
+import com.softslim.gateway.model.BridgeConfiguration;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class ResilienceRegistry {
+    private static final int MAX_EVENTS = 500;
+
+    private final Map<String, ManagedCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Map<String, ManagedRetry> retries = new ConcurrentHashMap<>();
+    private final Map<String, BridgeConfiguration.CircuitBreakerConfig> circuitBreakerOverrides = new ConcurrentHashMap<>();
+    private final Map<String, BridgeConfiguration.RetryConfig> retryOverrides = new ConcurrentHashMap<>();
+    private final Deque<StateTransition> events = new ArrayDeque<>();
+    private final AtomicLong eventSequence = new AtomicLong();
+
+    // los breakers por upstream (routeKey@upstream) heredan el ajuste en caliente de su ruta
+    public CircuitBreaker circuitBreaker(String routeKey, BridgeConfiguration.CircuitBreakerConfig configured) {
+        BridgeConfiguration.CircuitBreakerConfig effective = overrideFor(circuitBreakerOverrides, routeKey, configured);
+        ManagedCircuitBreaker current = circuitBreakers.get(routeKey);
+        if (current != null && current.settings().equals(effective)) {
+            return current.circuitBreaker();
+        }
+
+        return circuitBreakers.compute(routeKey, (key, existing) -> {
+            if (existing != null && existing.settings().equals(effective)) {
+                return existing;
+            }
+            if (existing != null) {
+                log.info("Reconfigurando circuit breaker para ruta {}", key);
+            }
+            return new ManagedCircuitBreaker(createCircuitBreaker(key, effective), copyOf(effective));
+        }).circuitBreaker();
+    }
+
+    public Retry retry(String routeKey, BridgeConfiguration.RetryConfig configured) {
+        BridgeConfiguration.RetryConfig effective = overrideFor(retryOverrides, routeKey, configured);
+        ManagedRetry current = retries.get(routeKey);
+        if (current != null && current.settings().equals(effective)) {
+            return current.retry();
+        }
+
+        return retries.compute(routeKey, (key, existing) -> {
+            if (existing != null && existing.settings().equals(effective)) {
+                return existing;
+            }
+            if (existing != null) {
+                log.info("Reconfigurando retry para ruta {}", key);
+            }
+            return new ManagedRetry(createRetry(key, effective), copyOf(effective));
+        }).retry();
+    }
+
+    public Map<String, Object> describeRoutes() {
+        Map<String, Object> routes = new TreeMap<>();
+        circuitBreakers.keySet().forEach(routeKey -> routes.put(routeKey, describeRoute(routeKey)));
+        retries.keySet().forEach(routeKey -> routes.computeIfAbsent(routeKey, this::describeRoute));
+        return routes;
+    }
+
+    public Map<String, Object> describeRoute(String routeKey) {
+        Map<String, Object> description = new TreeMap<>();
+        ManagedCircuitBreaker managedCircuitBreaker = circuitBreakers.get(routeKey);
+        if (managedCircuitBreaker != null) {
+            description.put("circuitBreaker", describeCircuitBreaker(routeKey, managedCircuitBreaker));
+        }
+        Map<String, Object> upstreams = new TreeMap<>();
+        circuitBreakers.forEach((key, managed) -> {
+            if (key.startsWith(routeKey + "@")) {
+                upstreams.put(key.substring(routeKey.length() + 1), describeCircuitBreaker(key, managed));
+            }
+        });
+        if (!upstreams.isEmpty()) {
+            description.put("upstreamCircuitBreakers", upstreams);
+        }
+
+        ManagedRetry managedRetry = retries.get(routeKey);
+        if (managedRetry != null) {
+            Retry.Metrics metrics = managedRetry.retry().getMetrics();
+            Map<String, Object> retry = new TreeMap<>();
+            retry.put("successfulCallsWithoutRetry", metrics.getNumberOfSuccessfulCallsWithoutRetryAttempt());
+            retry.put("successfulCallsWithRetry", metrics.getNumberOfSuccessfulCallsWithRetryAttempt());
+            retry.put("failedCallsWithoutRetry", metrics.getNumberOfFailedCallsWithoutRetryAttempt());
+            retry.put("failedCallsWithRetry", metrics.getNumberOfFailedCallsWithRetryAttempt());
+            retry.put("settings", managedRetry.settings());
+            retry.put("overridden", retryOverrides.containsKey(routeKey));
+            description.put("retry", retry);
+        }
+        return description;
+    }
+
+    public boolean isKnownRoute(String routeKey) {
+        return hasCircuitBreaker(routeKey) || retries.containsKey(routeKey);
+    }
+
+    public boolean hasCircuitBreaker(String routeKey) {
+        return circuitBreakers.keySet().stream().anyMatch(key -> appliesTo(routeKey, key));
+    }
+
+    public boolean hasRetry(String routeKey) {
+        return retries.containsKey(routeKey);
+    }
+
+    // se reconstruyen el breaker de la ruta y los de cada upstream
+    public void overrideCircuitBreaker(String routeKey, BridgeConfiguration.CircuitBreakerConfig settings) {
+        circuitBreakerOverrides.put(routeKey, copyOf(settings));
+        circuitBreakers.keySet().stream()
+            .filter(key -> appliesTo(routeKey, key))
+            .forEach(key -> circuitBreakers.computeIfPresent(key, (ignored, existing) ->
+                new ManagedCircuitBreaker(createCircuitBreaker(key, settings), copyOf(settings))));
+        log.info("Circuit breaker de ruta {} actualizado en caliente: {}", routeKey, settings);
+    }
+
+    public void overrideRetry(String routeKey, BridgeConfiguration.RetryConfig settings) {
+        retryOverrides.put(routeKey, copyOf(settings));
+        retries.computeIfPresent(routeKey, (key, existing) ->
+            new ManagedRetry(createRetry(key, settings), copyOf(settings)));
+        log.info("Retry de ruta {} actualizado en caliente: {}", routeKey, settings);
+    }
+
+    public void clearOverrides(String routeKey) {
+        circuitBreakerOverrides.remove(routeKey);
+        retryOverrides.remove(routeKey);
+    }
+
+    public BridgeConfiguration.CircuitBreakerConfig currentCircuitBreakerSettings(String routeKey) {
+        return circuitBreakers.entrySet().stream()
+            .filter(entry -> appliesTo(routeKey, entry.getKey()))
+            .findFirst()
+            .map(entry -> copyOf(entry.getValue().settings()))
+            .orElseGet(BridgeConfiguration.CircuitBreakerConfig::new);
+    }
+
+    public BridgeConfiguration.RetryConfig currentRetrySettings(String routeKey) {
+        ManagedRetry managed = retries.get(routeKey);
+        return managed != null ? copyOf(managed.settings()) : new BridgeConfiguration.RetryConfig();
+    }
+
+    public List<StateTransition> eventsSince(long sequence) {
+        synchronized (events) {
+            List<StateTransition> result = new ArrayList<>();
+            for (StateTransition event : events) {
+                if (event.sequence() > sequence) {
+                    result.add(event);
+                }
+            }
+            return result;
+        }
+    }
+
+    public long lastEventSequence() {
+        return eventSequence.get();
+    }
+
+    private Map<String, Object> describeCircuitBreaker(String key, ManagedCircuitBreaker managed) {
+        CircuitBreaker circuitBreaker = managed.circuitBreaker();
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        Map<String, Object> breaker = new TreeMap<>();
+        breaker.put("state", circuitBreaker.getState().name());
+        breaker.put("failureRate", metrics.getFailureRate());
+        breaker.put("slowCallRate", metrics.getSlowCallRate());
+        breaker.put("bufferedCalls", metrics.getNumberOfBufferedCalls());
+        breaker.put("failedCalls", metrics.getNumberOfFailedCalls());
+        breaker.put("successfulCalls", metrics.getNumberOfSuccessfulCalls());
+        breaker.put("slowCalls", metrics.getNumberOfSlowCalls());
+        breaker.put("notPermittedCalls", metrics.getNumberOfNotPermittedCalls());
+        breaker.put("settings", managed.settings());
+        breaker.put("overridden", circuitBreakerOverrides.containsKey(key) || circuitBreakerOverrides.containsKey(baseRoute(key)));
+        return breaker;
+    }
+
+    private static <T> T overrideFor(Map<String, T> overrides, String key, T configured) {
+        T override = overrides.get(key);
+        if (override == null) {
+            override = overrides.get(baseRoute(key));
+        }
+        return override != null ? override : configured;
+    }
+
+    private static boolean appliesTo(String routeKey, String key) {
+        return key.equals(routeKey) || key.startsWith(routeKey + "@");
+    }
+
+    private static String baseRoute(String key) {
+        int upstream = key.indexOf('@');
+        return upstream < 0 ? key : key.substring(0, upstream);
+    }
+
+    private CircuitBreaker createCircuitBreaker(String routeKey, BridgeConfiguration.CircuitBreakerConfig cfg) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .failureRateThreshold(cfg.getFailureRateThreshold())
+            .waitDurationInOpenState(Duration.ofMillis(cfg.getWaitDurationInOpenState()))
+            .slidingWindowSize(cfg.getSlidingWindowSize())
+            .slowCallRateThreshold(cfg.getSlowCallRateThreshold())
+            .slowCallDurationThreshold(Duration.ofMillis(cfg.getSlowCallDurationThreshold()))
+            // sin stream libre no se llegó a llamar al backend: no cuenta como fallo suyo
+            .ignoreExceptions(DeadlineExceededException.class, StreamLimitExceededException.class)
+            .build();
+        CircuitBreaker circuitBreaker = CircuitBreaker.of(routeKey, config);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> recordTransition(
+            event.getCircuitBreakerName(),
+            event.getStateTransition().getFromState().name(),
+            event.getStateTransition().getToState().name()
+        ));
+        return circuitBreaker;
+    }
+
+    private Retry createRetry(String routeKey, BridgeConfiguration.RetryConfig cfg) {
+        RetryConfig config = RetryConfig.custom()
+            .maxAttempts(cfg.getMaxAttempts())
+            .waitDuration(Duration.ofMillis(cfg.getBackoff()))
+            .retryExceptions(Exception.class)
+            .ignoreExceptions(DeadlineExceededException.class)
+            .build();
+        return Retry.of(routeKey, config);
+    }
+
+    private void recordTransition(String routeKey, String fromState, String toState) {
+        log.warn("Circuit breaker {} cambió de estado {} -> {}", routeKey, fromState, toState);
+        synchronized (events) {
+            events.addLast(new StateTransition(eventSequence.incrementAndGet(), Instant.now(), routeKey, fromState, toState));
+            while (events.size() > MAX_EVENTS) {
+                events.removeFirst();
+            }
+        }
+    }
+
+    private BridgeConfiguration.CircuitBreakerConfig copyOf(BridgeConfiguration.CircuitBreakerConfig source) {
+        BridgeConfiguration.CircuitBreakerConfig copy = new BridgeConfiguration.CircuitBreakerConfig();
+        copy.setEnabled(source.isEnabled());
+        copy.setFailureRateThreshold(source.getFailureRateThreshold());
+        copy.setWaitDurationInOpenState(source.getWaitDurationInOpenState());
+        copy.setSlidingWindowSize(source.getSlidingWindowSize());
+        copy.setSlowCallRateThreshold(source.getSlowCallRateThreshold());
+        copy.setSlowCallDurationThreshold(source.getSlowCallDurationThreshold());
+        return copy;
+    }
+
+    private BridgeConfiguration.RetryConfig copyOf(BridgeConfiguration.RetryConfig source) {
+        BridgeConfiguration.RetryConfig copy = new BridgeConfiguration.RetryConfig();
+        copy.setEnabled(source.isEnabled());
+        copy.setMaxAttempts(source.getMaxAttempts());
+        copy.setBackoff(source.getBackoff());
+        return copy;
+    }
+
+    private record ManagedCircuitBreaker(CircuitBreaker circuitBreaker, BridgeConfiguration.CircuitBreakerConfig settings) {
+    }
+
+    private record ManagedRetry(Retry retry, BridgeConfiguration.RetryConfig settings) {
+    }
+
+    public record StateTransition(long sequence, Instant timestamp, String routeKey, String fromState, String toState) {
+    }
+}
@@ -0,0 +1,147 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class ResponseCacheService {
+    public static final String CACHE_TIER_PROPERTY = "ResponseCacheTier";
+
+    private final Map<String, CachedResponse> memory;
+    private final PersistentResponseStore persistentStore;
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+
+    public ResponseCacheService(BridgeConfiguration bridgeConfig, MeterRegistry meterRegistry) {
+        BridgeConfiguration.ResponseCache settings = bridgeConfig.getResponseCache();
+        int maxEntries = Math.max(1, settings.getMemoryMaxEntries());
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.persistentStore = openPersistentStore(settings);
+        this.memoryHits = Counter.builder("gateway.response.cache.hits").tag("tier", "memory").register(meterRegistry);
+        this.diskHits = Counter.builder("gateway.response.cache.hits").tag("tier", "disk").register(meterRegistry);
+        this.misses = Counter.builder("gateway.response.cache.misses").register(meterRegistry);
+    }
+
+    public void invoke(Exchange exchange, BridgeConfiguration.RestPath restPath, Processor backend) throws Exception {
+        String key = cacheKey(exchange, restPath);
+        if (key == null) {
+            backend.process(exchange);
+            return;
+        }
+
+        boolean persistent = restPath.isPersistentCache() && persistentStore != null;
+        CachedResponse cached = lookup(key, persistent, exchange);
+        if (cached != null) {
+            exchange.getIn().setBody(new String(cached.body(), StandardCharsets.UTF_8));
+            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, cached.statusCode());
+            exchange.setProperty("apiResponseContentType", cached.contentType());
+            return;
+        }
+
+        misses.increment();
+        backend.process(exchange);
+        int statusCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class);
+        // los binarios volcados a disco no se duplican en la caché
+        if (statusCode < 200 || statusCode > 299 || !(exchange.getIn().getBody() instanceof String)) {
+            return;
+        }
+
+        CachedResponse response = new CachedResponse(
+            statusCode,
+            exchange.getProperty("apiResponseContentType", String.class),
+            exchange.getIn().getBody(String.class).getBytes(StandardCharsets.UTF_8),
+            System.currentTimeMillis() + restPath.getCacheTtl() * 1000L
+        );
+        synchronized (memory) {
+            memory.put(key, response);
+        }
+        if (persistent) {
+            persistentStore.put(key, response);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (persistentStore != null) {
+            persistentStore.close();
+        }
+    }
+
+    private CachedResponse lookup(String key, boolean persistent, Exchange exchange) {
+        long now = System.currentTimeMillis();
+        CachedResponse cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+            if (cached != null && cached.expiresAtMillis() <= now) {
+                memory.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            memoryHits.increment();
+            exchange.setProperty(CACHE_TIER_PROPERTY, "memory");
+            return cached;
+        }
+        if (!persistent) {
+            return null;
+        }
+
+        cached = persistentStore.get(key);
+        if (cached != null) {
+            diskHits.increment();
+            exchange.setProperty(CACHE_TIER_PROPERTY, "disk");
+            synchronized (memory) {
+                memory.put(key, cached);
+            }
+        }
+        return cached;
+    }
+
+    private String cacheKey(Exchange exchange, BridgeConfiguration.RestPath restPath) {
+        OperationPlan.Invocation invocation = exchange.getProperty(OperationPlan.INVOCATION_PROPERTY, OperationPlan.Invocation.class);
+        if (restPath.getCacheTtl() == null || restPath.getCacheTtl() <= 0
+            || invocation == null || invocation.plan().method() != HttpMethod.GET) {
+            return null;
+        }
+        // con upstreams el destino es el path relativo, así todos los nodos del pool comparten la entrada;
+        // los headers configurados (X-Channel, variantes...) pueden cambiar la respuesta y forman parte de la clave
+        StringBuilder key = new StringBuilder(invocation.plan().routeKey()).append(' ').append(invocation.target());
+        invocation.plan().headers().keySet().forEach(name ->
+            key.append('\n').append(name).append(':').append(invocation.headers().getFirst(name)));
+        return key.toString();
+    }
+
+    private PersistentResponseStore openPersistentStore(BridgeConfiguration.ResponseCache settings) {
+        if (settings.getDirectory() == null || settings.getDirectory().isBlank()) {
+            return null;
+        }
+        try {
+            return new PersistentResponseStore(Path.of(settings.getDirectory()), settings.getSegmentBytes(), settings.getMaxDiskBytes());
+        } catch (IOException e) {
+            throw new IllegalStateException("No fue posible abrir la caché persistente en " + settings.getDirectory(), e);
+        }
+    }
+
+    public record CachedResponse(int statusCode, String contentType, byte[] body, long expiresAtMillis) {
+    }
+}
@@ -1,159 +1,315 @@
 package com.softslim.gateway.service;
 
 import com.softslim.gateway.exception.ApiInvocationException;
+import com.softslim.gateway.exception.DeadlineExceededException;
+import com.softslim.gateway.exception.StreamLimitExceededException;
 import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.observability.GatewayTracing;
+import com.softslim.gateway.observability.RequestTimeline;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.tracing.Span;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.Exchange;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.FileInputStream;
-import java.io.InputStream;
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+@Slf4j
 @Service
 public class RestInvocationService {
-    private final Map<String, CircuitBreaker> circuitBreakerCache = new ConcurrentHashMap<>();
-    private final Map<String, Retry> retryCache = new ConcurrentHashMap<>();
+    private final ResilienceRegistry resilienceRegistry;
+    private final GatewayTracing gatewayTracing;
+
+    public RestInvocationService(ResilienceRegistry resilienceRegistry,
+                                 GatewayTracing gatewayTracing) {
+        this.resilienceRegistry = resilienceRegistry;
+        this.gatewayTracing = gatewayTracing;
+    }
 
     public void invoke(Exchange exchange) {
-        String targetUrl = exchange.getProperty("restTargetUrl", String.class);
-        String methodName = exchange.getProperty("restMethod", String.class);
-        Integer timeout = exchange.getProperty("restTimeout", Integer.class);
-        @SuppressWarnings("unchecked")
-        Map<String, String> outboundHeaders = exchange.getProperty("restOutboundHeaders", Map.class);
-        BridgeConfiguration.Resilience resilience = exchange.getProperty("restResilience", BridgeConfiguration.Resilience.class);
-        BridgeConfiguration.MutualTlsConfig mutualTls = exchange.getProperty("restMutualTls", BridgeConfiguration.MutualTlsConfig.class);
-        String routeKey = exchange.getProperty("restRouteKey", String.class);
-
-        if (targetUrl == null || methodName == null || timeout == null) {
+        OperationPlan.Invocation invocation = exchange.getProperty(OperationPlan.INVOCATION_PROPERTY, OperationPlan.Invocation.class);
+        if (invocation == null) {
             throw new IllegalArgumentException("Configuración REST incompleta para invocación");
         }
+        OperationPlan plan = invocation.plan();
+        String routeKey = plan.routeKey();
+        int timeout = invocation.timeout();
+        Deadline deadline = Deadline.of(exchange);
+        AttemptContext attemptContext = new AttemptContext(exchange, plan, timeout, deadline);
+        HttpMethod method = plan.method();
+        HttpHeaders headers = invocation.headers();
+        Object body = exchange.getIn().getBody();
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            ResponseEntity<Object> response = plan.upstreamPool() != null
+                ? exchangeWithFailover(plan.upstreamPool(), invocation.targetPath(), routeKey, plan.resilience(),
+                    url -> attempt(attemptContext, url, method, body, headers, attempts))
+                : applyResilienceDecorators(routeKey, plan.resilience(),
+                    () -> attempt(attemptContext, invocation.targetUrl(), method, body, headers, attempts)).get();
+            applyResponse(exchange, response.getStatusCode().value(), response.getHeaders().getFirst("Content-Type"), response.getBody());
+        } catch (RuntimeException e) {
+            throw translate(exchange, routeKey, e);
+        }
+    }
+
+    static void applyResponse(Exchange exchange, int statusCode, String contentType, Object body) {
+        exchange.getIn().setBody(body == null ? "{}" : body);
+        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, statusCode);
+        RequestTimeline.backendStatus(exchange, statusCode);
+        exchange.setProperty("apiResponseContentType", contentType);
+        TrafficCaptureService.backendCall(exchange, statusCode, contentType, body);
+    }
 
-        applyMutualTlsIfEnabled(mutualTls);
-        RestTemplate restTemplate = createRestTemplate(timeout);
-        HttpMethod method = HttpMethod.valueOf(methodName);
-        HttpHeaders headers = new HttpHeaders();
-        if (outboundHeaders != null) {
-            outboundHeaders.forEach(headers::add);
+    // mismo mapeo de errores para la invocación bloqueante y la asíncrona
+    static RuntimeException translate(Exchange exchange, String routeKey, RuntimeException failure) {
+        if (failure instanceof HttpStatusCodeException e) {
+            return backendError(exchange, e);
+        }
+        if (failure instanceof DeadlineExceededException e) {
+            // la última respuesta del backend es más útil que el 504 que sólo evitó el reintento
+            return e.getCause() instanceof HttpStatusCodeException statusException ? backendError(exchange, statusException) : e;
+        }
+        if (failure instanceof CallNotPermittedException e) {
+            return ApiInvocationException.internal("Circuit breaker abierto para " + routeKey, e);
+        }
+        if (failure instanceof RestClientException e) {
+            return ApiInvocationException.internal("Error invocando backend REST: " + e.getMessage(), e);
         }
-        HttpEntity<?> entity = new HttpEntity<>(exchange.getIn().getBody(), headers);
+        return failure;
+    }
 
-        Supplier<ResponseEntity<String>> requestSupplier = () -> restTemplate.exchange(targetUrl, method, entity, String.class);
-        requestSupplier = applyResilienceDecorators(routeKey, resilience, requestSupplier);
+    // cada intento (reintentos y failover incluidos) es un span propio con su traceparent
+    private ResponseEntity<Object> attempt(
+        AttemptContext context,
+        String url,
+        HttpMethod method,
+        Object body,
+        HttpHeaders headers,
+        AtomicInteger attempts
+    ) {
+        // cada intento recibe como timeout lo que quede del presupuesto total
+        if (context.deadline() != null) {
+            context.deadline().check(context.plan().routeKey());
+        }
+        int timeout = context.deadline() != null ? context.deadline().clamp(context.timeout()) : context.timeout();
 
+        // el stream se ocupa sólo durante el intento: la espera de backoff entre reintentos no lo retiene
+        Semaphore streams = context.plan().streams();
+        acquireStream(streams, context.plan().routeKey(), timeout);
         try {
-            ResponseEntity<String> response = requestSupplier.get();
-            exchange.getIn().setBody(response.getBody() == null ? "{}" : response.getBody());
-            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, response.getStatusCode().value());
-            exchange.setProperty("apiResponseContentType", response.getHeaders().getFirst("Content-Type"));
+            return AttemptTimeoutRequestFactory.withTimeout(timeout,
+                () -> send(context, url, method, body, headers, attempts));
+        } finally {
+            streams.release();
+        }
+    }
+
+    private ResponseEntity<Object> send(
+        AttemptContext context,
+        String url,
+        HttpMethod method,
+        Object body,
+        HttpHeaders headers,
+        AtomicInteger attempts
+    ) {
+        Exchange exchange = context.exchange();
+        RestTemplate restTemplate = context.plan().restTemplate();
+        RequestTimeline.backendUrl(exchange, url);
+        Span span = gatewayTracing.startChild(exchange, "backend.attempt");
+        span.tag("http.method", method.name());
+        span.tag("http.url", RequestTimeline.withoutQuery(url));
+        span.tag("gateway.attempt", String.valueOf(attempts.incrementAndGet()));
+
+        HttpHeaders attemptHeaders = new HttpHeaders();
+        attemptHeaders.addAll(headers);
+        gatewayTracing.inject(span, attemptHeaders::set);
+        try {
+            ResponseEntity<Object> response = restTemplate.execute(url, method,
+                restTemplate.httpEntityCallback(new HttpEntity<>(body, attemptHeaders), String.class),
+                responseExtractor(exchange, restTemplate));
+            span.tag("http.status_code", String.valueOf(response.getStatusCode().value()));
+            return response;
         } catch (HttpStatusCodeException e) {
-            throw new ApiInvocationException(
-                e.getStatusCode().value(),
-                e.getResponseBodyAsString(),
-                e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst("Content-Type") : null,
-                e
-            );
-        } catch (CallNotPermittedException e) {
-            throw ApiInvocationException.internal("Circuit breaker abierto para " + routeKey, e);
-        } catch (RestClientException e) {
-            throw ApiInvocationException.internal("Error invocando backend REST: " + e.getMessage(), e);
+            span.tag("http.status_code", String.valueOf(e.getStatusCode().value()));
+            span.error(e);
+            throw skipRetryWithoutBudget(context.deadline(), context.plan(), e);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw skipRetryWithoutBudget(context.deadline(), context.plan(), e);
+        } finally {
+            span.end();
         }
     }
 
-    private RestTemplate createRestTemplate(int timeoutMillis) {
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(timeoutMillis);
-        requestFactory.setReadTimeout(timeoutMillis);
-        return new RestTemplate(requestFactory);
+    // los cuerpos binarios no se materializan como String: se vuelcan al stream cache del exchange
+    private ResponseExtractor<ResponseEntity<Object>> responseExtractor(Exchange exchange, RestTemplate restTemplate) {
+        ResponseExtractor<ResponseEntity<String>> textExtractor = restTemplate.responseEntityExtractor(String.class);
+        return response -> {
+            MediaType contentType = response.getHeaders().getContentType();
+            if (BinaryPayload.isBinary(contentType)) {
+                BinaryPayload payload = BinaryPayload.spool(exchange, response.getBody(), contentType.toString());
+                return new ResponseEntity<>(payload, response.getHeaders(), response.getStatusCode());
+            }
+            ResponseEntity<String> text = textExtractor.extractData(response);
+            return new ResponseEntity<>(text.getBody(), text.getHeaders(), text.getStatusCode());
+        };
     }
 
-    private Supplier<ResponseEntity<String>> applyResilienceDecorators(
+    private static ApiInvocationException backendError(Exchange exchange, HttpStatusCodeException e) {
+        RequestTimeline.backendStatus(exchange, e.getStatusCode().value());
+        String contentType = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst("Content-Type") : null;
+        TrafficCaptureService.backendCall(exchange, e.getStatusCode().value(), contentType, e.getResponseBodyAsString());
+        return new ApiInvocationException(
+            e.getStatusCode().value(),
+            e.getResponseBodyAsString(),
+            contentType,
+            e
+        );
+    }
+
+    // si tras el backoff no quedaría tiempo para otro intento, se corta aquí en vez de reintentar
+    static RuntimeException skipRetryWithoutBudget(Deadline deadline, OperationPlan plan, RuntimeException failure) {
+        if (deadline == null || failure instanceof DeadlineExceededException
+            || deadline.remainingMillis() > plan.retryBackoff()) {
+            return failure;
+        }
+        return new DeadlineExceededException("Presupuesto de tiempo agotado para " + plan.routeKey(), failure);
+    }
+
+    private void acquireStream(Semaphore streams, String routeKey, int timeoutMillis) {
+        try {
+            if (!streams.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new StreamLimitExceededException(routeKey);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ApiInvocationException.internal("Invocación interrumpida esperando stream para " + routeKey, e);
+        }
+    }
+
+    // un único Retry por operación y cada intento a un upstream distinto: un 5xx o un error de E/S pasa al siguiente
+    // sin multiplicar los intentos por el número de upstreams
+    private ResponseEntity<Object> exchangeWithFailover(
+        UpstreamPool upstreamPool,
+        String targetPath,
         String routeKey,
         BridgeConfiguration.Resilience resilience,
-        Supplier<ResponseEntity<String>> supplier
+        Function<String, ResponseEntity<Object>> call
     ) {
-        Supplier<ResponseEntity<String>> decorated = supplier;
-        if (resilience == null) {
-            return decorated;
-        }
-
-        if (resilience.getCircuitBreaker() != null && resilience.getCircuitBreaker().isEnabled()) {
-            CircuitBreaker circuitBreaker = circuitBreakerCache.computeIfAbsent(routeKey, key -> {
-                BridgeConfiguration.CircuitBreakerConfig cfg = resilience.getCircuitBreaker();
-                CircuitBreakerConfig config = CircuitBreakerConfig.custom()
-                    .failureRateThreshold(cfg.getFailureRateThreshold())
-                    .waitDurationInOpenState(Duration.ofMillis(cfg.getWaitDurationInOpenState()))
-                    .slidingWindowSize(cfg.getSlidingWindowSize())
-                    .build();
-                return CircuitBreaker.of(key, config);
-            });
-            decorated = CircuitBreaker.decorateSupplier(circuitBreaker, decorated);
+        Set<UpstreamPool.Upstream> tried = new HashSet<>();
+        Supplier<ResponseEntity<Object>> attempt = () -> attemptUpstream(upstreamPool, targetPath, routeKey, resilience, call, tried);
+        Retry retry = retry(routeKey, resilience);
+        if (retry != null) {
+            return Retry.decorateSupplier(retry, attempt).get();
         }
 
-        if (resilience.getRetry() != null && resilience.getRetry().isEnabled()) {
-            Retry retry = retryCache.computeIfAbsent(routeKey, key -> {
-                BridgeConfiguration.RetryConfig cfg = resilience.getRetry();
-                RetryConfig config = RetryConfig.custom()
-                    .maxAttempts(cfg.getMaxAttempts())
-                    .waitDuration(Duration.ofMillis(cfg.getBackoff()))
-                    .retryExceptions(Exception.class)
-                    .build();
-                return Retry.of(key, config);
-            });
-            decorated = Retry.decorateSupplier(retry, decorated);
+        // sin retry configurado el failover se mantiene: como mucho un intento por upstream
+        RuntimeException lastFailure = null;
+        for (int i = 0; i < upstreamPool.size(); i++) {
+            try {
+                return attempt.get();
+            } catch (RuntimeException e) {
+                if (!UpstreamPool.triggersFailover(e)) {
+                    throw e;
+                }
+                lastFailure = e;
+            }
         }
-
-        return decorated;
+        throw lastFailure != null ? lastFailure : new ResourceAccessException("Sin upstreams disponibles para " + routeKey);
     }
 
-    private void applyMutualTlsIfEnabled(BridgeConfiguration.MutualTlsConfig mutualTls) {
-        if (mutualTls == null || !mutualTls.isEnabled()) {
-            return;
+    // los upstreams con el circuito abierto se saltan sin gastar el intento; probados todos, se vuelve a empezar
+    private ResponseEntity<Object> attemptUpstream(
+        UpstreamPool upstreamPool,
+        String targetPath,
+        String routeKey,
+        BridgeConfiguration.Resilience resilience,
+        Function<String, ResponseEntity<Object>> call,
+        Set<UpstreamPool.Upstream> tried
+    ) {
+        if (tried.size() >= upstreamPool.size()) {
+            tried.clear();
+        }
+        RuntimeException refused = null;
+        UpstreamPool.Upstream upstream;
+        while ((upstream = upstreamPool.choose(tried)) != null) {
+            tried.add(upstream);
+            UpstreamPool.Upstream chosen = upstream;
+            String url = upstreamPool.urlFor(upstream, targetPath);
+            Supplier<ResponseEntity<Object>> supplier = () -> upstreamPool.track(chosen, () -> call.apply(url));
+            CircuitBreaker circuitBreaker = circuitBreaker(routeKey + "@" + upstream.name(), resilience);
+            try {
+                return circuitBreaker != null ? CircuitBreaker.decorateSupplier(circuitBreaker, supplier).get() : supplier.get();
+            } catch (CallNotPermittedException e) {
+                log.warn("Upstream {} con circuito abierto para {}, intentando siguiente", upstream.name(), routeKey);
+                refused = e;
+            } catch (RuntimeException e) {
+                if (UpstreamPool.triggersFailover(e)) {
+                    log.warn("Upstream {} falló para {}, el siguiente intento irá a otro: {}", upstream.name(), routeKey, e.getMessage());
+                }
+                throw e;
+            }
         }
+        throw refused != null ? refused : new ResourceAccessException("Sin upstreams disponibles para " + routeKey);
+    }
 
-        String keyStorePath = requireValue(mutualTls.getKeystorePath(), "mutualTls.keystorePath");
-        String keyStorePassword = requireValue(mutualTls.getKeystorePassword(), "mutualTls.keystorePassword");
+    private record AttemptContext(
+        Exchange exchange,
+        OperationPlan plan,
+        int timeout,
+        Deadline deadline
+    ) {
+    }
 
-        ensureFileReadable(keyStorePath, "mutualTls.keystorePath");
-        System.setProperty("javax.net.ssl.keyStore", keyStorePath);
-        System.setProperty("javax.net.ssl.keyStorePassword", keyStorePassword);
+    private Supplier<ResponseEntity<Object>> applyResilienceDecorators(
+        String routeKey,
+        BridgeConfiguration.Resilience resilience,
+        Supplier<ResponseEntity<Object>> supplier
+    ) {
+        Supplier<ResponseEntity<Object>> decorated = supplier;
+        CircuitBreaker circuitBreaker = circuitBreaker(routeKey, resilience);
+        if (circuitBreaker != null) {
+            decorated = CircuitBreaker.decorateSupplier(circuitBreaker, decorated);
+        }
 
-        if (mutualTls.getTruststorePath() != null && !mutualTls.getTruststorePath().isBlank()) {
-            ensureFileReadable(mutualTls.getTruststorePath(), "mutualTls.truststorePath");
-            System.setProperty("javax.net.ssl.trustStore", mutualTls.getTruststorePath());
-            if (mutualTls.getTruststorePassword() != null) {
-                System.setProperty("javax.net.ssl.trustStorePassword", mutualTls.getTruststorePassword());
-            }
+        Retry retry = retry(routeKey, resilience);
+        if (retry != null) {
+            decorated = Retry.decorateSupplier(retry, decorated);
         }
+
+        return decorated;
     }
 
-    private String requireValue(String value, String key) {
-        if (value == null || value.isBlank()) {
-            throw new IllegalArgumentException("Configuración faltante: " + key);
+    private CircuitBreaker circuitBreaker(String routeKey, BridgeConfiguration.Resilience resilience) {
+        if (resilience == null || resilience.getCircuitBreaker() == null || !resilience.getCircuitBreaker().isEnabled()) {
+            return null;
         }
-        return value;
+        return resilienceRegistry.circuitBreaker(routeKey, resilience.getCircuitBreaker());
     }
 
-    private void ensureFileReadable(String filePath, String key) {
-        try (InputStream ignored = new FileInputStream(filePath)) {
-            // validates file exists and is readable
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Archivo no accesible para " + key + ": " + filePath, e);
+    private Retry retry(String routeKey, BridgeConfiguration.Resilience resilience) {
+        if (resilience == null || resilience.getRetry() == null || !resilience.getRetry().isEnabled()) {
+            return null;
         }
+        return resilienceRegistry.retry(routeKey, resilience.getRetry());
     }
 }
@@ -0,0 +1,46 @@
+package com.softslim.gateway.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// token bucket en forma GCRA: el estado completo es el instante teórico de llegada (TAT) en un AtomicLong,
+// así que admitir una petición es una lectura y un CAS, sin locks ni hilo de recarga
+public final class TokenBucket {
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond debe ser mayor que cero");
+        }
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.capacityNanos = intervalNanos * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    // 0 si se concede el permiso; en otro caso, nanosegundos hasta que habrá uno disponible
+    public long tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long excess = next - now - capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // devuelve un permiso concedido que no llegó a usarse porque otro límite rechazó la petición
+    public void release() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+
+    // un bucket lleno equivale a uno recién creado y puede descartarse
+    public boolean isFull(long now) {
+        return theoreticalArrival.get() - now <= 0;
+    }
+}
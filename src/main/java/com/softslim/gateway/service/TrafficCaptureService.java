@@ -0,0 +1,221 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.replay.CapturedExchange;
+import com.softslim.gateway.replay.TrafficCaptureFile;
+import com.softslim.gateway.replay.TrafficRedactor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class TrafficCaptureService {
+    public static final String CAPTURE_PROPERTY = "GatewayTrafficCapture";
+    // credenciales del UsernameToken: se enmascaran siempre, además de los campos configurados
+    private static final List<String> WS_SECURITY_FIELDS = List.of("Password", "Nonce");
+
+    private final BridgeConfiguration.TrafficCapture settings;
+    private final TrafficRedactor redactor;
+    private final TrafficCaptureFile captureFile;
+    private final ThreadPoolExecutor writer;
+    private final Counter captured;
+    private final Counter dropped;
+    private volatile boolean full;
+
+    public TrafficCaptureService(BridgeConfiguration bridgeConfig, MeterRegistry meterRegistry) {
+        this.settings = bridgeConfig.getTrafficCapture();
+        List<String> redactFields = new ArrayList<>(WS_SECURITY_FIELDS);
+        if (settings.getRedactFields() != null) {
+            redactFields.addAll(settings.getRedactFields());
+        }
+        this.redactor = new TrafficRedactor(redactFields);
+        this.captured = Counter.builder("gateway.traffic.capture.recorded").register(meterRegistry);
+        this.dropped = Counter.builder("gateway.traffic.capture.dropped").register(meterRegistry);
+        this.captureFile = settings.isEnabled() ? open(settings.getFile()) : null;
+        // la compresión y la escritura salen del hilo de la petición; con la cola llena se descarta la muestra
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity())),
+            runnable -> {
+                Thread thread = new Thread(runnable, "traffic-capture");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, executor) -> dropped.increment());
+    }
+
+    public void begin(Exchange exchange, String serviceName, String soapPath) {
+        if (captureFile == null || full || ThreadLocalRandom.current().nextDouble() >= settings.getSampleRate()) {
+            return;
+        }
+
+        Capture capture = new Capture(
+            redactor,
+            System.currentTimeMillis(),
+            System.nanoTime(),
+            serviceName,
+            soapPath,
+            exchange.getIn().getHeader(Exchange.CONTENT_TYPE, String.class),
+            exchange.getIn().getHeader("SOAPAction", String.class),
+            exchange.getIn().getBody(String.class)
+        );
+        exchange.setProperty(CAPTURE_PROPERTY, capture);
+        String exchangeId = exchange.getExchangeId();
+        exchange.getExchangeExtension().addOnCompletion(new SynchronizationAdapter() {
+            @Override
+            public void onDone(Exchange completed) {
+                if (exchangeId.equals(completed.getExchangeId())) {
+                    finish(completed, capture);
+                }
+            }
+        });
+    }
+
+    // los cuerpos binarios no se capturan: el stub de replay responde con cuerpo vacío. El path se registra ya
+    // enmascarado: las variables y parámetros de query con nombre configurado no llegan a la captura
+    public static void backendCall(Exchange exchange, int status, String contentType, Object body) {
+        Capture capture = exchange.getProperty(CAPTURE_PROPERTY, Capture.class);
+        if (capture == null) {
+            return;
+        }
+        OperationPlan.Invocation invocation = exchange.getProperty(OperationPlan.INVOCATION_PROPERTY, OperationPlan.Invocation.class);
+        if (invocation == null) {
+            return;
+        }
+        capture.backendCalls.add(new CapturedExchange.BackendCall(
+            invocation.plan().method().name(),
+            capture.redactor.redactUri(pathOf(invocation.plan().maskedTarget(exchange, capture.redactor::redacts))),
+            status,
+            contentType,
+            body instanceof String text ? text : null
+        ));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (captureFile != null) {
+            try {
+                captureFile.close();
+            } catch (IOException e) {
+                log.warn("No fue posible cerrar la captura de tráfico: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void finish(Exchange exchange, Capture capture) {
+        int status = exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class);
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - capture.startedAtNanos);
+        List<CapturedExchange.BackendCall> backendCalls;
+        synchronized (capture.backendCalls) {
+            backendCalls = List.copyOf(capture.backendCalls);
+        }
+        writer.execute(() -> write(capture, status, latencyMicros, backendCalls));
+    }
+
+    private void write(Capture capture, int status, long latencyMicros, List<CapturedExchange.BackendCall> backendCalls) {
+        if (full) {
+            return;
+        }
+        CapturedExchange record = new CapturedExchange(
+            capture.timestampMillis,
+            capture.serviceName,
+            capture.soapPath,
+            capture.contentType,
+            redactor.redactUri(capture.soapAction),
+            redactor.redact(capture.envelope, "text/xml"),
+            status,
+            latencyMicros,
+            backendCalls.stream()
+                .map(call -> new CapturedExchange.BackendCall(
+                    call.method(), call.path(), call.status(), call.contentType(), redactor.redact(call.body(), call.contentType())))
+                .toList()
+        );
+        try {
+            long size = captureFile.append(record);
+            captured.increment();
+            if (size >= settings.getMaxBytes()) {
+                full = true;
+                log.warn("Captura de tráfico detenida: {} alcanzó {} bytes", settings.getFile(), size);
+            }
+        } catch (IOException e) {
+            dropped.increment();
+            log.warn("No fue posible escribir la captura de tráfico: {}", e.getMessage());
+        }
+    }
+
+    private static TrafficCaptureFile open(String file) {
+        try {
+            TrafficCaptureFile captureFile = TrafficCaptureFile.append(Path.of(file));
+            log.info("Captura de tráfico activa en {}", file);
+            return captureFile;
+        } catch (IOException e) {
+            throw new IllegalStateException("No fue posible abrir la captura de tráfico en " + file, e);
+        }
+    }
+
+    private static String pathOf(String target) {
+        if (target == null) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(target);
+            return uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+        } catch (IllegalArgumentException e) {
+            return target;
+        }
+    }
+
+    private static final class Capture {
+        private final TrafficRedactor redactor;
+        private final long timestampMillis;
+        private final long startedAtNanos;
+        private final String serviceName;
+        private final String soapPath;
+        private final String contentType;
+        private final String soapAction;
+        private final String envelope;
+        // los ítems de un lote registran llamadas en paralelo sobre la misma captura
+        private final List<CapturedExchange.BackendCall> backendCalls = Collections.synchronizedList(new ArrayList<>());
+
+        private Capture(
+            TrafficRedactor redactor,
+            long timestampMillis,
+            long startedAtNanos,
+            String serviceName,
+            String soapPath,
+            String contentType,
+            String soapAction,
+            String envelope
+        ) {
+            this.redactor = redactor;
+            this.timestampMillis = timestampMillis;
+            this.startedAtNanos = startedAtNanos;
+            this.serviceName = serviceName;
+            this.soapPath = soapPath;
+            this.contentType = contentType;
+            this.soapAction = soapAction;
+            this.envelope = envelope;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.softslim.gateway.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// ULID: 48 bits de milisegundos + 80 bits aleatorios en base32 Crockford (26 caracteres, ordenable por tiempo).
+// El estado es por hilo: dentro del mismo milisegundo se incrementa la parte aleatoria, sin locks ni SecureRandom.
+public class UlidGenerator implements CorrelationIdGenerator {
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long MAX_TIME = (1L << 48) - 1;
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public String next() {
+        return next(System.currentTimeMillis());
+    }
+
+    String next(long millis) {
+        State state = STATE.get();
+        long time = Math.min(Math.max(millis, 0), MAX_TIME);
+        if (time > state.lastMillis) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            state.lastMillis = time;
+            state.high = random.nextInt() & 0xFFFF;
+            state.low = random.nextLong();
+        } else {
+            // mismo milisegundo (o reloj hacia atrás): se mantiene el instante anterior y se incrementa
+            state.low++;
+            if (state.low == 0) {
+                state.high = (state.high + 1) & 0xFFFF;
+            }
+        }
+        return encode(state.lastMillis, state.high, state.low);
+    }
+
+    static String encode(long time, int high, long low) {
+        char[] chars = new char[26];
+        long remainingTime = time;
+        for (int i = 9; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (remainingTime & 31)];
+            remainingTime >>>= 5;
+        }
+        long remainingLow = low;
+        int remainingHigh = high;
+        for (int i = 25; i >= 10; i--) {
+            chars[i] = ALPHABET[(int) (remainingLow & 31)];
+            remainingLow = (remainingLow >>> 5) | ((long) (remainingHigh & 31) << 59);
+            remainingHigh >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static final class State {
+        private long lastMillis = -1;
+        private int high;
+        private long low;
+    }
+}
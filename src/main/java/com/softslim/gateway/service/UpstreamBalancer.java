@@ -0,0 +1,98 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class UpstreamBalancer {
+    private final BackendHttpClients backendHttpClients;
+    private final Map<String, UpstreamPool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService healthCheckScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "upstream-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UpstreamBalancer(BackendHttpClients backendHttpClients) {
+        this.backendHttpClients = backendHttpClients;
+    }
+
+    public UpstreamPool register(String serviceName, BridgeConfiguration.EndpointClient endpointClient) {
+        BridgeConfiguration.RestConfiguration rest = endpointClient.getRest();
+        if (rest == null || rest.getUpstreams() == null || rest.getUpstreams().isEmpty()) {
+            return null;
+        }
+
+        return pools.computeIfAbsent(serviceName, key -> {
+            UpstreamPool pool = new UpstreamPool(key, rest.getUpstreams(), rest.getLoadBalancing());
+            log.info("Servicio {} balanceado entre {} upstreams ({})", key, pool.size(), pool.settings().getStrategy());
+            scheduleHealthChecks(pool, endpointClient);
+            return pool;
+        });
+    }
+
+    public UpstreamPool pool(String serviceName) {
+        return pools.get(serviceName);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        healthCheckScheduler.shutdownNow();
+    }
+
+    private void scheduleHealthChecks(UpstreamPool pool, BridgeConfiguration.EndpointClient endpointClient) {
+        BridgeConfiguration.HealthCheck healthCheck = pool.settings().getHealthCheck();
+        if (healthCheck == null || !healthCheck.isEnabled()) {
+            return;
+        }
+
+        // el sondeo sale por el mismo cliente (versión HTTP, mTLS) que el tráfico real del servicio
+        HttpClient httpClient;
+        try {
+            httpClient = backendHttpClients.client(endpointClient.getRest().getHttp(),
+                endpointClient.getSecurity() != null ? endpointClient.getSecurity().getMutualTls() : null);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // las operaciones del servicio ya responden con el error de configuración
+            log.warn("Health check de {} desactivado: cliente HTTP no disponible: {}", pool.serviceName(), e.getMessage());
+            return;
+        }
+
+        healthCheckScheduler.scheduleWithFixedDelay(
+            () -> pool.upstreams().forEach(upstream -> probe(httpClient, pool, upstream, healthCheck)),
+            0,
+            healthCheck.getInterval(),
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    private void probe(HttpClient httpClient, UpstreamPool pool, UpstreamPool.Upstream upstream, BridgeConfiguration.HealthCheck healthCheck) {
+        try {
+            // el timeout de la petición acota también el connect
+            HttpRequest request = HttpRequest.newBuilder(URI.create(pool.urlFor(upstream, healthCheck.getPath())))
+                .timeout(Duration.ofMillis(healthCheck.getTimeout()))
+                .GET()
+                .build();
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            pool.markHealth(upstream, status >= 200 && status < 300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.debug("Health check fallido para {}: {}", upstream.baseUrl(), e.getMessage());
+            pool.markHealth(upstream, false);
+        }
+    }
+}
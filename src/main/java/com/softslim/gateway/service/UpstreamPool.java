@@ -0,0 +1,282 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Slf4j
+public class UpstreamPool {
+    private static final double LATENCY_EWMA_WEIGHT = 0.2;
+
+    private final String serviceName;
+    private final List<Upstream> upstreams;
+    private final BridgeConfiguration.LoadBalancing settings;
+    private final int totalWeight;
+
+    public UpstreamPool(String serviceName, List<BridgeConfiguration.Upstream> configured, BridgeConfiguration.LoadBalancing settings) {
+        this.serviceName = serviceName;
+        this.settings = settings != null ? settings : new BridgeConfiguration.LoadBalancing();
+        List<Upstream> built = new ArrayList<>();
+        for (int i = 0; i < configured.size(); i++) {
+            BridgeConfiguration.Upstream upstream = configured.get(i);
+            if (upstream.getUrl() == null || upstream.getUrl().isBlank()) {
+                throw new IllegalArgumentException("Upstream sin url para servicio " + serviceName);
+            }
+            String name = upstream.getName() == null || upstream.getName().isBlank() ? "upstream-" + i : upstream.getName();
+            built.add(new Upstream(name, stripTrailingSlash(upstream.getUrl()), Math.max(1, upstream.getWeight())));
+        }
+        this.upstreams = List.copyOf(built);
+        this.totalWeight = this.upstreams.stream().mapToInt(Upstream::weight).sum();
+    }
+
+    public String serviceName() {
+        return serviceName;
+    }
+
+    public List<Upstream> upstreams() {
+        return upstreams;
+    }
+
+    public BridgeConfiguration.LoadBalancing settings() {
+        return settings;
+    }
+
+    public int size() {
+        return upstreams.size();
+    }
+
+    public Upstream choose(Collection<Upstream> excluded) {
+        long now = System.currentTimeMillis();
+        List<Upstream> candidates = new ArrayList<>(upstreams.size());
+        for (Upstream upstream : upstreams) {
+            if (!excluded.contains(upstream) && upstream.isAvailable(now)) {
+                candidates.add(upstream);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // panic mode: si todos están expulsados se ignora la expulsión antes que rechazar el tráfico
+            for (Upstream upstream : upstreams) {
+                if (!excluded.contains(upstream)) {
+                    candidates.add(upstream);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        return "power-of-two".equalsIgnoreCase(settings.getStrategy())
+            ? powerOfTwoChoices(candidates)
+            : leastOutstanding(candidates);
+    }
+
+    public <T> T track(Upstream upstream, Supplier<T> call) {
+        upstream.outstanding.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            onSuccess(upstream, (System.nanoTime() - start) / 1_000_000L);
+            return result;
+        } catch (HttpServerErrorException | ResourceAccessException e) {
+            onFailure(upstream);
+            throw e;
+        } catch (RuntimeException e) {
+            onSuccess(upstream, (System.nanoTime() - start) / 1_000_000L);
+            throw e;
+        } finally {
+            upstream.outstanding.decrementAndGet();
+        }
+    }
+
+    // variante para llamadas asíncronas: el resultado se contabiliza al completar la etapa
+    public <T> CompletionStage<T> trackAsync(Upstream upstream, Supplier<? extends CompletionStage<T>> call) {
+        upstream.outstanding.incrementAndGet();
+        long start = System.nanoTime();
+        CompletionStage<T> stage;
+        try {
+            stage = call.get();
+        } catch (RuntimeException e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+        return stage.whenComplete((result, failure) -> {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (cause instanceof HttpServerErrorException || cause instanceof ResourceAccessException) {
+                onFailure(upstream);
+            } else {
+                onSuccess(upstream, (System.nanoTime() - start) / 1_000_000L);
+            }
+            upstream.outstanding.decrementAndGet();
+        });
+    }
+
+    // fallos que cuentan contra el upstream y hacen que el siguiente intento vaya a otro
+    public static boolean triggersFailover(Throwable failure) {
+        return failure instanceof HttpServerErrorException
+            || failure instanceof ResourceAccessException
+            || failure instanceof CallNotPermittedException;
+    }
+
+    public String urlFor(Upstream upstream, String path) {
+        if (path == null || path.isBlank()) {
+            return upstream.baseUrl();
+        }
+        return upstream.baseUrl() + (path.startsWith("/") ? path : "/" + path);
+    }
+
+    void markHealth(Upstream upstream, boolean healthy) {
+        if (upstream.healthy != healthy) {
+            log.warn("Health check de {} ({}) cambió a {}", upstream.name(), serviceName, healthy ? "UP" : "DOWN");
+        }
+        upstream.healthy = healthy;
+    }
+
+    private Upstream leastOutstanding(List<Upstream> candidates) {
+        Upstream best = null;
+        double bestScore = Double.MAX_VALUE;
+        int ties = 0;
+        for (Upstream candidate : candidates) {
+            double score = candidate.load();
+            if (score < bestScore) {
+                best = candidate;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private Upstream powerOfTwoChoices(List<Upstream> candidates) {
+        Upstream first = weightedRandom(candidates);
+        Upstream second = weightedRandom(candidates);
+        for (int i = 0; second == first && i < 3; i++) {
+            second = weightedRandom(candidates);
+        }
+        return second.load() < first.load() ? second : first;
+    }
+
+    private Upstream weightedRandom(List<Upstream> candidates) {
+        int weight = candidates.size() == upstreams.size()
+            ? totalWeight
+            : candidates.stream().mapToInt(Upstream::weight).sum();
+        int pick = ThreadLocalRandom.current().nextInt(weight);
+        for (Upstream candidate : candidates) {
+            pick -= candidate.weight();
+            if (pick < 0) {
+                return candidate;
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    private void onSuccess(Upstream upstream, long latencyMillis) {
+        upstream.consecutiveErrors.set(0);
+        double previous = upstream.latencyEwma;
+        double updated = previous == 0 ? latencyMillis : previous + LATENCY_EWMA_WEIGHT * (latencyMillis - previous);
+        upstream.latencyEwma = updated;
+
+        if (settings.getLatencyOutlierFactor() <= 0 || updated < settings.getMinOutlierLatency()) {
+            return;
+        }
+        double peers = averagePeerLatency(upstream);
+        if (peers > 0 && updated > peers * settings.getLatencyOutlierFactor()) {
+            eject(upstream, "latencia " + Math.round(updated) + " ms vs " + Math.round(peers) + " ms del resto");
+        }
+    }
+
+    private void onFailure(Upstream upstream) {
+        int errors = upstream.consecutiveErrors.incrementAndGet();
+        if (settings.getConsecutiveErrors() > 0 && errors >= settings.getConsecutiveErrors()) {
+            eject(upstream, errors + " errores consecutivos");
+        }
+    }
+
+    private double averagePeerLatency(Upstream target) {
+        double sum = 0;
+        int count = 0;
+        for (Upstream upstream : upstreams) {
+            if (upstream != target && upstream.latencyEwma > 0) {
+                sum += upstream.latencyEwma;
+                count++;
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    private void eject(Upstream upstream, String reason) {
+        long now = System.currentTimeMillis();
+        if (!upstream.isAvailable(now)) {
+            return;
+        }
+        long ejected = upstreams.stream().filter(candidate -> !candidate.isAvailable(now)).count();
+        if ((ejected + 1) * 100 > (long) upstreams.size() * settings.getMaxEjectionPercent()) {
+            log.warn("No se expulsa {} ({}): se alcanzó max-ejection-percent", upstream.name(), serviceName);
+            return;
+        }
+        upstream.ejectedUntil = now + settings.getEjectionDuration();
+        upstream.consecutiveErrors.set(0);
+        upstream.latencyEwma = 0;
+        log.warn("Upstream {} ({}) expulsado por {} ms: {}", upstream.name(), serviceName, settings.getEjectionDuration(), reason);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public static final class Upstream {
+        private final String name;
+        private final String baseUrl;
+        private final int weight;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveErrors = new AtomicInteger();
+        private volatile double latencyEwma;
+        private volatile long ejectedUntil;
+        private volatile boolean healthy = true;
+
+        private Upstream(String name, String baseUrl, int weight) {
+            this.name = name;
+            this.baseUrl = baseUrl;
+            this.weight = weight;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String baseUrl() {
+            return baseUrl;
+        }
+
+        public int weight() {
+            return weight;
+        }
+
+        public int outstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isAvailable(long now) {
+            return healthy && now >= ejectedUntil;
+        }
+
+        private double load() {
+            return (outstanding.get() + 1.0) / weight;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.softslim.gateway.service;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// el tráfico sintético del warm-up recorre parseo, WS-Security, plantillas y render reales, pero no consume
+// cupos de admisión ni pasa de la etapa de backend; lo consultan las rutas y los motores directo y async,
+// nunca los servicios
+public final class WarmupScope {
+    private static final String PROPERTY = "GatewayWarmup";
+
+    private WarmupScope() {
+    }
+
+    public static void enter(Exchange exchange) {
+        exchange.setProperty(PROPERTY, Boolean.TRUE);
+    }
+
+    public static boolean isActive(Exchange exchange) {
+        return exchange.getProperty(PROPERTY, false, Boolean.class);
+    }
+
+    // admisión (descarte, límites de tasa) que el warm-up no debe consumir
+    public static void admit(Exchange exchange, Processor admission) throws Exception {
+        if (!isActive(exchange)) {
+            admission.process(exchange);
+        }
+    }
+
+    // sustituye la etapa completa (idempotencia, caché, compuestas y llamada REST) por una respuesta sintética
+    public static Processor backend(Processor backend) {
+        return exchange -> {
+            if (!isActive(exchange)) {
+                backend.process(exchange);
+                return;
+            }
+            syntheticResponse(exchange);
+        };
+    }
+
+    // misma sustitución para la etapa no bloqueante del motor async
+    public static CompletableFuture<Void> backendAsync(Exchange exchange, Supplier<CompletableFuture<Void>> backend) {
+        if (!isActive(exchange)) {
+            return backend.get();
+        }
+        syntheticResponse(exchange);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static void syntheticResponse(Exchange exchange) {
+        exchange.getIn().setBody("{\"warmup\":true}");
+        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 200);
+        exchange.setProperty("apiResponseContentType", "application/json");
+    }
+}
@@ -0,0 +1,201 @@
+package com.softslim.gateway.service;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class WsSecurityValidator {
+    private static final String PASSWORD_DIGEST_TYPE = "#PasswordDigest";
+
+    private final Map<BridgeConfiguration.WsSecurityConfig, NonceReplayCache> replayCaches = new ConcurrentHashMap<>();
+
+    public String validate(Document document, BridgeConfiguration.EndpointClient endpointClient) {
+        if (endpointClient.getSecurity() == null || endpointClient.getSecurity().getWsSecurity() == null) {
+            return null;
+        }
+
+        BridgeConfiguration.WsSecurityConfig wsSecurity = endpointClient.getSecurity().getWsSecurity();
+        if (!wsSecurity.isEnabled()) {
+            return null;
+        }
+
+        if (wsSecurity.getUsername() == null || wsSecurity.getPassword() == null) {
+            throw new IllegalArgumentException("Configuración WS-Security incompleta");
+        }
+
+        Element header = findElementByLocalName(document.getDocumentElement(), "Header");
+        if (header == null) {
+            throw new IllegalArgumentException("SOAP Header requerido para WS-Security");
+        }
+
+        Element usernameToken = findElementByLocalName(header, "UsernameToken");
+        if (usernameToken == null) {
+            throw new IllegalArgumentException("WS-Security UsernameToken requerido");
+        }
+
+        Element username = findElementByLocalName(usernameToken, "Username");
+        Element password = findElementByLocalName(usernameToken, "Password");
+        if (username == null || password == null) {
+            throw new IllegalArgumentException("WS-Security Username/Password requeridos");
+        }
+
+        String providedUsername = username.getTextContent();
+        boolean digest = password.getAttribute("Type").endsWith(PASSWORD_DIGEST_TYPE);
+        String passwordType = wsSecurity.getPasswordType() == null ? "any" : wsSecurity.getPasswordType();
+        if ("digest".equalsIgnoreCase(passwordType) && !digest) {
+            throw new IllegalArgumentException("WS-Security requiere PasswordDigest");
+        }
+        if ("text".equalsIgnoreCase(passwordType) && digest) {
+            throw new IllegalArgumentException("WS-Security requiere PasswordText");
+        }
+
+        DigestToken digestToken = digest ? parseDigestToken(usernameToken, password.getTextContent(), wsSecurity) : null;
+        boolean usernameMatches = constantTimeEquals(wsSecurity.getUsername(), providedUsername);
+        boolean passwordMatches = digest
+            ? MessageDigest.isEqual(expectedDigest(digestToken, wsSecurity.getPassword()), digestToken.digest())
+            : constantTimeEquals(wsSecurity.getPassword(), password.getTextContent());
+        if (!usernameMatches || !passwordMatches) {
+            throw new IllegalArgumentException("Credenciales WS-Security inválidas");
+        }
+
+        if (digest) {
+            registerNonce(digestToken, wsSecurity);
+        }
+        return providedUsername;
+    }
+
+    private DigestToken parseDigestToken(Element usernameToken, String providedDigest, BridgeConfiguration.WsSecurityConfig wsSecurity) {
+        Element nonce = findElementByLocalName(usernameToken, "Nonce");
+        Element created = findElementByLocalName(usernameToken, "Created");
+        if (nonce == null || created == null) {
+            throw new IllegalArgumentException("WS-Security PasswordDigest requiere Nonce y Created");
+        }
+
+        String createdText = created.getTextContent().trim();
+        Instant createdAt = parseCreated(createdText);
+        long skew = Math.abs(System.currentTimeMillis() - createdAt.toEpochMilli());
+        if (skew > wsSecurity.getMaxClockSkew()) {
+            throw new IllegalArgumentException("WS-Security Created fuera de la ventana permitida");
+        }
+
+        return new DigestToken(
+            decodeBase64(nonce.getTextContent(), "Nonce"),
+            createdText,
+            createdAt,
+            decodeBase64(providedDigest, "Password")
+        );
+    }
+
+    private byte[] expectedDigest(DigestToken token, String password) {
+        MessageDigest sha1 = messageDigest("SHA-1");
+        sha1.update(token.nonce());
+        sha1.update(token.createdText().getBytes(StandardCharsets.UTF_8));
+        sha1.update(password.getBytes(StandardCharsets.UTF_8));
+        return sha1.digest();
+    }
+
+    private void registerNonce(DigestToken token, BridgeConfiguration.WsSecurityConfig wsSecurity) {
+        NonceReplayCache cache = replayCaches.computeIfAbsent(wsSecurity, config -> {
+            NonceReplayCache replayCache = new NonceReplayCache(config.getMaxClockSkew(), nonceCapacity(config));
+            log.info("Cache anti-replay WS-Security inicializado ({} nonces, {} bytes)",
+                replayCache.capacity(), replayCache.memoryFootprintBytes());
+            return replayCache;
+        });
+
+        switch (cache.register(token.nonce(), token.createdAt().toEpochMilli())) {
+            case ACCEPTED -> {
+            }
+            case EVICTED -> {
+                long evictions = cache.evictions();
+                if (evictions == 1 || evictions % 10_000 == 0) {
+                    log.warn("Cache anti-replay WS-Security lleno: se descartan los nonces más antiguos ({} hasta ahora); "
+                        + "revisar expected-tps o nonce-cache-capacity", evictions);
+                }
+            }
+            case REPLAY -> throw new IllegalArgumentException("WS-Security Nonce reutilizado");
+            case EXPIRED -> throw new IllegalArgumentException("WS-Security Created fuera de la ventana permitida");
+        }
+    }
+
+    // un nonce debe recordarse mientras su Created sea aceptable: 2 × maxClockSkew a las TPS esperadas
+    private static int nonceCapacity(BridgeConfiguration.WsSecurityConfig config) {
+        long sized = (long) config.getExpectedTps() * 2 * config.getMaxClockSkew() / 1000;
+        return (int) Math.min(1 << 26, Math.max(config.getNonceCacheCapacity(), sized));
+    }
+
+    private Instant parseCreated(String value) {
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("WS-Security Created inválido", e);
+        }
+    }
+
+    private byte[] decodeBase64(String value, String field) {
+        try {
+            return Base64.getDecoder().decode(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("WS-Security " + field + " no es Base64 válido", e);
+        }
+    }
+
+    private boolean constantTimeEquals(String expected, String provided) {
+        if (provided == null) {
+            return false;
+        }
+        MessageDigest sha256 = messageDigest("SHA-256");
+        byte[] expectedHash = sha256.digest(expected.getBytes(StandardCharsets.UTF_8));
+        byte[] providedHash = sha256.digest(provided.getBytes(StandardCharsets.UTF_8));
+        return MessageDigest.isEqual(expectedHash, providedHash);
+    }
+
+    private MessageDigest messageDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algoritmo no disponible: " + algorithm, e);
+        }
+    }
+
+    private Element findElementByLocalName(Element start, String localName) {
+        if (start == null) {
+            return null;
+        }
+
+        if (localName.equals(start.getLocalName()) || localName.equals(start.getNodeName())) {
+            return start;
+        }
+
+        NodeList children = start.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            Element found = findElementByLocalName((Element) child, localName);
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return null;
+    }
+
+    private record DigestToken(byte[] nonce, String createdText, Instant createdAt, byte[] digest) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.softslim.gateway.service;
 
 import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.xml.XmlEscaper;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -21,11 +22,11 @@ public class WsdlContractService {
         wsdl.append("xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\" ");
         wsdl.append("xmlns:soap=\"http://schemas.xmlsoap.org/wsdl/soap/\" ");
         wsdl.append("xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" ");
-        wsdl.append("xmlns:tns=\"").append(escapeXml(targetNamespace)).append("\" ");
-        wsdl.append("targetNamespace=\"").append(escapeXml(targetNamespace)).append("\">");
+        wsdl.append("xmlns:tns=\"").append(XmlEscaper.escape(targetNamespace)).append("\" ");
+        wsdl.append("targetNamespace=\"").append(XmlEscaper.escape(targetNamespace)).append("\">");
 
         wsdl.append("<wsdl:types>");
-        wsdl.append("<xsd:schema targetNamespace=\"").append(escapeXml(targetNamespace)).append("\">");
+        wsdl.append("<xsd:schema targetNamespace=\"").append(XmlEscaper.escape(targetNamespace)).append("\">");
         appendSchemaTypes(wsdl, endpointClient);
         wsdl.append("</xsd:schema>");
         wsdl.append("</wsdl:types>");
@@ -83,7 +84,7 @@ public class WsdlContractService {
         BridgeConfiguration.EndpointClient endpointClient,
         String portTypeName
     ) {
-        wsdl.append("<wsdl:portType name=\"").append(escapeXml(portTypeName)).append("\">");
+        wsdl.append("<wsdl:portType name=\"").append(XmlEscaper.escape(portTypeName)).append("\">");
         if (endpointClient.getRest() != null && endpointClient.getRest().getPaths() != null) {
             endpointClient.getRest().getPaths().forEach(restPath -> {
                 String operation = toXmlSafeName(restPath.getOperation());
@@ -102,8 +103,8 @@ public class WsdlContractService {
         String bindingName,
         String portTypeName
     ) {
-        wsdl.append("<wsdl:binding name=\"").append(escapeXml(bindingName)).append("\" type=\"tns:")
-            .append(escapeXml(portTypeName))
+        wsdl.append("<wsdl:binding name=\"").append(XmlEscaper.escape(bindingName)).append("\" type=\"tns:")
+            .append(XmlEscaper.escape(portTypeName))
             .append("\">");
         wsdl.append("<soap:binding style=\"document\" transport=\"http://schemas.xmlsoap.org/soap/http\"/>");
 
@@ -122,11 +123,11 @@ public class WsdlContractService {
     }
 
     private void appendService(StringBuilder wsdl, String serviceName, String bindingName, String serviceUrl) {
-        wsdl.append("<wsdl:service name=\"").append(escapeXml(serviceName)).append("\">");
-        wsdl.append("<wsdl:port name=\"").append(escapeXml(serviceName)).append("Port\" binding=\"tns:")
-            .append(escapeXml(bindingName))
+        wsdl.append("<wsdl:service name=\"").append(XmlEscaper.escape(serviceName)).append("\">");
+        wsdl.append("<wsdl:port name=\"").append(XmlEscaper.escape(serviceName)).append("Port\" binding=\"tns:")
+            .append(XmlEscaper.escape(bindingName))
             .append("\">");
-        wsdl.append("<soap:address location=\"").append(escapeXml(serviceUrl)).append("\"/>");
+        wsdl.append("<soap:address location=\"").append(XmlEscaper.escape(serviceUrl)).append("\"/>");
         wsdl.append("</wsdl:port>");
         wsdl.append("</wsdl:service>");
     }
@@ -148,13 +149,4 @@ public class WsdlContractService {
         }
         return Character.toUpperCase(input.charAt(0)) + input.substring(1);
     }
-
-    private String escapeXml(String value) {
-        return value
-            .replace("&", "&amp;")
-            .replace("<", "&lt;")
-            .replace(">", "&gt;")
-            .replace("\"", "&quot;")
-            .replace("'", "&apos;");
-    }
 }
@@ -0,0 +1,81 @@
+package com.softslim.gateway.xml;
+
+import org.apache.camel.Exchange;
+
+import java.util.Locale;
+
+public enum SoapVersion {
+    SOAP_11("http://schemas.xmlsoap.org/soap/envelope/", "text/xml"),
+    SOAP_12("http://www.w3.org/2003/05/soap-envelope", "application/soap+xml");
+
+    public static final String PROPERTY = "SoapVersion";
+    public static final String CORRELATION_NAMESPACE = "http://softslim.com/gateway";
+
+    private final String namespace;
+    private final String contentType;
+    private final String envelopeStart;
+    private final String headerStart;
+    private final String headerEnd;
+    private final String envelopeEnd;
+
+    SoapVersion(String namespace, String contentType) {
+        this.namespace = namespace;
+        this.contentType = contentType;
+        String declaration =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soap:Envelope xmlns:soap=\"" + namespace + "\">";
+        this.envelopeStart =
+            declaration +
+            "  <soap:Body>" +
+            "    ";
+        this.headerStart =
+            declaration +
+            "  <soap:Header>" +
+            "<gw:CorrelationId xmlns:gw=\"" + CORRELATION_NAMESPACE + "\">";
+        this.headerEnd =
+            "</gw:CorrelationId>" +
+            "</soap:Header>" +
+            "  <soap:Body>" +
+            "    ";
+        this.envelopeEnd =
+            "  </soap:Body>" +
+            "</soap:Envelope>";
+    }
+
+    public String namespace() {
+        return namespace;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String envelopeStart() {
+        return envelopeStart;
+    }
+
+    // con CorrelationId el envelope lo devuelve en <soap:Header>
+    public String envelopeStart(String correlationId) {
+        if (correlationId == null || correlationId.isBlank()) {
+            return envelopeStart;
+        }
+        return headerStart + XmlEscaper.escape(correlationId) + headerEnd;
+    }
+
+    public String envelopeEnd() {
+        return envelopeEnd;
+    }
+
+    public static SoapVersion fromContentType(String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("application/soap+xml") ? SOAP_12 : SOAP_11;
+    }
+
+    public static SoapVersion fromNamespace(String namespace) {
+        return SOAP_12.namespace.equals(namespace) ? SOAP_12 : SOAP_11;
+    }
+
+    public static SoapVersion of(Exchange exchange) {
+        SoapVersion version = exchange.getProperty(PROPERTY, SoapVersion.class);
+        return version != null ? version : SOAP_11;
+    }
+}
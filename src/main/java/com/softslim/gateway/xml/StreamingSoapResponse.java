@@ -0,0 +1,235 @@
+package com.softslim.gateway.xml;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.StreamCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// respuestas SOAP con contenido binario que se generan al vuelo mientras el servlet las escribe
+public final class StreamingSoapResponse {
+    private static final String ROOT_CONTENT_ID = "root.message@softslim.com";
+    private static final String DATA_CONTENT_ID = "data@softslim.com";
+
+    private StreamingSoapResponse() {
+    }
+
+    public static boolean acceptsMtom(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        String normalized = accept.toLowerCase(Locale.ROOT);
+        return normalized.contains("multipart/related") || normalized.contains("application/xop+xml");
+    }
+
+    public static Rendered base64(
+        SoapVersion version,
+        String correlationId,
+        String elementStart,
+        String elementEnd,
+        Supplier<InputStream> binary
+    ) {
+        String head = version.envelopeStart(correlationId) + elementStart;
+        String tail = elementEnd + version.envelopeEnd();
+        return new Rendered(
+            new ReplayableBody(() -> concat(utf8(head), new Base64EncodingInputStream(binary.get()), utf8(tail))),
+            version.contentType());
+    }
+
+    public static Rendered mtom(
+        SoapVersion version,
+        String correlationId,
+        String elementStart,
+        String elementEnd,
+        String binaryContentType,
+        Supplier<InputStream> binary
+    ) {
+        String boundary = "uuid:" + UUID.randomUUID();
+        String rootPart =
+            "--" + boundary + "\r\n" +
+            "Content-Type: application/xop+xml; charset=UTF-8; type=\"" + version.contentType() + "\"\r\n" +
+            "Content-Transfer-Encoding: 8bit\r\n" +
+            "Content-ID: <" + ROOT_CONTENT_ID + ">\r\n\r\n" +
+            version.envelopeStart(correlationId) + elementStart +
+            "<xop:Include xmlns:xop=\"http://www.w3.org/2004/08/xop/include\" href=\"cid:" + DATA_CONTENT_ID + "\"/>" +
+            elementEnd + version.envelopeEnd() + "\r\n" +
+            "--" + boundary + "\r\n" +
+            "Content-Type: " + binaryContentType + "\r\n" +
+            "Content-Transfer-Encoding: binary\r\n" +
+            "Content-ID: <" + DATA_CONTENT_ID + ">\r\n\r\n";
+        String closing = "\r\n--" + boundary + "--\r\n";
+        String contentType = "multipart/related; type=\"application/xop+xml\"; boundary=\"" + boundary + "\"; "
+            + "start=\"<" + ROOT_CONTENT_ID + ">\"; start-info=\"" + version.contentType() + "\"";
+        return new Rendered(new ReplayableBody(() -> concat(utf8(rootPart), binary.get(), utf8(closing))), contentType);
+    }
+
+    private static InputStream utf8(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static InputStream concat(InputStream... parts) {
+        return new SequenceInputStream(Collections.enumeration(List.of(parts)));
+    }
+
+    public record Rendered(InputStream body, String contentType) {
+    }
+
+    // se presenta como StreamCache para que el stream caching de Camel no vuelva a volcar la respuesta;
+    // reset() reabre el origen en vez de releer una copia en memoria
+    static final class ReplayableBody extends InputStream implements StreamCache {
+        private final Supplier<InputStream> source;
+        private InputStream current;
+        private long position;
+
+        ReplayableBody(Supplier<InputStream> source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = stream().read();
+            if (value >= 0) {
+                position++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            int read = stream().read(buffer, offset, count);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public void reset() {
+            try {
+                close();
+            } catch (IOException ignored) {
+                // el origen se reabre en la siguiente lectura
+                current = null;
+            }
+            position = 0;
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            stream().transferTo(os);
+        }
+
+        @Override
+        public StreamCache copy(Exchange exchange) {
+            return new ReplayableBody(source);
+        }
+
+        @Override
+        public boolean inMemory() {
+            return false;
+        }
+
+        @Override
+        public long length() {
+            return -1;
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        private InputStream stream() {
+            if (current == null) {
+                current = source.get();
+            }
+            return current;
+        }
+    }
+
+    // codifica en bloques de 48 KB (múltiplo de 3) para que sólo el último bloque lleve padding
+    static final class Base64EncodingInputStream extends InputStream {
+        private static final int RAW_CHUNK = 3 * 16 * 1024;
+
+        private final InputStream source;
+        private final Base64.Encoder encoder = Base64.getEncoder();
+        private final byte[] raw = new byte[RAW_CHUNK];
+        private final byte[] encoded = new byte[RAW_CHUNK / 3 * 4];
+        private byte[] current = encoded;
+        private int length;
+        private int position;
+        private boolean exhausted;
+
+        Base64EncodingInputStream(InputStream source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position >= length && !fill()) {
+                return -1;
+            }
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            if (count == 0) {
+                return 0;
+            }
+            if (position >= length && !fill()) {
+                return -1;
+            }
+            int copied = Math.min(count, length - position);
+            System.arraycopy(current, position, buffer, offset, copied);
+            position += copied;
+            return copied;
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+
+        private boolean fill() throws IOException {
+            if (exhausted) {
+                return false;
+            }
+            int read = source.readNBytes(raw, 0, RAW_CHUNK);
+            if (read < RAW_CHUNK) {
+                exhausted = true;
+            }
+            if (read <= 0) {
+                return false;
+            }
+            if (read == RAW_CHUNK) {
+                current = encoded;
+                length = encoder.encode(raw, encoded);
+            } else {
+                current = encoder.encode(Arrays.copyOf(raw, read));
+                length = current.length;
+            }
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.softslim.gateway.xml;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+public final class XmlEscaper {
+    private static final String REPLACEMENT = "\uFFFD";
+
+    // 0 = se copia tal cual, 1 = entidad, 2 = caracter inválido en XML 1.0
+    private static final byte[] ASCII_CLASS = new byte[128];
+    private static final String[] ENTITIES = new String[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ASCII_CLASS[c] = 2;
+        }
+        ASCII_CLASS['\t'] = 0;
+        ASCII_CLASS['\n'] = 0;
+        ASCII_CLASS['\r'] = 0;
+        ENTITIES['&'] = "&amp;";
+        ENTITIES['<'] = "&lt;";
+        ENTITIES['>'] = "&gt;";
+        ENTITIES['"'] = "&quot;";
+        ENTITIES['\''] = "&apos;";
+        for (char c : new char[] {'&', '<', '>', '"', '\''}) {
+            ASCII_CLASS[c] = 1;
+        }
+    }
+
+    private XmlEscaper() {
+    }
+
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        int first = firstToEscape(value, 0);
+        if (first < 0) {
+            return value;
+        }
+
+        StringBuilder out = new StringBuilder(value.length() + 16);
+        out.append(value, 0, first);
+        escapeFrom(value, first, out);
+        return out.toString();
+    }
+
+    public static void escape(CharSequence value, StringBuilder out) {
+        if (value == null) {
+            return;
+        }
+
+        int first = firstToEscape(value, 0);
+        if (first < 0) {
+            out.append(value);
+            return;
+        }
+
+        out.append(value, 0, first);
+        escapeFrom(value, first, out);
+    }
+
+    public static void escape(CharSequence value, Writer out) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        int first = firstToEscape(value, 0);
+        if (first < 0) {
+            out.append(value);
+            return;
+        }
+
+        out.append(value, 0, first);
+        escapeFrom(value, first, out);
+    }
+
+    // una sola sección CDATA sin entidades: "]]>" se parte en dos secciones y los caracteres inválidos se sustituyen
+    public static String cdata(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        int length = value.length();
+        StringBuilder out = new StringBuilder(length + 12);
+        out.append("<![CDATA[");
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ']' && value.startsWith("]]>", i)) {
+                out.append(value, start, i + 2).append("]]><![CDATA[");
+                start = i + 2;
+                i++;
+            } else if (c < 0x80 ? ASCII_CLASS[c] == 2 : isInvalid(value, i)) {
+                out.append(value, start, i).append(REPLACEMENT);
+                start = i + 1;
+            } else if (Character.isHighSurrogate(c)) {
+                i++;
+            }
+        }
+        out.append(value, start, length).append("]]>");
+        return out.toString();
+    }
+
+    public static boolean needsEscaping(CharSequence value) {
+        return value != null && firstToEscape(value, 0) >= 0;
+    }
+
+    private static void escapeFrom(CharSequence value, int from, StringBuilder out) {
+        try {
+            escapeFrom(value, from, (Appendable) out);
+        } catch (IOException e) {
+            // StringBuilder no lanza IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escapeFrom(CharSequence value, int from, Appendable out) throws IOException {
+        int length = value.length();
+        int start = from;
+        int index = from;
+        while (index >= 0) {
+            out.append(value, start, index);
+            out.append(replacementFor(value.charAt(index)));
+            start = index + 1;
+            index = firstToEscape(value, start);
+        }
+        out.append(value, start, length);
+    }
+
+    private static boolean isInvalid(CharSequence value, int index) {
+        char c = value.charAt(index);
+        if (c < 0xD800) {
+            return false;
+        }
+        if (c <= 0xDBFF) {
+            return index + 1 >= value.length() || !Character.isLowSurrogate(value.charAt(index + 1));
+        }
+        return c <= 0xDFFF || c >= 0xFFFE;
+    }
+
+    // caracteres de control, sustitutos sin pareja y U+FFFE/U+FFFF no son válidos en XML 1.0
+    private static String replacementFor(char c) {
+        String entity = c < 0x80 ? ENTITIES[c] : null;
+        return entity != null ? entity : REPLACEMENT;
+    }
+
+    // recorrido único; el caso común (ASCII imprimible) se resuelve con una lectura de tabla por caracter
+    private static int firstToEscape(CharSequence value, int from) {
+        int length = value.length();
+        for (int i = from; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (ASCII_CLASS[c] != 0) {
+                    return i;
+                }
+            } else if (c >= 0xD800) {
+                if (c <= 0xDBFF && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    i++;
+                } else if (c <= 0xDFFF || c >= 0xFFFE) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,88 @@
+package com.softslim.gateway.xml;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+
+// documento del backend incrustado tal cual: se valida con un lector StAX (sin construir árbol) y se quita el prólogo
+public final class XmlPassthrough {
+    private static final ThreadLocal<XMLInputFactory> FACTORY = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newDefaultFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    });
+
+    private XmlPassthrough() {
+    }
+
+    // devuelve el documento desde el elemento raíz o null si no es XML bien formado
+    public static String embeddable(String document) {
+        if (document == null) {
+            return null;
+        }
+        String xml = document.startsWith("\uFEFF") ? document.substring(1) : document;
+        int root = rootStart(xml);
+        if (root < 0) {
+            return null;
+        }
+
+        XMLStreamReader reader = null;
+        try {
+            reader = FACTORY.get().createXMLStreamReader(new StringReader(xml));
+            while (reader.hasNext()) {
+                reader.next();
+            }
+        } catch (XMLStreamException | RuntimeException e) {
+            return null;
+        } finally {
+            close(reader);
+        }
+
+        int end = xml.length();
+        while (end > root && Character.isWhitespace(xml.charAt(end - 1))) {
+            end--;
+        }
+        return xml.substring(root, end);
+    }
+
+    // salta declaración XML, instrucciones de proceso y comentarios; un DOCTYPE no se admite dentro del sobre
+    private static int rootStart(String xml) {
+        int length = xml.length();
+        int index = 0;
+        while (index < length) {
+            char c = xml.charAt(index);
+            if (Character.isWhitespace(c)) {
+                index++;
+            } else if (xml.startsWith("<?", index)) {
+                int close = xml.indexOf("?>", index + 2);
+                if (close < 0) {
+                    return -1;
+                }
+                index = close + 2;
+            } else if (xml.startsWith("<!--", index)) {
+                int close = xml.indexOf("-->", index + 4);
+                if (close < 0) {
+                    return -1;
+                }
+                index = close + 3;
+            } else {
+                return c == '<' && index + 1 < length && xml.charAt(index + 1) != '!' ? index : -1;
+            }
+        }
+        return -1;
+    }
+
+    private static void close(XMLStreamReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (XMLStreamException ignored) {
+        }
+    }
+}
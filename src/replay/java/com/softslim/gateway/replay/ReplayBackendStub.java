@@ -0,0 +1,92 @@
+package com.softslim.gateway.replay;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+// sirve las respuestas grabadas del backend por método y path, en el orden en que se capturaron
+public final class ReplayBackendStub implements AutoCloseable {
+    private static final String TOKEN_RESPONSE = "{\"access_token\":\"replay\",\"token_type\":\"Bearer\",\"expires_in\":3600}";
+
+    private final HttpServer server;
+    private final Map<String, Deque<CapturedExchange.BackendCall>> responses = new HashMap<>();
+
+    private ReplayBackendStub(HttpServer server, List<CapturedExchange> exchanges) {
+        this.server = server;
+        for (CapturedExchange exchange : exchanges) {
+            for (CapturedExchange.BackendCall call : exchange.backendCalls()) {
+                responses.computeIfAbsent(key(call.method(), call.path()), key -> new ArrayDeque<>()).add(call);
+            }
+        }
+    }
+
+    public static ReplayBackendStub start(int port, List<CapturedExchange> exchanges) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        ReplayBackendStub stub = new ReplayBackendStub(server, exchanges);
+        server.createContext("/", stub::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return stub;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getRawQuery() == null
+            ? exchange.getRequestURI().getRawPath()
+            : exchange.getRequestURI().getRawPath() + "?" + exchange.getRequestURI().getRawQuery();
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+
+        CapturedExchange.BackendCall call = next(key(exchange.getRequestMethod(), path));
+        if (call == null) {
+            // los tokens OAuth2 no se graban: cualquier endpoint */token recibe un token ficticio
+            boolean tokenRequest = path.endsWith("/token");
+            respond(exchange, tokenRequest ? 200 : 404, "application/json", tokenRequest ? TOKEN_RESPONSE : "{}");
+            return;
+        }
+        respond(exchange, call.status(), call.contentType(), call.body());
+    }
+
+    // con varias respuestas para la misma clave se consumen en orden; la última se repite
+    private CapturedExchange.BackendCall next(String key) {
+        Deque<CapturedExchange.BackendCall> queue = responses.get(key);
+        if (queue == null) {
+            return null;
+        }
+        synchronized (queue) {
+            return queue.size() > 1 ? queue.poll() : queue.peek();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static String key(String method, String path) {
+        return method + " " + path;
+    }
+}
@@ -0,0 +1,50 @@
+package com.softslim.gateway.replay;
+
+import java.util.Locale;
+
+public record ReplayReport(
+    String label,
+    long requests,
+    long failures,
+    long statusMismatches,
+    double durationSeconds,
+    double throughput,
+    double p50Millis,
+    double p90Millis,
+    double p99Millis,
+    double maxMillis,
+    double capturedP50Millis,
+    double capturedP99Millis
+) {
+    public String describe() {
+        return String.format(Locale.ROOT,
+            "%s: %d peticiones en %.1f s (%.1f req/s), fallos=%d, status distinto=%d%n"
+                + "  latencia ms p50=%.2f p90=%.2f p99=%.2f max=%.2f (captura original p50=%.2f p99=%.2f)",
+            label, requests, durationSeconds, throughput, failures, statusMismatches,
+            p50Millis, p90Millis, p99Millis, maxMillis, capturedP50Millis, capturedP99Millis);
+    }
+
+    // diferencia relativa frente a otra build; positivo en latencia es peor, en throughput es mejor
+    public String compareTo(ReplayReport baseline) {
+        return String.format(Locale.ROOT,
+            "%s frente a %s:%n"
+                + "  throughput %.1f -> %.1f req/s (%s)%n"
+                + "  p50 %.2f -> %.2f ms (%s)%n"
+                + "  p99 %.2f -> %.2f ms (%s)%n"
+                + "  max %.2f -> %.2f ms (%s)%n"
+                + "  fallos %d -> %d",
+            label, baseline.label(),
+            baseline.throughput(), throughput, delta(baseline.throughput(), throughput),
+            baseline.p50Millis(), p50Millis, delta(baseline.p50Millis(), p50Millis),
+            baseline.p99Millis(), p99Millis, delta(baseline.p99Millis(), p99Millis),
+            baseline.maxMillis(), maxMillis, delta(baseline.maxMillis(), maxMillis),
+            baseline.failures(), failures);
+    }
+
+    private static String delta(double before, double after) {
+        if (before == 0) {
+            return "n/a";
+        }
+        return String.format(Locale.ROOT, "%+.1f%%", (after - before) * 100 / before);
+    }
+}
@@ -0,0 +1,187 @@
+package com.softslim.gateway.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// uso: gradle replay -PreplayArgs="--file=captura.bin --gateway=http://localhost:8080 --rate=2 --report=nueva.json --baseline=anterior.json"
+public final class TrafficReplay {
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final URI gateway;
+    private final double rate;
+    private final int concurrency;
+    private final Duration timeout;
+
+    public TrafficReplay(URI gateway, double rate, int concurrency, Duration timeout) {
+        this.gateway = gateway;
+        this.rate = rate;
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (!options.containsKey("file")) {
+            System.err.println("Falta --file=<captura>. Opciones: --gateway, --stub-port, --rate (0 = sin pausas), "
+                + "--concurrency, --timeout-ms, --label, --report, --baseline");
+            System.exit(2);
+        }
+
+        List<CapturedExchange> exchanges = TrafficCaptureFile.read(Path.of(options.get("file")));
+        if (exchanges.isEmpty()) {
+            System.err.println("La captura no contiene peticiones");
+            System.exit(1);
+        }
+
+        TrafficReplay replay = new TrafficReplay(
+            URI.create(options.getOrDefault("gateway", "http://localhost:8080")),
+            Double.parseDouble(options.getOrDefault("rate", "1.0")),
+            Integer.parseInt(options.getOrDefault("concurrency", "256")),
+            Duration.ofMillis(Long.parseLong(options.getOrDefault("timeout-ms", "30000")))
+        );
+        ReplayReport report;
+        try (ReplayBackendStub stub = ReplayBackendStub.start(Integer.parseInt(options.getOrDefault("stub-port", "9099")), exchanges)) {
+            System.out.println("Stub de backend escuchando en el puerto " + stub.port() + "; reproduciendo " + exchanges.size() + " peticiones");
+            report = replay.run(exchanges, options.getOrDefault("label", "replay"));
+        }
+
+        System.out.println(report.describe());
+        if (options.containsKey("baseline")) {
+            ReplayReport baseline = OBJECT_MAPPER.readValue(Path.of(options.get("baseline")).toFile(), ReplayReport.class);
+            System.out.println(report.compareTo(baseline));
+        }
+        if (options.containsKey("report")) {
+            OBJECT_MAPPER.writeValue(Path.of(options.get("report")).toFile(), report);
+        }
+    }
+
+    public ReplayReport run(List<CapturedExchange> captured, String label) throws InterruptedException {
+        List<CapturedExchange> exchanges = captured.stream()
+            .sorted(Comparator.comparingLong(CapturedExchange::timestampMillis))
+            .toList();
+        Recorder latencies = new Recorder(HIGHEST_MICROS, 3);
+        LongAdder failures = new LongAdder();
+        LongAdder statusMismatches = new LongAdder();
+        Semaphore permits = new Semaphore(concurrency);
+        long firstTimestamp = exchanges.get(0).timestampMillis();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder().executor(executor).connectTimeout(timeout).build();
+            for (CapturedExchange exchange : exchanges) {
+                // rate escala el ritmo original: 2 reproduce el doble de rápido, 0 envía sin pausas
+                if (rate > 0) {
+                    long due = start + (long) (TimeUnit.MILLISECONDS.toNanos(exchange.timestampMillis() - firstTimestamp) / rate);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        send(client, exchange, latencies, failures, statusMismatches);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            // el HttpClient usa este mismo executor: cerrarlo con envíos en curso le rechaza sus tareas internas
+            permits.acquire(concurrency);
+        }
+        double durationSeconds = (System.nanoTime() - start) / 1e9;
+
+        Histogram replayed = latencies.getIntervalHistogram();
+        Histogram original = new Histogram(HIGHEST_MICROS, 3);
+        exchanges.forEach(exchange -> original.recordValue(clamp(exchange.latencyMicros())));
+        return new ReplayReport(
+            label,
+            exchanges.size(),
+            failures.sum(),
+            statusMismatches.sum(),
+            round(durationSeconds),
+            round(exchanges.size() / durationSeconds),
+            millis(replayed.getValueAtPercentile(50)),
+            millis(replayed.getValueAtPercentile(90)),
+            millis(replayed.getValueAtPercentile(99)),
+            millis(replayed.getMaxValue()),
+            millis(original.getValueAtPercentile(50)),
+            millis(original.getValueAtPercentile(99))
+        );
+    }
+
+    private void send(
+        HttpClient client,
+        CapturedExchange exchange,
+        Recorder latencies,
+        LongAdder failures,
+        LongAdder statusMismatches
+    ) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(gateway.resolve(exchange.soapPath()))
+            .timeout(timeout)
+            .header("Content-Type", exchange.contentType() == null ? "text/xml; charset=UTF-8" : exchange.contentType())
+            .POST(HttpRequest.BodyPublishers.ofString(exchange.envelope() == null ? "" : exchange.envelope()));
+        if (exchange.soapAction() != null) {
+            request.header("SOAPAction", exchange.soapAction());
+        }
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            latencies.recordValue(clamp(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+            if (response.statusCode() != exchange.status()) {
+                statusMismatches.increment();
+            }
+        } catch (IOException e) {
+            failures.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.increment();
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opción inválida: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static long clamp(long micros) {
+        return Math.min(HIGHEST_MICROS, Math.max(1, micros));
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
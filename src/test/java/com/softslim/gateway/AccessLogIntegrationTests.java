@@ -0,0 +1,116 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ExtendWith(OutputCaptureExtension.class)
+class AccessLogIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.accessLogService";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/accessLogService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletAccessLogTest");
+    }
+
+    @Test
+    void shouldWriteOneStructuredRecordPerRequest(CapturedOutput output) throws Exception {
+        backend.enqueue(new MockResponse()
+            .setResponseCode(404)
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"error\":\"no existe\"}"));
+
+        ResponseEntity<String> response = postSoap("access-log-test-1");
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+
+        String line = awaitAccessLogLine(output, "access-log-test-1");
+        assertTrue(line.contains("\"service\":\"accessLogService\""));
+        assertTrue(line.contains("\"operation\":\"getRecurso\""));
+        assertTrue(line.contains("\"status\":404"));
+        assertTrue(line.contains("\"backendStatus\":404"));
+        assertTrue(line.contains("\"stagesMs\":{\"parse\":"));
+        assertTrue(line.contains("\"backend\":"));
+        assertTrue(line.contains("\"responseBytes\":"));
+    }
+
+    private String awaitAccessLogLine(CapturedOutput output, String correlationId) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            for (String line : output.getOut().split("\\R")) {
+                if (line.contains("gateway.access") && line.contains("\"correlationId\":\"" + correlationId + "\"")) {
+                    return line;
+                }
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("No se encontró registro de acceso para " + correlationId);
+    }
+
+    private ResponseEntity<String> postSoap(String correlationId) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/accessLogService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><rec:getRecurso><recursoId>1</recursoId></rec:getRecurso></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        headers.add("CorrelationId", correlationId);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/accessLogService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
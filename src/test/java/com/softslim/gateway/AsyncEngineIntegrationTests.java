@@ -0,0 +1,200 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class AsyncEngineIntegrationTests {
+    private static final String CLIENTS = "bridge-protocols.endpoints-clients.";
+    private static final int SLOW_CALLS = 60;
+    // por encima del límite de 100 streams de los motores bloqueantes
+    private static final int DEFAULT_LIMIT_CALLS = 150;
+
+    private static MockWebServer backend;
+    private static final AtomicInteger tokenRequests = new AtomicInteger();
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.startsWith("/oauth/token")) {
+                    tokenRequests.incrementAndGet();
+                    return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"access_token\":\"token-async\",\"expires_in\":3600}");
+                }
+                if (path.endsWith("/500")) {
+                    return new MockResponse().setResponseCode(500)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"error\":\"fallo\"}");
+                }
+                String id = path.substring(path.lastIndexOf('/') + 1);
+                MockResponse response = new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"id\":\"" + id + "\",\"auth\":\"" + request.getHeader("Authorization") + "\"}");
+                return path.contains("/lentos/") || path.contains("/masivos/")
+                    ? response.setBodyDelay(1500, TimeUnit.MILLISECONDS)
+                    : response;
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add(CLIENTS + "clienteService.security.oauth2.enabled", () -> false);
+        registry.add(CLIENTS + "empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(CLIENTS + "asincronoService.soap-path", () -> "/soap/asincronoService");
+        registry.add(CLIENTS + "asincronoService.engine", () -> "async");
+        registry.add(CLIENTS + "asincronoService.rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(CLIENTS + "asincronoService.security.oauth2.enabled", () -> true);
+        registry.add(CLIENTS + "asincronoService.security.oauth2.token-uri", () -> backend.url("/oauth/token").toString());
+        registry.add(CLIENTS + "asincronoService.security.oauth2.client-id", () -> "gateway");
+        registry.add(CLIENTS + "asincronoService.security.oauth2.client-secret", () -> "secreto");
+        registry.add(CLIENTS + "asincronoService.rest.paths[0].id", () -> "getRecurso");
+        registry.add(CLIENTS + "asincronoService.rest.paths[0].operation", () -> "getRecurso");
+        registry.add(CLIENTS + "asincronoService.rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add(CLIENTS + "asincronoService.rest.paths[1].id", () -> "getLento");
+        registry.add(CLIENTS + "asincronoService.rest.paths[1].operation", () -> "getLento");
+        registry.add(CLIENTS + "asincronoService.rest.paths[1].path", () -> "/lentos/${header.recursoId}");
+        registry.add(CLIENTS + "asincronoService.rest.paths[1].timeout", () -> 10000);
+        registry.add(CLIENTS + "asincronoService.rest.paths[1].max-streams", () -> SLOW_CALLS);
+        registry.add(CLIENTS + "asincronoService.rest.paths[2].id", () -> "getMasivo");
+        registry.add(CLIENTS + "asincronoService.rest.paths[2].operation", () -> "getMasivo");
+        registry.add(CLIENTS + "asincronoService.rest.paths[2].path", () -> "/masivos/${header.recursoId}");
+        registry.add(CLIENTS + "asincronoService.rest.paths[2].timeout", () -> 10000);
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletAsyncEngineTest");
+    }
+
+    @Test
+    void shouldInvokeBackendWithAsyncOAuthToken() throws Exception {
+        HttpResponse<String> response = postSoap("<rec:getRecurso><recursoId>7</recursoId></rec:getRecurso>").join();
+
+        assertEquals(200, response.statusCode());
+        assertEquals("corr-asincrono", response.headers().firstValue("CorrelationId").orElse(null));
+        assertTrue(response.body().contains("<id>7</id>"));
+        assertTrue(response.body().contains("<auth>Bearer token-async</auth>"));
+    }
+
+    @Test
+    void shouldKeepManySlowBackendCallsInFlight() {
+        long started = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>();
+        for (int i = 0; i < SLOW_CALLS; i++) {
+            calls.add(postSoap("<rec:getLento><recursoId>" + i + "</recursoId></rec:getLento>"));
+        }
+        for (int i = 0; i < SLOW_CALLS; i++) {
+            HttpResponse<String> response = calls.get(i).join();
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains("<id>" + i + "</id>"));
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // en serie serían 90 s: las llamadas lentas se solapan sin un hilo por petición
+        assertTrue(elapsed < 15000, "Duración total " + elapsed + " ms");
+    }
+
+    @Test
+    void shouldAdmitMoreThanHundredConcurrentCallsWithDefaultStreamLimit() {
+        List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>();
+        for (int i = 0; i < DEFAULT_LIMIT_CALLS; i++) {
+            calls.add(postSoap("<rec:getMasivo><recursoId>" + i + "</recursoId></rec:getMasivo>"));
+        }
+        for (int i = 0; i < DEFAULT_LIMIT_CALLS; i++) {
+            HttpResponse<String> response = calls.get(i).join();
+            assertEquals(200, response.statusCode(), "Llamada " + i + ": " + response.body());
+            assertTrue(response.body().contains("<id>" + i + "</id>"));
+        }
+    }
+
+    @Test
+    void shouldRenderBackendErrorsAsSoapFault() {
+        HttpResponse<String> response = postSoap("<rec:getRecurso><recursoId>500</recursoId></rec:getRecurso>").join();
+
+        assertEquals(500, response.statusCode());
+        assertTrue(response.body().contains("<success>false</success>"));
+        assertTrue(response.body().contains("<statusCode>500</statusCode>"));
+    }
+
+    @Test
+    void shouldDelegateBatchesToCamelRoutes() {
+        HttpResponse<String> response = postSoap(
+            "<rec:getRecurso><recursoId>1</recursoId></rec:getRecurso>" +
+            "<rec:getRecurso><recursoId>2</recursoId></rec:getRecurso>").join();
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("gatewayBatchResponse"));
+        assertTrue(response.body().contains("<id>1</id>"));
+        assertTrue(response.body().contains("<id>2</id>"));
+    }
+
+    @Test
+    void shouldRejectUnknownOperationsWithFault() {
+        HttpResponse<String> response = postSoap("<rec:deleteRecurso><recursoId>7</recursoId></rec:deleteRecurso>").join();
+
+        assertEquals(500, response.statusCode());
+        assertTrue(response.body().contains("Operación SOAP no soportada para servicio asincronoService: deleteRecurso"));
+    }
+
+    private CompletableFuture<HttpResponse<String>> postSoap(String operations) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/asincronoService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body>" + operations + "</soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/soap/asincronoService"))
+            .header("Content-Type", "text/xml; charset=UTF-8")
+            .header("CorrelationId", "corr-asincrono")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(soapRequest))
+            .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,174 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BatchOperationIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.batchService";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String id = request.getPath().substring(request.getPath().lastIndexOf('/') + 1);
+                if ("engano".equals(id)) {
+                    return new MockResponse().setResponseCode(500)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"success\":true}");
+                }
+                if ("404".equals(id)) {
+                    return new MockResponse().setResponseCode(404)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"error\":\"no encontrado\"}");
+                }
+                MockResponse response = new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"id\":\"" + id + "\"}");
+                return request.getPath().contains("/lentos/") ? response.setBodyDelay(600, TimeUnit.MILLISECONDS) : response;
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/batchService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[0].method", () -> "GET");
+        registry.add(SERVICE + ".rest.paths[0].timeout", () -> 2000);
+        registry.add(SERVICE + ".rest.paths[1].id", () -> "getLento");
+        registry.add(SERVICE + ".rest.paths[1].operation", () -> "getLento");
+        registry.add(SERVICE + ".rest.paths[1].path", () -> "/lentos/${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[1].method", () -> "GET");
+        registry.add(SERVICE + ".rest.paths[1].timeout", () -> 2000);
+        registry.add("bridge-protocols.batch.max-parallelism", () -> 2);
+        registry.add("bridge-protocols.batch.item-timeout", () -> 1000);
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletBatchOperationTest");
+    }
+
+    @Test
+    void shouldExecuteEveryOperationOfBatchWrapper() throws Exception {
+        ResponseEntity<String> response = postSoap(
+            "<rec:gatewayBatch>" +
+            "<rec:getRecurso><recursoId>1</recursoId></rec:getRecurso>" +
+            "<rec:getRecurso><recursoId>2</recursoId></rec:getRecurso>" +
+            "<rec:getRecurso><recursoId>3</recursoId></rec:getRecurso>" +
+            "</rec:gatewayBatch>");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = response.getBody();
+        assertTrue(body.contains("gatewayBatchResponse"));
+        assertTrue(body.contains("<item index=\"0\" operation=\"getRecurso\">"));
+        assertTrue(body.contains("<item index=\"2\" operation=\"getRecurso\">"));
+        assertTrue(body.contains("<id>1</id>"));
+        assertTrue(body.contains("<id>2</id>"));
+        assertTrue(body.contains("<id>3</id>"));
+        assertTrue(body.indexOf("<id>1</id>") < body.indexOf("<id>3</id>"));
+    }
+
+    @Test
+    void shouldReportPerItemFailuresForSiblingOperations() {
+        ResponseEntity<String> response = postSoap(
+            "<rec:getRecurso><recursoId>7</recursoId></rec:getRecurso>" +
+            "<rec:getRecurso><recursoId>404</recursoId></rec:getRecurso>" +
+            "<rec:deleteRecurso><recursoId>7</recursoId></rec:deleteRecurso>");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = response.getBody();
+        assertTrue(body.contains("<success>false</success><statusCode>200</statusCode><items>"));
+        assertTrue(body.contains("<id>7</id>"));
+        assertTrue(body.contains("<statusCode>404</statusCode>"));
+        assertTrue(body.contains("Operación SOAP no soportada: deleteRecurso"));
+    }
+
+    @Test
+    void shouldStartItemTimeoutWhenItemGetsItsTurn() {
+        // 6 ítems de 600 ms con paralelismo 2 tardan ~1,8 s en total, pero ninguno supera su propio segundo
+        StringBuilder operations = new StringBuilder();
+        for (int i = 1; i <= 6; i++) {
+            operations.append("<rec:getLento><recursoId>").append(i).append("</recursoId></rec:getLento>");
+        }
+        ResponseEntity<String> response = postSoap(operations.toString());
+
+        String body = response.getBody();
+        assertTrue(body.contains("<success>true</success><statusCode>200</statusCode><items>"), body);
+        assertTrue(body.contains("<id>6</id>"));
+        assertFalse(body.contains("<statusCode>504</statusCode>"));
+    }
+
+    @Test
+    void shouldNotTakeSuccessFromBackendPayload() {
+        ResponseEntity<String> response = postSoap(
+            "<rec:getRecurso><recursoId>1</recursoId></rec:getRecurso>" +
+            "<rec:getRecurso><recursoId>engano</recursoId></rec:getRecurso>");
+
+        String body = response.getBody();
+        assertTrue(body.contains("<statusCode>500</statusCode>"));
+        assertTrue(body.contains("<success>false</success><statusCode>200</statusCode><items>"), body);
+    }
+
+    private ResponseEntity<String> postSoap(String operations) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/batchService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body>" + operations + "</soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/batchService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
@@ -0,0 +1,160 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BinaryStreamingIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.documentoService";
+    private static final String SOAP_11 = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String SOAP_12 = "http://www.w3.org/2003/05/soap-envelope";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int size = request.getPath().endsWith("/grande") ? 1024 * 1024 : 1000;
+                return new MockResponse()
+                    .setResponseCode(200)
+                    .setHeader("Content-Type", "application/pdf")
+                    .setBody(new Buffer().write(document(size)));
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/documentoService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getDocumento");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getDocumento");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/documentos/${header.documentoId}");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletBinaryTest");
+    }
+
+    @Test
+    void shouldStreamBinaryPayloadAsBase64() {
+        ResponseEntity<byte[]> response = postSoap(SOAP_11, MediaType.TEXT_XML, "chico", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getHeaders().getContentType().isCompatibleWith(MediaType.TEXT_XML));
+        String body = new String(response.getBody(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("<success>true</success>"));
+        assertTrue(body.contains("<dataRedeable>false</dataRedeable>"));
+        assertArrayEquals(document(1000), Base64.getDecoder().decode(between(body, "<data>", "</data>")));
+    }
+
+    @Test
+    void shouldAnswerSoap12RequestsWithSoap12Envelope() {
+        ResponseEntity<byte[]> response = postSoap(SOAP_12, MediaType.valueOf("application/soap+xml"), "chico", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getHeaders().getContentType().isCompatibleWith(MediaType.valueOf("application/soap+xml")));
+        String body = new String(response.getBody(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("xmlns:soap=\"" + SOAP_12 + "\""));
+        assertArrayEquals(document(1000), Base64.getDecoder().decode(between(body, "<data>", "</data>")));
+    }
+
+    @Test
+    void shouldSendBinaryAsMtomAttachmentWhenClientAcceptsMultipart() {
+        ResponseEntity<byte[]> response = postSoap(SOAP_11, MediaType.TEXT_XML, "chico", "multipart/related");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        MediaType contentType = response.getHeaders().getContentType();
+        assertEquals("multipart/related", contentType.getType() + "/" + contentType.getSubtype());
+        // ISO-8859-1 conserva cada byte del adjunto como un carácter
+        String body = new String(response.getBody(), StandardCharsets.ISO_8859_1);
+        assertTrue(body.contains("<xop:Include xmlns:xop=\"http://www.w3.org/2004/08/xop/include\" href=\"cid:data@softslim.com\"/>"));
+        String attachment = between(body, "Content-ID: <data@softslim.com>\r\n\r\n", "\r\n--" + contentType.getParameter("boundary").replace("\"", ""));
+        assertArrayEquals(document(1000), attachment.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void shouldRoundTripPayloadLargerThanSpoolThreshold() {
+        ResponseEntity<byte[]> response = postSoap(SOAP_11, MediaType.TEXT_XML, "grande", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = new String(response.getBody(), StandardCharsets.UTF_8);
+        assertArrayEquals(document(1024 * 1024), Base64.getDecoder().decode(between(body, "<data>", "</data>")));
+    }
+
+    private static byte[] document(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        return bytes;
+    }
+
+    private static String between(String body, String start, String end) {
+        int from = body.indexOf(start) + start.length();
+        return body.substring(from, body.indexOf(end, from));
+    }
+
+    private ResponseEntity<byte[]> postSoap(String envelopeNamespace, MediaType contentType, String documentoId, String accept) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"" + envelopeNamespace + "\" xmlns:doc=\"http://softslim.com/gateway/documentoService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><doc:getDocumento><documentoId>" + documentoId + "</documentoId></doc:getDocumento></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        if (accept != null) {
+            headers.set(HttpHeaders.ACCEPT, accept);
+        }
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/documentoService",
+            new HttpEntity<>(soapRequest, headers),
+            byte[].class);
+    }
+}
@@ -0,0 +1,122 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BulkheadIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.bulkheadService";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    // HttpClient5 repite por su cuenta los 503 con Retry-After: el test tiene que ver el rechazo
+    @BeforeEach
+    void disableClientRetries() {
+        restTemplate.getRestTemplate().setRequestFactory(
+            new HttpComponentsClientHttpRequestFactory(HttpClients.custom().disableAutomaticRetries().build()));
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/bulkheadService");
+        registry.add(SERVICE + ".bulkhead.enabled", () -> true);
+        registry.add(SERVICE + ".bulkhead.max-concurrent-calls", () -> 1);
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletBulkheadTest");
+    }
+
+    @Test
+    void shouldRejectFastWhenServiceBulkheadIsFull() throws Exception {
+        backend.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":\"1\"}")
+            .setBodyDelay(1500, TimeUnit.MILLISECONDS));
+        backend.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":\"2\"}"));
+
+        CompletableFuture<ResponseEntity<String>> slow = CompletableFuture.supplyAsync(this::postSoap);
+        assertNotNull(backend.takeRequest(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        ResponseEntity<String> rejected = postSoap();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertTrue(rejected.getBody().contains("Bulkhead saturado"));
+        assertTrue(elapsedMillis < 1000, "El rechazo debe ser inmediato");
+
+        assertEquals(HttpStatus.OK, slow.get(5, TimeUnit.SECONDS).getStatusCode());
+        // el permiso se libera al terminar la petición
+        assertEquals(HttpStatus.OK, postSoap().getStatusCode());
+    }
+
+    private ResponseEntity<String> postSoap() {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/bulkheadService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><rec:getRecurso><recursoId>1</recursoId></rec:getRecurso></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/bulkheadService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
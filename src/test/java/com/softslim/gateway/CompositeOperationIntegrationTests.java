@@ -0,0 +1,149 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CompositeOperationIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.compositeService";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.startsWith("/api/clientes/")) {
+                    return json("{\"id\":\"5\",\"direccionId\":\"d9\"}");
+                }
+                if (path.startsWith("/api/cuentas")) {
+                    return json("[{\"numero\":\"001\"},{\"numero\":\"002\"}]");
+                }
+                if (path.equals("/api/direcciones/d9")) {
+                    return json("{\"calle\":\"Principal\"}");
+                }
+                if (path.startsWith("/api/historial")) {
+                    return json("{\"eventos\":0}").setBodyDelay(3, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/compositeService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getClienteCompleto");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getClienteCompleto");
+        registry.add(SERVICE + ".rest.paths[0].timeout", () -> 2000);
+        registry.add(SERVICE + ".rest.paths[0].composite[0].name", () -> "cliente");
+        registry.add(SERVICE + ".rest.paths[0].composite[0].path", () -> "/clientes/${header.clienteId}");
+        registry.add(SERVICE + ".rest.paths[0].composite[1].name", () -> "cuentas");
+        registry.add(SERVICE + ".rest.paths[0].composite[1].path", () -> "/cuentas?cliente=${header.clienteId}");
+        registry.add(SERVICE + ".rest.paths[0].composite[2].name", () -> "direccion");
+        registry.add(SERVICE + ".rest.paths[0].composite[2].path", () -> "/direcciones/${result.cliente.direccionId}");
+        registry.add(SERVICE + ".rest.paths[1].id", () -> "getClienteResumen");
+        registry.add(SERVICE + ".rest.paths[1].operation", () -> "getClienteResumen");
+        registry.add(SERVICE + ".rest.paths[1].timeout", () -> 1000);
+        registry.add(SERVICE + ".rest.paths[1].composite[0].name", () -> "cliente");
+        registry.add(SERVICE + ".rest.paths[1].composite[0].path", () -> "/clientes/${header.clienteId}");
+        registry.add(SERVICE + ".rest.paths[1].composite[1].name", () -> "historial");
+        registry.add(SERVICE + ".rest.paths[1].composite[1].path", () -> "/historial/${header.clienteId}");
+        registry.add(SERVICE + ".rest.paths[1].composite[1].optional", () -> true);
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletCompositeOperationTest");
+    }
+
+    @Test
+    void shouldMergeParallelAndDependentCalls() {
+        ResponseEntity<String> response = postSoap("<com:getClienteCompleto><clienteId>5</clienteId></com:getClienteCompleto>");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = response.getBody();
+        assertTrue(body.contains("<success>true</success>"));
+        assertTrue(body.contains("<statusCode>200</statusCode>"));
+        assertTrue(body.contains("<cliente><id>5</id><direccionId>d9</direccionId></cliente>"));
+        assertTrue(body.contains("<cuentas><item><numero>001</numero></item><item><numero>002</numero></item></cuentas>"));
+        assertTrue(body.contains("<direccion><calle>Principal</calle></direccion>"));
+    }
+
+    @Test
+    void shouldReturnPartialResultWhenOptionalCallExceedsDeadline() {
+        long start = System.currentTimeMillis();
+        ResponseEntity<String> response = postSoap("<com:getClienteResumen><clienteId>5</clienteId></com:getClienteResumen>");
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = response.getBody();
+        assertTrue(body.contains("<success>true</success>"));
+        assertTrue(body.contains("<statusCode>206</statusCode>"));
+        assertTrue(body.contains("<cliente><id>5</id><direccionId>d9</direccionId></cliente>"));
+        assertTrue(elapsed < 2500, "la respuesta debe respetar el plazo total de la operación");
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody(body);
+    }
+
+    private ResponseEntity<String> postSoap(String operation) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:com=\"http://softslim.com/gateway/compositeService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body>" + operation + "</soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/compositeService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
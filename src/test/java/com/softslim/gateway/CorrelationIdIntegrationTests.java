@@ -0,0 +1,118 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CorrelationIdIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.correlacionService";
+    private static final Pattern SOAP_HEADER = Pattern.compile(
+        "<soap:Header><gw:CorrelationId xmlns:gw=\"http://softslim.com/gateway\">([^<]+)</gw:CorrelationId></soap:Header>");
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/correlacionService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/1");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletCorrelationTest");
+    }
+
+    @Test
+    void shouldGenerateUlidAndPropagateItToBackendAndSoapHeader() throws Exception {
+        backend.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("{\"id\":\"1\"}"));
+
+        ResponseEntity<String> response = postSoap(null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Matcher matcher = SOAP_HEADER.matcher(response.getBody());
+        assertTrue(matcher.find(), response.getBody());
+        String correlationId = matcher.group(1);
+        assertTrue(correlationId.matches("[0-9A-HJKMNP-TV-Z]{26}"), correlationId);
+
+        RecordedRequest recorded = backend.takeRequest(5, TimeUnit.SECONDS);
+        assertEquals(correlationId, recorded.getHeader("CorrelationId"));
+    }
+
+    @Test
+    void shouldEchoClientCorrelationIdInFaults() throws Exception {
+        backend.enqueue(new MockResponse().setResponseCode(404).setHeader("Content-Type", "text/plain").setBody("no existe"));
+
+        ResponseEntity<String> response = postSoap("cliente-<42>");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Matcher matcher = SOAP_HEADER.matcher(response.getBody());
+        assertTrue(matcher.find(), response.getBody());
+        assertEquals("cliente-&lt;42&gt;", matcher.group(1));
+        assertEquals("cliente-<42>", backend.takeRequest(5, TimeUnit.SECONDS).getHeader("CorrelationId"));
+    }
+
+    private ResponseEntity<String> postSoap(String correlationId) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:cor=\"http://softslim.com/gateway/correlacionService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><cor:getRecurso/></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        if (correlationId != null) {
+            headers.add("CorrelationId", correlationId);
+        }
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/correlacionService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
@@ -0,0 +1,154 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class DataModeIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.modosService";
+    private static final String XML_BODY = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<cliente id=\"7\"><nombre>Ana &amp; Luis</nombre></cliente>\n";
+    private static final String TEXT_BODY = "a]]>b <x> & c";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.endsWith("/roto")) {
+                    return new MockResponse().setHeader("Content-Type", "application/xml").setBody("<cliente><nombre>Ana</cliente>");
+                }
+                if (path.endsWith("/texto")) {
+                    return new MockResponse().setHeader("Content-Type", "text/plain").setBody(TEXT_BODY);
+                }
+                return new MockResponse().setHeader("Content-Type", "application/xml").setBody(XML_BODY);
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/modosService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        operation(registry, 0, "getPassthrough", "/xml", "xml-passthrough");
+        operation(registry, 1, "getConvertido", "/xml", "converted");
+        operation(registry, 2, "getCdata", "/texto", "cdata");
+        operation(registry, 3, "getBase64", "/texto", "raw-base64");
+        operation(registry, 4, "getRoto", "/roto", "xml-passthrough");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletDataModeTest");
+    }
+
+    private static void operation(DynamicPropertyRegistry registry, int index, String operation, String path, String dataMode) {
+        registry.add(SERVICE + ".rest.paths[" + index + "].id", () -> operation);
+        registry.add(SERVICE + ".rest.paths[" + index + "].operation", () -> operation);
+        registry.add(SERVICE + ".rest.paths[" + index + "].path", () -> path);
+        registry.add(SERVICE + ".rest.paths[" + index + "].data-mode", () -> dataMode);
+    }
+
+    @Test
+    void shouldEmbedWellFormedXmlWithoutEscapingOrProlog() {
+        ResponseEntity<String> response = postSoap("getPassthrough");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("<dataRedeable>true</dataRedeable>"));
+        assertTrue(response.getBody().contains("<data><cliente id=\"7\"><nombre>Ana &amp; Luis</nombre></cliente></data>"));
+        assertFalse(response.getBody().contains("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<cliente"));
+    }
+
+    @Test
+    void shouldEscapeConvertedTextExactlyOnce() {
+        ResponseEntity<String> response = postSoap("getConvertido");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("&lt;cliente id=&quot;7&quot;&gt;&lt;nombre&gt;Ana &amp;amp; Luis"));
+        assertFalse(response.getBody().contains("&amp;lt;"));
+    }
+
+    @Test
+    void shouldWrapTextInSingleCdataSection() {
+        ResponseEntity<String> response = postSoap("getCdata");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("<data><![CDATA[a]]]]><![CDATA[>b <x> & c]]></data>"));
+    }
+
+    @Test
+    void shouldEncodeRawBodyAsBase64() {
+        ResponseEntity<String> response = postSoap("getBase64");
+        String expected = Base64.getEncoder().encodeToString(TEXT_BODY.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("<dataRedeable>false</dataRedeable>"));
+        assertTrue(response.getBody().contains("<data>" + expected + "</data>"));
+    }
+
+    @Test
+    void shouldFallBackToEscapedTextWhenXmlIsMalformed() {
+        ResponseEntity<String> response = postSoap("getRoto");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("<data>&lt;cliente&gt;&lt;nombre&gt;Ana&lt;/cliente&gt;</data>"));
+    }
+
+    private ResponseEntity<String> postSoap(String operation) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:mod=\"http://softslim.com/gateway/modosService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><mod:" + operation + "/></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/modosService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
@@ -0,0 +1,193 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class DeadlineIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.deadlineService";
+    private static final String CONNECT_SERVICE = "bridge-protocols.endpoints-clients.connectService";
+    private static final AtomicInteger BACKEND_CALLS = new AtomicInteger();
+
+    private static MockWebServer backend;
+    // listener con la cola de aceptación llena: el SYN queda sin respuesta y el connect se cuelga
+    private static ServerSocket saturated;
+    private static final List<Socket> QUEUED = new ArrayList<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                BACKEND_CALLS.incrementAndGet();
+                return new MockResponse()
+                    .setResponseCode(200)
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"id\":\"1\"}")
+                    .setHeadersDelay(3000, TimeUnit.MILLISECONDS);
+            }
+        });
+        backend.start();
+
+        saturated = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        for (int i = 0; i < 4; i++) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), saturated.getLocalPort()), 200);
+                QUEUED.add(socket);
+            } catch (SocketTimeoutException e) {
+                socket.close();
+                break;
+            }
+        }
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+        for (Socket socket : QUEUED) {
+            socket.close();
+        }
+        if (saturated != null) {
+            saturated.close();
+        }
+    }
+
+    @BeforeEach
+    void resetCalls() {
+        BACKEND_CALLS.set(0);
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/deadlineService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[0].timeout", () -> 800);
+        registry.add(SERVICE + ".rest.paths[0].deadline", () -> 1500);
+        registry.add(SERVICE + ".rest.paths[0].resilience.retry.enabled", () -> true);
+        registry.add(SERVICE + ".rest.paths[0].resilience.retry.max-attempts", () -> 3);
+        registry.add(SERVICE + ".rest.paths[0].resilience.retry.backoff", () -> 1000);
+        registry.add(CONNECT_SERVICE + ".soap-path", () -> "/soap/connectService");
+        registry.add(CONNECT_SERVICE + ".rest.domain-path", () -> "http://127.0.0.1:" + saturated.getLocalPort() + "/api");
+        registry.add(CONNECT_SERVICE + ".rest.http.connect-timeout", () -> 10000);
+        registry.add(CONNECT_SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(CONNECT_SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(CONNECT_SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletDeadlineTest");
+    }
+
+    @Test
+    void shouldSkipRetriesThatCannotFinishWithinOperationDeadline() {
+        long start = System.nanoTime();
+        ResponseEntity<String> response = postSoap(null);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertTrue(response.getBody().contains("Presupuesto de tiempo agotado"));
+        // sin presupuesto: 3 × 800 ms + 2 × 1000 ms de backoff
+        assertTrue(elapsedMillis < 1500, "Tardó " + elapsedMillis + " ms");
+        assertEquals(1, BACKEND_CALLS.get());
+    }
+
+    @Test
+    void shouldHonorShorterClientSuppliedBudget() {
+        long start = System.nanoTime();
+        ResponseEntity<String> response = postSoap("300");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertTrue(elapsedMillis < 800, "Tardó " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void shouldClampConnectTimeoutToRemainingBudget() {
+        long start = System.nanoTime();
+        ResponseEntity<String> response = postSoap("connectService", "300");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertNotEquals(HttpStatus.OK, response.getStatusCode());
+        // el connect-timeout del cliente es de 10 s: el intento lo corta el presupuesto restante
+        assertTrue(elapsedMillis < 2000, "Tardó " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void shouldRejectMalformedClientBudgetAsBadRequest() {
+        ResponseEntity<String> response = postSoap("pronto");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().contains("Cabecera X-Request-Timeout inválida"));
+        assertEquals(0, BACKEND_CALLS.get());
+    }
+
+    private ResponseEntity<String> postSoap(String clientBudget) {
+        return postSoap("deadlineService", clientBudget);
+    }
+
+    private ResponseEntity<String> postSoap(String service, String clientBudget) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/" + service + "\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><rec:getRecurso><recursoId>1</recursoId></rec:getRecurso></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        if (clientBudget != null) {
+            headers.add("X-Request-Timeout", clientBudget);
+        }
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/" + service,
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
@@ -0,0 +1,155 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class DirectEngineIntegrationTests {
+    private static final String CLIENTS = "bridge-protocols.endpoints-clients.";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.endsWith("/500")) {
+                    return new MockResponse().setResponseCode(500)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"error\":\"fallo\"}");
+                }
+                String id = path.substring(path.lastIndexOf('/') + 1);
+                return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"id\":\"" + id + "\",\"correlation\":\"" + request.getHeader("CorrelationId") + "\"}");
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add(CLIENTS + "clienteService.security.oauth2.enabled", () -> false);
+        registry.add(CLIENTS + "empleadoService.security.oauth2.enabled", () -> false);
+        service(registry, "directoService", "direct");
+        service(registry, "camelService", "camel");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletDirectEngineTest");
+    }
+
+    private static void service(DynamicPropertyRegistry registry, String name, String engine) {
+        registry.add(CLIENTS + name + ".soap-path", () -> "/soap/" + name);
+        registry.add(CLIENTS + name + ".engine", () -> engine);
+        registry.add(CLIENTS + name + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(CLIENTS + name + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(CLIENTS + name + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(CLIENTS + name + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+    }
+
+    @Test
+    void shouldAnswerLikeCamelEngine() {
+        ResponseEntity<String> direct = postSoap("directoService", "<rec:getRecurso><recursoId>7</recursoId></rec:getRecurso>");
+        ResponseEntity<String> camel = postSoap("camelService", "<rec:getRecurso><recursoId>7</recursoId></rec:getRecurso>");
+
+        assertEquals(HttpStatus.OK, direct.getStatusCode());
+        assertEquals(camel.getStatusCode(), direct.getStatusCode());
+        assertEquals("corr-directo", direct.getHeaders().getFirst("CorrelationId"));
+        assertTrue(direct.getHeaders().getContentType().isCompatibleWith(MediaType.TEXT_XML));
+        assertTrue(direct.getBody().contains("<id>7</id>"));
+        assertTrue(direct.getBody().contains("<correlation>corr-directo</correlation>"));
+        assertEquals(camel.getBody().replace("camelService", "directoService"), direct.getBody());
+    }
+
+    @Test
+    void shouldRenderBackendErrorsAsSoapFault() {
+        ResponseEntity<String> response = postSoap("directoService", "<rec:getRecurso><recursoId>500</recursoId></rec:getRecurso>");
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertTrue(response.getBody().contains("<success>false</success>"));
+        assertTrue(response.getBody().contains("<statusCode>500</statusCode>"));
+    }
+
+    @Test
+    void shouldDelegateUnknownOperationsToCamelDispatch() {
+        ResponseEntity<String> response = postSoap("directoService", "<rec:deleteRecurso><recursoId>7</recursoId></rec:deleteRecurso>");
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertTrue(response.getBody().contains("Operación SOAP no soportada para servicio directoService: deleteRecurso"));
+    }
+
+    @Test
+    void shouldDelegateBatchesToCamelRoutes() {
+        ResponseEntity<String> response = postSoap("directoService",
+            "<rec:getRecurso><recursoId>1</recursoId></rec:getRecurso>" +
+            "<rec:getRecurso><recursoId>2</recursoId></rec:getRecurso>");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("gatewayBatchResponse"));
+        assertTrue(response.getBody().contains("<id>1</id>"));
+        assertTrue(response.getBody().contains("<id>2</id>"));
+    }
+
+    @Test
+    void shouldServeWsdlFromDirectEngine() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            "http://localhost:" + port + "/soap/directoService?wsdl", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("getRecurso"));
+    }
+
+    private ResponseEntity<String> postSoap(String service, String operations) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/" + service + "\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body>" + operations + "</soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        headers.set("CorrelationId", "corr-directo");
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/" + service,
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
@@ -0,0 +1,149 @@
+package com.softslim.gateway;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softslim.gateway.observability.GatewayStageEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class FlightRecorderIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.jfrService";
+
+    private static MockWebServer backend;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/jfrService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add("management.endpoints.web.exposure.include", () -> "health,jfr");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletJfrTest");
+    }
+
+    @Test
+    void shouldRecordGatewayStageEventsAndDumpRecording() throws Exception {
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> started = restTemplate.postForEntity(
+            "http://localhost:" + managementPort + "/actuator/jfr",
+            new HttpEntity<>("{\"durationSeconds\":30}", jsonHeaders),
+            String.class);
+        assertEquals(HttpStatus.OK, started.getStatusCode());
+        JsonNode recording = objectMapper.readTree(started.getBody());
+        assertEquals("RUNNING", recording.path("state").asText());
+
+        backend.enqueue(new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":\"1\"}"));
+        assertEquals(HttpStatus.OK, postSoap().getStatusCode());
+
+        ResponseEntity<byte[]> dump = restTemplate.getForEntity(
+            "http://localhost:" + managementPort + "/actuator/jfr/" + recording.path("id").asLong(),
+            byte[].class);
+        assertEquals(HttpStatus.OK, dump.getStatusCode());
+
+        Path file = Files.createTempFile("gateway-test-", ".jfr");
+        try {
+            Files.write(file, dump.getBody());
+            List<RecordedEvent> recorded = RecordingFile.readAllEvents(file);
+            assertTrue(recorded.stream().noneMatch(event -> Set.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty")
+                .contains(event.getEventType().getName())), "La grabación incluye entorno o propiedades de sistema");
+            List<RecordedEvent> events = recorded.stream()
+                .filter(event -> event.getEventType().getName().equals(GatewayStageEvent.NAME))
+                .filter(event -> "jfrService".equals(event.getString("service")))
+                .toList();
+            Set<String> stages = events.stream().map(event -> event.getString("stage")).collect(Collectors.toSet());
+            assertTrue(stages.containsAll(Set.of("parse", "prepare", "backend", "render")), "Etapas grabadas: " + stages);
+            RecordedEvent backendEvent = events.stream()
+                .filter(event -> "backend".equals(event.getString("stage")))
+                .findFirst()
+                .orElseThrow();
+            assertEquals("getRecurso", backendEvent.getString("operation"));
+            assertEquals(200, backendEvent.getInt("status"));
+            assertEquals(10, backendEvent.getLong("bytes"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        ResponseEntity<String> busy = restTemplate.postForEntity(
+            "http://localhost:" + managementPort + "/actuator/jfr",
+            new HttpEntity<>("{\"durationSeconds\":30}", jsonHeaders),
+            String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, busy.getStatusCode());
+    }
+
+    private ResponseEntity<String> postSoap() {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/jfrService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><rec:getRecurso><recursoId>1</recursoId></rec:getRecurso></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/jfrService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
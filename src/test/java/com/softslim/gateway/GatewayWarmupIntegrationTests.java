@@ -0,0 +1,174 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class GatewayWarmupIntegrationTests {
+    private static final String CLIENTS = "bridge-protocols.endpoints-clients.";
+    // readiness consultada por el backend mientras el warm-up le abre conexiones
+    private static final List<Integer> READINESS_DURING_WARMUP = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger BACKEND_CALLS_DURING_WARMUP = new AtomicInteger();
+    private static volatile int managementPortDuringStartup;
+
+    private static MockWebServer backend;
+
+    private static final HttpClient PROBE = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(2))
+        .build();
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if ("HEAD".equals(request.getMethod())) {
+                    READINESS_DURING_WARMUP.add(readiness());
+                    return new MockResponse().setResponseCode(200);
+                }
+                if (readiness() != 200) {
+                    BACKEND_CALLS_DURING_WARMUP.incrementAndGet();
+                }
+                return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"id\":\"7\"}");
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add(CLIENTS + "clienteService.security.oauth2.enabled", () -> false);
+        registry.add(CLIENTS + "empleadoService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.warmup.enabled", () -> true);
+        registry.add("bridge-protocols.warmup.connections-per-upstream", () -> 1);
+        registry.add("bridge-protocols.warmup.iterations", () -> 20);
+        for (String engine : List.of("direct", "async")) {
+            String service = CLIENTS + engine + "WarmService";
+            registry.add(service + ".soap-path", () -> "/soap/" + engine + "WarmService");
+            registry.add(service + ".engine", () -> engine);
+            registry.add(service + ".rest.domain-path", () -> backend.url("/api").toString());
+            registry.add(service + ".rest.paths[0].id", () -> "getRecurso");
+            registry.add(service + ".rest.paths[0].operation", () -> "getRecurso");
+            registry.add(service + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        }
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletWarmupTest");
+    }
+
+    @Test
+    void shouldKeepReadinessDownUntilWarmupFinishes() {
+        assertFalse(READINESS_DURING_WARMUP.isEmpty(), "El warm-up no abrió conexiones contra el backend");
+        // una conexión por servicio: directo y async
+        assertEquals(2, READINESS_DURING_WARMUP.size());
+        READINESS_DURING_WARMUP.forEach(status -> assertEquals(503, status));
+        // los sobres sintéticos de ambos motores no llegan al backend
+        assertEquals(0, BACKEND_CALLS_DURING_WARMUP.get());
+
+        ResponseEntity<String> readiness = restTemplate.getForEntity(
+            "http://localhost:" + managementPort + "/actuator/health/readiness", String.class);
+        assertEquals(HttpStatus.OK, readiness.getStatusCode());
+        assertTrue(readiness.getBody().contains("\"UP\""));
+    }
+
+    @Test
+    void shouldServeWarmedEnginesAfterReadiness() {
+        for (String engine : List.of("direct", "async")) {
+            String soapRequest =
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/" + engine + "WarmService\">" +
+                "<soapenv:Header/>" +
+                "<soapenv:Body><rec:getRecurso><recursoId>7</recursoId></rec:getRecurso></soapenv:Body>" +
+                "</soapenv:Envelope>";
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.TEXT_XML);
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                "http://localhost:" + port + "/soap/" + engine + "WarmService",
+                new HttpEntity<>(soapRequest, headers),
+                String.class);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode(), engine);
+            assertTrue(response.getBody().contains("<id>7</id>"), engine);
+        }
+    }
+
+    // el servidor de management arranca antes que los ApplicationRunner: su puerto se conoce durante el warm-up
+    private static int readiness() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + managementPortDuringStartup + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+            return PROBE.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    @TestConfiguration
+    static class ManagementPortCapture {
+        @Bean
+        ApplicationListener<WebServerInitializedEvent> managementPortListener() {
+            return event -> {
+                if ("management".equals(event.getApplicationContext().getServerNamespace())) {
+                    managementPortDuringStartup = event.getWebServer().getPort();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class Http2IntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.streamService";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    // HttpClient5 repite por su cuenta los 503 con Retry-After: el test tiene que ver el rechazo
+    @BeforeEach
+    void disableClientRetries() {
+        restTemplate.getRestTemplate().setRequestFactory(
+            new HttpComponentsClientHttpRequestFactory(HttpClients.custom().disableAutomaticRetries().build()));
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("server.http2.enabled", () -> true);
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/streamService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[0].timeout", () -> 500);
+        registry.add(SERVICE + ".rest.paths[0].max-streams", () -> 1);
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletHttp2Test");
+    }
+
+    @Test
+    void shouldServeInboundRequestsOverH2c() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/soap/streamService?wsdl"))
+            .GET()
+            .build();
+
+        client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(HttpClient.Version.HTTP_2, response.version());
+        assertTrue(response.body().contains("getRecurso"));
+    }
+
+    @Test
+    void shouldRejectCallsBeyondMaxStreamsPerRoute() throws Exception {
+        backend.enqueue(new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":\"1\"}")
+            .setBodyDelay(1500, TimeUnit.MILLISECONDS));
+
+        CompletableFuture<ResponseEntity<String>> slow = CompletableFuture.supplyAsync(() -> postSoap("1"));
+        backend.takeRequest(2, TimeUnit.SECONDS);
+        ResponseEntity<String> rejected = postSoap("2");
+
+        assertTrue(rejected.getBody().contains("<statusCode>503</statusCode>"));
+        assertTrue(slow.get(5, TimeUnit.SECONDS).getBody().contains("<success>true</success>"));
+    }
+
+    private ResponseEntity<String> postSoap(String recursoId) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/streamService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><rec:getRecurso><recursoId>" + recursoId + "</recursoId></rec:getRecurso></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/streamService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
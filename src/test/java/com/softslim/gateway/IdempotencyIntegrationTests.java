@@ -0,0 +1,200 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class IdempotencyIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.idempotenteService";
+
+    private static MockWebServer backend;
+    private static final AtomicInteger created = new AtomicInteger();
+    private static final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String body = request.getBody().readUtf8();
+                int call = calls.computeIfAbsent(request.getPath() + " " + body, ignored -> new AtomicInteger()).incrementAndGet();
+                if (request.getPath().endsWith("/fallos") && call == 1) {
+                    return new MockResponse().setResponseCode(500)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"error\":\"fallo\"}");
+                }
+                MockResponse response = new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"registro\":\"" + created.incrementAndGet() + "\"}");
+                return request.getPath().endsWith("/lentos") ? response.setBodyDelay(800, TimeUnit.MILLISECONDS) : response;
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/idempotenteService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        operation(registry, 0, "crearRecurso", "/recursos", "${soap.numeroSolicitud}");
+        operation(registry, 1, "crearLento", "/lentos", "${soap.numeroSolicitud}");
+        operation(registry, 2, "crearFallido", "/fallos", "${soap.numeroSolicitud}");
+        operation(registry, 3, "registrarEvento", "/eventos", null);
+        registry.add(SERVICE + ".rate-limit.consumer-header", () -> "X-Consumer-Id");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletIdempotencyTest");
+    }
+
+    private static void operation(DynamicPropertyRegistry registry, int index, String operation, String path, String key) {
+        String restPath = SERVICE + ".rest.paths[" + index + "]";
+        registry.add(restPath + ".id", () -> operation);
+        registry.add(restPath + ".operation", () -> operation);
+        registry.add(restPath + ".path", () -> path);
+        registry.add(restPath + ".method", () -> "POST");
+        registry.add(restPath + ".idempotency.enabled", () -> true);
+        if (key != null) {
+            registry.add(restPath + ".idempotency.key", () -> key);
+        }
+    }
+
+    @Test
+    void shouldReplayStoredResponseForRetriedWrite() {
+        ResponseEntity<String> first = postSoap("crearRecurso", "<numeroSolicitud>S-1</numeroSolicitud><nombre>Ana</nombre>");
+        ResponseEntity<String> retry = postSoap("crearRecurso", "<numeroSolicitud>S-1</numeroSolicitud><nombre>Ana</nombre>");
+        ResponseEntity<String> other = postSoap("crearRecurso", "<numeroSolicitud>S-2</numeroSolicitud><nombre>Ana</nombre>");
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(registro(first), registro(retry));
+        assertTrue(!registro(first).equals(registro(other)));
+        assertEquals(1, calls("/api/recursos", "S-1"));
+    }
+
+    @Test
+    void shouldJoinConcurrentDuplicatesInsteadOfExecutingThem() {
+        List<CompletableFuture<ResponseEntity<String>>> duplicates = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            duplicates.add(CompletableFuture.supplyAsync(() ->
+                postSoap("crearLento", "<numeroSolicitud>L-1</numeroSolicitud>")));
+        }
+        List<ResponseEntity<String>> responses = duplicates.stream().map(CompletableFuture::join).toList();
+
+        assertTrue(responses.stream().allMatch(response -> response.getStatusCode() == HttpStatus.OK));
+        assertTrue(responses.stream().allMatch(response -> registro(response).equals(registro(responses.get(0)))));
+        assertEquals(1, calls("/api/lentos", "L-1"));
+    }
+
+    @Test
+    void shouldExecuteAgainWhenOriginalFailed() {
+        ResponseEntity<String> failed = postSoap("crearFallido", "<numeroSolicitud>F-1</numeroSolicitud>");
+        ResponseEntity<String> retry = postSoap("crearFallido", "<numeroSolicitud>F-1</numeroSolicitud>");
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, failed.getStatusCode());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(2, calls("/api/fallos", "F-1"));
+    }
+
+    @Test
+    void shouldUseBodyDigestWithoutConfiguredKey() {
+        ResponseEntity<String> first = postSoap("registrarEvento", "<tipo>alta</tipo><origen>portal</origen>");
+        ResponseEntity<String> retry = postSoap("registrarEvento", "<tipo>alta</tipo><origen>portal</origen>");
+        ResponseEntity<String> other = postSoap("registrarEvento", "<tipo>baja</tipo><origen>portal</origen>");
+
+        assertEquals(registro(first), registro(retry));
+        assertTrue(!registro(first).equals(registro(other)));
+        assertEquals(1, calls("/api/eventos", "alta"));
+    }
+
+    @Test
+    void shouldScopeKeysToTheCallingConsumer() {
+        ResponseEntity<String> first = postSoap("crearRecurso", "<numeroSolicitud>C-1</numeroSolicitud>", "portal");
+        ResponseEntity<String> retry = postSoap("crearRecurso", "<numeroSolicitud>C-1</numeroSolicitud>", "portal");
+        ResponseEntity<String> otherConsumer = postSoap("crearRecurso", "<numeroSolicitud>C-1</numeroSolicitud>", "batch");
+
+        assertEquals(registro(first), registro(retry));
+        assertTrue(!registro(first).equals(registro(otherConsumer)));
+        assertEquals(2, calls("/api/recursos", "C-1"));
+    }
+
+    // el sobre lleva el correlation ID de cada petición; el número de registro identifica la ejecución en el backend
+    private static String registro(ResponseEntity<String> response) {
+        String body = response.getBody();
+        int start = body.indexOf("<registro>") + "<registro>".length();
+        return body.substring(start, body.indexOf("</registro>", start));
+    }
+
+    private static int calls(String path, String marker) {
+        return calls.entrySet().stream()
+            .filter(entry -> entry.getKey().startsWith(path + " ") && entry.getKey().contains(marker))
+            .mapToInt(entry -> entry.getValue().get())
+            .sum();
+    }
+
+    private ResponseEntity<String> postSoap(String operation, String fields) {
+        return postSoap(operation, fields, null);
+    }
+
+    private ResponseEntity<String> postSoap(String operation, String fields, String consumer) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/idempotenteService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><rec:" + operation + ">" + fields + "</rec:" + operation + "></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        if (consumer != null) {
+            headers.set("X-Consumer-Id", consumer);
+        }
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/idempotenteService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
@@ -0,0 +1,182 @@
+package com.softslim.gateway;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class InflightEndpointIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.inspectorService";
+    private static final String ROUTE_ID = "operation-inspectorService-getRecurso";
+
+    private static MockWebServer backend;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                    .setResponseCode(200)
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"id\":\"1\"}")
+                    .setHeadersDelay(1500, TimeUnit.MILLISECONDS);
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/inspectorService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        // la query lleva datos del sobre y no debe aparecer en /actuator/inflight
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}?titular=${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[0].timeout", () -> 5000);
+        registry.add("bridge-protocols.inspector.interval-seconds", () -> 1);
+        registry.add("bridge-protocols.inspector.slow-threshold", () -> 100);
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletInflightTest");
+    }
+
+    @Test
+    void shouldNotExposeFlightRecorderByDefault() {
+        ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:" + managementPort + "/actuator/jfr", String.class);
+
+        assertTrue(response.getStatusCode().is4xxClientError(), "Status: " + response.getStatusCode());
+    }
+
+    @Test
+    void shouldKeepResilienceEndpointReadOnlyByDefault() {
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = restTemplate.postForEntity(
+            "http://localhost:" + managementPort + "/actuator/resilience/" + ROUTE_ID,
+            new HttpEntity<>("{\"maxAttempts\":1}", jsonHeaders),
+            String.class);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("http://localhost:" + managementPort + "/actuator/resilience", String.class).getStatusCode());
+    }
+
+    @Test
+    void shouldListInflightRequestAndCaptureItAsSlowOnceFinished() throws Exception {
+        CompletableFuture<ResponseEntity<String>> pending = CompletableFuture.supplyAsync(this::postSoap);
+
+        JsonNode inflightRequest = null;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inflightRequest == null && System.nanoTime() < deadline) {
+            for (JsonNode candidate : read("/actuator/inflight").path("inflight")) {
+                if (ROUTE_ID.equals(candidate.path("routeId").asText()) && "backend".equals(candidate.path("stage").asText())) {
+                    inflightRequest = candidate;
+                }
+            }
+            Thread.sleep(50);
+        }
+        assertNotNull(inflightRequest, "La petición en curso no apareció en /actuator/inflight");
+        assertEquals("inspectorService", inflightRequest.path("service").asText());
+        assertEquals("getRecurso", inflightRequest.path("operation").asText());
+        assertTrue(inflightRequest.path("backendUrl").asText().endsWith("/api/recursos/1"));
+
+        assertEquals(HttpStatus.OK, pending.get(10, TimeUnit.SECONDS).getStatusCode());
+
+        JsonNode route = null;
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            // la ruta aparece (404 hasta entonces) cuando la petición termina, que puede ser después de responder
+            route = read("/actuator/inflight/" + ROUTE_ID);
+            if (route != null && route.path("requests").asLong() >= 1) {
+                break;
+            }
+            Thread.sleep(200);
+        }
+        assertNotNull(route);
+        assertEquals(1, route.path("requests").asLong());
+        assertTrue(route.path("p99Millis").asDouble() >= 1500);
+        assertEquals(0.0, route.path("errorRate").asDouble());
+        JsonNode slowest = route.path("slowest").get(0);
+        assertNotNull(slowest, "La petición lenta no quedó capturada");
+        assertEquals(200, slowest.path("status").asInt());
+        assertTrue(slowest.path("stagesMillis").path("backend").asDouble() >= 1500);
+    }
+
+    private JsonNode read(String path) {
+        ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:" + managementPort + path, String.class);
+        if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
+            return null;
+        }
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        try {
+            return objectMapper.readTree(response.getBody());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ResponseEntity<String> postSoap() {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/inspectorService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><rec:getRecurso><recursoId>1</recursoId></rec:getRecurso></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/inspectorService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
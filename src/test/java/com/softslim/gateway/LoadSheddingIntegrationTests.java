@@ -0,0 +1,129 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class LoadSheddingIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.prioridadService";
+
+    private static MockWebServer backend;
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"ok\":true}")
+                    .setBodyDelay(300, TimeUnit.MILLISECONDS);
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.load-shedding.enabled", () -> true);
+        registry.add("bridge-protocols.load-shedding.target", () -> 5);
+        registry.add("bridge-protocols.load-shedding.interval", () -> 50);
+        registry.add("server.tomcat.threads.max", () -> 4);
+        registry.add("server.tomcat.threads.min-spare", () -> 1);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/prioridadService");
+        registry.add(SERVICE + ".priority", () -> "sheddable");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "registrarPago");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "registrarPago");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/pagos");
+        registry.add(SERVICE + ".rest.paths[0].priority", () -> "critical");
+        registry.add(SERVICE + ".rest.paths[1].id", () -> "generarInforme");
+        registry.add(SERVICE + ".rest.paths[1].operation", () -> "generarInforme");
+        registry.add(SERVICE + ".rest.paths[1].path", () -> "/informes");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletLoadSheddingTest");
+    }
+
+    @Test
+    void shouldShedSheddableRequestsAndKeepCriticalOnesUnderQueueing() {
+        List<CompletableFuture<HttpResponse<String>>> payments = new ArrayList<>();
+        List<CompletableFuture<HttpResponse<String>>> reports = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            reports.add(postSoap("generarInforme"));
+            if (i % 3 == 0) {
+                payments.add(postSoap("registrarPago"));
+            }
+        }
+
+        for (CompletableFuture<HttpResponse<String>> payment : payments) {
+            HttpResponse<String> response = payment.join();
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains("<success>true</success>"));
+        }
+        List<HttpResponse<String>> shed = reports.stream()
+            .map(CompletableFuture::join)
+            .filter(response -> response.statusCode() == 503)
+            .toList();
+        assertTrue(!shed.isEmpty(), "Ningún informe fue descartado");
+        assertTrue(shed.get(0).body().contains("rechazada petición de prioridad sheddable"));
+    }
+
+    private CompletableFuture<HttpResponse<String>> postSoap(String operation) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:pri=\"http://softslim.com/gateway/prioridadService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><pri:" + operation + "><importe>10</importe></pri:" + operation + "></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/soap/prioridadService"))
+            .header("Content-Type", "text/xml; charset=UTF-8")
+            .timeout(Duration.ofSeconds(60))
+            .POST(HttpRequest.BodyPublishers.ofString(soapRequest))
+            .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
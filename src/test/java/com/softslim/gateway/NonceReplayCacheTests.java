@@ -0,0 +1,47 @@
+package com.softslim.gateway;
+
+import com.softslim.gateway.service.NonceReplayCache;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NonceReplayCacheTests {
+    private static final long WINDOW = 300_000L;
+
+    @Test
+    void shouldKeepAcceptingNoncesBeyondCapacityByEvictingTheOldest() {
+        NonceReplayCache cache = new NonceReplayCache(WINDOW, 65536);
+        long created = System.currentTimeMillis();
+        int total = (int) cache.capacity() * 4;
+
+        for (int i = 0; i < total; i++) {
+            NonceReplayCache.Result result = cache.register(nonce(i), created);
+            assertTrue(result == NonceReplayCache.Result.ACCEPTED || result == NonceReplayCache.Result.EVICTED,
+                "Nonce " + i + " rechazado: " + result);
+        }
+
+        assertTrue(cache.evictions() > 0);
+        // los más recientes siguen protegidos frente a replay
+        for (int i = total - 100; i < total; i++) {
+            assertEquals(NonceReplayCache.Result.REPLAY, cache.register(nonce(i), created));
+        }
+    }
+
+    @Test
+    void shouldRejectReplayWithinWindowAndStaleSlices() {
+        NonceReplayCache cache = new NonceReplayCache(WINDOW, 65536);
+        long now = System.currentTimeMillis();
+
+        assertEquals(NonceReplayCache.Result.ACCEPTED, cache.register(nonce(1), now - WINDOW));
+        assertEquals(NonceReplayCache.Result.ACCEPTED, cache.register(nonce(2), now + WINDOW));
+        assertEquals(NonceReplayCache.Result.REPLAY, cache.register(nonce(1), now - WINDOW));
+        assertEquals(NonceReplayCache.Result.REPLAY, cache.register(nonce(2), now + WINDOW));
+    }
+
+    private static byte[] nonce(int i) {
+        return ("nonce-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,86 @@
+package com.softslim.gateway;
+
+import com.softslim.gateway.model.BridgeConfiguration;
+import com.softslim.gateway.service.BackendHttpClients;
+import com.softslim.gateway.service.OperationPlan;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperationPlanTests {
+    private final BackendHttpClients backendHttpClients = new BackendHttpClients();
+
+    @AfterEach
+    void afterEach() {
+        backendHttpClients.shutdown();
+    }
+
+    @Test
+    void shouldResolveOnlyRequestVariables() {
+        BridgeConfiguration.RestPath restPath = restPath("post", "/clientes/${header.clienteId}/cuentas/${soap.cuenta}");
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("X-Canal", "${header.channel}");
+        headers.put("X-Fijo", "gateway");
+        restPath.setHeaders(headers);
+
+        OperationPlan plan = OperationPlan.compile("operation-test", endpointClient("http://backend/api/"), restPath, null, null, backendHttpClients);
+        assertEquals(HttpMethod.POST, plan.method());
+        assertTrue(plan.bodyMethod());
+        assertNull(plan.configurationError());
+
+        Exchange exchange = exchange();
+        exchange.getIn().setHeader("clienteId", "42");
+        exchange.getIn().setHeader("cuenta", "${header.secreto}");
+        OperationPlan.Invocation invocation = plan.prepare(exchange, plan.timeout());
+
+        assertEquals("http://backend/api/clientes/42/cuentas/${header.secreto}", invocation.targetUrl());
+        assertFalse(invocation.headers().containsKey("X-Canal"));
+        assertEquals("gateway", invocation.headers().getFirst("X-Fijo"));
+    }
+
+    @Test
+    void shouldRejectMissingPathVariablesAndInvalidConfigurationPerRequest() {
+        OperationPlan plan = OperationPlan.compile("operation-test", endpointClient("http://backend"),
+            restPath(null, "/clientes/${header.clienteId}"), null, null, backendHttpClients);
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class, () -> plan.prepare(exchange(), 5000));
+        assertEquals("Header requerido no encontrado para path REST: clienteId", missing.getMessage());
+
+        OperationPlan invalid = OperationPlan.compile("operation-invalid", endpointClient(" "),
+            restPath(null, "/clientes"), null, null, backendHttpClients);
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> invalid.prepare(exchange(), 5000));
+        assertTrue(error.getMessage().startsWith("domain-path no configurado"));
+    }
+
+    private BridgeConfiguration.RestPath restPath(String method, String path) {
+        BridgeConfiguration.RestPath restPath = new BridgeConfiguration.RestPath();
+        restPath.setId("getCliente");
+        restPath.setOperation("getCliente");
+        restPath.setMethod(method);
+        restPath.setPath(path);
+        return restPath;
+    }
+
+    private BridgeConfiguration.EndpointClient endpointClient(String domainPath) {
+        BridgeConfiguration.RestConfiguration rest = new BridgeConfiguration.RestConfiguration();
+        rest.setDomainPath(domainPath);
+        BridgeConfiguration.EndpointClient endpointClient = new BridgeConfiguration.EndpointClient();
+        endpointClient.setRest(rest);
+        return endpointClient;
+    }
+
+    private Exchange exchange() {
+        return new DefaultExchange(new DefaultCamelContext());
+    }
+}
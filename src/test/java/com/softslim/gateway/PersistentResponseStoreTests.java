@@ -0,0 +1,107 @@
+package com.softslim.gateway;
+
+import com.softslim.gateway.service.PersistentResponseStore;
+import com.softslim.gateway.service.ResponseCacheService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentResponseStoreTests {
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldServeEntriesAfterRestartFromSavedIndex() throws Exception {
+        PersistentResponseStore store = new PersistentResponseStore(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4L);
+        store.put("paises", response("{\"paises\":[\"CO\",\"PE\"]}"));
+        store.close();
+        assertTrue(Files.exists(directory.resolve("index.dat")));
+
+        PersistentResponseStore reopened = new PersistentResponseStore(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4L);
+        ResponseCacheService.CachedResponse cached = reopened.get("paises");
+        assertNotNull(cached);
+        assertEquals("{\"paises\":[\"CO\",\"PE\"]}", new String(cached.body(), StandardCharsets.UTF_8));
+        assertEquals("application/json", cached.contentType());
+        reopened.close();
+    }
+
+    @Test
+    void shouldRecoverEntriesWrittenAfterLastIndexBySegmentScan() throws Exception {
+        PersistentResponseStore store = new PersistentResponseStore(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4L);
+        store.put("monedas", response("{\"monedas\":[\"COP\"]}"));
+
+        // sin close(): simula una caída del nodo
+        PersistentResponseStore recovered = new PersistentResponseStore(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4L);
+        assertNotNull(recovered.get("monedas"));
+        recovered.close();
+    }
+
+    @Test
+    void shouldDiscardEntriesFailingChecksum() throws Exception {
+        PersistentResponseStore store = new PersistentResponseStore(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4L);
+        store.put("ciudades", response("{\"ciudades\":[\"Bogota\"]}"));
+        store.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), 40);
+        }
+
+        PersistentResponseStore reopened = new PersistentResponseStore(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4L);
+        assertNull(reopened.get("ciudades"));
+        assertEquals(0, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntriesWithinDiskBudget() throws Exception {
+        PersistentResponseStore store = new PersistentResponseStore(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4L);
+        String padding = "x".repeat(200);
+        store.put("k0", response(padding));
+        for (int i = 1; i < 200; i++) {
+            store.put("k" + i, response(padding));
+            // k0 se mantiene caliente
+            assertNotNull(store.get("k0"));
+        }
+
+        assertNotNull(store.get("k0"));
+        assertNotNull(store.get("k199"));
+        assertNull(store.get("k1"));
+        // la compactación corre en segundo plano: el disco vuelve al presupuesto poco después
+        long deadline = System.currentTimeMillis() + 5000;
+        while (diskBytes() > SEGMENT_BYTES * 4L && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(diskBytes() <= SEGMENT_BYTES * 4L);
+        assertNotNull(store.get("k0"));
+        store.close();
+    }
+
+    private long diskBytes() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private ResponseCacheService.CachedResponse response(String body) {
+        return new ResponseCacheService.CachedResponse(
+            200, "application/json", body.getBytes(StandardCharsets.UTF_8), System.currentTimeMillis() + 3_600_000L);
+    }
+}
@@ -0,0 +1,147 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class RateLimitIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.rateLimitService";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                    .setResponseCode(200)
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"id\":\"1\"}");
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    // HttpClient5 repite por su cuenta los 429 con Retry-After: el test tiene que ver el rechazo
+    @BeforeEach
+    void disableClientRetries() {
+        restTemplate.getRestTemplate().setRequestFactory(
+            new HttpComponentsClientHttpRequestFactory(HttpClients.custom().disableAutomaticRetries().build()));
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/rateLimitService");
+        registry.add(SERVICE + ".rate-limit.consumer-permits-per-second", () -> 0.01);
+        registry.add(SERVICE + ".rate-limit.consumer-burst", () -> 2);
+        registry.add(SERVICE + ".rate-limit.consumer-header", () -> "X-Consumer-Id");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[1].id", () -> "getLimitado");
+        registry.add(SERVICE + ".rest.paths[1].operation", () -> "getLimitado");
+        registry.add(SERVICE + ".rest.paths[1].path", () -> "/limitados/${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[1].rate-limit.permits-per-second", () -> 0.01);
+        registry.add(SERVICE + ".rest.paths[1].rate-limit.burst", () -> 1);
+        registry.add(SERVICE + ".rest.paths[2].id", () -> "getMixto");
+        registry.add(SERVICE + ".rest.paths[2].operation", () -> "getMixto");
+        registry.add(SERVICE + ".rest.paths[2].path", () -> "/mixtos/${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[2].rate-limit.permits-per-second", () -> 0.01);
+        registry.add(SERVICE + ".rest.paths[2].rate-limit.burst", () -> 3);
+        registry.add(SERVICE + ".rest.paths[2].rate-limit.consumer-permits-per-second", () -> 0.01);
+        registry.add(SERVICE + ".rest.paths[2].rate-limit.consumer-burst", () -> 1);
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletRateLimitTest");
+    }
+
+    @Test
+    void shouldRejectConsumerOverItsBudgetWithoutAffectingOthers() {
+        assertEquals(HttpStatus.OK, postSoap("getRecurso", "batch-job").getStatusCode());
+        assertEquals(HttpStatus.OK, postSoap("getRecurso", "batch-job").getStatusCode());
+
+        ResponseEntity<String> rejected = postSoap("getRecurso", "batch-job");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertNotNull(rejected.getHeaders().getFirst("Retry-After"));
+        assertTrue(rejected.getBody().contains("<statusCode>429</statusCode>"));
+        assertTrue(rejected.getBody().contains("de peticiones excedido"));
+
+        assertEquals(HttpStatus.OK, postSoap("getRecurso", "portal").getStatusCode());
+    }
+
+    @Test
+    void shouldApplyOperationLimitAcrossConsumers() {
+        assertEquals(HttpStatus.OK, postSoap("getLimitado", "consumidor-a").getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, postSoap("getLimitado", "consumidor-b").getStatusCode());
+    }
+
+    @Test
+    void shouldNotSpendOperationBudgetOnRequestsRejectedForTheConsumer() {
+        assertEquals(HttpStatus.OK, postSoap("getMixto", "mixto-a").getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, postSoap("getMixto", "mixto-a").getStatusCode());
+
+        // el rechazo de mixto-a no gastó ninguno de los 3 permisos de la operación
+        assertEquals(HttpStatus.OK, postSoap("getMixto", "mixto-b").getStatusCode());
+        assertEquals(HttpStatus.OK, postSoap("getMixto", "mixto-c").getStatusCode());
+    }
+
+    private ResponseEntity<String> postSoap(String operation, String consumer) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/rateLimitService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><rec:" + operation + "><recursoId>1</recursoId></rec:" + operation + "></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        headers.add("X-Consumer-Id", consumer);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/rateLimitService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ResilienceEndpointIntegrationTests {
+    private static final String ROUTE_KEY = "operation-clienteService-getCliente";
+
+    private static MockWebServer backendServer;
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backendServer = new MockWebServer();
+        backendServer.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backendServer != null) {
+            backendServer.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.rest.domain-path",
+            () -> backendServer.url("/api/clientes").toString());
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.resilience-admin.write-enabled", () -> true);
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletResilienceEndpointTest");
+    }
+
+    @Test
+    void shouldExposeAndReconfigureRouteResilience() {
+        backendServer.enqueue(new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":\"7\"}"));
+
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:cli=\"http://softslim.com/gateway/clienteService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><cli:getCliente><clienteId>7</clienteId><header><channel>MOBILE</channel></header></cli:getCliente></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        ResponseEntity<String> soapResponse = restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/clienteService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+        assertEquals(HttpStatus.OK, soapResponse.getStatusCode());
+
+        ResponseEntity<String> routes = restTemplate.getForEntity(
+            "http://localhost:" + managementPort + "/actuator/resilience",
+            String.class);
+        assertEquals(HttpStatus.OK, routes.getStatusCode());
+        assertNotNull(routes.getBody());
+        assertTrue(routes.getBody().contains(ROUTE_KEY));
+        assertTrue(routes.getBody().contains("\"state\":\"CLOSED\""));
+        assertTrue(routes.getBody().contains("\"successfulCalls\":1"));
+
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> updated = restTemplate.postForEntity(
+            "http://localhost:" + managementPort + "/actuator/resilience/" + ROUTE_KEY,
+            new HttpEntity<>("{\"failureRateThreshold\":75,\"maxAttempts\":2}", jsonHeaders),
+            String.class);
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertTrue(updated.getBody().contains("\"failureRateThreshold\":75"));
+        assertTrue(updated.getBody().contains("\"maxAttempts\":2"));
+        assertTrue(updated.getBody().contains("\"overridden\":true"));
+    }
+
+    @Test
+    void shouldRejectOverridesForUnknownRoutes() {
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = restTemplate.postForEntity(
+            "http://localhost:" + managementPort + "/actuator/resilience/operation-clienteService-inexistente",
+            new HttpEntity<>("{\"failureRateThreshold\":75}", jsonHeaders),
+            String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+}
@@ -0,0 +1,165 @@
+package com.softslim.gateway;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@AutoConfigureObservability(metrics = false)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class TracingIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.tracingService";
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private static MockWebServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @TestConfiguration
+    static class InMemoryExporterConfiguration {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backend = new MockWebServer();
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add("management.tracing.sampling.probability", () -> 1.0);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/tracingService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}?titular=${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[0].resilience.retry.enabled", () -> true);
+        registry.add(SERVICE + ".rest.paths[0].resilience.retry.max-attempts", () -> 2);
+        registry.add(SERVICE + ".rest.paths[0].resilience.retry.backoff", () -> 10);
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletTracingTest");
+    }
+
+    @Test
+    void shouldContinueInboundTraceAndPropagateItToEveryBackendAttempt() throws Exception {
+        // un 503 queda registrado por MockWebServer (un corte de conexión no) y el retry lo reintenta
+        backend.enqueue(new MockResponse()
+            .setResponseCode(503)
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"error\":\"no disponible\"}"));
+        backend.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":\"1\"}"));
+
+        ResponseEntity<String> response = postSoap("00-" + TRACE_ID + "-00f067aa0ba902b7-01");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        RecordedRequest first = backend.takeRequest(2, TimeUnit.SECONDS);
+        RecordedRequest second = backend.takeRequest(2, TimeUnit.SECONDS);
+        assertNotNull(second);
+        String firstParent = first.getHeader("traceparent");
+        String secondParent = second.getHeader("traceparent");
+        assertNotNull(firstParent);
+        assertTrue(secondParent.startsWith("00-" + TRACE_ID + "-"));
+        assertTrue(!firstParent.equals(secondParent), "Cada intento debe tener su propio span");
+        assertEquals("tracing-test-1", second.getHeader("CorrelationId"));
+
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        List<SpanData> spans = awaitSpans("soap tracingService");
+        assertTrue(spans.stream().allMatch(span -> span.getTraceId().equals(TRACE_ID)));
+        assertTrue(spans.stream().anyMatch(span -> span.getName().equals("gateway.parse")));
+        assertTrue(spans.stream().anyMatch(span -> span.getName().equals("gateway.render")));
+        List<SpanData> attempts = spans.stream().filter(span -> span.getName().equals("backend.attempt")).toList();
+        assertEquals(2, attempts.size());
+        // la query lleva valores del sobre SOAP: el atributo sólo guarda la URL sin ella
+        assertTrue(attempts.stream()
+            .map(span -> span.getAttributes().get(AttributeKey.stringKey("http.url")))
+            .allMatch(url -> url != null && url.endsWith("/api/recursos/1")));
+    }
+
+    private List<SpanData> awaitSpans(String rootName) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            List<SpanData> spans = spanExporter.getFinishedSpanItems().stream()
+                .filter(span -> span.getTraceId().equals(TRACE_ID))
+                .toList();
+            if (spans.stream().anyMatch(span -> span.getName().equals(rootName))) {
+                return spans;
+            }
+            Thread.sleep(100);
+            tracerProvider.forceFlush();
+        }
+        throw new AssertionError("No se exportó el span " + rootName);
+    }
+
+    private ResponseEntity<String> postSoap(String traceparent) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/tracingService\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body><rec:getRecurso><recursoId>1</recursoId></rec:getRecurso></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        headers.add("CorrelationId", "tracing-test-1");
+        headers.add("traceparent", traceparent);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/tracingService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
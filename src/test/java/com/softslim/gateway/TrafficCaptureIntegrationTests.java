@@ -0,0 +1,156 @@
+package com.softslim.gateway;
+
+import com.softslim.gateway.replay.CapturedExchange;
+import com.softslim.gateway.replay.ReplayReport;
+import com.softslim.gateway.replay.TrafficCaptureFile;
+import com.softslim.gateway.replay.TrafficReplay;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class TrafficCaptureIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.capturaService";
+
+    private static MockWebServer backend;
+    private static Path captureFile;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        captureFile = Files.createTempDirectory("gateway-capture").resolve("captura.bin");
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                    .setResponseCode(200)
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"id\":\"77\",\"secreto\":\"abc\",\"detalle\":{\"secreto\":\"def\"}}");
+            }
+        });
+        backend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/capturaService");
+        registry.add(SERVICE + ".rest.domain-path", () -> backend.url("/api").toString());
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}?titular=${header.titular}");
+        registry.add("bridge-protocols.traffic-capture.enabled", () -> true);
+        registry.add("bridge-protocols.traffic-capture.file", () -> captureFile.toString());
+        registry.add("bridge-protocols.traffic-capture.sample-rate", () -> 1.0);
+        registry.add("bridge-protocols.traffic-capture.redact-fields[0]", () -> "token");
+        registry.add("bridge-protocols.traffic-capture.redact-fields[1]", () -> "secreto");
+        registry.add("bridge-protocols.traffic-capture.redact-fields[2]", () -> "titular");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletCaptureTest");
+    }
+
+    @Test
+    void shouldCaptureRedactedTrafficAndReplayIt() throws Exception {
+        assertEquals(HttpStatus.OK, postSoap().getStatusCode());
+
+        List<CapturedExchange> captured = List.of();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (captured.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            captured = TrafficCaptureFile.read(captureFile);
+        }
+        assertEquals(1, captured.size());
+
+        CapturedExchange exchange = captured.get(0);
+        assertEquals("capturaService", exchange.service());
+        assertEquals("/soap/capturaService", exchange.soapPath());
+        assertEquals(200, exchange.status());
+        assertTrue(exchange.envelope().contains("<recursoId>77</recursoId>"));
+        assertTrue(exchange.envelope().contains("<rec:token>***</rec:token>"));
+        assertFalse(exchange.envelope().contains("s3cr3t"));
+        // el UsernameToken se enmascara sin configurarlo
+        assertTrue(exchange.envelope().contains("<wsse:Password>***</wsse:Password>"));
+        assertFalse(exchange.envelope().contains("p4ssw0rd"));
+        assertFalse(exchange.envelope().contains("bm9uY2UtY2FwdHVyYQ=="));
+        assertFalse(exchange.envelope().contains("ana.perez"));
+        assertEquals("urn:getRecurso?token=***", exchange.soapAction());
+
+        assertEquals(1, exchange.backendCalls().size());
+        CapturedExchange.BackendCall call = exchange.backendCalls().get(0);
+        assertEquals("GET", call.method());
+        // el valor de la variable enmascarada no llega al path capturado
+        assertEquals("/api/recursos/77?titular=***", call.path());
+        assertEquals(200, call.status());
+        assertTrue(call.body().contains("\"id\":\"77\""));
+        assertFalse(call.body().contains("abc"));
+        assertFalse(call.body().contains("def"));
+
+        ReplayReport report = new TrafficReplay(URI.create("http://localhost:" + port), 0, 4, Duration.ofSeconds(5))
+            .run(captured, "test");
+        assertEquals(1, report.requests());
+        assertEquals(0, report.failures());
+        assertEquals(0, report.statusMismatches());
+    }
+
+    private ResponseEntity<String> postSoap() {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/capturaService\">" +
+            "<soapenv:Header><wsse:Security xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\">" +
+            "<wsse:UsernameToken><wsse:Username>ws-user</wsse:Username><wsse:Password>p4ssw0rd</wsse:Password>" +
+            "<wsse:Nonce>bm9uY2UtY2FwdHVyYQ==</wsse:Nonce></wsse:UsernameToken></wsse:Security></soapenv:Header>" +
+            "<soapenv:Body><rec:getRecurso><recursoId>77</recursoId><titular>ana.perez</titular><rec:token>s3cr3t</rec:token></rec:getRecurso></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        headers.set("SOAPAction", "urn:getRecurso?token=s3cr3t");
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/capturaService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.softslim.gateway;
+
+import com.softslim.gateway.service.UlidGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UlidGeneratorTests {
+    private final UlidGenerator generator = new UlidGenerator();
+
+    @Test
+    void shouldGenerateCrockfordEncodedMonotonicIds() throws Exception {
+        String previous = generator.next();
+        assertTrue(previous.matches("[0-9A-HJKMNP-TV-Z]{26}"), previous);
+        for (int i = 0; i < 10_000; i++) {
+            String current = generator.next();
+            assertTrue(current.compareTo(previous) > 0, previous + " >= " + current);
+            previous = current;
+        }
+
+        String before = generator.next();
+        Thread.sleep(2);
+        String after = new UlidGenerator().next();
+        assertTrue(after.substring(0, 10).compareTo(before.substring(0, 10)) > 0);
+    }
+
+    @Test
+    void shouldNotRepeatIdsAcrossThreads() throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertEquals(160_000, ids.size());
+    }
+}
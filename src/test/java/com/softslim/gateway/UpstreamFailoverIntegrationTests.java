@@ -0,0 +1,148 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class UpstreamFailoverIntegrationTests {
+    private static final String SERVICE = "bridge-protocols.endpoints-clients.balancedService";
+    private static final String ERRORS_SERVICE = "bridge-protocols.endpoints-clients.erroresService";
+
+    private static MockWebServer healthyBackend;
+    private static MockWebServer failingBackend;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        healthyBackend = new MockWebServer();
+        healthyBackend.start();
+        failingBackend = new MockWebServer();
+        failingBackend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(503)
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"error\":\"saturado\"}");
+            }
+        });
+        failingBackend.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (healthyBackend != null) {
+            healthyBackend.shutdown();
+        }
+        if (failingBackend != null) {
+            failingBackend.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.empleadoService.security.oauth2.enabled", () -> false);
+        registry.add(SERVICE + ".soap-path", () -> "/soap/balancedService");
+        registry.add(SERVICE + ".rest.upstreams[0].name", () -> "down");
+        registry.add(SERVICE + ".rest.upstreams[0].url", () -> "http://localhost:1/api");
+        registry.add(SERVICE + ".rest.upstreams[0].weight", () -> 10);
+        registry.add(SERVICE + ".rest.upstreams[1].name", () -> "up");
+        registry.add(SERVICE + ".rest.upstreams[1].url", () -> healthyBackend.url("/api").toString());
+        registry.add(SERVICE + ".rest.load-balancing.consecutive-errors", () -> 1);
+        registry.add(SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add(SERVICE + ".rest.paths[0].method", () -> "GET");
+        registry.add(SERVICE + ".rest.paths[0].timeout", () -> 2000);
+        registry.add(ERRORS_SERVICE + ".soap-path", () -> "/soap/erroresService");
+        registry.add(ERRORS_SERVICE + ".rest.upstreams[0].name", () -> "failing");
+        registry.add(ERRORS_SERVICE + ".rest.upstreams[0].url", () -> failingBackend.url("/api").toString());
+        registry.add(ERRORS_SERVICE + ".rest.upstreams[0].weight", () -> 10);
+        registry.add(ERRORS_SERVICE + ".rest.upstreams[1].name", () -> "up");
+        registry.add(ERRORS_SERVICE + ".rest.upstreams[1].url", () -> healthyBackend.url("/api").toString());
+        registry.add(ERRORS_SERVICE + ".rest.paths[0].id", () -> "getRecurso");
+        registry.add(ERRORS_SERVICE + ".rest.paths[0].operation", () -> "getRecurso");
+        registry.add(ERRORS_SERVICE + ".rest.paths[0].path", () -> "/recursos/${header.recursoId}");
+        registry.add(ERRORS_SERVICE + ".rest.paths[0].method", () -> "GET");
+        registry.add(ERRORS_SERVICE + ".rest.paths[0].timeout", () -> 2000);
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletUpstreamFailoverTest");
+    }
+
+    @Test
+    void shouldFailOverToHealthyUpstreamWhenOneIsUnreachable() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            healthyBackend.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"id\":\"" + i + "\"}"));
+
+            ResponseEntity<String> response = postSoap("balancedService",
+                "<rec:getRecurso><recursoId>" + i + "</recursoId></rec:getRecurso>");
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertTrue(response.getBody().contains("<success>true</success>"));
+            assertTrue(response.getBody().contains("<id>" + i + "</id>"));
+
+            RecordedRequest recorded = healthyBackend.takeRequest();
+            assertEquals("/api/recursos/" + i, recorded.getPath());
+        }
+    }
+
+    @Test
+    void shouldFailOverOnServerErrorWithoutRetryingEachUpstream() throws Exception {
+        healthyBackend.enqueue(new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":\"9\"}"));
+
+        ResponseEntity<String> response = postSoap("erroresService", "<rec:getRecurso><recursoId>9</recursoId></rec:getRecurso>");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("<id>9</id>"));
+        assertEquals("/api/recursos/9", healthyBackend.takeRequest().getPath());
+        // el 503 consume un único intento y el siguiente va al otro upstream
+        assertEquals(1, failingBackend.getRequestCount());
+    }
+
+    private ResponseEntity<String> postSoap(String service, String operation) {
+        String soapRequest =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:rec=\"http://softslim.com/gateway/" + service + "\">" +
+            "<soapenv:Header/>" +
+            "<soapenv:Body>" + operation + "</soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/" + service,
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
@@ -0,0 +1,143 @@
+package com.softslim.gateway;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class WsSecurityDigestIntegrationTests {
+    private static MockWebServer backendServer;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        backendServer = new MockWebServer();
+        backendServer.start();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        if (backendServer != null) {
+            backendServer.shutdown();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("bridge-protocols.endpoints-clients.clienteService.rest.domain-path",
+            () -> backendServer.url("/api/clientes").toString());
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.oauth2.enabled", () -> false);
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.ws-security.enabled", () -> true);
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.ws-security.username", () -> "ws-user");
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.ws-security.password", () -> "ws-pass");
+        registry.add("bridge-protocols.endpoints-clients.clienteService.security.ws-security.password-type", () -> "digest");
+        registry.add("camel.servlet.servlet-name", () -> "CamelServletWsSecurityDigestTest");
+    }
+
+    @Test
+    void shouldAcceptValidDigestAndRejectReplayedNonce() throws Exception {
+        backendServer.enqueue(new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":\"1\"}"));
+
+        String nonce = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+        String created = Instant.now().truncatedTo(ChronoUnit.SECONDS).toString();
+        String soapRequest = soapWithDigest(nonce, created, digest(nonce, created, "ws-pass"));
+
+        ResponseEntity<String> first = post(soapRequest);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertTrue(first.getBody().contains("<success>true</success>"));
+
+        ResponseEntity<String> replayed = post(soapRequest);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, replayed.getStatusCode());
+        assertTrue(replayed.getBody().contains("WS-Security Nonce reutilizado"));
+    }
+
+    @Test
+    void shouldRejectDigestWithWrongPasswordOrStaleCreated() throws Exception {
+        String nonce = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+        String created = Instant.now().truncatedTo(ChronoUnit.SECONDS).toString();
+        ResponseEntity<String> wrongPassword = post(soapWithDigest(nonce, created, digest(nonce, created, "otra")));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, wrongPassword.getStatusCode());
+        assertTrue(wrongPassword.getBody().contains("Credenciales WS-Security inválidas"));
+
+        String stale = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS).toString();
+        ResponseEntity<String> staleCreated = post(soapWithDigest(nonce, stale, digest(nonce, stale, "ws-pass")));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, staleCreated.getStatusCode());
+        assertTrue(staleCreated.getBody().contains("WS-Security Created fuera de la ventana permitida"));
+    }
+
+    private String digest(String nonce, String created, String password) throws Exception {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        sha1.update(Base64.getDecoder().decode(nonce));
+        sha1.update(created.getBytes(StandardCharsets.UTF_8));
+        sha1.update(password.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(sha1.digest());
+    }
+
+    private String soapWithDigest(String nonce, String created, String passwordDigest) {
+        return
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" " +
+            "xmlns:cli=\"http://softslim.com/gateway/clienteService\" " +
+            "xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\" " +
+            "xmlns:wsu=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-utility-1.0.xsd\">" +
+            "<soapenv:Header>" +
+            "<wsse:Security>" +
+            "<wsse:UsernameToken>" +
+            "<wsse:Username>ws-user</wsse:Username>" +
+            "<wsse:Password Type=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-username-token-profile-1.0#PasswordDigest\">" +
+            passwordDigest +
+            "</wsse:Password>" +
+            "<wsse:Nonce EncodingType=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-soap-message-security-1.0#Base64Binary\">" +
+            nonce +
+            "</wsse:Nonce>" +
+            "<wsu:Created>" + created + "</wsu:Created>" +
+            "</wsse:UsernameToken>" +
+            "</wsse:Security>" +
+            "</soapenv:Header>" +
+            "<soapenv:Body><cli:getCliente><clienteId>1</clienteId><header><channel>MOBILE</channel></header></cli:getCliente></soapenv:Body>" +
+            "</soapenv:Envelope>";
+    }
+
+    private ResponseEntity<String> post(String soapRequest) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        return restTemplate.postForEntity(
+            "http://localhost:" + port + "/soap/clienteService",
+            new HttpEntity<>(soapRequest, headers),
+            String.class);
+    }
+}
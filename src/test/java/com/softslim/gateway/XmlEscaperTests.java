@@ -0,0 +1,53 @@
+package com.softslim.gateway;
+
+import com.softslim.gateway.xml.XmlEscaper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XmlEscaperTests {
+
+    @Test
+    void shouldReturnSameInstanceWhenNothingToEscape() {
+        String clean = "Juan Pérez 😀 calle 5\tnúmero\n";
+
+        assertSame(clean, XmlEscaper.escape(clean));
+        assertFalse(XmlEscaper.needsEscaping(clean));
+    }
+
+    @Test
+    void shouldEscapeMarkupCharactersInSinglePass() {
+        assertEquals("a &amp; b &lt;c&gt; &quot;d&quot; &apos;e&apos;", XmlEscaper.escape("a & b <c> \"d\" 'e'"));
+        assertEquals("", XmlEscaper.escape(null));
+    }
+
+    @Test
+    void shouldReplaceCharactersInvalidInXml10() {
+        assertEquals("a\uFFFDb\uFFFDc\uFFFD", XmlEscaper.escape("a\u0000b\uD800c\uFFFF"));
+        assertTrue(XmlEscaper.needsEscaping("\u001B"));
+    }
+
+    @Test
+    void shouldWriteEscapedOutputToBuilderAndWriter() throws Exception {
+        StringBuilder builder = new StringBuilder("<data>");
+        XmlEscaper.escape("1 < 2", builder);
+        assertEquals("<data>1 &lt; 2", builder.toString());
+
+        StringWriter writer = new StringWriter();
+        XmlEscaper.escape("x&y", writer);
+        assertEquals("x&amp;y", writer.toString());
+    }
+
+    @Test
+    void shouldWrapInSingleCdataSectionSplittingTerminators() {
+        assertEquals("<![CDATA[a < b & c]]>", XmlEscaper.cdata("a < b & c"));
+        assertEquals("<![CDATA[x]]]]><![CDATA[>y]]>", XmlEscaper.cdata("x]]>y"));
+        assertEquals("<![CDATA[\uFFFD😀\uFFFD]]>", XmlEscaper.cdata("\u0001😀\uDC00"));
+        assertEquals("", XmlEscaper.cdata(null));
+    }
+}